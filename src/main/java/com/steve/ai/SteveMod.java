@@ -3,6 +3,8 @@ package com.steve.ai;
 import com.mojang.logging.LogUtils;
 import com.steve.ai.command.SteveCommands;
 import com.steve.ai.config.SteveConfig;
+import com.steve.ai.di.ServiceContainer;
+import com.steve.ai.di.SimpleServiceContainer;
 import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.entity.SteveManager;
 import net.minecraft.world.entity.EntityType;
@@ -37,6 +39,7 @@ public class SteveMod {
             .build("steve"));
 
     private static SteveManager steveManager;
+    private static final ServiceContainer serviceContainer = new SimpleServiceContainer();
 
     public SteveMod() {
         IEventBus modEventBus = FMLJavaModLoadingContext.get().getModEventBus();
@@ -68,5 +71,14 @@ public class SteveMod {
     public static SteveManager getSteveManager() {
         return steveManager;
     }
+
+    /**
+     * Returns the server-scoped service container shared by all Steves.
+     *
+     * @return Shared ServiceContainer
+     */
+    public static ServiceContainer getServiceContainer() {
+        return serviceContainer;
+    }
 }
 
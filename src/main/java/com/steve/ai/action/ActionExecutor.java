@@ -3,7 +3,6 @@ package com.steve.ai.action;
 import com.steve.ai.SteveMod;
 import com.steve.ai.action.actions.*;
 import com.steve.ai.di.ServiceContainer;
-import com.steve.ai.di.SimpleServiceContainer;
 import com.steve.ai.event.EventBus;
 import com.steve.ai.event.SimpleEventBus;
 import com.steve.ai.execution.*;
@@ -14,9 +13,12 @@ import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.plugin.ActionRegistry;
 import com.steve.ai.plugin.PluginManager;
 
+import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Executes actions for a Steve entity using the plugin-based action system.
@@ -33,8 +35,7 @@ import java.util.concurrent.CompletableFuture;
  */
 public class ActionExecutor {
     private final SteveEntity steve;
-    private TaskPlanner taskPlanner;  // Lazy-initialized to avoid loading dependencies on entity creation
-    private final Queue<Task> taskQueue;
+    private final Deque<Task> taskQueue;
 
     private BaseAction currentAction;
     private String currentGoal;
@@ -45,6 +46,13 @@ public class ActionExecutor {
     private CompletableFuture<ResponseParser.ParsedResponse> planningFuture;
     private boolean isPlanning = false;
     private String pendingCommand;  // Store command while planning
+    private Queue<Task> streamedTasks;  // Tasks streamed in by the LLM reader thread, drained on tick
+    private boolean streamedTasksQueued;  // Part of the streamed plan already reached the task queue
+
+    // Incremental replanning after a failed task; the rest of the queue keeps running meanwhile
+    private CompletableFuture<TaskPatch> replanFuture;
+    private List<Task> replanBasis;  // Remaining queue as sent to the planner
+    private int replansForCommand;
 
     // NEW: Plugin architecture components
     private final ActionContext actionContext;
@@ -54,7 +62,6 @@ public class ActionExecutor {
 
     public ActionExecutor(SteveEntity steve) {
         this.steve = steve;
-        this.taskPlanner = null;  // Will be initialized when first needed
         this.taskQueue = new LinkedList<>();
         this.ticksSinceLastAction = 0;
         this.idleFollowAction = null;
@@ -71,8 +78,8 @@ public class ActionExecutor {
         interceptorChain.addInterceptor(new MetricsInterceptor());
         interceptorChain.addInterceptor(new EventPublishingInterceptor(eventBus, steve.getSteveName()));
 
-        // Build action context
-        ServiceContainer container = new SimpleServiceContainer();
+        // Build action context (services are server-scoped and shared by all Steves)
+        ServiceContainer container = SteveMod.getServiceContainer();
         this.actionContext = ActionContext.builder()
             .serviceContainer(container)
             .eventBus(eventBus)
@@ -84,12 +91,12 @@ public class ActionExecutor {
             steve.getSteveName());
     }
     
+    /**
+     * Returns the shared planner, creating it lazily to avoid loading LLM dependencies
+     * on entity creation.
+     */
     private TaskPlanner getTaskPlanner() {
-        if (taskPlanner == null) {
-            SteveMod.LOGGER.info("Initializing TaskPlanner for Steve '{}'", steve.getSteveName());
-            taskPlanner = new TaskPlanner();
-        }
-        return taskPlanner;
+        return TaskPlanner.getShared(actionContext.getServiceContainer());
     }
 
     /**
@@ -107,6 +114,12 @@ public class ActionExecutor {
      *   <li>When done, tasks are queued and execution begins</li>
      * </ol>
      *
+     * <p>With {@code streamResponses} enabled, each task is queued as soon as it has been
+     * streamed, so the first task starts while the rest of the plan is still generating.</p>
+     *
+     * <p>Must be called on the server thread: the Steve's surroundings are captured here, and
+     * the planning state is the same one {@link #tick()} reads.</p>
+     *
      * @param command The natural language command from the user
      */
     public void processNaturalLanguageCommand(String command) {
@@ -119,27 +132,19 @@ public class ActionExecutor {
             return;
         }
 
-        // Cancel any current actions
-        if (currentAction != null) {
-            currentAction.cancel();
-            currentAction = null;
-        }
-
-        if (idleFollowAction != null) {
-            idleFollowAction.cancel();
-            idleFollowAction = null;
-        }
+        cancelForNewCommand(command);
 
         try {
-            // Store command and start async planning
-            this.pendingCommand = command;
-            this.isPlanning = true;
-
-            // Send immediate feedback to user
-            sendToGUI(steve.getSteveName(), "Thinking...");
-
             // Start async LLM call - returns immediately!
-            planningFuture = getTaskPlanner().planTasksAsync(steve, command);
+            if (SteveConfig.STREAM_RESPONSES.get()) {
+                Queue<Task> sessionTasks = new ConcurrentLinkedQueue<>();
+                streamedTasks = sessionTasks;
+                streamedTasksQueued = false;
+                planningFuture = getTaskPlanner().planTasksStreaming(steve, command, sessionTasks::add);
+            } else {
+                streamedTasks = null;
+                planningFuture = getTaskPlanner().planTasksAsync(steve, command);
+            }
 
             SteveMod.LOGGER.info("Steve '{}' started async planning for: {}", steve.getSteveName(), command);
 
@@ -148,12 +153,66 @@ public class ActionExecutor {
             sendToGUI(steve.getSteveName(), "Sorry, I'm having trouble with my AI systems!");
             isPlanning = false;
             planningFuture = null;
+            streamedTasks = null;
         } catch (Exception e) {
             SteveMod.LOGGER.error("Error starting async planning", e);
             sendToGUI(steve.getSteveName(), "Oops, something went wrong!");
             isPlanning = false;
             planningFuture = null;
+            streamedTasks = null;
+        }
+    }
+
+    /**
+     * Accepts this Steve's share of a plan made for several Steves at once.
+     *
+     * <p>Used for fleet commands planned by {@link TaskPlanner#planBatchAsync}; the future
+     * is handled exactly like one from {@link #processNaturalLanguageCommand(String)}.</p>
+     *
+     * @param command The natural language command from the user
+     * @param plan    Future completing with this Steve's plan (null on failure)
+     * @return false if this Steve is still planning a previous command and ignored this one
+     */
+    public boolean processPlannedCommand(String command, CompletableFuture<ResponseParser.ParsedResponse> plan) {
+        if (isPlanning) {
+            SteveMod.LOGGER.warn("Steve '{}' is already planning, ignoring team command: {}", steve.getSteveName(), command);
+            sendToGUI(steve.getSteveName(), "Hold on, I'm still thinking about the previous command...");
+            return false;
+        }
+
+        cancelForNewCommand(command);
+        streamedTasks = null;
+        planningFuture = plan;
+
+        SteveMod.LOGGER.info("Steve '{}' waiting for team plan for: {}", steve.getSteveName(), command);
+        return true;
+    }
+
+    /**
+     * Cancels current work and enters the planning state for a new command.
+     */
+    private void cancelForNewCommand(String command) {
+        cancelPlanning();
+
+        // Cancel any current actions
+        if (currentAction != null) {
+            currentAction.cancel();
+            currentAction = null;
         }
+
+        if (idleFollowAction != null) {
+            idleFollowAction.cancel();
+            idleFollowAction = null;
+        }
+
+        // Store command and start planning
+        this.pendingCommand = command;
+        this.replansForCommand = 0;
+        this.isPlanning = true;
+        taskQueue.clear();
+
+        // Send immediate feedback to user
+        sendToGUI(steve.getSteveName(), "Thinking...");
     }
 
     /**
@@ -217,8 +276,12 @@ public class ActionExecutor {
     public void tick() {
         ticksSinceLastAction++;
 
+        // Queue tasks that have finished streaming so execution can start before planning completes
+        drainStreamedTasks();
+
         // Check if async planning is complete (non-blocking check!)
         if (isPlanning && planningFuture != null && planningFuture.isDone()) {
+            String brokenStreamCommand = null;
             try {
                 ResponseParser.ParsedResponse response = planningFuture.get();
 
@@ -226,8 +289,13 @@ public class ActionExecutor {
                     currentGoal = response.getPlan();
                     steve.getMemory().setCurrentGoal(currentGoal);
 
-                    taskQueue.clear();
-                    taskQueue.addAll(response.getTasks());
+                    if (streamedTasks == null) {
+                        taskQueue.clear();
+                        taskQueue.addAll(response.getTasks());
+                    } else {
+                        // Every task was already delivered through the stream
+                        drainStreamedTasks();
+                    }
 
                     if (SteveConfig.ENABLE_CHAT_RESPONSES.get()) {
                         sendToGUI(steve.getSteveName(), "Okay! " + currentGoal);
@@ -235,6 +303,11 @@ public class ActionExecutor {
 
                     SteveMod.LOGGER.info("Steve '{}' async planning complete: {} tasks queued",
                         steve.getSteveName(), taskQueue.size());
+                } else if (streamedTasks != null && streamedTasksQueued) {
+                    // The stream broke after part of the plan was queued; that part cannot be trusted
+                    brokenStreamCommand = pendingCommand;
+                    SteveMod.LOGGER.warn("Steve '{}' plan stream failed after {} tasks were queued, re-planning",
+                        steve.getSteveName(), taskQueue.size());
                 } else {
                     sendToGUI(steve.getSteveName(), "I couldn't understand that command.");
                     SteveMod.LOGGER.warn("Steve '{}' async planning returned null response", steve.getSteveName());
@@ -250,9 +323,18 @@ public class ActionExecutor {
                 isPlanning = false;
                 planningFuture = null;
                 pendingCommand = null;
+                streamedTasks = null;
+            }
+
+            if (brokenStreamCommand != null) {
+                replanBrokenStream(brokenStreamCommand);
             }
         }
 
+        if (replanFuture != null && replanFuture.isDone()) {
+            applyReplan();
+        }
+
         if (currentAction != null) {
             if (currentAction.isComplete()) {
                 ActionResult result = currentAction.getResult();
@@ -266,6 +348,7 @@ public class ActionExecutor {
                     if (SteveConfig.ENABLE_CHAT_RESPONSES.get()) {
                         sendToGUI(steve.getSteveName(), "Problem: " + result.getMessage());
                     }
+                    requestReplan(currentAction.getTask(), result.getMessage());
                 }
                 
                 currentAction = null;
@@ -307,6 +390,96 @@ public class ActionExecutor {
         }
     }
 
+    /**
+     * Starts an incremental replan for a failed task, unless one is already running or the
+     * command's replan budget ({@code maxReplansPerCommand}) is spent.
+     *
+     * <p>Only the failed task, its failure reason and the remaining queue are sent, and the
+     * queue keeps executing while the patch is computed.</p>
+     */
+    private void requestReplan(Task failedTask, String reason) {
+        if (replanFuture != null || replansForCommand >= SteveConfig.MAX_REPLANS.get()) {
+            return;
+        }
+
+        try {
+            replansForCommand++;
+            replanBasis = List.copyOf(taskQueue);
+            replanFuture = getTaskPlanner().replanAsync(steve, currentGoal, failedTask, reason, replanBasis);
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("Steve '{}' failed to start replanning", steve.getSteveName(), e);
+            replanFuture = null;
+            replanBasis = null;
+        }
+    }
+
+    /**
+     * Applies a finished replan to the task queue.
+     */
+    private void applyReplan() {
+        CompletableFuture<TaskPatch> future = replanFuture;
+        List<Task> basis = replanBasis;
+        replanFuture = null;
+        replanBasis = null;
+
+        TaskPatch patch;
+        try {
+            patch = future.get();
+        } catch (Exception e) {
+            SteveMod.LOGGER.warn("Steve '{}' replanning failed: {}", steve.getSteveName(), e.getMessage());
+            return;
+        }
+        if (patch == null) {
+            return;
+        }
+
+        patch.applyTo(taskQueue, basis);
+        SteveMod.LOGGER.info("Steve '{}' applied replan {}: {} tasks queued",
+            steve.getSteveName(), patch, taskQueue.size());
+
+        if (SteveConfig.ENABLE_CHAT_RESPONSES.get()) {
+            sendToGUI(steve.getSteveName(), patch.isAbort()
+                ? "I can't finish this: " + patch.getReasoning()
+                : "New approach: " + patch.getReasoning());
+        }
+    }
+
+    /**
+     * Moves tasks delivered by the streaming planner onto the task queue.
+     */
+    private void drainStreamedTasks() {
+        if (streamedTasks == null) {
+            return;
+        }
+
+        Task task;
+        while ((task = streamedTasks.poll()) != null) {
+            taskQueue.add(task);
+            streamedTasksQueued = true;
+            SteveMod.LOGGER.debug("Steve '{}' queued streamed task: {}", steve.getSteveName(), task);
+        }
+    }
+
+    /**
+     * Drops a partially streamed plan and plans the command again, without streaming.
+     *
+     * <p>A stream that breaks midway is not retried (the retry would deliver the same tasks a
+     * second time), so the whole command is planned from scratch. The non-streamed request
+     * falls back to a canned plan instead of failing, so this cannot repeat.</p>
+     */
+    private void replanBrokenStream(String command) {
+        cancelForNewCommand(command);
+        streamedTasks = null;
+        try {
+            planningFuture = getTaskPlanner().planTasksAsync(steve, command);
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("Steve '{}' failed to re-plan after a broken stream", steve.getSteveName(), e);
+            sendToGUI(steve.getSteveName(), "Oops, something went wrong while planning!");
+            isPlanning = false;
+            pendingCommand = null;
+        }
+    }
+
     private void executeTask(Task task) {
         SteveMod.LOGGER.info("Steve '{}' executing task: {} (action type: {})", 
             steve.getSteveName(), task, task.getAction());
@@ -382,6 +555,11 @@ public class ActionExecutor {
     }
 
     public void stopCurrentAction() {
+        if (isPlanning) {
+            SteveMod.LOGGER.info("Steve '{}' stopped while planning: {}", steve.getSteveName(), pendingCommand);
+        }
+        cancelPlanning();
+
         if (currentAction != null) {
             currentAction.cancel();
             currentAction = null;
@@ -397,6 +575,28 @@ public class ActionExecutor {
         stateMachine.reset();
     }
 
+    /**
+     * Cancels an in-flight planning or replanning request, if any.
+     *
+     * <p>The cancellation travels down to the HTTP request: the call is aborted, pending
+     * retries are skipped and the provider's bulkhead permit is released. Tasks it had
+     * already streamed are discarded.</p>
+     */
+    private void cancelPlanning() {
+        if (planningFuture != null && !planningFuture.isDone()) {
+            planningFuture.cancel(true);
+        }
+        if (replanFuture != null) {
+            replanFuture.cancel(true);
+        }
+        replanFuture = null;
+        replanBasis = null;
+        planningFuture = null;
+        streamedTasks = null;
+        isPlanning = false;
+        pendingCommand = null;
+    }
+
     public boolean isExecuting() {
         return currentAction != null || !taskQueue.isEmpty();
     }
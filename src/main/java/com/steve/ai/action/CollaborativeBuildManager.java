@@ -1,268 +1,193 @@
 package com.steve.ai.action;
 
 import com.steve.ai.SteveMod;
-import com.steve.ai.structure.BlockPlacement;
+import com.steve.ai.config.SteveConfig;
+import com.steve.ai.structure.BuildPlan;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.block.Block;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Manages collaborative building where multiple Steves work on DIFFERENT SECTIONS of the same structure
+ * Manages collaborative building where multiple Steves work on DIFFERENT TILES of the same structure.
+ *
+ * <p><b>Tiles:</b> The plan is cut into tiles of one chunk column by one band of Y layers.
+ * Band height is chosen so the structure yields about 4 tiles per Steve that could join
+ * ({@code maxActiveSteves}): a wide, flat build gets one band per column, a tall tower gets
+ * many thin bands. Tiles are handed out bottom-to-top.</p>
+ *
+ * <p><b>Scheduling:</b> Every Steve has its own deque of tiles. When it runs dry it takes a
+ * share of the unclaimed tiles (half of an even split, so late joiners still find work);
+ * once none are left it steals the top tile from the Steve with the most queued, and at the
+ * very end it helps on the unfinished tile with the most blocks left. See
+ * {@link TileScheduler}.</p>
+ *
+ * <p><b>Plan:</b> The build works on the {@link BuildPlan} it is given, sorted in place into
+ * tile order, so every tile is a contiguous range and every claim is a zero-copy slice.</p>
+ *
+ * <p><b>Thread Safety:</b> Builds are claimed from and completed on the server thread only
+ * (by {@code BuildStructureAction}), so the per-build state uses plain collections and
+ * counters.</p>
  */
 public class CollaborativeBuildManager {
-    
+    private static final int TILES_PER_AGENT = 4;
+
     public static class CollaborativeBuild {
         public final String structureId;
-        public final List<BlockPlacement> buildPlan;
-        private final List<BuildSection> sections;
-        private final Map<String, Integer> steveToSectionMap;
-        private final AtomicInteger nextSectionIndex;
+        public final BuildPlan buildPlan; // In tile order: each tile is a contiguous range
+        private final TileScheduler scheduler;
+        private int blocksPlaced;
         public final Set<String> participatingSteves;
         public final BlockPos startPos;
-        
-        public CollaborativeBuild(String structureId, List<BlockPlacement> buildPlan, BlockPos startPos) {
+
+        public CollaborativeBuild(String structureId, BuildPlan buildPlan, BlockPos startPos) {
             this.structureId = structureId;
-            this.buildPlan = buildPlan;
-            this.participatingSteves = ConcurrentHashMap.newKeySet();
+            this.participatingSteves = new LinkedHashSet<>();
             this.startPos = startPos;
-            this.steveToSectionMap = new ConcurrentHashMap<>();
-            this.nextSectionIndex = new AtomicInteger(0);
-            this.sections = divideBuildIntoSections(buildPlan);
-            
-            SteveMod.LOGGER.info("Divided '{}' into {} sections for collaborative building", 
-                structureId, sections.size());
+            this.buildPlan = buildPlan;
+            this.scheduler = new TileScheduler(divideBuildIntoTiles(buildPlan, SteveConfig.MAX_ACTIVE_STEVES.get()));
         }
-        
+
         /**
-         * Divide the build into 4 QUADRANTS (NW, NE, SW, SE)
-         * Each quadrant is sorted BOTTOM-TO-TOP so each Steve builds their quadrant from the ground up
+         * Sort the plan into tiles (chunk column x Y band), bottom band first, and bottom-to-top
+         * inside each tile. Returns the tiles as ranges of the sorted plan.
          */
-        private List<BuildSection> divideBuildIntoSections(List<BlockPlacement> plan) {
+        private List<TileScheduler.Tile> divideBuildIntoTiles(BuildPlan plan, int expectedAgents) {
             if (plan.isEmpty()) {
                 return new ArrayList<>();
             }
-            
-            int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
-            int minZ = Integer.MAX_VALUE, maxZ = Integer.MIN_VALUE;
-            
-            for (BlockPlacement placement : plan) {
-                minX = Math.min(minX, placement.pos.getX());
-                maxX = Math.max(maxX, placement.pos.getX());
-                minZ = Math.min(minZ, placement.pos.getZ());
-                maxZ = Math.max(maxZ, placement.pos.getZ());
+
+            int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+            LongOpenHashSet columns = new LongOpenHashSet();
+            for (int i = 0; i < plan.size(); i++) {
+                long pos = plan.getPos(i);
+                minY = Math.min(minY, BlockPos.getY(pos));
+                maxY = Math.max(maxY, BlockPos.getY(pos));
+                columns.add(ChunkPos.asLong(
+                    SectionPos.blockToSectionCoord(BlockPos.getX(pos)),
+                    SectionPos.blockToSectionCoord(BlockPos.getZ(pos))));
             }
-            
-            int centerX = (minX + maxX) / 2;
-            int centerZ = (minZ + maxZ) / 2;
-            
-            List<BlockPlacement> northWest = new ArrayList<>();
-            List<BlockPlacement> northEast = new ArrayList<>();
-            List<BlockPlacement> southWest = new ArrayList<>();
-            List<BlockPlacement> southEast = new ArrayList<>();
-            
-            for (BlockPlacement placement : plan) {
-                int x = placement.pos.getX();
-                int z = placement.pos.getZ();
-                
-                if (x <= centerX && z <= centerZ) {
-                    northWest.add(placement);
-                } else if (x > centerX && z <= centerZ) {
-                    northEast.add(placement);
-                } else if (x <= centerX && z > centerZ) {
-                    southWest.add(placement);
-                } else {
-                    southEast.add(placement);
+
+            int bandsWanted = Math.max(1, (TILES_PER_AGENT * expectedAgents + columns.size() - 1) / columns.size());
+            int height = maxY - minY + 1;
+            int bandHeight = Math.max(1, (height + bandsWanted - 1) / bandsWanted);
+            int baseY = minY;
+
+            LongComparator tileOrder = (a, b) -> {
+                int order = Long.compare(tileKey(a, baseY, bandHeight), tileKey(b, baseY, bandHeight));
+                return order != 0 ? order : Integer.compare(BlockPos.getY(a), BlockPos.getY(b));
+            };
+            plan.sort(tileOrder);
+
+            List<TileScheduler.Tile> tileList = new ArrayList<>();
+            int start = 0;
+            for (int i = 1; i <= plan.size(); i++) {
+                if (i == plan.size()
+                        || tileKey(plan.getPos(start), baseY, bandHeight) != tileKey(plan.getPos(i), baseY, bandHeight)) {
+                    tileList.add(new TileScheduler.Tile(start, i));
+                    start = i;
                 }
             }
-            Comparator<BlockPlacement> bottomToTop = Comparator.comparingInt(p -> p.pos.getY());
-            northWest.sort(bottomToTop);
-            northEast.sort(bottomToTop);
-            southWest.sort(bottomToTop);
-            southEast.sort(bottomToTop);
-            
-            List<BuildSection> sectionList = new ArrayList<>();
-            if (!northWest.isEmpty()) sectionList.add(new BuildSection(0, northWest, "NORTH-WEST"));
-            if (!northEast.isEmpty()) sectionList.add(new BuildSection(1, northEast, "NORTH-EAST"));
-            if (!southWest.isEmpty()) sectionList.add(new BuildSection(2, southWest, "SOUTH-WEST"));
-            if (!southEast.isEmpty()) sectionList.add(new BuildSection(3, southEast, "SOUTH-EAST"));
-            
-            SteveMod.LOGGER.info("Divided structure into {} quadrants (BOTTOM-TO-TOP): NW={}, NE={}, SW={}, SE={} blocks", 
-                sectionList.size(), northWest.size(), northEast.size(), southWest.size(), southEast.size());
-            
-            return sectionList;
+
+            SteveMod.LOGGER.info("Divided '{}' into {} tiles ({} chunk columns, Y bands of {}) for collaborative building",
+                structureId, tileList.size(), columns.size(), bandHeight);
+
+            return tileList;
+        }
+
+        /**
+         * Orders tiles by Y band, then chunk column
+         */
+        private static long tileKey(long pos, int baseY, int bandHeight) {
+            long band = (BlockPos.getY(pos) - baseY) / bandHeight;
+            long chunkX = SectionPos.blockToSectionCoord(BlockPos.getX(pos)) + (1 << 21);
+            long chunkZ = SectionPos.blockToSectionCoord(BlockPos.getZ(pos)) + (1 << 21);
+            return band << 44 | chunkX << 22 | chunkZ;
         }
-        
+
         public int getTotalBlocks() {
             return buildPlan.size();
         }
-        
+
         public int getBlocksPlaced() {
-            int total = 0;
-            for (BuildSection section : sections) {
-                total += section.getBlocksPlaced();
-            }
-            return total;
+            return Math.min(blocksPlaced, buildPlan.size());
         }
-        
+
         public boolean isComplete() {
-            for (BuildSection section : sections) {
-                if (!section.isComplete()) {
-                    return false;
-                }
-            }
-            return true;
+            return blocksPlaced >= buildPlan.size();
         }
-        
+
         public int getProgressPercentage() {
             return (getBlocksPlaced() * 100) / buildPlan.size();
         }
     }
-    
-    /**
-     * A section of the build that one Steve works on (represents a spatial quadrant)
-     */
-    public static class BuildSection {
-        public final int yLevel; // Used as section ID
-        public final String sectionName;
-        private final List<BlockPlacement> blocks;
-        private final AtomicInteger nextBlockIndex;
-        
-        public BuildSection(int sectionId, List<BlockPlacement> blocks, String sectionName) {
-            this.yLevel = sectionId;
-            this.sectionName = sectionName;
-            this.blocks = blocks;
-            this.nextBlockIndex = new AtomicInteger(0);
-        }
-        
-        public BlockPlacement getNextBlock() {
-            int index = nextBlockIndex.getAndIncrement();
-            if (index < blocks.size()) {
-                return blocks.get(index);
-            }
-            return null;
-        }
-        
-        public int getBlocksPlaced() {
-            return Math.min(nextBlockIndex.get(), blocks.size());
-        }
-        
-        public boolean isComplete() {
-            return nextBlockIndex.get() >= blocks.size();
-        }
-        
-        public int getTotalBlocks() {
-            return blocks.size();
-        }
-    }
 
     private static final Map<String, CollaborativeBuild> activeBuilds = new ConcurrentHashMap<>();
-    
+
     /**
      * Register a new collaborative build project
      */
-    public static CollaborativeBuild registerBuild(String structureType, List<BlockPlacement> buildPlan, BlockPos startPos) {
+    public static CollaborativeBuild registerBuild(String structureType, BuildPlan buildPlan, BlockPos startPos) {
         String structureId = structureType + "_" + System.currentTimeMillis();
         CollaborativeBuild build = new CollaborativeBuild(structureId, buildPlan, startPos);
         activeBuilds.put(structureId, build);
-        
-        SteveMod.LOGGER.info("Registered collaborative build '{}' at {} with {} blocks", 
+
+        SteveMod.LOGGER.info("Registered collaborative build '{}' at {} with {} blocks",
             structureType, startPos, buildPlan.size());
-        
+
         return build;
     }
-    
+
     /**
-     * Get the next block for a Steve to place (each Steve works on their own section)
-     * Returns null if Steve's section is complete
+     * Claim the next blocks for a Steve to place, from its own tiles first, then unclaimed ones,
+     * then other Steves' tiles. The blocks all come from one tile, so fewer than {@code max}
+     * may be returned.
+     * Returns null if no work is left
      */
-    public static BlockPlacement getNextBlock(CollaborativeBuild build, String steveName) {
+    public static BuildPlan claimBlocks(CollaborativeBuild build, String steveName, int max) {
         if (build.isComplete()) {
             return null;
         }
-        
-        build.participatingSteves.add(steveName);
-        
-        // Assign Steve to a section if not already assigned
-        Integer sectionIndex = build.steveToSectionMap.get(steveName);
-        if (sectionIndex == null) {
-            sectionIndex = assignSteveToSection(build, steveName);
-            if (sectionIndex == null) {
-                // No sections available
-                return null;
-            }
-        }
-        
-        BuildSection section = build.sections.get(sectionIndex);
-        BlockPlacement block = section.getNextBlock();
-        
-        if (block == null) {
-            if (sectionIndex != null) {
-                section = build.sections.get(sectionIndex);
-                block = section.getNextBlock();
-                if (block != null) {                }
-            }
-        }
-        
-        return block;
-    }
-    
-    /**
-     * Assign a Steve to a section (quadrant) that needs work
-     * Prioritizes unassigned sections, but allows helping on large sections
-     * Returns the section index, or null if all sections are complete
-     */
-    private static Integer assignSteveToSection(CollaborativeBuild build, String steveName) {
-        // First pass: Find a section that isn't complete and isn't already assigned
-        for (int i = 0; i < build.sections.size(); i++) {
-            BuildSection section = build.sections.get(i);
-            if (!section.isComplete()) {
-                boolean alreadyAssigned = build.steveToSectionMap.containsValue(i);
-                
-                if (!alreadyAssigned) {
-                    build.steveToSectionMap.put(steveName, i);
-                    SteveMod.LOGGER.info("Assigned Steve '{}' to {} quadrant - will build {} blocks BOTTOM-TO-TOP", 
-                        steveName, section.sectionName, section.getTotalBlocks());
-                    return i;
-                }
-            }
+
+        if (build.scheduler.join(steveName)) {
+            build.participatingSteves.add(steveName);
+            SteveMod.LOGGER.info("Steve '{}' joined build '{}' ({} Steves, {} tiles unclaimed)",
+                steveName, build.structureId, build.scheduler.getAgentCount(), build.scheduler.getUnclaimedCount());
         }
-        
-        // Second pass: Help with any incomplete section (even if assigned to someone else)
-        for (int i = 0; i < build.sections.size(); i++) {
-            BuildSection section = build.sections.get(i);
-            if (!section.isComplete()) {
-                build.steveToSectionMap.put(steveName, i);
-                SteveMod.LOGGER.info("Steve '{}' helping with {} quadrant ({} blocks remaining)", 
-                    steveName, section.sectionName, section.getTotalBlocks() - section.getBlocksPlaced());
-                return i;
-            }
+
+        TileScheduler.Tile tile = build.scheduler.tileFor(steveName);
+        if (tile == null) {
+            return null;
         }
-        
-        // All sections complete
-        return null;
+
+        int index = tile.claim(max);
+        int end = Math.min(index + max, tile.end);
+        build.blocksPlaced += end - index;
+        return build.buildPlan.slice(index, end);
     }
-    
+
     /**
      * Get an active build by ID
      */
     public static CollaborativeBuild getBuild(String structureId) {
         return activeBuilds.get(structureId);
     }
-    
+
     /**
      * Complete and remove a build
      */
     public static void completeBuild(String structureId) {
         CollaborativeBuild build = activeBuilds.remove(structureId);
         if (build != null) {
-            SteveMod.LOGGER.info("Collaborative build '{}' completed by {} Steves", 
-                structureId, build.participatingSteves.size());
+            SteveMod.LOGGER.info("Collaborative build '{}' completed by {} Steves ({} tiles, {} stolen)",
+                structureId, build.participatingSteves.size(), build.scheduler.getTileCount(), build.scheduler.getSteals());
         }
     }
-    
+
     /**
      * Check if there's an active build of a structure type
      */
@@ -274,7 +199,7 @@ public class CollaborativeBuildManager {
         }
         return null;
     }
-    
+
     /**
      * Clean up completed builds
      */
@@ -282,4 +207,3 @@ public class CollaborativeBuildManager {
         activeBuilds.entrySet().removeIf(entry -> entry.getValue().isComplete());
     }
 }
-
@@ -5,10 +5,23 @@ import java.util.Map;
 public class Task {
     private final String action;
     private final Map<String, Object> parameters;
+    private final TaskSpec spec;
 
     public Task(String action, Map<String, Object> parameters) {
+        this(action, parameters, null);
+    }
+
+    /**
+     * Creates a task together with its compiled form.
+     *
+     * @param action     Action name
+     * @param parameters Raw parameters from the plan
+     * @param spec       Typed parameters from {@link TaskCompiler}, or null if not compiled
+     */
+    public Task(String action, Map<String, Object> parameters, TaskSpec spec) {
         this.action = action;
         this.parameters = parameters;
+        this.spec = spec;
     }
 
     public String getAction() {
@@ -41,6 +54,19 @@ public class Task {
         return defaultValue;
     }
 
+    /**
+     * Returns the typed, pre-resolved parameters.
+     *
+     * @return The spec, or null if the task has not been compiled or is a plugin action
+     */
+    public TaskSpec getSpec() {
+        return spec;
+    }
+
+    public boolean isCompiled() {
+        return spec != null;
+    }
+
     public boolean hasParameters(String... keys) {
         for (String key : keys) {
             if (!parameters.containsKey(key)) {
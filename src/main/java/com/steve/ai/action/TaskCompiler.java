@@ -0,0 +1,219 @@
+package com.steve.ai.action;
+
+import com.steve.ai.SteveMod;
+import com.steve.ai.plugin.ActionRegistry;
+import com.steve.ai.util.ActionUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles parsed tasks into their typed {@link TaskSpec} form.
+ *
+ * <p>Runs once per plan, right after {@link com.steve.ai.llm.ResponseParser}, on the planning
+ * thread. Each core task is validated (required parameters, positive quantities, blocks that
+ * exist), defaults are applied and names are resolved, so invalid tasks are rejected before
+ * they reach the queue and actions never touch the raw parameter map.</p>
+ *
+ * <p>Actions contributed by plugins pass through unchanged; their factories validate their
+ * own parameters. Actions that are neither core nor registered are rejected.</p>
+ *
+ * <p><b>Thread Safety:</b> Stateless; the block registry is read-only once the game has
+ * loaded, so compilation is safe off the server thread.</p>
+ *
+ * @since 1.2.0
+ * @see TaskSpec
+ */
+public final class TaskCompiler {
+
+    private static final Map<String, String> RESOURCE_TO_ORE = Map.of(
+        "iron", "iron_ore",
+        "diamond", "diamond_ore",
+        "coal", "coal_ore",
+        "gold", "gold_ore",
+        "copper", "copper_ore",
+        "redstone", "redstone_ore",
+        "lapis", "lapis_ore",
+        "emerald", "emerald_ore"
+    );
+
+    private static final int DEFAULT_MINE_QUANTITY = 8;
+    private static final int DEFAULT_WIDTH = 5;
+    private static final int DEFAULT_HEIGHT = 4;
+    private static final int DEFAULT_DEPTH = 5;
+
+    private TaskCompiler() {
+    }
+
+    /**
+     * Compiles one task.
+     *
+     * @param task Parsed task
+     * @return The task with its spec attached (or the task itself for plugin actions)
+     * @throws IllegalArgumentException if the task is invalid
+     */
+    public static Task compile(Task task) {
+        if (task.isCompiled()) {
+            return task;
+        }
+
+        TaskSpec spec = switch (task.getAction()) {
+            case "pathfind" -> new TaskSpec.Pathfind(requirePos(task));
+            case "mine" -> new TaskSpec.Mine(
+                requireBlock(task, "block", true),
+                quantity(task, DEFAULT_MINE_QUANTITY));
+            case "place" -> new TaskSpec.Place(requireBlock(task, "block", false), requirePos(task));
+            case "craft" -> new TaskSpec.Craft(requireString(task, "item"), quantity(task, 1));
+            case "attack" -> new TaskSpec.Attack(requireString(task, "target").toLowerCase());
+            case "follow" -> new TaskSpec.Follow(requireString(task, "player"));
+            case "gather" -> new TaskSpec.Gather(requireString(task, "resource"), quantity(task, 1));
+            case "build" -> compileBuild(task);
+            default -> {
+                if (ActionRegistry.getInstance().hasAction(task.getAction())) {
+                    yield null;
+                }
+                throw new IllegalArgumentException("Unknown action type: " + task.getAction());
+            }
+        };
+
+        return spec != null ? new Task(task.getAction(), task.getParameters(), spec) : task;
+    }
+
+    /**
+     * Compiles a plan, dropping invalid tasks.
+     *
+     * @param tasks Parsed tasks, in plan order
+     * @return Compiled tasks, in plan order
+     */
+    public static List<Task> compileAll(List<Task> tasks) {
+        List<Task> compiled = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            try {
+                compiled.add(compile(task));
+            } catch (IllegalArgumentException e) {
+                SteveMod.LOGGER.warn("Rejected task {}: {}", task, e.getMessage());
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns whether a task compiles.
+     *
+     * @param task Parsed task
+     * @return true if the task is valid
+     */
+    public static boolean isValid(Task task) {
+        try {
+            compile(task);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves a block name, also accepting bare resource names for ores ("iron" → iron_ore).
+     *
+     * @param blockName Block name from a plan
+     * @return The block, or {@link Blocks#AIR} if it does not exist
+     */
+    public static Block resolveOre(String blockName) {
+        String name = blockName.toLowerCase().replace(" ", "_");
+        return ActionUtils.parseBlock(RESOURCE_TO_ORE.getOrDefault(name, name));
+    }
+
+    private static TaskSpec.Build compileBuild(Task task) {
+        String structure = requireString(task, "structure").toLowerCase();
+
+        List<Block> materials = new ArrayList<>();
+        if (task.getParameter("blocks") instanceof List<?> blocks) {
+            for (Object name : blocks) {
+                Block block = ActionUtils.parseBlock(name.toString());
+                if (block != Blocks.AIR) {
+                    materials.add(block);
+                }
+            }
+        }
+        if (materials.isEmpty()) {
+            Block block = ActionUtils.parseBlock(task.getStringParameter("material", "oak_planks"));
+            materials.add(block != Blocks.AIR ? block : Blocks.OAK_PLANKS);
+        }
+
+        int width;
+        int height;
+        int depth;
+        if (task.getParameter("dimensions") instanceof List<?> dims && dims.size() >= 3) {
+            width = toInt(dims.get(0), "dimensions");
+            height = toInt(dims.get(1), "dimensions");
+            depth = toInt(dims.get(2), "dimensions");
+        } else {
+            width = intParameter(task, "width", DEFAULT_WIDTH);
+            height = intParameter(task, "height", DEFAULT_HEIGHT);
+            depth = intParameter(task, "depth", DEFAULT_DEPTH);
+        }
+        if (width <= 0 || height <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Invalid dimensions " + width + "x" + height + "x" + depth);
+        }
+
+        return new TaskSpec.Build(structure, materials, width, height, depth);
+    }
+
+    private static String requireString(Task task, String key) {
+        String value = task.getStringParameter(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing '" + key + "'");
+        }
+        return value;
+    }
+
+    private static Block requireBlock(Task task, String key, boolean allowOreAliases) {
+        String name = requireString(task, key);
+        Block block = allowOreAliases ? resolveOre(name) : ActionUtils.parseBlock(name);
+        if (block == Blocks.AIR) {
+            throw new IllegalArgumentException("Invalid block type: " + name);
+        }
+        return block;
+    }
+
+    private static BlockPos requirePos(Task task) {
+        if (!task.hasParameters("x", "y", "z")) {
+            throw new IllegalArgumentException("Missing coordinates");
+        }
+        return new BlockPos(
+            toInt(task.getParameter("x"), "x"),
+            toInt(task.getParameter("y"), "y"),
+            toInt(task.getParameter("z"), "z"));
+    }
+
+    private static int quantity(Task task, int defaultValue) {
+        int quantity = intParameter(task, "quantity", defaultValue);
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Invalid quantity " + quantity);
+        }
+        return quantity;
+    }
+
+    private static int intParameter(Task task, String key, int defaultValue) {
+        Object value = task.getParameter(key);
+        return value != null ? toInt(value, key) : defaultValue;
+    }
+
+    private static int toInt(Object value, String key) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value != null) {
+            try {
+                return (int) Math.floor(Double.parseDouble(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException("'" + key + "' is not a number: " + value);
+    }
+}
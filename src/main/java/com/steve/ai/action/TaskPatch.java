@@ -0,0 +1,80 @@
+package com.steve.ai.action;
+
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Change to a running task queue, computed after a task failed.
+ *
+ * <p>Instead of planning the whole command again, the planner is shown only the failed task,
+ * why it failed and what is still queued, and answers with a patch:</p>
+ * <ul>
+ *   <li><b>insert:</b> tasks to run next, in place of the failed one (empty to skip it)</li>
+ *   <li><b>drop:</b> indices into the remaining queue, as it was sent to the planner, of tasks
+ *       that are no longer possible or needed</li>
+ *   <li><b>abort:</b> give up on the rest of the command</li>
+ * </ul>
+ *
+ * <p>The queue keeps running while the patch is computed, so {@link #applyTo} matches dropped
+ * tasks by identity and ignores ones that have already started.</p>
+ *
+ * @since 1.2.0
+ */
+public class TaskPatch {
+    private final String reasoning;
+    private final List<Task> insert;
+    private final List<Integer> drop;
+    private final boolean abort;
+
+    public TaskPatch(String reasoning, List<Task> insert, List<Integer> drop, boolean abort) {
+        this.reasoning = reasoning;
+        this.insert = List.copyOf(insert);
+        this.drop = List.copyOf(drop);
+        this.abort = abort;
+    }
+
+    public String getReasoning() {
+        return reasoning;
+    }
+
+    public List<Task> getInsert() {
+        return insert;
+    }
+
+    public List<Integer> getDrop() {
+        return drop;
+    }
+
+    public boolean isAbort() {
+        return abort;
+    }
+
+    /**
+     * Applies the patch to a queue.
+     *
+     * @param queue Live task queue
+     * @param basis Remaining queue as it was sent to the planner (what {@code drop} indexes)
+     */
+    public void applyTo(Deque<Task> queue, List<Task> basis) {
+        if (abort) {
+            queue.clear();
+            return;
+        }
+
+        for (int index : drop) {
+            if (index >= 0 && index < basis.size()) {
+                Task dropped = basis.get(index);
+                queue.removeIf(task -> task == dropped);
+            }
+        }
+
+        for (int i = insert.size() - 1; i >= 0; i--) {
+            queue.addFirst(insert.get(i));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return abort ? "TaskPatch{abort}" : "TaskPatch{insert=" + insert + ", drop=" + drop + "}";
+    }
+}
@@ -0,0 +1,220 @@
+package com.steve.ai.action;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Block;
+
+import java.util.List;
+
+/**
+ * Typed, pre-resolved form of a core {@link Task}.
+ *
+ * <p>Produced once by {@link TaskCompiler} when a plan arrives: parameters are type-checked,
+ * defaults applied, block names resolved against the registry and coordinates turned into
+ * {@link BlockPos}. Actions read their spec in {@code onStart} instead of parsing the raw
+ * parameter map, so starting an action involves no string or registry work.</p>
+ *
+ * <p><b>Thread Safety:</b> All specs are immutable.</p>
+ *
+ * @since 1.2.0
+ * @see TaskCompiler
+ */
+public abstract class TaskSpec {
+
+    TaskSpec() {
+    }
+
+    /** {@code pathfind}: walk to a position. */
+    public static final class Pathfind extends TaskSpec {
+        private final BlockPos target;
+
+        Pathfind(BlockPos target) {
+            this.target = target;
+        }
+
+        public BlockPos getTarget() {
+            return target;
+        }
+
+        @Override
+        public String toString() {
+            return "Pathfind{" + target.toShortString() + "}";
+        }
+    }
+
+    /** {@code mine}: mine a number of blocks of one type. */
+    public static final class Mine extends TaskSpec {
+        private final Block block;
+        private final int quantity;
+
+        Mine(Block block, int quantity) {
+            this.block = block;
+            this.quantity = quantity;
+        }
+
+        public Block getBlock() {
+            return block;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Mine{" + quantity + "x " + block + "}";
+        }
+    }
+
+    /** {@code place}: place one block at a position. */
+    public static final class Place extends TaskSpec {
+        private final Block block;
+        private final BlockPos pos;
+
+        Place(Block block, BlockPos pos) {
+            this.block = block;
+            this.pos = pos;
+        }
+
+        public Block getBlock() {
+            return block;
+        }
+
+        public BlockPos getPos() {
+            return pos;
+        }
+
+        @Override
+        public String toString() {
+            return "Place{" + block + " at " + pos.toShortString() + "}";
+        }
+    }
+
+    /** {@code craft}: craft a number of items. */
+    public static final class Craft extends TaskSpec {
+        private final String item;
+        private final int quantity;
+
+        Craft(String item, int quantity) {
+            this.item = item;
+            this.quantity = quantity;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Craft{" + quantity + "x " + item + "}";
+        }
+    }
+
+    /** {@code attack}: fight entities matching a target type (lowercase). */
+    public static final class Attack extends TaskSpec {
+        private final String target;
+
+        Attack(String target) {
+            this.target = target;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        @Override
+        public String toString() {
+            return "Attack{" + target + "}";
+        }
+    }
+
+    /** {@code follow}: follow a player by name. */
+    public static final class Follow extends TaskSpec {
+        private final String player;
+
+        Follow(String player) {
+            this.player = player;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        @Override
+        public String toString() {
+            return "Follow{" + player + "}";
+        }
+    }
+
+    /** {@code gather}: collect a number of a resource. */
+    public static final class Gather extends TaskSpec {
+        private final String resource;
+        private final int quantity;
+
+        Gather(String resource, int quantity) {
+            this.resource = resource;
+            this.quantity = quantity;
+        }
+
+        public String getResource() {
+            return resource;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Gather{" + quantity + "x " + resource + "}";
+        }
+    }
+
+    /** {@code build}: build a structure type (lowercase) from a material palette. */
+    public static final class Build extends TaskSpec {
+        private final String structure;
+        private final List<Block> materials;
+        private final int width;
+        private final int height;
+        private final int depth;
+
+        Build(String structure, List<Block> materials, int width, int height, int depth) {
+            this.structure = structure;
+            this.materials = List.copyOf(materials);
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        public String getStructure() {
+            return structure;
+        }
+
+        /**
+         * @return Resolved materials, never empty, unmodifiable
+         */
+        public List<Block> getMaterials() {
+            return materials;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        @Override
+        public String toString() {
+            return "Build{" + structure + " " + width + "x" + height + "x" + depth + ", " + materials.size() + " materials}";
+        }
+    }
+}
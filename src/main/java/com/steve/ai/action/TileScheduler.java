@@ -0,0 +1,171 @@
+package com.steve.ai.action;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out the tiles of a collaborative build to the Steves working on it.
+ *
+ * <p>Every Steve has its own deque of tiles. When it runs dry it takes a share of the
+ * unclaimed tiles (half of an even split, so late joiners still find work); once none are
+ * left it steals the top tile from the Steve with the most queued, and at the very end it
+ * helps on the unfinished tile with the most entries left. Entries inside a tile are handed
+ * out through a cursor, so several Steves can share a tile.</p>
+ *
+ * <p><b>Thread Safety:</b> Not thread-safe. Builds are only ticked on the server thread,
+ * from {@code BuildStructureAction}, so the queues need no synchronization.</p>
+ *
+ * @since 1.2.0
+ */
+final class TileScheduler {
+
+    /**
+     * A contiguous range of plan indices, claimed front to back.
+     */
+    static final class Tile {
+        final int start;
+        final int end;
+        private int next;
+
+        Tile(int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.next = start;
+        }
+
+        /**
+         * Claims up to {@code max} entries.
+         *
+         * @return Plan index of the first claimed entry, or -1 if the tile is done
+         */
+        int claim(int max) {
+            if (next >= end) {
+                return -1;
+            }
+            int index = next;
+            next = Math.min(end, next + max);
+            return index;
+        }
+
+        int getRemaining() {
+            return end - next;
+        }
+    }
+
+    /**
+     * One Steve's queue of tiles, plus the tile it is working on.
+     */
+    private static final class Agent {
+        private final ArrayDeque<Tile> tiles = new ArrayDeque<>();
+        private Tile current;
+    }
+
+    private final int tileCount;
+    private final ArrayDeque<Tile> unclaimed;
+    private final Map<String, Agent> agents = new LinkedHashMap<>();
+    private int steals;
+
+    /**
+     * @param tiles Tiles in the order they should be handed out
+     */
+    TileScheduler(List<Tile> tiles) {
+        this.tileCount = tiles.size();
+        this.unclaimed = new ArrayDeque<>(tiles);
+    }
+
+    /**
+     * Adds a Steve to the build.
+     *
+     * @return true if it had not joined before
+     */
+    boolean join(String agent) {
+        return agents.putIfAbsent(agent, new Agent()) == null;
+    }
+
+    /**
+     * Returns the tile a Steve should claim from next: its current tile while that has
+     * entries left, otherwise the next one from its queue, the unclaimed tiles or another
+     * Steve. Joins the Steve if it has not joined yet.
+     *
+     * @return A tile with entries left, or null if no work is left
+     */
+    Tile tileFor(String name) {
+        join(name);
+        Agent agent = agents.get(name);
+        if (agent.current == null || agent.current.getRemaining() == 0) {
+            agent.current = nextTile(agent);
+        }
+        return agent.current;
+    }
+
+    /**
+     * Finds the next tile for a Steve whose current tile is done.
+     */
+    private Tile nextTile(Agent agent) {
+        Tile tile = agent.tiles.pollFirst();
+        if (tile != null) {
+            return tile;
+        }
+
+        // Take a share of the unclaimed tiles: half an even split, so others still find some
+        int share = Math.max(1, unclaimed.size() / (2 * agents.size()));
+        for (int i = 0; i < share && !unclaimed.isEmpty(); i++) {
+            agent.tiles.addLast(unclaimed.pollFirst());
+        }
+        tile = agent.tiles.pollFirst();
+        if (tile != null) {
+            return tile;
+        }
+
+        return steal(agent);
+    }
+
+    /**
+     * Steals the top tile queued by the Steve with the most queued tiles, or, if nothing is
+     * queued anywhere, helps on the unfinished tile with the most entries left.
+     */
+    private Tile steal(Agent thief) {
+        Agent victim = null;
+        int mostQueued = 0;
+        for (Agent other : agents.values()) {
+            int queued = other == thief ? 0 : other.tiles.size();
+            if (queued > mostQueued) {
+                victim = other;
+                mostQueued = queued;
+            }
+        }
+        if (victim != null) {
+            steals++;
+            return victim.tiles.pollLast();
+        }
+
+        Tile busiest = null;
+        int mostRemaining = 0;
+        for (Agent other : agents.values()) {
+            Tile current = other.current;
+            if (current != null && current.getRemaining() > mostRemaining) {
+                busiest = current;
+                mostRemaining = current.getRemaining();
+            }
+        }
+        return busiest;
+    }
+
+    int getTileCount() {
+        return tileCount;
+    }
+
+    int getUnclaimedCount() {
+        return unclaimed.size();
+    }
+
+    int getAgentCount() {
+        return agents.size();
+    }
+
+    int getSteals() {
+        return steals;
+    }
+}
@@ -0,0 +1,126 @@
+package com.steve.ai.action;
+
+import com.steve.ai.SteveMod;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-wide budget for bulk world work (blocks placed or broken), sized by tick time.
+ *
+ * <p>Building and vein mining can do as much work per tick as they are allowed to. A fixed
+ * rate is wrong both ways: Steves crawl on an idle server and push a busy one past its tick
+ * budget. The governor measures how long each server tick takes and adjusts one server-wide
+ * budget of blocks per tick:</p>
+ * <ul>
+ *   <li>While the average tick time (MSPT) is comfortably below {@code targetMspt} and some
+ *       action is using the budget, it grows by 4 blocks per tick</li>
+ *   <li>When the average goes above the target, the budget is halved, at most once every 20
+ *       ticks so the average can catch up; it keeps halving toward zero while the server
+ *       stays behind</li>
+ * </ul>
+ *
+ * <p><b>Fair share:</b> Each action that has work calls {@link #claim} once per tick. The
+ * budget is split evenly over the claimants of the previous tick; fractions carry over to
+ * the claimant's next tick, so a budget of 3 blocks over 4 Steves still gives each of them
+ * 3 blocks every 4 ticks.</p>
+ *
+ * <p><b>Thread Safety:</b> Server thread only; registered in the server-scoped
+ * {@link com.steve.ai.di.ServiceContainer} and fed by the server tick events.</p>
+ *
+ * @since 1.2.0
+ */
+public class WorkGovernor {
+    private static final int INCREASE_STEP = 4;
+    private static final int DECREASE_COOLDOWN_TICKS = 20;
+    private static final double INITIAL_BUDGET = 32;
+    private static final double MAX_BUDGET = 4096;
+    private static final double HEADROOM = 0.8; // Grow only below 80% of the target
+    private static final double MSPT_SMOOTHING = 0.1;
+
+    private final double targetMspt;
+    private double budget = INITIAL_BUDGET;
+    private double averageMspt;
+    private long tickStartNanos;
+    private int ticksSinceDecrease = DECREASE_COOLDOWN_TICKS;
+
+    private final Map<Object, double[]> carry = new IdentityHashMap<>();
+    private final Set<Object> claimantsThisTick = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int claimantsLastTick = 1;
+
+    private long ticks;
+    private long blocksGranted;
+
+    /**
+     * @param targetMspt Tick time to stay under, in milliseconds
+     */
+    public WorkGovernor(double targetMspt) {
+        this.targetMspt = targetMspt;
+    }
+
+    /**
+     * Claims this tick's share of the budget.
+     *
+     * @param claimant Action doing the work; the same object must claim on every tick
+     * @param cap      Most the claimant can use this tick
+     * @return Blocks the claimant may place or break this tick, between 0 and {@code cap}
+     */
+    public int claim(Object claimant, int cap) {
+        claimantsThisTick.add(claimant);
+
+        double[] credit = carry.computeIfAbsent(claimant, c -> new double[1]);
+        credit[0] = Math.min(credit[0] + budget / claimantsLastTick, cap);
+        int granted = (int) credit[0];
+        credit[0] -= granted;
+        blocksGranted += granted;
+        return granted;
+    }
+
+    public void onTickStart() {
+        tickStartNanos = System.nanoTime();
+    }
+
+    public void onTickEnd() {
+        if (tickStartNanos == 0) {
+            return;
+        }
+        double mspt = (System.nanoTime() - tickStartNanos) / 1_000_000.0;
+        averageMspt = ticks == 0 ? mspt : averageMspt + MSPT_SMOOTHING * (mspt - averageMspt);
+        ticks++;
+
+        ticksSinceDecrease++;
+        if (averageMspt > targetMspt) {
+            if (ticksSinceDecrease >= DECREASE_COOLDOWN_TICKS) {
+                budget /= 2;
+                ticksSinceDecrease = 0;
+            }
+        } else if (averageMspt < targetMspt * HEADROOM && !claimantsThisTick.isEmpty()) {
+            budget = Math.min(budget + INCREASE_STEP, MAX_BUDGET);
+        }
+
+        carry.keySet().retainAll(claimantsThisTick);
+        claimantsLastTick = Math.max(1, claimantsThisTick.size());
+        claimantsThisTick.clear();
+    }
+
+    /**
+     * @return Server-wide blocks per tick currently allowed
+     */
+    public int getBudget() {
+        return (int) budget;
+    }
+
+    /**
+     * @return Smoothed tick time, in milliseconds
+     */
+    public double getAverageMspt() {
+        return averageMspt;
+    }
+
+    public void logStats() {
+        SteveMod.LOGGER.info("WorkGovernor: {} ticks, average {} ms (target {} ms), budget {} blocks/tick, {} blocks granted",
+            ticks, String.format("%.1f", averageMspt), targetMspt, getBudget(), blocksGranted);
+    }
+}
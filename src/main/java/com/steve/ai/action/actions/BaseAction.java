@@ -1,7 +1,11 @@
 package com.steve.ai.action.actions;
 
+import com.steve.ai.SteveMod;
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskCompiler;
+import com.steve.ai.action.TaskSpec;
+import com.steve.ai.action.WorkGovernor;
 import com.steve.ai.entity.SteveEntity;
 
 public abstract class BaseAction {
@@ -19,7 +23,12 @@ public abstract class BaseAction {
     public void start() {
         if (started) return;
         started = true;
-        onStart();
+        try {
+            onStart();
+        } catch (IllegalArgumentException e) {
+            // Task was not compiled before queuing and turned out to be invalid
+            result = ActionResult.failure("Invalid task: " + e.getMessage(), false);
+        }
     }
 
     public void tick() {
@@ -41,6 +50,43 @@ public abstract class BaseAction {
         return result;
     }
 
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the task's typed parameters, compiling the task first if the planner did not.
+     *
+     * @param type Expected spec type
+     * @param <T>  Spec type
+     * @return The spec
+     * @throws IllegalArgumentException if the task is invalid
+     */
+    protected <T extends TaskSpec> T spec(Class<T> type) {
+        TaskSpec spec = task.getSpec();
+        if (spec == null) {
+            spec = TaskCompiler.compile(task).getSpec();
+        }
+        if (!type.isInstance(spec)) {
+            throw new IllegalArgumentException("Expected " + type.getSimpleName() + " task, got " + task.getAction());
+        }
+        return type.cast(spec);
+    }
+
+    /**
+     * Claims this tick's share of the server's work budget, for actions that place or break
+     * blocks in bulk. Call at most once per tick, and only on ticks with work to do.
+     *
+     * @param cap Most blocks the action can use this tick
+     * @return Blocks the action may place or break this tick; {@code cap} if no
+     *         {@link WorkGovernor} is running
+     */
+    protected int claimWork(int cap) {
+        return SteveMod.getServiceContainer().findService(WorkGovernor.class)
+            .map(governor -> governor.claim(this, cap))
+            .orElse(cap);
+    }
+
     protected abstract void onStart();
     protected abstract void onTick();
     protected abstract void onCancel();
@@ -4,16 +4,17 @@ import com.steve.ai.SteveMod;
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.CollaborativeBuildManager;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
+import com.steve.ai.config.SteveConfig;
 import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.memory.StructureRegistry;
-import com.steve.ai.structure.BlockPlacement;
+import com.steve.ai.structure.BuildPlan;
+import com.steve.ai.structure.BulkBlockPlacer;
 import com.steve.ai.structure.StructureGenerators;
 import com.steve.ai.structure.StructureTemplateLoader;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.BlockParticleOption;
 import net.minecraft.core.particles.ParticleTypes;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.InteractionHand;
@@ -23,18 +24,20 @@ import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
 
 public class BuildStructureAction extends BaseAction {
     
     private String structureType;
-    private List<BlockPlacement> buildPlan;
+    private BuildPlan buildPlan; // The whole plan, or the current layer of a solo build
     private int currentBlockIndex;
+    private Spliterator<BuildPlan> layers; // Remaining layers of a solo build, generated as they are reached
+    private int blocksPlaced;
     private List<Block> buildMaterials;
     private int ticksRunning;
     private CollaborativeBuildManager.CollaborativeBuild collaborativeBuild; // For multi-Steve collaboration
     private boolean isCollaborative;
     private static final int MAX_TICKS = 120000;
-    private static final int BLOCKS_PER_TICK = 1;
     private static final double BUILD_SPEED_MULTIPLIER = 1.5;
 
     public BuildStructureAction(SteveEntity steve, Task task) {
@@ -43,8 +46,10 @@ public class BuildStructureAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        structureType = task.getStringParameter("structure").toLowerCase();
+        TaskSpec.Build spec = spec(TaskSpec.Build.class);
+        structureType = spec.getStructure();
         currentBlockIndex = 0;
+        blocksPlaced = 0;
         ticksRunning = 0;
         collaborativeBuild = CollaborativeBuildManager.findActiveBuild(structureType);
         if (collaborativeBuild != null) {
@@ -65,41 +70,10 @@ public class BuildStructureAction extends BaseAction {
         
         isCollaborative = false;
         
-        buildMaterials = new ArrayList<>();
-        Object blocksParam = task.getParameter("blocks");
-        if (blocksParam instanceof List) {
-            List<?> blocksList = (List<?>) blocksParam;
-            for (Object blockObj : blocksList) {
-                Block block = parseBlock(blockObj.toString());
-                if (block != Blocks.AIR) {
-                    buildMaterials.add(block);
-                }
-            }
-        }
-        
-        if (buildMaterials.isEmpty()) {
-            String materialName = task.getStringParameter("material", "oak_planks");
-            Block block = parseBlock(materialName);
-            buildMaterials.add(block != Blocks.AIR ? block : Blocks.OAK_PLANKS);
-        }
-        
-        Object dimensionsParam = task.getParameter("dimensions");
-        int width = 9;  // Increased from 5
-        int height = 6; // Increased from 4
-        int depth = 9;  // Increased from 5
-        
-        if (dimensionsParam instanceof List) {
-            List<?> dims = (List<?>) dimensionsParam;
-            if (dims.size() >= 3) {
-                width = ((Number) dims.get(0)).intValue();
-                height = ((Number) dims.get(1)).intValue();
-                depth = ((Number) dims.get(2)).intValue();
-            }
-        } else {
-            width = task.getIntParameter("width", 5);
-            height = task.getIntParameter("height", 4);
-            depth = task.getIntParameter("depth", 5);
-        }
+        buildMaterials = spec.getMaterials();
+        int width = spec.getWidth();
+        int height = spec.getHeight();
+        int depth = spec.getDepth();
         
         net.minecraft.world.entity.player.Player nearestPlayer = findNearestPlayer();
         BlockPos groundPos;
@@ -144,8 +118,25 @@ public class BuildStructureAction extends BaseAction {
         
         buildPlan = tryLoadFromTemplate(structureType, clearPos);
         
+        if (buildPlan == null && SteveMod.getSteveManager().getActiveCount() <= 1) {
+            // Nobody can join, so generate layers as the build reaches them
+            layers = StructureGenerators.stream(structureType, clearPos, width, height, depth, buildMaterials).spliterator();
+            if (!layers.tryAdvance(layer -> buildPlan = layer)) {
+                result = ActionResult.failure("Cannot generate build plan for: " + structureType);
+                return;
+            }
+            
+            StructureRegistry.register(clearPos, width, height, depth, structureType);
+            steve.setFlying(true);
+            
+            SteveMod.LOGGER.info("Steve '{}' starting SOLO build of {} at {} layer by layer using materials: {} [FLYING ENABLED]", 
+                steve.getSteveName(), structureType, clearPos, buildMaterials);
+            return;
+        }
+        
         if (buildPlan == null) {
-            // Fall back to procedural generation            buildPlan = generateBuildPlan(structureType, clearPos, width, height, depth);
+            // Fall back to procedural generation
+            buildPlan = generateBuildPlan(structureType, clearPos, width, height, depth);
         } else {
             SteveMod.LOGGER.info("Loaded '{}' from NBT template with {} blocks", structureType, buildPlan.size());
         }
@@ -164,12 +155,7 @@ public class BuildStructureAction extends BaseAction {
             SteveMod.LOGGER.info("Steve '{}' JOINING existing {} collaborative build at {}", 
                 steve.getSteveName(), structureType, collaborativeBuild.startPos);
         } else {
-            List<BlockPlacement> collaborativeBlocks = new ArrayList<>();
-            for (BlockPlacement bp : buildPlan) {
-                collaborativeBlocks.add(new BlockPlacement(bp.pos, bp.block));
-            }
-            
-            collaborativeBuild = CollaborativeBuildManager.registerBuild(structureType, collaborativeBlocks, clearPos);
+            collaborativeBuild = CollaborativeBuildManager.registerBuild(structureType, buildPlan, clearPos);
             isCollaborative = true;
             SteveMod.LOGGER.info("Steve '{}' CREATED new {} collaborative build at {}", 
                 steve.getSteveName(), structureType, clearPos);
@@ -199,49 +185,24 @@ public class BuildStructureAction extends BaseAction {
                 return;
             }
             
-            for (int i = 0; i < BLOCKS_PER_TICK; i++) {
-                BlockPlacement placement = 
-                    CollaborativeBuildManager.getNextBlock(collaborativeBuild, steve.getSteveName());
+            // Claim this tick's share of the build, then place it in bulk, section by section
+            int budget = claimWork(SteveConfig.BUILD_BLOCKS_PER_TICK.get());
+            int claimed = 0;
+            while (claimed < budget) {
+                BuildPlan batch = CollaborativeBuildManager.claimBlocks(
+                    collaborativeBuild, steve.getSteveName(), budget - claimed);
                 
-                if (placement == null) {
-                    if (ticksRunning % 20 == 0) {
+                if (batch == null) {
+                    if (claimed == 0 && ticksRunning % 20 == 0) {
                         SteveMod.LOGGER.info("Steve '{}' has no more blocks! Build {}% complete", 
                             steve.getSteveName(), collaborativeBuild.getProgressPercentage());
                     }
                     break;
                 }
+                claimed += batch.size();
                 
-                BlockPos pos = placement.pos;
-                double distance = Math.sqrt(steve.blockPosition().distSqr(pos));
-                if (distance > 5) {
-                    steve.teleportTo(pos.getX() + 2, pos.getY(), pos.getZ() + 2);
-                    SteveMod.LOGGER.info("Steve '{}' teleported to block at {}", steve.getSteveName(), pos);
-                }
-                
-                steve.getLookControl().setLookAt(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
-                
-                steve.swing(InteractionHand.MAIN_HAND, true);
-                
-                BlockState existingState = steve.level().getBlockState(pos);
-                
-                BlockState blockState = placement.block.defaultBlockState();
-                steve.level().setBlock(pos, blockState, 3);
-                
-                SteveMod.LOGGER.info("Steve '{}' PLACED BLOCK at {} - Total: {}/{}", 
-                    steve.getSteveName(), pos, collaborativeBuild.getBlocksPlaced(), 
-                    collaborativeBuild.getTotalBlocks());
-                
-                // Particles and sound
                 if (steve.level() instanceof ServerLevel serverLevel) {
-                    serverLevel.sendParticles(
-                        new BlockParticleOption(ParticleTypes.BLOCK, blockState),
-                        pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5,
-                        15, 0.4, 0.4, 0.4, 0.15
-                    );
-                    
-                    var soundType = blockState.getSoundType(steve.level(), pos, steve);
-                    steve.level().playSound(null, pos, soundType.getPlaceSound(), 
-                        SoundSource.BLOCKS, 1.0f, soundType.getPitch());
+                    placeBatch(serverLevel, batch);
                 }
             }
             
@@ -254,12 +215,48 @@ public class BuildStructureAction extends BaseAction {
                     percentComplete,
                     collaborativeBuild.participatingSteves.size());
             }
+        } else if (layers != null) {
+            tickSolo();
         } else {
             steve.setFlying(false); // Disable flying on error
             result = ActionResult.failure("Build system error: not in collaborative mode");
         }
     }
 
+    /**
+     * Place this tick's share of a solo build, pulling the next layer from the generator
+     * whenever the current one is done
+     */
+    private void tickSolo() {
+        int budget = claimWork(SteveConfig.BUILD_BLOCKS_PER_TICK.get());
+        int claimed = 0;
+        while (claimed < budget) {
+            if (currentBlockIndex >= buildPlan.size()) {
+                if (!layers.tryAdvance(layer -> buildPlan = layer)) {
+                    steve.setFlying(false);
+                    result = ActionResult.success("Built " + structureType + " (" + blocksPlaced + " blocks)");
+                    return;
+                }
+                currentBlockIndex = 0;
+            }
+            
+            int end = Math.min(buildPlan.size(), currentBlockIndex + budget - claimed);
+            BuildPlan batch = buildPlan.slice(currentBlockIndex, end);
+            currentBlockIndex = end;
+            claimed += batch.size();
+            blocksPlaced += batch.size();
+            
+            if (steve.level() instanceof ServerLevel serverLevel) {
+                placeBatch(serverLevel, batch);
+            }
+        }
+        
+        if (ticksRunning % 100 == 0) {
+            SteveMod.LOGGER.info("{} build progress: {} blocks placed, layer at Y={}", 
+                structureType, blocksPlaced, buildPlan.getBlockPos(0).getY());
+        }
+    }
+
     @Override
     protected void onCancel() {
         steve.setFlying(false); // Disable flying when cancelled
@@ -268,10 +265,56 @@ public class BuildStructureAction extends BaseAction {
 
     @Override
     public String getDescription() {
+        if (layers != null) {
+            return "Build " + structureType + " (" + blocksPlaced + " placed)";
+        }
         return "Build " + structureType + " (" + currentBlockIndex + "/" + (buildPlan != null ? buildPlan.size() : 0) + ")";
     }
 
-    private List<BlockPlacement> generateBuildPlan(String type, BlockPos start, int width, int height, int depth) {
+    /**
+     * Place a batch of blocks through the bulk placer, with one swing, particle burst and
+     * sound for the whole batch
+     */
+    private void placeBatch(ServerLevel serverLevel, BuildPlan batch) {
+        BlockPos pos = batch.getBlockPos(batch.size() - 1);
+        double distance = Math.sqrt(steve.blockPosition().distSqr(pos));
+        if (distance > 5) {
+            steve.teleportTo(pos.getX() + 2, pos.getY(), pos.getZ() + 2);
+            SteveMod.LOGGER.debug("Steve '{}' teleported to block at {}", steve.getSteveName(), pos);
+        }
+        
+        steve.getLookControl().setLookAt(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+        steve.swing(InteractionHand.MAIN_HAND, true);
+        
+        int changed = BulkBlockPlacer.placeAll(serverLevel, batch);
+        
+        if (collaborativeBuild != null) {
+            SteveMod.LOGGER.debug("Steve '{}' PLACED {} blocks ({} changed) up to {} - Total: {}/{}", 
+                steve.getSteveName(), batch.size(), changed, pos, collaborativeBuild.getBlocksPlaced(), 
+                collaborativeBuild.getTotalBlocks());
+        } else {
+            SteveMod.LOGGER.debug("Steve '{}' PLACED {} blocks ({} changed) up to {} - Total: {}", 
+                steve.getSteveName(), batch.size(), changed, pos, blocksPlaced);
+        }
+        
+        // Particles and sound
+        BlockState blockState = batch.getState(batch.size() - 1);
+        serverLevel.sendParticles(
+            new BlockParticleOption(ParticleTypes.BLOCK, blockState),
+            pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5,
+            15, 0.4, 0.4, 0.4, 0.15
+        );
+        
+        var soundType = blockState.getSoundType(serverLevel, pos, steve);
+        serverLevel.playSound(null, pos, soundType.getPlaceSound(), 
+            SoundSource.BLOCKS, 1.0f, soundType.getPitch());
+    }
+
+    /**
+     * Generate the whole plan up front: collaborative tiling sizes its Y bands from the
+     * whole structure
+     */
+    private BuildPlan generateBuildPlan(String type, BlockPos start, int width, int height, int depth) {
         // Delegate to centralized StructureGenerators utility
         return StructureGenerators.generate(type, start, width, height, depth, buildMaterials);
     }
@@ -279,16 +322,6 @@ public class BuildStructureAction extends BaseAction {
     private Block getMaterial(int index) {
         return buildMaterials.get(index % buildMaterials.size());
     }
-
-    private Block parseBlock(String blockName) {
-        blockName = blockName.toLowerCase().replace(" ", "_");
-        if (!blockName.contains(":")) {
-            blockName = "minecraft:" + blockName;
-        }
-        ResourceLocation resourceLocation = new ResourceLocation(blockName);
-        Block block = BuiltInRegistries.BLOCK.get(resourceLocation);
-        return block != null ? block : Blocks.AIR;
-    }
     
     /**
      * Find the actual ground level from a starting position
@@ -459,7 +492,7 @@ public class BuildStructureAction extends BaseAction {
      * Try to load structure from NBT template file
      * Returns null if no template found (falls back to procedural generation)
      */
-    private List<BlockPlacement> tryLoadFromTemplate(String structureName, BlockPos startPos) {
+    private BuildPlan tryLoadFromTemplate(String structureName, BlockPos startPos) {
         if (!(steve.level() instanceof ServerLevel serverLevel)) {
             return null;
         }
@@ -469,14 +502,7 @@ public class BuildStructureAction extends BaseAction {
             return null;
         }
         
-        List<BlockPlacement> blocks = new ArrayList<>();
-        for (var templateBlock : template.blocks) {
-            BlockPos worldPos = startPos.offset(templateBlock.relativePos);
-            Block block = templateBlock.blockState.getBlock();
-            blocks.add(new BlockPlacement(worldPos, block));
-        }
-        
-        return blocks;
+        return template.blocks.translate(startPos);
     }
     
     /**
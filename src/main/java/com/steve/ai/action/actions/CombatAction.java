@@ -2,13 +2,11 @@ package com.steve.ai.action.actions;
 
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
-import net.minecraft.world.entity.Entity;
+import com.steve.ai.memory.EntityIndex;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.monster.Monster;
-import net.minecraft.world.phys.AABB;
-
-import java.util.List;
 
 public class CombatAction extends BaseAction {
     private String targetType;
@@ -18,6 +16,7 @@ public class CombatAction extends BaseAction {
     private double lastX, lastZ;
     private static final int MAX_TICKS = 600;
     private static final double ATTACK_RANGE = 3.5;
+    private static final double SEARCH_RADIUS = 32.0;
 
     public CombatAction(SteveEntity steve, Task task) {
         super(steve, task);
@@ -25,7 +24,7 @@ public class CombatAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        targetType = task.getStringParameter("target");
+        targetType = spec(TaskSpec.Attack.class).getTarget();
         ticksRunning = 0;
         ticksStuck = 0;
         
@@ -125,27 +124,14 @@ public class CombatAction extends BaseAction {
         return "Attack " + targetType;
     }
 
+    /**
+     * Find the nearest valid target, from the entity index shared by all Steves this tick
+     */
     private void findTarget() {
-        AABB searchBox = steve.getBoundingBox().inflate(32.0);
-        List<Entity> entities = steve.level().getEntities(steve, searchBox);
-        
-        LivingEntity nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-        
-        for (Entity entity : entities) {
-            if (entity instanceof LivingEntity living && isValidTarget(living)) {
-                double distance = steve.distanceTo(living);
-                if (distance < nearestDistance) {
-                    nearest = living;
-                    nearestDistance = distance;
-                }
-            }
-        }
-        
-        target = nearest;
+        target = EntityIndex.shared().findNearest(steve, SEARCH_RADIUS, LivingEntity.class, this::isValidTarget);
         if (target != null) {
             com.steve.ai.SteveMod.LOGGER.info("Steve '{}' locked onto: {} at {}m", 
-                steve.getSteveName(), target.getType().toString(), (int)nearestDistance);
+                steve.getSteveName(), target.getType().toString(), (int)steve.distanceTo(target));
         }
     }
 
@@ -159,7 +145,7 @@ public class CombatAction extends BaseAction {
             return false;
         }
         
-        String targetLower = targetType.toLowerCase();
+        String targetLower = targetType; // Already lowercase (TaskSpec.Attack)
         
         // Match ANY hostile mob
         if (targetLower.contains("mob") || targetLower.contains("hostile") || 
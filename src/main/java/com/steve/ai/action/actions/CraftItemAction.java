@@ -2,6 +2,7 @@ package com.steve.ai.action.actions;
 
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
 
 public class CraftItemAction extends BaseAction {
@@ -15,8 +16,9 @@ public class CraftItemAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        itemName = task.getStringParameter("item");
-        quantity = task.getIntParameter("quantity", 1);
+        TaskSpec.Craft spec = spec(TaskSpec.Craft.class);
+        itemName = spec.getItem();
+        quantity = spec.getQuantity();
         ticksRunning = 0;
         
         // - Check if recipe exists
@@ -2,6 +2,7 @@ package com.steve.ai.action.actions;
 
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
 import net.minecraft.world.entity.player.Player;
 
@@ -19,7 +20,7 @@ public class FollowPlayerAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        playerName = task.getStringParameter("player");
+        playerName = spec(TaskSpec.Follow.class).getPlayer();
         ticksRunning = 0;
         
         findPlayer();
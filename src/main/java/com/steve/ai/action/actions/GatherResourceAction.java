@@ -1,12 +1,41 @@
 package com.steve.ai.action.actions;
 
+import com.steve.ai.SteveMod;
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskCompiler;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
+import com.steve.ai.memory.BlockIndex;
+import net.minecraft.core.BlockPos;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
 
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Gathers a resource by harvesting the nearest matching blocks, one at a time.
+ *
+ * <p>Targets come from the server's {@link BlockIndex}, so only indexed resources can be
+ * gathered: wood (any log) and ores.</p>
+ */
 public class GatherResourceAction extends BaseAction {
+    private static final Set<String> WOOD = Set.of("wood", "log", "logs", "tree", "trees");
+    private static final int SEARCH_RADIUS = 32;
+    private static final int HARVEST_DELAY = 10;
+    private static final int MAX_TICKS = 6000;
+
     private String resourceType;
     private int quantity;
+    private Predicate<Block> resourceFilter;
+    private BlockIndex blockIndex;
+    private int gathered;
+    private int ticksRunning;
+    private int ticksSinceLastHarvest;
 
     public GatherResourceAction(SteveEntity steve, Task task) {
         super(steve, task);
@@ -14,17 +43,57 @@ public class GatherResourceAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        resourceType = task.getStringParameter("resource");
-        quantity = task.getIntParameter("quantity", 1);
-        
-        // This is essentially a smart wrapper around mining that:
-        // - Mines them
-        
-        result = ActionResult.failure("Resource gathering not yet fully implemented", false);
+        TaskSpec.Gather spec = spec(TaskSpec.Gather.class);
+        resourceType = spec.getResource();
+        quantity = spec.getQuantity();
+        gathered = 0;
+        ticksRunning = 0;
+        ticksSinceLastHarvest = 0;
+
+        resourceFilter = resolveResource(resourceType);
+        if (resourceFilter == null) {
+            result = ActionResult.failure("Don't know how to gather " + resourceType + " (try wood or an ore)", false);
+            return;
+        }
+
+        blockIndex = SteveMod.getServiceContainer().findService(BlockIndex.class).orElse(null);
+        if (blockIndex == null) {
+            result = ActionResult.failure("Resource gathering is not available", false);
+        }
     }
 
     @Override
     protected void onTick() {
+        ticksRunning++;
+        ticksSinceLastHarvest++;
+
+        if (ticksRunning > MAX_TICKS) {
+            result = ActionResult.failure("Gathering timeout - only gathered " + gathered + " " + resourceType);
+            return;
+        }
+
+        if (ticksSinceLastHarvest < HARVEST_DELAY) {
+            return;
+        }
+
+        List<BlockPos> nearest = blockIndex.findNearest(steve.level(), steve.blockPosition(), SEARCH_RADIUS, 1, resourceFilter);
+        if (nearest.isEmpty()) {
+            result = ActionResult.failure("Only found " + gathered + " of " + quantity + " " + resourceType
+                + " within " + SEARCH_RADIUS + " blocks");
+            return;
+        }
+
+        BlockPos target = nearest.get(0);
+        steve.teleportTo(target.getX() + 0.5, target.getY(), target.getZ() + 0.5);
+        steve.swing(InteractionHand.MAIN_HAND, true);
+        steve.level().destroyBlock(target, true);
+        blockIndex.onBlockChanged(steve.level(), target, steve.level().getBlockState(target));
+        gathered++;
+        ticksSinceLastHarvest = 0;
+
+        if (gathered >= quantity) {
+            result = ActionResult.success("Gathered " + gathered + " " + resourceType);
+        }
     }
 
     @Override
@@ -34,7 +103,23 @@ public class GatherResourceAction extends BaseAction {
 
     @Override
     public String getDescription() {
-        return "Gather " + quantity + " " + resourceType;
+        return "Gather " + quantity + " " + resourceType + " (" + gathered + " gathered)";
     }
-}
 
+    /**
+     * Maps a resource name to the blocks that yield it.
+     *
+     * @return Block filter, or null if the resource cannot be found through the block index
+     */
+    private static Predicate<Block> resolveResource(String resource) {
+        if (WOOD.contains(resource.toLowerCase())) {
+            return block -> block.defaultBlockState().is(BlockTags.LOGS);
+        }
+
+        Block block = TaskCompiler.resolveOre(resource);
+        if (block == Blocks.AIR || !BlockIndex.INDEXED.test(block.defaultBlockState())) {
+            return null;
+        }
+        return candidate -> candidate == block;
+    }
+}
@@ -4,10 +4,10 @@ import com.steve.ai.SteveMod;
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
 import com.steve.ai.entity.SteveEntity;
+import com.steve.ai.util.ActionUtils;
 import net.minecraft.world.entity.player.Player;
 
 import java.util.HashMap;
-import java.util.List;
 
 /**
  * Idle behavior for Steve - follows the nearest player when not working.
@@ -112,27 +112,7 @@ public class IdleFollowAction extends BaseAction {
      * Find the nearest player to follow
      */
     private void findNearestPlayer() {
-        List<? extends Player> players = steve.level().players();
-        
-        if (players.isEmpty()) {
-            targetPlayer = null;
-            return;
-        }
-        
-        Player nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-        
-        for (Player player : players) {
-            if (!player.isAlive() || player.isRemoved() || player.isSpectator()) {
-                continue;
-            }
-            
-            double distance = steve.distanceTo(player);
-            if (distance < nearestDistance) {
-                nearest = player;
-                nearestDistance = distance;
-            }
-        }
+        Player nearest = ActionUtils.findNearestPlayer(steve);
         
         if (nearest != targetPlayer && nearest != null) {
             SteveMod.LOGGER.debug("Steve '{}' now following {} (idle)", 
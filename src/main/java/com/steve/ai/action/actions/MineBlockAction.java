@@ -3,20 +3,37 @@ package com.steve.ai.action.actions;
 import com.steve.ai.SteveMod;
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
+import com.steve.ai.config.SteveConfig;
 import com.steve.ai.entity.SteveEntity;
+import com.steve.ai.memory.BlockIndex;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.Tags;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Mines a quantity of a block, tunnelling in the direction the nearest player is looking.
+ *
+ * <p><b>Vein mining:</b> When mining an ore (and {@code veinMining} is on), each ore found
+ * seeds a breadth-first flood fill over its connected blocks, including diagonal neighbours.
+ * The whole vein is broken at up to {@code veinBlocksPerTick} blocks per tick, without the
+ * fixed delay or a new search between blocks. Positions are tracked as packed longs
+ * ({@link BlockPos#asLong}); the visited set is kept for the whole action, so cleared space
+ * is never queued again.</p>
+ *
+ * <p>All mining draws on the server's {@link com.steve.ai.action.WorkGovernor} budget: vein
+ * mining for its blocks per tick, tunnel mining for each block it digs.</p>
+ */
 public class MineBlockAction extends BaseAction {
     private Block targetBlock;
     private int targetQuantity;
@@ -35,6 +52,13 @@ public class MineBlockAction extends BaseAction {
     private static final int MIN_LIGHT_LEVEL = 8;
     private static final int MINING_DELAY = 10;
     private static final int MAX_MINING_RADIUS = 5;
+    private static final int ORE_SEARCH_RADIUS = 16;
+    private static final int MAX_VEIN_SIZE = 512; // Most positions queued per vein
+    
+    private boolean veinMining;
+    private final LongArrayFIFOQueue veinQueue = new LongArrayFIFOQueue();
+    private final LongOpenHashSet veinVisited = new LongOpenHashSet();
+    private int veinSize;
     
     // Ore depth mappings for intelligent mining
     private static final Map<String, Integer> ORE_DEPTHS = new HashMap<>() {{
@@ -59,19 +83,16 @@ public class MineBlockAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        String blockName = task.getStringParameter("block");
-        targetQuantity = task.getIntParameter("quantity", 8); // Mine reasonable amount by default
+        TaskSpec.Mine spec = spec(TaskSpec.Mine.class);
+        targetBlock = spec.getBlock();
+        targetQuantity = spec.getQuantity();
         minedCount = 0;
         ticksRunning = 0;
         ticksSinceLastTorch = 0;
         ticksSinceLastMine = 0;
-        
-        targetBlock = parseBlock(blockName);
-        
-        if (targetBlock == null || targetBlock == Blocks.AIR) {
-            result = ActionResult.failure("Invalid block type: " + blockName);
-            return;
-        }
+        veinMining = SteveConfig.VEIN_MINING.get() && targetBlock.defaultBlockState().is(Tags.Blocks.ORES);
+        veinQueue.clear();
+        veinVisited.clear();
         
         net.minecraft.world.entity.player.Player nearestPlayer = findNearestPlayer();
         if (nearestPlayer != null) {
@@ -151,6 +172,11 @@ public class MineBlockAction extends BaseAction {
             ticksSinceLastTorch = 0;
         }
         
+        if (!veinQueue.isEmpty()) {
+            mineVein();
+            return;
+        }
+        
         if (ticksSinceLastMine < MINING_DELAY) {
             return; // Still waiting
         }
@@ -166,18 +192,33 @@ public class MineBlockAction extends BaseAction {
                     result = ActionResult.success("Mined " + minedCount + " " + targetBlock.getName().getString());
                     return;
                 } else {
-                    mineNearbyBlock();
+                    if (claimWork(1) > 0) {
+                        mineNearbyBlock();
+                    }
                     return;
                 }
             }
         }
         
+        if (veinMining) {
+            startVein(currentTarget);
+            currentTarget = null;
+            mineVein();
+            return;
+        }
+        
+        if (claimWork(1) == 0) {
+            return; // Server is behind; keep the target for a later tick
+        }
+        
         if (steve.level().getBlockState(currentTarget).getBlock() == targetBlock) {
             steve.teleportTo(currentTarget.getX() + 0.5, currentTarget.getY(), currentTarget.getZ() + 0.5);
             
             steve.swing(InteractionHand.MAIN_HAND, true);
             
             steve.level().destroyBlock(currentTarget, true);
+            SteveMod.getServiceContainer().findService(BlockIndex.class)
+                .ifPresent(index -> index.onBlockChanged(steve.level(), currentTarget, steve.level().getBlockState(currentTarget)));
             minedCount++;
             ticksSinceLastMine = 0; // Reset delay timer
             
@@ -207,7 +248,92 @@ public class MineBlockAction extends BaseAction {
 
     @Override
     public String getDescription() {
-        return "Mine " + targetQuantity + " " + targetBlock.getName().getString() + " (" + minedCount + " found)";
+        String blockName = targetBlock != null ? targetBlock.getName().getString() : task.getStringParameter("block");
+        return "Mine " + targetQuantity + " " + blockName + " (" + minedCount + " found)";
+    }
+
+    /**
+     * Seed a vein flood fill from one block of it
+     */
+    private void startVein(BlockPos origin) {
+        long packed = origin.asLong();
+        veinVisited.add(packed);
+        veinQueue.enqueue(packed);
+        veinSize = 1;
+    }
+
+    /**
+     * Break the next blocks of the current vein, up to this tick's share of the work budget.
+     * Each broken block queues its unvisited neighbours that hold the target block.
+     */
+    private void mineVein() {
+        int budget = claimWork(SteveConfig.VEIN_BLOCKS_PER_TICK.get());
+        BlockIndex blockIndex = SteveMod.getServiceContainer().findService(BlockIndex.class).orElse(null);
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        BlockPos lastBroken = null;
+        int broken = 0;
+        
+        while (broken < budget && !veinQueue.isEmpty() && minedCount < targetQuantity) {
+            long packed = veinQueue.dequeueLong();
+            pos.set(packed);
+            if (steve.level().getBlockState(pos).getBlock() != targetBlock) {
+                continue; // Changed since it was queued
+            }
+            
+            steve.level().destroyBlock(pos, true);
+            if (blockIndex != null) {
+                blockIndex.onBlockChanged(steve.level(), pos, steve.level().getBlockState(pos));
+            }
+            minedCount++;
+            broken++;
+            lastBroken = pos.immutable();
+            queueVeinNeighbours(packed);
+        }
+        
+        if (lastBroken != null) {
+            steve.teleportTo(lastBroken.getX() + 0.5, lastBroken.getY(), lastBroken.getZ() + 0.5);
+            steve.swing(InteractionHand.MAIN_HAND, true);
+            ticksSinceLastMine = 0;
+            
+            SteveMod.LOGGER.info("Steve '{}' vein-mined {} {} around {} - Total: {}/{}", 
+                steve.getSteveName(), broken, targetBlock.getName().getString(), lastBroken, 
+                minedCount, targetQuantity);
+        }
+        
+        if (minedCount >= targetQuantity) {
+            veinQueue.clear();
+            steve.setFlying(false);
+            steve.setItemInHand(InteractionHand.MAIN_HAND, net.minecraft.world.item.ItemStack.EMPTY);
+            result = ActionResult.success("Mined " + minedCount + " " + targetBlock.getName().getString());
+        }
+    }
+
+    /**
+     * Queue the 26 neighbours of a broken vein block that hold the target block.
+     * Every position checked is marked visited, so it is never read again
+     */
+    private void queueVeinNeighbours(long packed) {
+        BlockPos.MutableBlockPos neighbour = new BlockPos.MutableBlockPos();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (veinSize >= MAX_VEIN_SIZE) {
+                        return;
+                    }
+                    
+                    long next = BlockPos.offset(packed, dx, dy, dz);
+                    if (next == packed || !veinVisited.add(next)) {
+                        continue; // Checked before, from another block of the vein
+                    }
+                    
+                    neighbour.set(next);
+                    if (steve.level().getBlockState(neighbour).getBlock() == targetBlock) {
+                        veinQueue.enqueue(next);
+                        veinSize++;
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -288,11 +414,30 @@ public class MineBlockAction extends BaseAction {
         ticksSinceLastMine = 0; // Reset delay
     }
 
+    /**
+     * Find the nearest target block around the tunnel, using the server's block index.
+     * Blocks the index does not track fall back to searching the tunnel ahead.
+     */
+    private void findNextBlock() {
+        BlockIndex blockIndex = SteveMod.getServiceContainer().findService(BlockIndex.class).orElse(null);
+        if (blockIndex == null || !BlockIndex.INDEXED.test(targetBlock.defaultBlockState())) {
+            findNextBlockInTunnel();
+            return;
+        }
+
+        List<BlockPos> nearest = blockIndex.findNearest(steve.level(), currentTunnelPos, ORE_SEARCH_RADIUS, 1, targetBlock);
+        if (!nearest.isEmpty()) {
+            currentTarget = nearest.get(0);
+            SteveMod.LOGGER.info("Steve '{}' found {} near tunnel at {}", 
+                steve.getSteveName(), targetBlock.getName().getString(), currentTarget);
+        }
+    }
+
     /**
      * Find ore blocks in the tunnel ahead
      * Searches forward in the mining direction
      */
-    private void findNextBlock() {
+    private void findNextBlockInTunnel() {
         List<BlockPos> foundBlocks = new ArrayList<>();
         
         for (int distance = 0; distance < 20; distance++) {
@@ -357,31 +502,5 @@ public class MineBlockAction extends BaseAction {
         
         return nearest;
     }
-
-    private Block parseBlock(String blockName) {
-        blockName = blockName.toLowerCase().replace(" ", "_");
-        
-        Map<String, String> resourceToOre = new HashMap<>() {{
-            put("iron", "iron_ore");
-            put("diamond", "diamond_ore");
-            put("coal", "coal_ore");
-            put("gold", "gold_ore");
-            put("copper", "copper_ore");
-            put("redstone", "redstone_ore");
-            put("lapis", "lapis_ore");
-            put("emerald", "emerald_ore");
-        }};
-        
-        if (resourceToOre.containsKey(blockName)) {
-            blockName = resourceToOre.get(blockName);
-        }
-        
-        if (!blockName.contains(":")) {
-            blockName = "minecraft:" + blockName;
-        }
-        
-        ResourceLocation resourceLocation = new ResourceLocation(blockName);
-        return BuiltInRegistries.BLOCK.get(resourceLocation);
-    }
 }
 
@@ -2,6 +2,7 @@ package com.steve.ai.action.actions;
 
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
 import net.minecraft.core.BlockPos;
 
@@ -16,14 +17,10 @@ public class PathfindAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        int x = task.getIntParameter("x", 0);
-        int y = task.getIntParameter("y", 0);
-        int z = task.getIntParameter("z", 0);
-        
-        targetPos = new BlockPos(x, y, z);
+        targetPos = spec(TaskSpec.Pathfind.class).getTarget();
         ticksRunning = 0;
         
-        steve.getNavigation().moveTo(x, y, z, 1.0);
+        steve.getNavigation().moveTo(targetPos.getX(), targetPos.getY(), targetPos.getZ(), 1.0);
     }
 
     @Override
@@ -2,12 +2,10 @@ package com.steve.ai.action.actions;
 
 import com.steve.ai.action.ActionResult;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskSpec;
 import com.steve.ai.entity.SteveEntity;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
 public class PlaceBlockAction extends BaseAction {
@@ -22,21 +20,10 @@ public class PlaceBlockAction extends BaseAction {
 
     @Override
     protected void onStart() {
-        String blockName = task.getStringParameter("block");
-        int x = task.getIntParameter("x", 0);
-        int y = task.getIntParameter("y", 0);
-        int z = task.getIntParameter("z", 0);
-        
-        targetPos = new BlockPos(x, y, z);
+        TaskSpec.Place spec = spec(TaskSpec.Place.class);
+        blockToPlace = spec.getBlock();
+        targetPos = spec.getPos();
         ticksRunning = 0;
-        
-        blockToPlace = parseBlock(blockName);
-        
-        if (blockToPlace == null || blockToPlace == Blocks.AIR) {
-            result = ActionResult.failure("Invalid block type: " + blockName);
-            return;
-        }
-        
     }
 
     @Override
@@ -70,16 +57,8 @@ public class PlaceBlockAction extends BaseAction {
 
     @Override
     public String getDescription() {
-        return "Place " + blockToPlace.getName().getString() + " at " + targetPos;
-    }
-
-    private Block parseBlock(String blockName) {
-        blockName = blockName.toLowerCase().replace(" ", "_");
-        if (!blockName.contains(":")) {
-            blockName = "minecraft:" + blockName;
-        }
-        ResourceLocation resourceLocation = new ResourceLocation(blockName);
-        return BuiltInRegistries.BLOCK.get(resourceLocation);
+        String blockName = blockToPlace != null ? blockToPlace.getName().getString() : task.getStringParameter("block");
+        return "Place " + blockName + " at " + targetPos;
     }
 }
 
@@ -412,8 +412,13 @@ public class SteveGUI {
 
         // Send command to all targeted Steves
         if (mc.player != null) {
-            for (String steveName : targetSteves) {
-                mc.player.connection.sendCommand("steve tell " + steveName + " " + command);
+            if (targetSteves.size() > 1 && isAllStevesCommand(command.toLowerCase())) {
+                // One team plan for everyone instead of one LLM call per Steve
+                mc.player.connection.sendCommand("steve tellall " + command);
+            } else {
+                for (String steveName : targetSteves) {
+                    mc.player.connection.sendCommand("steve tell " + steveName + " " + command);
+                }
             }
             
             if (targetSteves.size() > 1) {
@@ -424,12 +429,16 @@ public class SteveGUI {
         }
     }
     
+    private static boolean isAllStevesCommand(String commandLower) {
+        return commandLower.startsWith("all steves ") || commandLower.startsWith("all ") || 
+            commandLower.startsWith("everyone ") || commandLower.startsWith("everybody ");
+    }
+
     private static List<String> parseTargetSteves(String command) {
         List<String> targets = new ArrayList<>();
         String commandLower = command.toLowerCase();
         
-        if (commandLower.startsWith("all steves ") || commandLower.startsWith("all ") || 
-            commandLower.startsWith("everyone ") || commandLower.startsWith("everybody ")) {
+        if (isAllStevesCommand(commandLower)) {
             var allSteves = SteveMod.getSteveManager().getAllSteves();
             for (SteveEntity steve : allSteves) {
                 targets.add(steve.getSteveName());
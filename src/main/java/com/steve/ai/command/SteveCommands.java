@@ -6,12 +6,20 @@ import com.mojang.brigadier.context.CommandContext;
 import com.steve.ai.SteveMod;
 import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.entity.SteveManager;
+import com.steve.ai.llm.ResponseParser;
+import com.steve.ai.llm.TaskPlanner;
+import com.steve.ai.llm.async.CancellableFutures;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.phys.Vec3;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public class SteveCommands {
     
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
@@ -31,6 +39,9 @@ public class SteveCommands {
                 .then(Commands.argument("name", StringArgumentType.string())
                     .then(Commands.argument("command", StringArgumentType.greedyString())
                         .executes(SteveCommands::tellSteve))))
+            .then(Commands.literal("tellall")
+                .then(Commands.argument("command", StringArgumentType.greedyString())
+                    .executes(SteveCommands::tellAllSteves)))
         );
     }
 
@@ -122,9 +133,9 @@ public class SteveCommands {
             // Disabled command feedback message
             // source.sendSuccess(() -> Component.literal("Instructing " + name + ": " + command), true);
             
-            new Thread(() -> {
-                steve.getActionExecutor().processNaturalLanguageCommand(command);
-            }).start();
+            // Commands run on the server thread, where the world snapshot for planning is
+            // captured; the LLM call itself is asynchronous, so this returns immediately
+            steve.getActionExecutor().processNaturalLanguageCommand(command);
             
             return 1;
         } else {
@@ -132,5 +143,42 @@ public class SteveCommands {
             return 0;
         }
     }
-}
 
+    /**
+     * Gives one command to every Steve, planned for the whole team in a single LLM call.
+     */
+    private static int tellAllSteves(CommandContext<CommandSourceStack> context) {
+        String command = StringArgumentType.getString(context, "command");
+        CommandSourceStack source = context.getSource();
+
+        List<SteveEntity> steves = new ArrayList<>();
+        for (SteveEntity steve : SteveMod.getSteveManager().getAllSteves()) {
+            if (!steve.getActionExecutor().isPlanning()) {
+                steves.add(steve);
+            }
+        }
+
+        if (steves.isEmpty()) {
+            source.sendFailure(Component.literal("No Steves available for: " + command));
+            return 0;
+        }
+
+        TaskPlanner planner = TaskPlanner.getShared(SteveMod.getServiceContainer());
+        CompletableFuture<Map<String, ResponseParser.ParsedResponse>> teamPlan = planner.planBatchAsync(steves, command);
+
+        // One view per Steve: the team call is only aborted once every Steve has dropped it
+        List<CompletableFuture<Map<String, ResponseParser.ParsedResponse>>> views =
+            CancellableFutures.fanOut(teamPlan, steves.size());
+        for (int i = 0; i < steves.size(); i++) {
+            String name = steves.get(i).getSteveName();
+            CompletableFuture<Map<String, ResponseParser.ParsedResponse>> view = views.get(i);
+            CompletableFuture<ResponseParser.ParsedResponse> plan = CancellableFutures.propagate(
+                view.thenApply(plans -> plans != null ? plans.get(name) : null), view);
+            if (!steves.get(i).getActionExecutor().processPlannedCommand(command, plan)) {
+                plan.cancel(true);
+            }
+        }
+
+        return steves.size();
+    }
+}
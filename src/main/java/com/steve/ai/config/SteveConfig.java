@@ -5,13 +5,26 @@ import net.minecraftforge.common.ForgeConfigSpec;
 public class SteveConfig {
     public static final ForgeConfigSpec SPEC;
     public static final ForgeConfigSpec.ConfigValue<String> AI_PROVIDER;
+    public static final ForgeConfigSpec.BooleanValue STREAM_RESPONSES;
+    public static final ForgeConfigSpec.BooleanValue FAST_PATH_PLANNING;
+    public static final ForgeConfigSpec.BooleanValue HEDGE_REQUESTS;
+    public static final ForgeConfigSpec.IntValue PLANNING_TIMEOUT_SECONDS;
+    public static final ForgeConfigSpec.BooleanValue DISK_CACHE_ENABLED;
+    public static final ForgeConfigSpec.IntValue DISK_CACHE_MAX_MB;
+    public static final ForgeConfigSpec.IntValue DISK_CACHE_TTL_HOURS;
     public static final ForgeConfigSpec.ConfigValue<String> OPENAI_API_KEY;
     public static final ForgeConfigSpec.ConfigValue<String> OPENAI_MODEL;
     public static final ForgeConfigSpec.IntValue MAX_TOKENS;
+    public static final ForgeConfigSpec.IntValue MAX_INPUT_TOKENS;
     public static final ForgeConfigSpec.DoubleValue TEMPERATURE;
     public static final ForgeConfigSpec.IntValue ACTION_TICK_DELAY;
     public static final ForgeConfigSpec.BooleanValue ENABLE_CHAT_RESPONSES;
+    public static final ForgeConfigSpec.IntValue MAX_REPLANS;
     public static final ForgeConfigSpec.IntValue MAX_ACTIVE_STEVES;
+    public static final ForgeConfigSpec.BooleanValue VEIN_MINING;
+    public static final ForgeConfigSpec.IntValue VEIN_BLOCKS_PER_TICK;
+    public static final ForgeConfigSpec.IntValue BUILD_BLOCKS_PER_TICK;
+    public static final ForgeConfigSpec.IntValue TARGET_MSPT;
 
     static {
         ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
@@ -21,6 +34,36 @@ public class SteveConfig {
         AI_PROVIDER = builder
             .comment("AI provider to use: 'groq' (FASTEST, FREE), 'openai', or 'gemini'")
             .define("provider", "groq");
+
+        STREAM_RESPONSES = builder
+            .comment("Stream LLM responses and start executing tasks as soon as each one arrives")
+            .define("streamResponses", true);
+
+        FAST_PATH_PLANNING = builder
+            .comment("Answer routine commands (\"mine 20 iron\", \"follow me\") from plan templates learned from",
+                     "earlier LLM plans, without an LLM call")
+            .define("fastPathPlanning", true);
+
+        HEDGE_REQUESTS = builder
+            .comment("When the provider is slower than its usual p95 latency, also ask the next healthy provider",
+                     "and use whichever answers first. Requires the API key to be valid for the other providers too.")
+            .define("hedgeRequests", false);
+
+        PLANNING_TIMEOUT_SECONDS = builder
+            .comment("Seconds a planning request may take, including retries, before it is abandoned")
+            .defineInRange("planningTimeoutSeconds", 60, 5, 600);
+
+        DISK_CACHE_ENABLED = builder
+            .comment("Persist LLM responses in the world folder so plans survive server restarts")
+            .define("diskCache", true);
+
+        DISK_CACHE_MAX_MB = builder
+            .comment("Maximum size of the on-disk LLM response cache in megabytes")
+            .defineInRange("diskCacheMaxMb", 32, 1, 1024);
+
+        DISK_CACHE_TTL_HOURS = builder
+            .comment("Hours before an on-disk cached LLM response expires")
+            .defineInRange("diskCacheTtlHours", 72, 1, 8760);
         
         builder.pop();
 
@@ -35,8 +78,12 @@ public class SteveConfig {
             .define("model", "gpt-4-turbo-preview");
         
         MAX_TOKENS = builder
-            .comment("Maximum tokens per API request")
-            .defineInRange("maxTokens", 8000, 100, 65536);
+            .comment("Maximum output tokens per planning response (plans are usually 100-300 tokens)")
+            .defineInRange("maxTokens", 1000, 100, 65536);
+        
+        MAX_INPUT_TOKENS = builder
+            .comment("Estimated input token budget per request; nearby world context is trimmed to fit")
+            .defineInRange("maxInputTokens", 4000, 500, 131072);
         
         TEMPERATURE = builder
             .comment("Temperature for AI responses (0.0-2.0, lower is more deterministic)")
@@ -54,10 +101,30 @@ public class SteveConfig {
             .comment("Allow Steves to respond in chat")
             .define("enableChatResponses", true);
         
+        MAX_REPLANS = builder
+            .comment("Times a Steve may ask the AI to patch its task queue after a task fails, per command (0 = off)")
+            .defineInRange("maxReplansPerCommand", 3, 0, 10);
+        
         MAX_ACTIVE_STEVES = builder
             .comment("Maximum number of Steves that can be active simultaneously")
             .defineInRange("maxActiveSteves", 10, 1, 50);
         
+        VEIN_MINING = builder
+            .comment("Mine whole ore veins at once: every connected block of the ore is broken, a few per tick")
+            .define("veinMining", true);
+        
+        VEIN_BLOCKS_PER_TICK = builder
+            .comment("Most vein blocks a Steve breaks in one tick, when the server has time to spare")
+            .defineInRange("veinBlocksPerTick", 16, 1, 64);
+        
+        BUILD_BLOCKS_PER_TICK = builder
+            .comment("Most blocks a building Steve places in one tick (placed in bulk, per chunk section), when the server has time to spare")
+            .defineInRange("buildBlocksPerTick", 64, 1, 1024);
+        
+        TARGET_MSPT = builder
+            .comment("Server tick time (ms) to stay under: Steves build and mine faster below it and back off above it (50 ms = 20 TPS)")
+            .defineInRange("targetMspt", 40, 10, 50);
+        
         builder.pop();
 
         SPEC = builder.build();
@@ -1,16 +1,38 @@
 package com.steve.ai.event;
 
 import com.steve.ai.SteveMod;
+import com.steve.ai.action.WorkGovernor;
+import com.steve.ai.config.SteveConfig;
+import com.steve.ai.di.ServiceContainer;
 import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.entity.SteveManager;
+import com.steve.ai.llm.TaskPlanner;
+import com.steve.ai.llm.async.DiskLLMCache;
+import com.steve.ai.memory.BlockIndex;
+import com.steve.ai.memory.EntityIndex;
 import com.steve.ai.memory.StructureRegistry;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.util.BlockSnapshot;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
 @Mod.EventBusSubscriber(modid = SteveMod.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
 public class ServerEventHandler {
     private static boolean stevesSpawned = false;
@@ -59,5 +81,109 @@ public class ServerEventHandler {
     public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
         stevesSpawned = false;
     }
-}
 
+    @SubscribeEvent
+    public static void onServerStarting(ServerStartingEvent event) {
+        SteveMod.getServiceContainer().register(BlockIndex.class, new BlockIndex());
+        SteveMod.getServiceContainer().register(EntityIndex.class, new EntityIndex());
+        SteveMod.getServiceContainer().register(WorkGovernor.class, new WorkGovernor(SteveConfig.TARGET_MSPT.get()));
+
+        if (!SteveConfig.DISK_CACHE_ENABLED.get()) {
+            return;
+        }
+
+        Path cacheFile = event.getServer().getWorldPath(LevelResource.ROOT).resolve("steve").resolve("llm-cache.log");
+        try {
+            DiskLLMCache diskCache = new DiskLLMCache(cacheFile,
+                SteveConfig.DISK_CACHE_MAX_MB.get() * 1024 * 1024,
+                Duration.ofHours(SteveConfig.DISK_CACHE_TTL_HOURS.get()));
+            SteveMod.getServiceContainer().register(DiskLLMCache.class, diskCache);
+        } catch (IOException e) {
+            SteveMod.LOGGER.warn("Could not open LLM disk cache at {}, using memory cache only", cacheFile, e);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        ServiceContainer container = SteveMod.getServiceContainer();
+        TaskPlanner.releaseShared(container);
+
+        container.findService(BlockIndex.class).ifPresent(blockIndex -> {
+            blockIndex.logStats();
+            container.unregister(BlockIndex.class);
+        });
+
+        container.findService(EntityIndex.class).ifPresent(entityIndex -> {
+            entityIndex.logStats();
+            container.unregister(EntityIndex.class);
+        });
+
+        container.findService(WorkGovernor.class).ifPresent(governor -> {
+            governor.logStats();
+            container.unregister(WorkGovernor.class);
+        });
+
+        container.findService(DiskLLMCache.class).ifPresent(diskCache -> {
+            container.unregister(DiskLLMCache.class);
+            try {
+                diskCache.close();
+            } catch (IOException e) {
+                SteveMod.LOGGER.warn("Failed to close LLM disk cache", e);
+            }
+        });
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        SteveMod.getServiceContainer().findService(WorkGovernor.class).ifPresent(governor -> {
+            if (event.phase == TickEvent.Phase.START) {
+                governor.onTickStart();
+            } else {
+                governor.onTickEnd();
+            }
+        });
+    }
+
+    // Block index upkeep. LOWEST priority so that cancelled changes are never indexed.
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            SteveMod.getServiceContainer().findService(BlockIndex.class)
+                .ifPresent(index -> index.onBlockChanged(level, event.getPos(), Blocks.AIR.defaultBlockState()));
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            SteveMod.getServiceContainer().findService(BlockIndex.class).ifPresent(index -> {
+                if (event instanceof BlockEvent.EntityMultiPlaceEvent multiPlace) {
+                    for (BlockSnapshot snapshot : multiPlace.getReplacedBlockSnapshots()) {
+                        index.onBlockChanged(level, snapshot.getPos(), snapshot.getCurrentBlock());
+                    }
+                } else {
+                    index.onBlockChanged(level, event.getPos(), event.getPlacedBlock());
+                }
+            });
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        // Only full chunks; proto chunks are loaded on worker threads and never indexed
+        if (event.getLevel() instanceof Level level && !level.isClientSide() && event.getChunk() instanceof LevelChunk) {
+            SteveMod.getServiceContainer().findService(BlockIndex.class)
+                .ifPresent(index -> index.invalidateChunk(level, event.getChunk().getPos()));
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        // Only full chunks; proto chunks are loaded on worker threads and never indexed
+        if (event.getLevel() instanceof Level level && !level.isClientSide() && event.getChunk() instanceof LevelChunk) {
+            SteveMod.getServiceContainer().findService(BlockIndex.class)
+                .ifPresent(index -> index.invalidateChunk(level, event.getChunk().getPos()));
+        }
+    }
+}
@@ -2,10 +2,11 @@ package com.steve.ai.execution;
 
 import com.steve.ai.action.Task;
 import com.steve.ai.entity.SteveEntity;
-import net.minecraft.core.BlockPos;
+import com.steve.ai.memory.EntityIndex;
+import com.steve.ai.util.ChunkSectionScanner;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 
@@ -231,21 +232,8 @@ public class SteveAPI {
         }
 
         Set<String> blockTypes = new HashSet<>();
-        BlockPos stevePos = steve.blockPosition();
-
-        // Sample blocks within radius (not every block to avoid performance issues)
-        for (int x = -radius; x <= radius; x += 2) {
-            for (int y = -radius; y <= radius; y += 2) {
-                for (int z = -radius; z <= radius; z += 2) {
-                    BlockPos pos = stevePos.offset(x, y, z);
-                    BlockState state = steve.level().getBlockState(pos);
-                    String blockName = state.getBlock().getName().getString().toLowerCase();
-
-                    if (!blockName.contains("air")) {
-                        blockTypes.add(blockName);
-                    }
-                }
-            }
+        for (Block block : ChunkSectionScanner.countBlocks(steve.level(), steve.blockPosition(), radius).keySet()) {
+            blockTypes.add(block.getName().getString().toLowerCase());
         }
 
         return new ArrayList<>(blockTypes);
@@ -268,13 +256,12 @@ public class SteveAPI {
             stevePos.x + radius, stevePos.y + radius, stevePos.z + radius
         );
 
-        List<Entity> entities = steve.level().getEntities(steve, searchBox);
+        List<Entity> entities = EntityIndex.shared().getEntities(
+            steve.level(), steve, searchBox, entity -> entity instanceof LivingEntity);
 
         for (Entity entity : entities) {
-            if (entity instanceof LivingEntity) {
-                String entityName = entity.getType().getDescription().getString().toLowerCase();
-                entityNames.add(entityName);
-            }
+            String entityName = entity.getType().getDescription().getString().toLowerCase();
+            entityNames.add(entityName);
         }
 
         return entityNames;
@@ -0,0 +1,157 @@
+package com.steve.ai.llm;
+
+import com.steve.ai.action.Task;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Derives context-normalized cache keys for planning prompts and rebinds cached plans.
+ *
+ * <p>The user prompt embeds the agent's exact position, entity counts and block summary, so
+ * hashing it verbatim means the same command issued a block away never hits the LLM cache.
+ * This stage runs between {@link TaskPlanner} and the resilient client: the prompt is sent
+ * unchanged, but its cache key is passed through a chain of {@link PromptCanonicalizer}s.</p>
+ *
+ * <p><b>Rebinding:</b> Because several contexts share one key, a cached plan may have been
+ * generated for a different agent. The context a plan was requested in ({@link #encodeContext})
+ * is stored with its cache entry, in memory and on disk, and {@link #rebind} adapts each task
+ * of a cache hit to the requesting agent:</p>
+ * <ul>
+ *   <li>Coordinates near the position the plan was generated at are translated by the
+ *       agent's offset from that position (far coordinates are assumed to be absolute targets
+ *       from the command itself)</li>
+ *   <li>A player name that came from the generating agent's surroundings (and was therefore
+ *       normalized out of the key) is replaced by a player near the requesting agent. Names
+ *       that appear in the key, such as one given in the command, are kept</li>
+ * </ul>
+ * <p>Fresh plans are never rebound.</p>
+ *
+ * <p><b>Thread Safety:</b> Canonicalizers are registered during setup; all other methods are
+ * thread-safe.</p>
+ *
+ * @since 1.2.0
+ */
+public class CacheKeyNormalizer {
+
+    private static final int DEFAULT_BUCKET_SIZE = 8;
+    private static final int REBIND_RADIUS = 16;
+
+    private final List<PromptCanonicalizer> canonicalizers = new ArrayList<>();
+
+    /**
+     * Creates a normalizer with the default canonicalizers: coordinate bucketing, entity
+     * counts dropped, block list sorted and player names dropped.
+     *
+     * @return Normalizer with default canonicalizers
+     */
+    public static CacheKeyNormalizer withDefaults() {
+        return new CacheKeyNormalizer()
+            .addCanonicalizer(PromptCanonicalizer.bucketCoordinates(DEFAULT_BUCKET_SIZE))
+            .addCanonicalizer(PromptCanonicalizer.dropEntityCounts())
+            .addCanonicalizer(PromptCanonicalizer.sortNearbyBlocks())
+            .addCanonicalizer(PromptCanonicalizer.dropPlayerNames());
+    }
+
+    /**
+     * Appends a canonicalizer to the chain.
+     *
+     * @param canonicalizer Canonicalizer to apply after the existing ones
+     * @return This normalizer, for chaining
+     */
+    public CacheKeyNormalizer addCanonicalizer(PromptCanonicalizer canonicalizer) {
+        canonicalizers.add(canonicalizer);
+        return this;
+    }
+
+    /**
+     * Returns the canonical form of the prompt, used as its cache key.
+     *
+     * @param prompt User prompt as sent to the LLM
+     * @return Normalized prompt
+     */
+    public String normalize(String prompt) {
+        String normalized = prompt;
+        for (PromptCanonicalizer canonicalizer : canonicalizers) {
+            normalized = canonicalizer.canonicalize(normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Encodes the context a plan is requested in, to be stored with its cache entry.
+     *
+     * @param position      Requesting agent's position
+     * @param nearbyPlayers Names of players near the requesting agent
+     * @return Context string for {@link #rebind}
+     */
+    public static String encodeContext(BlockPos position, List<String> nearbyPlayers) {
+        return position.getX() + "," + position.getY() + "," + position.getZ() + ";" + String.join(",", nearbyPlayers);
+    }
+
+    /**
+     * Adapts a task of a cached plan to the requesting agent's context.
+     *
+     * @param task          Task from the cached plan
+     * @param key           Normalized cache key the plan was looked up with
+     * @param cachedContext Context stored with the cache entry ({@link #encodeContext}), or null
+     * @param position      Requesting agent's position
+     * @param nearbyPlayers Names of players near the requesting agent
+     * @return The task itself if nothing changed, otherwise a rebound copy
+     */
+    public Task rebind(Task task, String key, String cachedContext, BlockPos position, List<String> nearbyPlayers) {
+        if (cachedContext == null) {
+            return task;
+        }
+        String[] context = cachedContext.split(";", 2);
+        String[] coordinates = context[0].split(",");
+        if (coordinates.length != 3) {
+            return task;
+        }
+        BlockPos origin;
+        try {
+            origin = new BlockPos(
+                Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]), Integer.parseInt(coordinates[2]));
+        } catch (NumberFormatException e) {
+            return task;
+        }
+        List<String> originPlayers = context.length > 1 && !context[1].isEmpty()
+            ? Arrays.asList(context[1].split(","))
+            : List.of();
+
+        Map<String, Object> parameters = null;
+
+        if (!origin.equals(position) && task.hasParameters("x", "y", "z")) {
+            BlockPos target = new BlockPos(
+                task.getIntParameter("x", 0), task.getIntParameter("y", 0), task.getIntParameter("z", 0));
+            if (target.closerThan(origin, REBIND_RADIUS)) {
+                BlockPos rebound = target.offset(position.subtract(origin));
+                parameters = new HashMap<>(task.getParameters());
+                parameters.put("x", rebound.getX());
+                parameters.put("y", rebound.getY());
+                parameters.put("z", rebound.getZ());
+            }
+        }
+
+        // Only names normalized out of the key are placeholders; names in the key came from the command
+        String player = task.getStringParameter("player");
+        if (player != null && originPlayers.contains(player) && !mentions(key, player)
+                && !nearbyPlayers.isEmpty() && !nearbyPlayers.contains(player)) {
+            if (parameters == null) {
+                parameters = new HashMap<>(task.getParameters());
+            }
+            parameters.put("player", nearbyPlayers.get(0));
+        }
+
+        return parameters != null ? new Task(task.getAction(), parameters) : task;
+    }
+
+    private static boolean mentions(String text, String name) {
+        return Pattern.compile("\\b" + Pattern.quote(name) + "\\b").matcher(text).find();
+    }
+}
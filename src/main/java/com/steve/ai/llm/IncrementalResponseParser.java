@@ -0,0 +1,174 @@
+package com.steve.ai.llm;
+
+import com.steve.ai.SteveMod;
+import com.steve.ai.action.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses a streamed LLM plan and emits each task as soon as its JSON object is complete.
+ *
+ * <p>Planning responses have the shape {@code {"reasoning": ..., "plan": ..., "tasks": [...]}}.
+ * Fragments are fed in as they arrive from the provider; the parser tracks JSON nesting
+ * (respecting strings and escapes) and, whenever an element of the top-level {@code tasks}
+ * array closes, parses just that element and passes the resulting {@link Task} to the
+ * consumer. The first task can therefore start executing while the rest of the plan is
+ * still being generated.</p>
+ *
+ * <p>Text outside the root object (such as markdown code fences) is ignored.</p>
+ *
+ * <p><b>Thread Safety:</b> {@link #feed(String)} and {@link #finish(String)} are synchronized;
+ * tasks are emitted on the thread that feeds the fragment.</p>
+ *
+ * @since 1.2.0
+ */
+public class IncrementalResponseParser {
+
+    private enum Container { OBJECT, ARRAY, TASKS }
+
+    private final Consumer<Task> onTask;
+    private final StringBuilder buffer = new StringBuilder();
+    private final Deque<Container> stack = new ArrayDeque<>();
+    private final List<Task> emittedTasks = new ArrayList<>();
+    private final long startTime = System.currentTimeMillis();
+
+    private int scanPos = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private int stringStart = -1;
+    private String lastString;
+    private String pendingKey;
+    private int taskStart = -1;
+    private long firstTaskLatencyMs = -1;
+
+    /**
+     * @param onTask Receives each task as soon as it has been fully streamed
+     */
+    public IncrementalResponseParser(Consumer<Task> onTask) {
+        this.onTask = onTask;
+    }
+
+    /**
+     * Appends a streamed fragment and emits any tasks it completes.
+     *
+     * @param fragment Next piece of the response content
+     */
+    public synchronized void feed(String fragment) {
+        buffer.append(fragment);
+
+        for (; scanPos < buffer.length(); scanPos++) {
+            char c = buffer.charAt(scanPos);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (stack.size() == 1) {
+                        lastString = buffer.substring(stringStart + 1, scanPos);
+                    }
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    stringStart = scanPos;
+                }
+                case ':' -> {
+                    if (stack.size() == 1) {
+                        pendingKey = lastString;
+                    }
+                }
+                case ',' -> {
+                    if (stack.size() == 1) {
+                        pendingKey = null;
+                    }
+                }
+                case '{' -> {
+                    if (stack.peek() == Container.TASKS) {
+                        taskStart = scanPos;
+                    }
+                    stack.push(Container.OBJECT);
+                }
+                case '[' -> {
+                    boolean tasksArray = stack.size() == 1 && "tasks".equals(pendingKey);
+                    stack.push(tasksArray ? Container.TASKS : Container.ARRAY);
+                }
+                case '}', ']' -> {
+                    if (stack.isEmpty()) {
+                        continue;
+                    }
+                    stack.pop();
+                    if (c == '}' && stack.peek() == Container.TASKS && taskStart >= 0) {
+                        emit(buffer.substring(taskStart, scanPos + 1));
+                        taskStart = -1;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes parsing once the full response is known.
+     *
+     * <p>Reasoning and plan are taken from the full response. If no task could be emitted
+     * while streaming (for example because the response was not streamed, or the model
+     * wrapped the JSON unusually), the tasks of the full parse are emitted now instead.</p>
+     *
+     * @param fullContent Complete response content
+     * @return Parsed response containing every emitted task, or null if nothing could be parsed
+     */
+    public synchronized ResponseParser.ParsedResponse finish(String fullContent) {
+        ResponseParser.ParsedResponse parsed = ResponseParser.parseAIResponse(fullContent);
+
+        if (emittedTasks.isEmpty()) {
+            if (parsed == null) {
+                return null;
+            }
+            for (Task task : parsed.getTasks()) {
+                emittedTasks.add(task);
+                onTask.accept(task);
+            }
+        }
+
+        String reasoning = parsed != null ? parsed.getReasoning() : "";
+        String plan = parsed != null ? parsed.getPlan() : "";
+        return new ResponseParser.ParsedResponse(reasoning, plan, new ArrayList<>(emittedTasks));
+    }
+
+    /**
+     * Returns the time from parser creation to the first emitted task.
+     *
+     * @return Latency in milliseconds, or -1 if no task has been emitted yet
+     */
+    public synchronized long getFirstTaskLatencyMs() {
+        return firstTaskLatencyMs;
+    }
+
+    private void emit(String taskJson) {
+        try {
+            Task task = ResponseParser.parseTask(taskJson);
+            if (task == null) {
+                return;
+            }
+
+            if (firstTaskLatencyMs < 0) {
+                firstTaskLatencyMs = System.currentTimeMillis() - startTime;
+            }
+            emittedTasks.add(task);
+            onTask.accept(task);
+        } catch (Exception e) {
+            SteveMod.LOGGER.warn("Skipping malformed streamed task: {}", taskJson);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.steve.ai.llm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes routine commands locally, so they can be planned without an LLM call.
+ *
+ * <p>Each intent is a precompiled pattern with named slots ("mine 20 iron" is
+ * {@code mine{block=iron, quantity=20}}). A command is only classified when a pattern
+ * matches it <i>entirely</i>; anything with extra detail ("mine iron near the river") is
+ * left to the LLM. This keeps the classifier high-precision: it never has to guess.</p>
+ *
+ * <p>Unlike {@link com.steve.ai.llm.resilience.LLMFallbackHandler}, which keyword-matches
+ * as a last resort, the classifier only identifies the intent; the plan itself comes from
+ * {@link PlanTemplateStore}.</p>
+ *
+ * <p><b>Thread Safety:</b> Rules are registered during setup; {@link #classify} is
+ * thread-safe.</p>
+ *
+ * @since 1.2.0
+ * @see PlanTemplateStore
+ */
+public class IntentClassifier {
+
+    // Politeness and punctuation that do not change the meaning of a command
+    private static final Pattern FILLER = Pattern.compile(
+        "^(?:(?:please|steve|hey|can you|could you)[,\\s]+)+|[,\\s]+please$|[.!?]+$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Creates a classifier for the routine commands: mining, following, building and combat.
+     *
+     * @return Classifier with default rules
+     */
+    public static IntentClassifier withDefaults() {
+        return new IntentClassifier()
+            .addRule("mine",
+                "(?:mine|dig|get|collect)\\s+(?:(?<quantity>\\d{1,4})\\s+)?"
+                    + "(?<block>iron|diamond|coal|gold|copper|redstone|lapis|emerald|[a-z]+_ore)(?:s|\\s+ores?)?",
+                "quantity", "block")
+            .addRule("follow",
+                "(?:follow|come with)\\s+(?<player>me|[a-z0-9_]{3,16})",
+                "player")
+            .addRule("build",
+                "(?:build|make|construct)\\s+(?:me\\s+|us\\s+)?an?\\s+"
+                    + "(?<structure>house|castle|tower|wall|platform|barn|shed|modern house|box)(?:\\s+here)?",
+                "structure")
+            .addRule("attack",
+                "(?:kill|attack|fight)\\s+(?:(?:all|the|nearby|those|some)\\s+)*"
+                    + "(?<target>mob|monster|hostile|zombie|skeleton|creeper|spider)s?(?:\\s+nearby)?",
+                "target");
+    }
+
+    /**
+     * Adds an intent rule. Earlier rules win when several match.
+     *
+     * @param intent Intent name
+     * @param regex  Pattern the whole normalized (lowercase) command must match
+     * @param slots  Named groups in {@code regex} to capture as slots
+     * @return This classifier, for chaining
+     */
+    public IntentClassifier addRule(String intent, String regex, String... slots) {
+        rules.add(new Rule(intent, Pattern.compile(regex), slots));
+        return this;
+    }
+
+    /**
+     * Classifies a command.
+     *
+     * @param command Command as typed by the player
+     * @return The intent, or null if no rule matches the whole command
+     */
+    public Intent classify(String command) {
+        if (command == null) {
+            return null;
+        }
+
+        String normalized = normalize(command);
+        for (Rule rule : rules) {
+            Matcher matcher = rule.pattern.matcher(normalized);
+            if (matcher.matches()) {
+                Map<String, String> slots = new TreeMap<>();
+                for (String slot : rule.slots) {
+                    String value = matcher.group(slot);
+                    if (value != null) {
+                        slots.put(slot, value.replace(' ', '_'));
+                    }
+                }
+                return new Intent(rule.intent, slots);
+            }
+        }
+        return null;
+    }
+
+    static String normalize(String command) {
+        String normalized = WHITESPACE.matcher(command.trim().toLowerCase()).replaceAll(" ");
+        return FILLER.matcher(normalized).replaceAll("").trim();
+    }
+
+    /**
+     * A classified command: intent name plus captured slot values.
+     */
+    public static final class Intent {
+        private final String name;
+        private final Map<String, String> slots;
+
+        Intent(String name, Map<String, String> slots) {
+            this.name = name;
+            this.slots = Collections.unmodifiableMap(slots);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Slot values by slot name, sorted by name
+         */
+        public Map<String, String> getSlots() {
+            return slots;
+        }
+
+        /**
+         * Returns the intent name and the slots that were present, e.g. {@code mine[block, quantity]}.
+         * Commands with the same signature can share a plan template.
+         *
+         * @return Template lookup key
+         */
+        public String getSignature() {
+            return name + slots.keySet();
+        }
+
+        @Override
+        public String toString() {
+            return name + slots;
+        }
+    }
+
+    private static final class Rule {
+        private final String intent;
+        private final Pattern pattern;
+        private final String[] slots;
+
+        private Rule(String intent, Pattern pattern, String[] slots) {
+            this.intent = intent;
+            this.pattern = pattern;
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.steve.ai.llm;
+
+import java.io.Reader;
+
+/**
+ * Character filter that repairs common model mistakes in JSON responses on the fly.
+ *
+ * <p>Sits between the raw LLM response and Gson's {@code JsonReader}, so a plan is parsed in
+ * one pass without building intermediate strings:</p>
+ * <ul>
+ *   <li>Text before the root object (markdown fences, prose) and after it is dropped</li>
+ *   <li>Missing commas between values ({@code } {}, {@code ] [}, {@code "a" "b"}) are inserted</li>
+ *   <li>Trailing commas before {@code }} or {@code ]} are dropped</li>
+ * </ul>
+ *
+ * <p>String contents are passed through untouched; the filter tracks quotes and escapes so
+ * braces or commas inside strings are never altered.</p>
+ *
+ * <p><b>Thread Safety:</b> Not thread-safe; one instance per parse.</p>
+ *
+ * @since 1.2.0
+ */
+final class JsonRepairReader extends Reader {
+
+    private static final int NONE = -1;
+
+    private final CharSequence source;
+    private int pos;
+    private int depth = 0;
+    private boolean started = false;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private int pending = NONE;
+
+    JsonRepairReader(CharSequence source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        int count = 0;
+        while (count < len) {
+            int c = next();
+            if (c == NONE) {
+                break;
+            }
+            cbuf[off + count++] = (char) c;
+        }
+        return count == 0 && len > 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private int next() {
+        if (pending != NONE) {
+            int c = pending;
+            pending = NONE;
+            return c;
+        }
+
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+
+            if (!started) {
+                // Skip fences and prose until the root object starts
+                if (c == '{') {
+                    started = true;
+                    depth = 1;
+                    return c;
+                }
+                continue;
+            }
+            if (depth == 0) {
+                // Root object closed: ignore whatever follows (closing fence, commentary)
+                return NONE;
+            }
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    insertCommaIfMissing();
+                }
+                return c;
+            }
+
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    depth--;
+                    if (depth > 0) {
+                        insertCommaIfMissing();
+                    }
+                }
+                case ',' -> {
+                    int after = nextNonWhitespace();
+                    if (after < source.length() && isClosing(source.charAt(after))) {
+                        continue; // trailing comma
+                    }
+                }
+                default -> {
+                }
+            }
+            return c;
+        }
+        return NONE;
+    }
+
+    /**
+     * Queues a comma if the value just closed is directly followed by another value.
+     */
+    private void insertCommaIfMissing() {
+        int after = nextNonWhitespace();
+        if (after < source.length()) {
+            char c = source.charAt(after);
+            if (c == '{' || c == '[' || c == '"') {
+                pending = ',';
+            }
+        }
+    }
+
+    private int nextNonWhitespace() {
+        int i = pos;
+        while (i < source.length() && Character.isWhitespace(source.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isClosing(char c) {
+        return c == '}' || c == ']';
+    }
+}
@@ -0,0 +1,347 @@
+package com.steve.ai.llm;
+
+import com.steve.ai.SteveMod;
+import com.steve.ai.action.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parameterized plan templates, learned from LLM plans and replayed for routine commands.
+ *
+ * <p>This is the planner's fast path. When {@link IntentClassifier} recognizes a command,
+ * the store looks for a template with the same intent signature and fills in the command's
+ * slots, producing a plan in microseconds with no network call. Unrecognized commands, and
+ * recognized ones without a trusted template, go to the LLM as before.</p>
+ *
+ * <p><b>Learning:</b> After a successful LLM plan, every task parameter equal to a slot value
+ * becomes a placeholder ("mine 20 iron" → {@code mine{block=$block, quantity=$quantity}}).
+ * Slots the plan does not reference stay bound to their value, so a plan learned for
+ * "kill mobs" is not replayed for "kill creepers". A template is only used once the LLM has
+ * produced the same shape {@value #MIN_CONFIRMATIONS} times; a different plan resets it.</p>
+ *
+ * <p>Plans with coordinates or concrete player names depend on the situation they were
+ * made in and are never learned.</p>
+ *
+ * <p><b>Metrics:</b> Lookups, hits, hit rate, average hit latency and the LLM latency saved
+ * (hits × moving average of LLM planning latency) are available through getters and
+ * {@link #logStats()}.</p>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe. Templates are immutable and replaced atomically.</p>
+ *
+ * @since 1.2.0
+ * @see IntentClassifier
+ */
+public class PlanTemplateStore {
+
+    private static final int MIN_CONFIRMATIONS = 2;
+    private static final int MAX_TEMPLATES_PER_SIGNATURE = 16;
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final Pattern NUMBER = Pattern.compile("-?\\d{1,9}");
+    private static final Set<String> POSITION_KEYS = Set.of("x", "y", "z");
+
+    private final IntentClassifier classifier;
+    private final Map<String, List<PlanTemplate>> templates = new ConcurrentHashMap<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong hitNanos = new AtomicLong();
+    private final AtomicLong latencySavedMs = new AtomicLong();
+    private volatile double averageLlmLatencyMs = -1;
+
+    public PlanTemplateStore(IntentClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Creates a store with the default classifier, seeded with the plans the system prompt
+     * prescribes for mining a given amount and for following a player.
+     *
+     * @return Store with seed templates
+     */
+    public static PlanTemplateStore withDefaults() {
+        PlanTemplateStore store = new PlanTemplateStore(IntentClassifier.withDefaults());
+        store.seed("mine 8 iron", "Mine iron",
+            new Task("mine", Map.of("block", "iron", "quantity", 8)));
+        store.seed("follow me", "Follow player",
+            new Task("follow", Map.of("player", "me")));
+        return store;
+    }
+
+    /**
+     * Plans a command from a template, if one is trusted for it.
+     *
+     * @param command Command as typed by the player
+     * @return The plan (tasks not yet compiled), or null if the LLM is needed
+     */
+    public ResponseParser.ParsedResponse plan(String command) {
+        long start = System.nanoTime();
+        lookups.incrementAndGet();
+
+        IntentClassifier.Intent intent = classifier.classify(command);
+        if (intent == null) {
+            return null;
+        }
+
+        for (PlanTemplate template : templates.getOrDefault(intent.getSignature(), List.of())) {
+            if (template.confirmations >= MIN_CONFIRMATIONS && template.appliesTo(intent)) {
+                ResponseParser.ParsedResponse plan = template.instantiate(intent);
+
+                hits.incrementAndGet();
+                hitNanos.addAndGet(System.nanoTime() - start);
+                if (averageLlmLatencyMs > 0) {
+                    latencySavedMs.addAndGet(Math.round(averageLlmLatencyMs));
+                }
+                SteveMod.LOGGER.debug("Template plan for '{}' ({})", command, intent);
+                return plan;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Learns from a successful LLM plan.
+     *
+     * @param command   Command the plan was made for
+     * @param plan      Validated plan
+     * @param latencyMs LLM latency for the plan (fresh responses only, not cache hits)
+     */
+    public void learn(String command, ResponseParser.ParsedResponse plan, long latencyMs) {
+        if (latencyMs > 0) {
+            double average = averageLlmLatencyMs;
+            averageLlmLatencyMs = average < 0 ? latencyMs : average + LATENCY_ALPHA * (latencyMs - average);
+        }
+
+        IntentClassifier.Intent intent = classifier.classify(command);
+        if (intent == null || plan == null || plan.getTasks().isEmpty()) {
+            return;
+        }
+
+        PlanTemplate learned = PlanTemplate.abstractFrom(intent, plan, 1);
+        if (learned == null) {
+            return;
+        }
+
+        templates.compute(intent.getSignature(), (signature, existing) -> {
+            List<PlanTemplate> updated = new ArrayList<>();
+            PlanTemplate merged = learned;
+            if (existing != null) {
+                for (PlanTemplate template : existing) {
+                    if (!template.bound.equals(learned.bound)) {
+                        updated.add(template);
+                    } else if (template.shape.equals(learned.shape)) {
+                        merged = learned.withConfirmations(template.confirmations + 1);
+                    }
+                    // Same slots but a different plan: the old template is replaced
+                }
+            }
+            updated.add(0, merged);
+            if (updated.size() > MAX_TEMPLATES_PER_SIGNATURE) {
+                updated = updated.subList(0, MAX_TEMPLATES_PER_SIGNATURE);
+            }
+            return List.copyOf(updated);
+        });
+    }
+
+    private void seed(String command, String planText, Task... tasks) {
+        IntentClassifier.Intent intent = classifier.classify(command);
+        PlanTemplate template = PlanTemplate.abstractFrom(intent,
+            new ResponseParser.ParsedResponse("Routine command", planText, List.of(tasks)), MIN_CONFIRMATIONS);
+        templates.put(intent.getSignature(), List.of(template));
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Fraction of lookups answered from a template (0.0 - 1.0)
+     */
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * @return Average time to answer a command from a template, in microseconds
+     */
+    public double getAverageHitMicros() {
+        long count = hits.get();
+        return count == 0 ? 0.0 : hitNanos.get() / 1000.0 / count;
+    }
+
+    /**
+     * @return Estimated LLM latency avoided by template hits, in milliseconds
+     */
+    public long getLatencySavedMs() {
+        return latencySavedMs.get();
+    }
+
+    public int getTemplateCount() {
+        return templates.values().stream().mapToInt(List::size).sum();
+    }
+
+    public void logStats() {
+        SteveMod.LOGGER.info("Plan templates: {} templates, {}/{} commands answered locally ({}%), avg {}us, ~{}ms of LLM latency saved",
+            getTemplateCount(), getHits(), getLookups(),
+            String.format("%.1f", getHitRate() * 100), String.format("%.1f", getAverageHitMicros()),
+            getLatencySavedMs());
+    }
+
+    /**
+     * A placeholder for a slot value inside a template's parameters.
+     */
+    private static final class SlotRef {
+        private final String slot;
+
+        private SlotRef(String slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String toString() {
+            return "$" + slot;
+        }
+    }
+
+    private static final class PlanTemplate {
+        private final Map<String, String> bound;
+        private final String planText;
+        private final List<String> actions;
+        private final List<Map<String, Object>> parameters;
+        private final String shape;
+        private final int confirmations;
+
+        private PlanTemplate(Map<String, String> bound, String planText, List<String> actions,
+                             List<Map<String, Object>> parameters, int confirmations) {
+            this.bound = bound;
+            this.planText = planText;
+            this.actions = actions;
+            this.parameters = parameters;
+            this.confirmations = confirmations;
+
+            StringBuilder shape = new StringBuilder();
+            for (int i = 0; i < actions.size(); i++) {
+                shape.append(actions.get(i)).append(new TreeMap<>(parameters.get(i))).append(';');
+            }
+            this.shape = shape.toString();
+        }
+
+        /**
+         * Turns a plan into a template for the intent, or returns null if it cannot be reused.
+         */
+        static PlanTemplate abstractFrom(IntentClassifier.Intent intent, ResponseParser.ParsedResponse plan,
+                                         int confirmations) {
+            Map<String, String> slotsByValue = new HashMap<>();
+            intent.getSlots().forEach((slot, value) -> slotsByValue.putIfAbsent(value, slot));
+            Set<String> used = new HashSet<>();
+
+            List<String> actions = new ArrayList<>();
+            List<Map<String, Object>> parameters = new ArrayList<>();
+            for (Task task : plan.getTasks()) {
+                Map<String, Object> abstracted = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> entry : task.getParameters().entrySet()) {
+                    if (POSITION_KEYS.contains(entry.getKey())) {
+                        return null;
+                    }
+                    Object value = abstractValue(entry.getValue(), slotsByValue, used);
+                    if (entry.getKey().equals("player") && !(value instanceof SlotRef)) {
+                        return null;
+                    }
+                    abstracted.put(entry.getKey(), value);
+                }
+                actions.add(task.getAction());
+                parameters.add(abstracted);
+            }
+
+            Map<String, String> bound = new HashMap<>(intent.getSlots());
+            bound.keySet().removeAll(used);
+
+            String planText = plan.getPlan();
+            for (String slot : used) {
+                planText = wholeWord(intent.getSlots().get(slot)).matcher(planText)
+                    .replaceAll(Matcher.quoteReplacement("$" + slot));
+            }
+
+            return new PlanTemplate(Map.copyOf(bound), planText, List.copyOf(actions),
+                List.copyOf(parameters), confirmations);
+        }
+
+        private static Pattern wholeWord(String value) {
+            return Pattern.compile("(?i)\\b" + Pattern.quote(value) + "\\b");
+        }
+
+        private static Object abstractValue(Object value, Map<String, String> slotsByValue, Set<String> used) {
+            if (value instanceof List<?> list) {
+                List<Object> abstracted = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    abstracted.add(abstractValue(element, slotsByValue, used));
+                }
+                return List.copyOf(abstracted);
+            }
+            String slot = slotsByValue.get(String.valueOf(value).toLowerCase().replace(' ', '_'));
+            if (slot != null) {
+                used.add(slot);
+                return new SlotRef(slot);
+            }
+            return value;
+        }
+
+        PlanTemplate withConfirmations(int confirmations) {
+            return new PlanTemplate(bound, planText, actions, parameters, confirmations);
+        }
+
+        boolean appliesTo(IntentClassifier.Intent intent) {
+            for (Map.Entry<String, String> entry : bound.entrySet()) {
+                if (!entry.getValue().equals(intent.getSlots().get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ResponseParser.ParsedResponse instantiate(IntentClassifier.Intent intent) {
+            List<Task> tasks = new ArrayList<>(actions.size());
+            for (int i = 0; i < actions.size(); i++) {
+                Map<String, Object> filled = new HashMap<>();
+                parameters.get(i).forEach((key, value) -> filled.put(key, fill(value, intent)));
+                tasks.add(new Task(actions.get(i), filled));
+            }
+
+            String text = planText;
+            for (Map.Entry<String, String> entry : intent.getSlots().entrySet()) {
+                text = text.replace("$" + entry.getKey(), entry.getValue());
+            }
+            return new ResponseParser.ParsedResponse("[Template] " + intent, text, tasks);
+        }
+
+        private static Object fill(Object value, IntentClassifier.Intent intent) {
+            if (value instanceof SlotRef ref) {
+                String slotValue = intent.getSlots().get(ref.slot);
+                return NUMBER.matcher(slotValue).matches() ? (Object) Integer.parseInt(slotValue) : slotValue;
+            }
+            if (value instanceof List<?> list) {
+                List<Object> filled = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    filled.add(fill(element, intent));
+                }
+                return filled;
+            }
+            return value;
+        }
+    }
+}
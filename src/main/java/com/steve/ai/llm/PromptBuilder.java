@@ -1,88 +1,276 @@
 package com.steve.ai.llm;
 
+import com.google.gson.Gson;
+import com.steve.ai.action.Task;
 import com.steve.ai.entity.SteveEntity;
-import com.steve.ai.memory.WorldKnowledge;
+import com.steve.ai.memory.WorldSnapshot;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.item.ItemStack;
 
 import java.util.List;
 
+/**
+ * Builds the prompts for planning, team planning and replanning.
+ *
+ * <p><b>Prefix caching:</b> Each prompt is split into a static prefix and a dynamic suffix.
+ * The system prompts are constants, byte-identical on every request, and are always sent
+ * first; everything that changes per request (position, nearby context, the command) is in
+ * the user prompt that follows. Providers that cache prompt prefixes (OpenAI, Groq, Gemini
+ * implicit caching) can then reuse the processed prefix across requests and agents.</p>
+ *
+ * <p><b>Token budgets:</b> User prompts are built within an input token budget, measured
+ * with {@link TokenEstimator}. The command itself is never cut; the nearby context lists are
+ * trimmed in reverse order of importance (blocks first, then entities, then players).</p>
+ *
+ * <p>Planning prompts are built from {@link WorldSnapshot}s, never from the live world, so
+ * they can be built on any thread.</p>
+ */
 public class PromptBuilder {
-    
-    public static String buildSystemPrompt() {
-        return """
-            You are a Minecraft AI agent. Respond ONLY with valid JSON, no extra text.
-            
-            FORMAT (strict JSON):
-            {"reasoning": "brief thought", "plan": "action description", "tasks": [{"action": "type", "parameters": {...}}]}
-            
-            ACTIONS:
-            - attack: {"target": "hostile"} (for any mob/monster)
-            - build: {"structure": "house", "blocks": ["oak_planks", "cobblestone", "glass_pane"], "dimensions": [9, 6, 9]}
-            - mine: {"block": "iron", "quantity": 8} (resources: iron, diamond, coal, gold, copper, redstone, emerald)
-            - follow: {"player": "NAME"}
-            - pathfind: {"x": 0, "y": 0, "z": 0}
-            
-            RULES:
-            1. ALWAYS use "hostile" for attack target (mobs, monsters, creatures)
-            2. STRUCTURE OPTIONS: house, oldhouse, powerplant, castle, tower, barn, modern
-            3. house/oldhouse/powerplant = pre-built NBT templates (auto-size)
-            4. castle/tower/barn/modern = procedural (castle=14x10x14, tower=6x6x16, barn=12x8x14)
-            5. Use 2-3 block types: oak_planks, cobblestone, glass_pane, stone_bricks
-            6. NO extra pathfind tasks unless explicitly requested
-            7. Keep reasoning under 15 words
-            8. COLLABORATIVE BUILDING: Multiple Steves can work on same structure simultaneously
-            9. MINING: Can mine any ore (iron, diamond, coal, etc)
-            
-            EXAMPLES (copy these formats exactly):
-            
-            Input: "build a house"
-            {"reasoning": "Building standard house near player", "plan": "Construct house", "tasks": [{"action": "build", "parameters": {"structure": "house", "blocks": ["oak_planks", "cobblestone", "glass_pane"], "dimensions": [9, 6, 9]}}]}
-            
-            Input: "get me iron"
-            {"reasoning": "Mining iron ore for player", "plan": "Mine iron", "tasks": [{"action": "mine", "parameters": {"block": "iron", "quantity": 16}}]}
-            
-            Input: "find diamonds"
-            {"reasoning": "Searching for diamond ore", "plan": "Mine diamonds", "tasks": [{"action": "mine", "parameters": {"block": "diamond", "quantity": 8}}]}
-            
-            Input: "kill mobs" 
-            {"reasoning": "Hunting hostile creatures", "plan": "Attack hostiles", "tasks": [{"action": "attack", "parameters": {"target": "hostile"}}]}
-            
-            Input: "murder creeper"
-            {"reasoning": "Targeting creeper", "plan": "Attack creeper", "tasks": [{"action": "attack", "parameters": {"target": "creeper"}}]}
-            
-            Input: "follow me"
-            {"reasoning": "Player needs me", "plan": "Follow player", "tasks": [{"action": "follow", "parameters": {"player": "USE_NEARBY_PLAYER_NAME"}}]}
-            
-            CRITICAL: Output ONLY valid JSON. No markdown, no explanations, no line breaks in JSON.
-            """;
-    }
 
-    public static String buildUserPrompt(SteveEntity steve, String command, WorldKnowledge worldKnowledge) {
-        StringBuilder prompt = new StringBuilder();
+    // Context line labels, also matched by PromptCanonicalizer
+    static final String POSITION_LABEL = "Position: ";
+    static final String PLAYERS_LABEL = "Nearby Players: ";
+    static final String ENTITIES_LABEL = "Nearby Entities: ";
+    static final String BLOCKS_LABEL = "Nearby Blocks: ";
+    private static final String BIOME_LABEL = "Biome: ";
+
+    private static final String ACTIONS = """
+        - attack: {"target": "hostile"} (for any mob/monster)
+        - build: {"structure": "house", "blocks": ["oak_planks", "cobblestone", "glass_pane"], "dimensions": [9, 6, 9]}
+        - mine: {"block": "iron", "quantity": 8} (resources: iron, diamond, coal, gold, copper, redstone, emerald)
+        - follow: {"player": "NAME"}
+        - pathfind: {"x": 0, "y": 0, "z": 0}
+        """;
+
+    private static final String SYSTEM_PROMPT = """
+        You are a Minecraft AI agent. Respond ONLY with valid JSON, no extra text.
+        
+        FORMAT (strict JSON):
+        {"reasoning": "brief thought", "plan": "action description", "tasks": [{"action": "type", "parameters": {...}}]}
+        
+        ACTIONS:
+        """ + ACTIONS + """
+        
+        RULES:
+        1. ALWAYS use "hostile" for attack target (mobs, monsters, creatures)
+        2. STRUCTURE OPTIONS: house, oldhouse, powerplant, castle, tower, barn, modern
+        3. house/oldhouse/powerplant = pre-built NBT templates (auto-size)
+        4. castle/tower/barn/modern = procedural (castle=14x10x14, tower=6x6x16, barn=12x8x14)
+        5. Use 2-3 block types: oak_planks, cobblestone, glass_pane, stone_bricks
+        6. NO extra pathfind tasks unless explicitly requested
+        7. Keep reasoning under 15 words
+        8. COLLABORATIVE BUILDING: Multiple Steves can work on same structure simultaneously
+        9. MINING: Can mine any ore (iron, diamond, coal, etc)
+        
+        EXAMPLES (copy these formats exactly):
+        
+        Input: "build a house"
+        {"reasoning": "Building standard house near player", "plan": "Construct house", "tasks": [{"action": "build", "parameters": {"structure": "house", "blocks": ["oak_planks", "cobblestone", "glass_pane"], "dimensions": [9, 6, 9]}}]}
+        
+        Input: "get me iron"
+        {"reasoning": "Mining iron ore for player", "plan": "Mine iron", "tasks": [{"action": "mine", "parameters": {"block": "iron", "quantity": 16}}]}
+        
+        Input: "find diamonds"
+        {"reasoning": "Searching for diamond ore", "plan": "Mine diamonds", "tasks": [{"action": "mine", "parameters": {"block": "diamond", "quantity": 8}}]}
+        
+        Input: "kill mobs" 
+        {"reasoning": "Hunting hostile creatures", "plan": "Attack hostiles", "tasks": [{"action": "attack", "parameters": {"target": "hostile"}}]}
+        
+        Input: "murder creeper"
+        {"reasoning": "Targeting creeper", "plan": "Attack creeper", "tasks": [{"action": "attack", "parameters": {"target": "creeper"}}]}
         
-        // Give agents FULL situational awareness
-        prompt.append("=== YOUR SITUATION ===\n");
-        prompt.append("Position: ").append(formatPosition(steve.blockPosition())).append("\n");
-        prompt.append("Nearby Players: ").append(worldKnowledge.getNearbyPlayerNames()).append("\n");
-        prompt.append("Nearby Entities: ").append(worldKnowledge.getNearbyEntitiesSummary()).append("\n");
-        prompt.append("Nearby Blocks: ").append(worldKnowledge.getNearbyBlocksSummary()).append("\n");
-        prompt.append("Biome: ").append(worldKnowledge.getBiomeName()).append("\n");
+        Input: "follow me"
+        {"reasoning": "Player needs me", "plan": "Follow player", "tasks": [{"action": "follow", "parameters": {"player": "USE_NEARBY_PLAYER_NAME"}}]}
         
-        prompt.append("\n=== PLAYER COMMAND ===\n");
-        prompt.append("\"").append(command).append("\"\n");
+        CRITICAL: Output ONLY valid JSON. No markdown, no explanations, no line breaks in JSON.
+        """;
+
+    private static final String BATCH_SYSTEM_PROMPT = SYSTEM_PROMPT + """
+        
+        TEAM MODE (overrides FORMAT above): the command is for several agents at once.
+        Assign each agent its own tasks so the team works together instead of repeating the same work.
+        To build one structure together, give every agent the same build task (collaborative building).
+        
+        TEAM FORMAT (strict JSON):
+        {"reasoning": "brief thought", "plan": "team action description", "agents": {"NAME": [{"action": "type", "parameters": {...}}], "NAME2": [...]}}
+        
+        Use each agent NAME exactly as listed. Every listed agent must appear in "agents".
+        """;
+
+    private static final String REPLAN_SYSTEM_PROMPT = """
+        You are a Minecraft AI agent. One of your tasks failed; fix your task queue. Respond ONLY with valid JSON, no extra text.
+        
+        FORMAT (strict JSON):
+        {"reasoning": "brief thought", "tasks": [{"action": "type", "parameters": {...}}], "drop": [0], "abort": false}
+        
+        - tasks: what to do next instead of the failed task ([] to skip it)
+        - drop: indices of REMAINING tasks that are now impossible or unnecessary ([] to keep all)
+        - abort: true only if the goal cannot be reached at all
         
-        prompt.append("\n=== YOUR RESPONSE (with reasoning) ===\n");
+        ACTIONS:
+        """ + ACTIONS + """
         
+        Prefer the smallest fix: retry with different parameters or add a missing step first.
+        Do not repeat remaining tasks. Keep reasoning under 15 words.
+        """;
+
+    private static final Gson GSON = new Gson();
+
+    public static String buildSystemPrompt() {
+        return SYSTEM_PROMPT;
+    }
+
+    /**
+     * System prompt for planning one command for several Steves in a single call.
+     *
+     * <p>Extends the single-agent prompt with the team response format, where each agent
+     * gets its own task list. The single-agent prompt stays the leading prefix, so both
+     * share a cached prefix.</p>
+     */
+    public static String buildBatchSystemPrompt() {
+        return BATCH_SYSTEM_PROMPT;
+    }
+
+    /**
+     * System prompt for repairing a task queue after a task failed.
+     *
+     * <p>Much shorter than the planning prompt: the model only patches the queue, so it gets
+     * the action list and the patch format, not the rules and examples for whole plans.</p>
+     */
+    public static String buildReplanSystemPrompt() {
+        return REPLAN_SYSTEM_PROMPT;
+    }
+
+    /**
+     * User prompt for a replanning request: only the failure and what is still queued.
+     *
+     * <p>If the remaining queue does not fit {@code maxTokens}, only its head is listed.
+     * Indices stay those of the full queue, so {@code drop} still refers to the right tasks.</p>
+     *
+     * @param steve      Agent whose task failed
+     * @param goal       Current goal (plan description), may be null
+     * @param failedTask Task that failed
+     * @param reason     Failure message from the action
+     * @param remaining  Tasks still queued, indexed for {@code drop}
+     * @param maxTokens  Token budget for the prompt
+     */
+    public static String buildReplanUserPrompt(SteveEntity steve, String goal, Task failedTask, String reason,
+                                               List<Task> remaining, int maxTokens) {
+        StringBuilder prompt = new StringBuilder();
+
+        prompt.append("=== GOAL ===\n");
+        prompt.append(goal != null ? goal : "(none)").append("\n");
+        prompt.append(POSITION_LABEL).append(formatPosition(steve.blockPosition())).append("\n");
+
+        prompt.append("\n=== FAILED TASK ===\n");
+        prompt.append(formatTask(failedTask)).append("\n");
+        prompt.append("Reason: ").append(reason).append("\n");
+
+        prompt.append("\n=== REMAINING TASKS ===\n");
+        if (remaining.isEmpty()) {
+            prompt.append("(none)\n");
+        }
+        String patchSection = "\n=== YOUR PATCH ===\n";
+        int available = maxTokens - TokenEstimator.estimate(prompt) - TokenEstimator.estimate(patchSection);
+        for (int i = 0; i < remaining.size(); i++) {
+            String line = i + ": " + formatTask(remaining.get(i)) + "\n";
+            available -= TokenEstimator.estimate(line);
+            if (available < 0) {
+                prompt.append("... (").append(remaining.size() - i).append(" more)\n");
+                break;
+            }
+            prompt.append(line);
+        }
+
+        prompt.append(patchSection);
+
+        return prompt.toString();
+    }
+
+    /**
+     * User prompt describing every agent's situation for a batched command.
+     *
+     * <p>The budget left after the command is shared equally between the agents.</p>
+     *
+     * @param snapshots Surroundings of each agent the command is for
+     * @param command   Player command
+     * @param maxTokens Token budget for the prompt
+     */
+    public static String buildBatchUserPrompt(List<WorldSnapshot> snapshots, String command, int maxTokens) {
+        String commandSection = "=== PLAYER COMMAND (for all agents above) ===\n"
+            + "\"" + command + "\"\n"
+            + "\n=== YOUR TEAM RESPONSE (with reasoning) ===\n";
+        int agentBudget = (maxTokens - TokenEstimator.estimate(commandSection)) / Math.max(1, snapshots.size());
+
+        StringBuilder prompt = new StringBuilder();
+        for (WorldSnapshot snapshot : snapshots) {
+            String header = "=== AGENT " + snapshot.getSteveName() + " ===\n";
+
+            prompt.append(header);
+            appendSituation(prompt, snapshot, agentBudget - TokenEstimator.estimate(header));
+            prompt.append("\n");
+        }
+
+        prompt.append(commandSection);
+
+        return prompt.toString();
+    }
+
+    /**
+     * User prompt for planning a single command.
+     *
+     * @param snapshot  Surroundings of the agent the command is for
+     * @param command   Player command
+     * @param maxTokens Token budget for the prompt
+     */
+    public static String buildUserPrompt(WorldSnapshot snapshot, String command, int maxTokens) {
+        // Give agents FULL situational awareness, as far as the budget allows
+        StringBuilder prompt = new StringBuilder("=== YOUR SITUATION ===\n");
+        String commandSection = "\n=== PLAYER COMMAND ===\n"
+            + "\"" + command + "\"\n"
+            + "\n=== YOUR RESPONSE (with reasoning) ===\n";
+
+        appendSituation(prompt, snapshot,
+            maxTokens - TokenEstimator.estimate(prompt) - TokenEstimator.estimate(commandSection));
+        prompt.append(commandSection);
+
         return prompt.toString();
     }
 
+    /**
+     * Appends the position and nearby context lines, trimming the context lists to fit.
+     *
+     * @param maxTokens Token budget for the lines
+     */
+    private static void appendSituation(StringBuilder prompt, WorldSnapshot snapshot, int maxTokens) {
+        String position = formatPosition(snapshot.getPosition());
+        String biome = snapshot.getBiomeName();
+        int available = maxTokens - TokenEstimator.estimate(POSITION_LABEL + position + BIOME_LABEL + biome)
+            - TokenEstimator.estimate(PLAYERS_LABEL + ENTITIES_LABEL + BLOCKS_LABEL);
+
+        // Most important first: each list gets what the previous ones left over
+        String players = TokenEstimator.fitList(snapshot.getNearbyPlayerNames(), available);
+        available -= TokenEstimator.estimate(players);
+        String entities = TokenEstimator.fitList(snapshot.getNearbyEntitiesSummary(), available);
+        available -= TokenEstimator.estimate(entities);
+        String blocks = TokenEstimator.fitList(snapshot.getNearbyBlocksSummary(), available);
+
+        prompt.append(POSITION_LABEL).append(position).append("\n");
+        prompt.append(PLAYERS_LABEL).append(players).append("\n");
+        prompt.append(ENTITIES_LABEL).append(entities).append("\n");
+        prompt.append(BLOCKS_LABEL).append(blocks).append("\n");
+        prompt.append(BIOME_LABEL).append(biome).append("\n");
+    }
+
     private static String formatPosition(BlockPos pos) {
         return String.format("[%d, %d, %d]", pos.getX(), pos.getY(), pos.getZ());
     }
 
+    private static String formatTask(Task task) {
+        return "{\"action\": " + GSON.toJson(task.getAction()) + ", \"parameters\": " + GSON.toJson(task.getParameters()) + "}";
+    }
+
     private static String formatInventory(SteveEntity steve) {
         return "[empty]";
     }
 }
-
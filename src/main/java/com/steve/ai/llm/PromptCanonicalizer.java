@@ -0,0 +1,104 @@
+package com.steve.ai.llm;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites a user prompt into the canonical form used for its cache key.
+ *
+ * <p>The prompt sent to the LLM keeps its exact context; only the cache key is canonicalized.
+ * Each canonicalizer removes one kind of world noise (exact coordinates, fluctuating entity
+ * counts, ordering) so that the same command in an equivalent situation maps to the same key.
+ * Anything a canonicalizer discards must either not affect the plan or be restored by
+ * {@link CacheKeyNormalizer#rebind}.</p>
+ *
+ * <p>Canonicalizers operate on the line format produced by {@link PromptBuilder#buildUserPrompt}.</p>
+ *
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface PromptCanonicalizer {
+
+    Pattern POSITION_LINE = Pattern.compile("(?m)^(" + Pattern.quote(PromptBuilder.POSITION_LABEL) + ")\\[(-?\\d+), (-?\\d+), (-?\\d+)]$");
+    Pattern ENTITIES_LINE = Pattern.compile("(?m)^(" + Pattern.quote(PromptBuilder.ENTITIES_LABEL) + ")(.*)$");
+    Pattern BLOCKS_LINE = Pattern.compile("(?m)^(" + Pattern.quote(PromptBuilder.BLOCKS_LABEL) + ")(.*)$");
+    Pattern PLAYERS_LINE = Pattern.compile("(?m)^(" + Pattern.quote(PromptBuilder.PLAYERS_LABEL) + ")(.*)$");
+
+    /**
+     * @param prompt Prompt (possibly already canonicalized by earlier stages)
+     * @return Canonical form of the prompt
+     */
+    String canonicalize(String prompt);
+
+    /**
+     * Rounds the agent position down to a grid of {@code bucketSize} blocks.
+     *
+     * @param bucketSize Grid size in blocks
+     * @return Coordinate bucketing canonicalizer
+     */
+    static PromptCanonicalizer bucketCoordinates(int bucketSize) {
+        return prompt -> {
+            Matcher matcher = POSITION_LINE.matcher(prompt);
+            if (!matcher.find()) {
+                return prompt;
+            }
+            String bucketed = String.format("[%d, %d, %d]",
+                Math.floorDiv(Integer.parseInt(matcher.group(2)), bucketSize),
+                Math.floorDiv(Integer.parseInt(matcher.group(3)), bucketSize),
+                Math.floorDiv(Integer.parseInt(matcher.group(4)), bucketSize));
+            return matcher.replaceFirst(Matcher.quoteReplacement(matcher.group(1) + "bucket" + bucketed));
+        };
+    }
+
+    /**
+     * Replaces "2 zombie, 1 cow" with the sorted set of entity types ("cow, zombie").
+     *
+     * @return Entity count dropping canonicalizer
+     */
+    static PromptCanonicalizer dropEntityCounts() {
+        return prompt -> rewriteList(prompt, ENTITIES_LINE, entry -> entry.replaceFirst("^\\d+ ", ""));
+    }
+
+    /**
+     * Sorts the nearby block list, whose order depends on block counts.
+     *
+     * @return Block order canonicalizer
+     */
+    static PromptCanonicalizer sortNearbyBlocks() {
+        return prompt -> rewriteList(prompt, BLOCKS_LINE, entry -> entry);
+    }
+
+    /**
+     * Replaces nearby player names with their count. Plans naming a player are rebound to a
+     * player actually near the agent.
+     *
+     * @return Player name dropping canonicalizer
+     */
+    static PromptCanonicalizer dropPlayerNames() {
+        return prompt -> {
+            Matcher matcher = PLAYERS_LINE.matcher(prompt);
+            if (!matcher.find()) {
+                return prompt;
+            }
+            String players = matcher.group(2).trim();
+            int count = players.isEmpty() || "none".equals(players) ? 0 : players.split(", ").length;
+            return matcher.replaceFirst(Matcher.quoteReplacement(matcher.group(1) + count));
+        };
+    }
+
+    private static String rewriteList(String prompt, Pattern line, UnaryOperator<String> entryMapper) {
+        Matcher matcher = line.matcher(prompt);
+        if (!matcher.find()) {
+            return prompt;
+        }
+        String[] entries = Arrays.stream(matcher.group(2).split(", "))
+            .map(String::trim)
+            .map(entryMapper)
+            .distinct()
+            .sorted()
+            .toArray(String[]::new);
+        return matcher.replaceFirst(Matcher.quoteReplacement(matcher.group(1) + String.join(", ", entries)));
+    }
+}
@@ -1,123 +1,323 @@
 package com.steve.ai.llm;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.steve.ai.SteveMod;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskPatch;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Parses LLM planning responses into tasks.
+ *
+ * <p>Responses are read in a single pass with Gson's {@link JsonReader}: tasks and their
+ * parameters are built directly from the token stream, without an intermediate DOM.
+ * {@link JsonRepairReader} repairs common model mistakes inline (code fences, prose around
+ * the JSON, missing or trailing commas). If a response breaks off inside the task list, the
+ * tasks completed before that point are kept.</p>
+ */
 public class ResponseParser {
-    
+
     public static ParsedResponse parseAIResponse(String response) {
         if (response == null || response.isEmpty()) {
             return null;
         }
 
-        try {
-            String jsonString = extractJSON(response);
-            
-            JsonObject json = JsonParser.parseString(jsonString).getAsJsonObject();
-            
-            String reasoning = json.has("reasoning") ? json.get("reasoning").getAsString() : "";
-            String plan = json.has("plan") ? json.get("plan").getAsString() : "";
-            List<Task> tasks = new ArrayList<>();
-            
-            if (json.has("tasks") && json.get("tasks").isJsonArray()) {
-                JsonArray tasksArray = json.getAsJsonArray("tasks");
-                
-                for (JsonElement taskElement : tasksArray) {
-                    if (taskElement.isJsonObject()) {
-                        JsonObject taskObj = taskElement.getAsJsonObject();
-                        Task task = parseTask(taskObj);
-                        if (task != null) {
-                            tasks.add(task);
-                        }
-                    }
+        String reasoning = "";
+        String plan = "";
+        List<Task> tasks = new ArrayList<>();
+
+        try (JsonReader reader = newReader(response)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "reasoning" -> reasoning = readString(reader);
+                    case "plan" -> plan = readString(reader);
+                    case "tasks" -> readTasks(reader, tasks);
+                    default -> reader.skipValue();
                 }
             }
-            
-            if (!reasoning.isEmpty()) {            }
-            
+            reader.endObject();
+
             return new ParsedResponse(reasoning, plan, tasks);
-            
+
         } catch (Exception e) {
+            if (!tasks.isEmpty()) {
+                SteveMod.LOGGER.warn("AI response is malformed after {} tasks, using those: {}",
+                    tasks.size(), e.getMessage());
+                return new ParsedResponse(reasoning, plan, tasks);
+            }
             SteveMod.LOGGER.error("Failed to parse AI response: {}", response, e);
             return null;
         }
     }
 
-    private static String extractJSON(String response) {
-        String cleaned = response.trim();
-        
-        if (cleaned.startsWith("```json")) {
-            cleaned = cleaned.substring(7);
-        } else if (cleaned.startsWith("```")) {
-            cleaned = cleaned.substring(3);
-        }
-        
-        if (cleaned.endsWith("```")) {
-            cleaned = cleaned.substring(0, cleaned.length() - 3);
-        }
-        
-        cleaned = cleaned.trim();
-        
-        // Fix common JSON formatting issues
-        cleaned = cleaned.replaceAll("\\n\\s*", " ");
-        
-        // Fix missing commas between array/object elements (common AI mistake)
-        cleaned = cleaned.replaceAll("}\\s+\\{", "},{");
-        cleaned = cleaned.replaceAll("}\\s+\\[", "},[");
-        cleaned = cleaned.replaceAll("]\\s+\\{", "],{");
-        cleaned = cleaned.replaceAll("]\\s+\\[", "],[");
-        
-        return cleaned;
+    /**
+     * Parses a team response ({@code "agents": {"NAME": [tasks]}}) into one plan per agent.
+     *
+     * <p>Agent names are matched case-insensitively. Agents missing from the response get no
+     * entry; every plan shares the team reasoning and plan text. A reply without an
+     * {@code "agents"} object but with a top-level {@code "tasks"} array (the single-agent
+     * shape, which is also what the fallback handler produces) gives every agent those
+     * tasks.</p>
+     *
+     * @param response   Raw LLM response
+     * @param agentNames Names of the agents the command was planned for
+     * @return Plans keyed by agent name (in the given order), or null if the response is unusable
+     */
+    public static Map<String, ParsedResponse> parseBatchResponse(String response, List<String> agentNames) {
+        if (response == null || response.isEmpty()) {
+            return null;
+        }
+
+        try (JsonReader reader = newReader(response)) {
+            String reasoning = "";
+            String plan = "";
+            Map<String, List<Task>> assignments = new HashMap<>();
+            List<Task> shared = new ArrayList<>();
+            boolean hasAgents = false;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "reasoning" -> reasoning = readString(reader);
+                    case "plan" -> plan = readString(reader);
+                    case "agents" -> {
+                        hasAgents = true;
+                        readAssignments(reader, assignments);
+                    }
+                    case "tasks" -> readTasks(reader, shared);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (!hasAgents && shared.isEmpty()) {
+                return null;
+            }
+
+            Map<String, ParsedResponse> plans = new LinkedHashMap<>();
+            for (String agentName : agentNames) {
+                List<Task> tasks = hasAgents ? assignments.get(agentName.toLowerCase()) : new ArrayList<>(shared);
+                if (tasks != null) {
+                    plans.put(agentName, new ParsedResponse(reasoning, plan, tasks));
+                }
+            }
+
+            return plans;
+
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("Failed to parse AI team response: {}", response, e);
+            return null;
+        }
     }
 
-    private static Task parseTask(JsonObject taskObj) {
-        if (!taskObj.has("action")) {
+    /**
+     * Parses a replanning response ({@code "tasks"} to insert, {@code "drop"} indices,
+     * {@code "abort"} flag) into a queue patch.
+     *
+     * @param response Raw LLM response
+     * @return The patch (tasks not yet compiled), or null if the response is unusable
+     */
+    public static TaskPatch parsePatch(String response) {
+        if (response == null || response.isEmpty()) {
+            return null;
+        }
+
+        try (JsonReader reader = newReader(response)) {
+            String reasoning = "";
+            List<Task> insert = new ArrayList<>();
+            List<Integer> drop = new ArrayList<>();
+            boolean abort = false;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "reasoning" -> reasoning = readString(reader);
+                    case "tasks" -> readTasks(reader, insert);
+                    case "drop" -> readIndices(reader, drop);
+                    case "abort" -> abort = reader.peek() == JsonToken.BOOLEAN ? reader.nextBoolean() : skip(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return new TaskPatch(reasoning, insert, drop, abort);
+
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("Failed to parse replanning response: {}", response, e);
             return null;
         }
-        
-        String action = taskObj.get("action").getAsString();
+    }
+
+    /**
+     * Parses a single task object, e.g. one streamed element of the {@code tasks} array.
+     *
+     * @param taskJson JSON of one task
+     * @return The task, or null if it has no action
+     * @throws IOException if the JSON is malformed
+     */
+    static Task parseTask(String taskJson) throws IOException {
+        try (JsonReader reader = newReader(taskJson)) {
+            return readTask(reader);
+        }
+    }
+
+    private static JsonReader newReader(String content) {
+        JsonReader reader = new JsonReader(new JsonRepairReader(content));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static void readAssignments(JsonReader reader, Map<String, List<Task>> assignments) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            List<Task> tasks = new ArrayList<>();
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                readTasks(reader, tasks);
+                assignments.put(name.toLowerCase(), tasks);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads a task array, adding each valid task to {@code tasks} as soon as it is complete.
+     */
+    private static void readTasks(JsonReader reader, List<Task> tasks) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                Task task = readTask(reader);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private static Task readTask(JsonReader reader) throws IOException {
+        String action = null;
         Map<String, Object> parameters = new HashMap<>();
-        
-        if (taskObj.has("parameters") && taskObj.get("parameters").isJsonObject()) {
-            JsonObject paramsObj = taskObj.getAsJsonObject("parameters");
-            
-            for (String key : paramsObj.keySet()) {
-                JsonElement value = paramsObj.get(key);
-                
-                if (value.isJsonPrimitive()) {
-                    if (value.getAsJsonPrimitive().isNumber()) {
-                        parameters.put(key, value.getAsNumber());
-                    } else if (value.getAsJsonPrimitive().isBoolean()) {
-                        parameters.put(key, value.getAsBoolean());
-                    } else {
-                        parameters.put(key, value.getAsString());
-                    }
-                } else if (value.isJsonArray()) {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "action" -> action = readString(reader);
+                case "parameters" -> readParameters(reader, parameters);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return action != null && !action.isEmpty() ? new Task(action, parameters) : null;
+    }
+
+    /**
+     * Reads task parameters: numbers, booleans and strings, and arrays of numbers or strings.
+     * Nulls and nested objects are skipped.
+     */
+    private static void readParameters(JsonReader reader, Map<String, Object> parameters) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (reader.peek()) {
+                case NUMBER -> parameters.put(key, parseNumber(reader.nextString()));
+                case BOOLEAN -> parameters.put(key, reader.nextBoolean());
+                case STRING -> parameters.put(key, reader.nextString());
+                case BEGIN_ARRAY -> {
                     List<Object> list = new ArrayList<>();
-                    for (JsonElement element : value.getAsJsonArray()) {
-                        if (element.isJsonPrimitive()) {
-                            if (element.getAsJsonPrimitive().isNumber()) {
-                                list.add(element.getAsNumber());
-                            } else {
-                                list.add(element.getAsString());
-                            }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        switch (reader.peek()) {
+                            case NUMBER -> list.add(parseNumber(reader.nextString()));
+                            case STRING -> list.add(reader.nextString());
+                            case BOOLEAN -> list.add(String.valueOf(reader.nextBoolean()));
+                            default -> reader.skipValue();
                         }
                     }
+                    reader.endArray();
                     parameters.put(key, list);
                 }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readIndices(JsonReader reader, List<Integer> indices) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NUMBER) {
+                indices.add(reader.nextInt());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private static boolean skip(JsonReader reader) throws IOException {
+        reader.skipValue();
+        return false;
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        return switch (reader.peek()) {
+            case STRING, NUMBER -> reader.nextString();
+            case BOOLEAN -> String.valueOf(reader.nextBoolean());
+            default -> {
+                reader.skipValue();
+                yield "";
+            }
+        };
+    }
+
+    private static Number parseNumber(String value) {
+        if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+            try {
+                long number = Long.parseLong(value);
+                if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+                    return (int) number;
+                }
+                return number;
+            } catch (NumberFormatException e) {
+                // Out of long range; fall through
             }
         }
-        
-        return new Task(action, parameters);
+        return Double.parseDouble(value);
     }
 
     public static class ParsedResponse {
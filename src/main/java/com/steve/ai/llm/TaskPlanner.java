@@ -2,29 +2,71 @@ package com.steve.ai.llm;
 
 import com.steve.ai.SteveMod;
 import com.steve.ai.action.Task;
+import com.steve.ai.action.TaskCompiler;
+import com.steve.ai.action.TaskPatch;
 import com.steve.ai.config.SteveConfig;
+import com.steve.ai.di.ServiceContainer;
 import com.steve.ai.entity.SteveEntity;
 import com.steve.ai.llm.async.*;
+import com.steve.ai.llm.resilience.HedgingLLMClient;
 import com.steve.ai.llm.resilience.LLMFallbackHandler;
 import com.steve.ai.llm.resilience.ResilientLLMClient;
-import com.steve.ai.memory.WorldKnowledge;
+import com.steve.ai.memory.WorldSnapshot;
+import net.minecraft.core.BlockPos;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+/**
+ * Plans tasks for Steves by prompting the configured LLM provider.
+ *
+ * <p>A single planner is shared by every Steve on the server (see {@link #getShared(ServiceContainer)}),
+ * so all agents use one HTTP client per provider, one response cache, and one set of
+ * rate limiters and bulkheads. Limits therefore apply per API key instead of per agent,
+ * and cache hits from one Steve benefit the others.</p>
+ *
+ * <p><b>Token budgets:</b> Prompts are built within {@code maxInputTokens} (estimated with
+ * {@link TokenEstimator}); requests that still exceed it are refused before they are sent.
+ * Each call type gets its own output budget: {@code maxTokens} for a plan, a multiple of it
+ * for team plans, and half of it for replanning patches. Estimated and reported usage is
+ * tracked per provider in {@link TokenUsageStats}.</p>
+ *
+ * <p><b>Threading:</b> The planning entry points are called on the server thread. They only
+ * capture a {@link WorldSnapshot} there; prompts are built from the snapshot on
+ * {@link #PROMPT_EXECUTOR} and never touch the live world.</p>
+ */
 public class TaskPlanner {
+    // Prompt building is short CPU work; it only needs to be off the server thread
+    private static final Executor PROMPT_EXECUTOR = ForkJoinPool.commonPool();
+
+    // Team plans get maxTokens per agent, up to this many agents
+    private static final int BATCH_OUTPUT_AGENT_CAP = 4;
+
     // Legacy synchronous clients (for backward compatibility)
     private final OpenAIClient openAIClient;
     private final GeminiClient geminiClient;
     private final GroqClient groqClient;
 
     // NEW: Async resilient clients
-    private final AsyncLLMClient asyncOpenAIClient;
-    private final AsyncLLMClient asyncGroqClient;
-    private final AsyncLLMClient asyncGeminiClient;
+    private final ResilientLLMClient asyncOpenAIClient;
+    private final ResilientLLMClient asyncGroqClient;
+    private final ResilientLLMClient asyncGeminiClient;
+    private final Map<String, HedgingLLMClient> hedgingClients = new ConcurrentHashMap<>();
     private final LLMCache llmCache;
     private final LLMFallbackHandler fallbackHandler;
+    private final CacheKeyNormalizer cacheKeyNormalizer;
+    private final PlanTemplateStore planTemplates;
+    private final TokenUsageStats tokenUsage;
 
     public TaskPlanner() {
         // Legacy clients
@@ -35,6 +77,9 @@ public class TaskPlanner {
         // Initialize async infrastructure
         this.llmCache = new LLMCache();
         this.fallbackHandler = new LLMFallbackHandler();
+        this.cacheKeyNormalizer = CacheKeyNormalizer.withDefaults();
+        this.planTemplates = PlanTemplateStore.withDefaults();
+        this.tokenUsage = new TokenUsageStats();
 
         // Initialize async clients with resilience wrappers
         String apiKey = SteveConfig.OPENAI_API_KEY.get();
@@ -55,11 +100,55 @@ public class TaskPlanner {
         SteveMod.LOGGER.info("TaskPlanner initialized with async resilient clients");
     }
 
+    /**
+     * Returns the server-wide planner registered in the container, creating it on first use.
+     *
+     * <p>If a {@link DiskLLMCache} is registered, it is attached to the planner's cache.</p>
+     *
+     * <p>Creation is lazy so that entity construction never loads the LLM dependencies,
+     * and synchronized because commands may arrive from several threads at once.</p>
+     *
+     * @param container Server-scoped service container
+     * @return Shared TaskPlanner instance
+     */
+    public static synchronized TaskPlanner getShared(ServiceContainer container) {
+        return container.findService(TaskPlanner.class).orElseGet(() -> {
+            TaskPlanner planner = new TaskPlanner();
+            container.findService(DiskLLMCache.class).ifPresent(planner.getLLMCache()::setDiskCache);
+            container.register(TaskPlanner.class, planner);
+            container.register(LLMCache.class, planner.getLLMCache());
+            SteveMod.LOGGER.info("Registered shared TaskPlanner runtime");
+            return planner;
+        });
+    }
+
+    /**
+     * Removes the shared planner from the container, if one was created.
+     *
+     * <p>Called when the server stops so that the next world starts with a fresh
+     * runtime (and picks up any configuration changes).</p>
+     *
+     * @param container Server-scoped service container
+     */
+    public static synchronized void releaseShared(ServiceContainer container) {
+        container.findService(TaskPlanner.class).ifPresent(planner -> {
+            planner.getLLMCache().logStats();
+            planner.getPlanTemplates().logStats();
+            planner.getTokenUsage().logStats();
+            LLMExecutorService.getInstance().logStats();
+            container.unregister(TaskPlanner.class);
+            container.unregister(LLMCache.class);
+            SteveMod.LOGGER.info("Released shared TaskPlanner runtime");
+        });
+    }
+
     public ResponseParser.ParsedResponse planTasks(SteveEntity steve, String command) {
         try {
             String systemPrompt = PromptBuilder.buildSystemPrompt();
-            WorldKnowledge worldKnowledge = new WorldKnowledge(steve);
-            String userPrompt = PromptBuilder.buildUserPrompt(steve, command, worldKnowledge);
+            WorldSnapshot snapshot = WorldSnapshot.capture(steve);
+            String userPrompt = PromptBuilder.buildUserPrompt(snapshot, command, userPromptBudget(systemPrompt));
+            
+            checkInputBudget(systemPrompt, userPrompt);
             
             String provider = SteveConfig.AI_PROVIDER.get().toLowerCase();
             SteveMod.LOGGER.info("Requesting AI plan for Steve '{}' using {}: {}", steve.getSteveName(), provider, command);
@@ -69,7 +158,7 @@ public class TaskPlanner {
             if (response == null) {
                 SteveMod.LOGGER.error("Failed to get AI response for command: {}", command);
                 return null;
-            }            ResponseParser.ParsedResponse parsedResponse = ResponseParser.parseAIResponse(response);
+            }            ResponseParser.ParsedResponse parsedResponse = compilePlan(ResponseParser.parseAIResponse(response));
             
             if (parsedResponse == null) {
                 SteveMod.LOGGER.error("Failed to parse AI response");
@@ -115,35 +204,58 @@ public class TaskPlanner {
      * <p><b>Non-blocking:</b> Game thread is never blocked</p>
      * <p><b>Resilient:</b> Automatic retry, circuit breaker, fallback on failure</p>
      * <p><b>Cached:</b> Repeated prompts may hit cache (40-60% hit rate)</p>
+     * <p><b>Fast path:</b> Routine commands with a trusted {@link PlanTemplateStore} template
+     * complete immediately, without an LLM call</p>
+     *
+     * <p>Must be called on the server thread, where the Steve's surroundings are captured.</p>
      *
      * @param steve   The Steve entity making the request
      * @param command The user command to plan
-     * @return CompletableFuture that completes with the parsed response, or null on failure
+     * @return CompletableFuture that completes with the parsed response, or null on failure;
+     *         cancelling it aborts the LLM call
      */
     public CompletableFuture<ResponseParser.ParsedResponse> planTasksAsync(SteveEntity steve, String command) {
+        ResponseParser.ParsedResponse templatePlan = planFromTemplate(steve, command);
+        if (templatePlan != null) {
+            return CompletableFuture.completedFuture(templatePlan);
+        }
+
+        try {
+            WorldSnapshot snapshot = WorldSnapshot.capture(steve);
+            return CancellableFutures.composeAsync(() -> requestPlan(snapshot, command), PROMPT_EXECUTOR);
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Async] Error capturing world snapshot", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Builds the planning prompt from a snapshot and sends it; runs on {@link #PROMPT_EXECUTOR}.
+     */
+    private CompletableFuture<ResponseParser.ParsedResponse> requestPlan(WorldSnapshot snapshot, String command) {
         try {
             String systemPrompt = PromptBuilder.buildSystemPrompt();
-            WorldKnowledge worldKnowledge = new WorldKnowledge(steve);
-            String userPrompt = PromptBuilder.buildUserPrompt(steve, command, worldKnowledge);
+            String userPrompt = PromptBuilder.buildUserPrompt(snapshot, command, userPromptBudget(systemPrompt));
+            int estimatedInput = checkInputBudget(systemPrompt, userPrompt);
 
             String provider = SteveConfig.AI_PROVIDER.get().toLowerCase();
             SteveMod.LOGGER.info("[Async] Requesting AI plan for Steve '{}' using {}: {}",
-                steve.getSteveName(), provider, command);
+                snapshot.getSteveName(), provider, command);
 
-            // Build params map
-            Map<String, Object> params = Map.of(
-                "systemPrompt", systemPrompt,
-                "model", SteveConfig.OPENAI_MODEL.get(),
-                "maxTokens", SteveConfig.MAX_TOKENS.get(),
-                "temperature", SteveConfig.TEMPERATURE.get()
-            );
+            String cacheKey = cacheKeyNormalizer.normalize(userPrompt);
+            BlockPos position = snapshot.getPosition();
+            List<String> nearbyPlayers = snapshot.getNearbyPlayerNameList();
+            Map<String, Object> params = new HashMap<>(buildParams(systemPrompt, cacheKey, SteveConfig.MAX_TOKENS.get()));
+            params.put("cacheContext", CacheKeyNormalizer.encodeContext(position, nearbyPlayers));
 
             // Select async client based on provider
             AsyncLLMClient client = getAsyncClient(provider);
 
             // Execute async request
-            return client.sendAsync(userPrompt, params)
+            CompletableFuture<LLMResponse> call = client.sendAsync(userPrompt, params);
+            CompletableFuture<ResponseParser.ParsedResponse> plan = call
                 .thenApply(response -> {
+                    recordUsage(response, estimatedInput);
                     String content = response.getContent();
                     if (content == null || content.isEmpty()) {
                         SteveMod.LOGGER.error("[Async] Empty response from LLM");
@@ -156,6 +268,24 @@ public class TaskPlanner {
                         return null;
                     }
 
+                    if (response.isFromCache()) {
+                        // Generated for another context sharing this key
+                        List<Task> rebound = new ArrayList<>();
+                        for (Task task : parsed.getTasks()) {
+                            rebound.add(cacheKeyNormalizer.rebind(task, cacheKey, response.getCacheContext(),
+                                position, nearbyPlayers));
+                        }
+                        parsed = new ResponseParser.ParsedResponse(parsed.getReasoning(), parsed.getPlan(), rebound);
+                    }
+
+                    parsed = compilePlan(parsed);
+                    if (parsed == null) {
+                        SteveMod.LOGGER.error("[Async] Rejected plan: no valid tasks");
+                        return null;
+                    }
+
+                    learnTemplate(command, response, parsed);
+
                     SteveMod.LOGGER.info("[Async] Plan received: {} ({} tasks, {}ms, {} tokens, cache: {})",
                         parsed.getPlan(),
                         parsed.getTasks().size(),
@@ -170,19 +300,354 @@ public class TaskPlanner {
                     return null;
                 });
 
+            // Cancelling the plan aborts the LLM call
+            return CancellableFutures.propagate(plan, call);
+
         } catch (Exception e) {
             SteveMod.LOGGER.error("[Async] Error setting up task planning", e);
             return CompletableFuture.completedFuture(null);
         }
     }
 
+    /**
+     * Asynchronously plans tasks, emitting each task as soon as it has been streamed.
+     *
+     * <p>Uses the same resilient client as {@link #planTasksAsync(SteveEntity, String)}, but
+     * requests a streamed completion and feeds it through an {@link IncrementalResponseParser}.
+     * {@code onTask} is called on the HTTP reader thread for every task, in plan order, so the
+     * caller can start the first task before generation has finished. The returned future
+     * completes with the full plan (containing the same tasks) once the stream ends.</p>
+     *
+     * <p>Must be called on the server thread, where the Steve's surroundings are captured.</p>
+     *
+     * @param steve   The Steve entity making the request
+     * @param command The user command to plan
+     * @param onTask  Receives each task as soon as it is available
+     * @return CompletableFuture that completes with the parsed response, or null on failure
+     */
+    public CompletableFuture<ResponseParser.ParsedResponse> planTasksStreaming(SteveEntity steve, String command,
+                                                                             Consumer<Task> onTask) {
+        ResponseParser.ParsedResponse templatePlan = planFromTemplate(steve, command);
+        if (templatePlan != null) {
+            templatePlan.getTasks().forEach(onTask);
+            return CompletableFuture.completedFuture(templatePlan);
+        }
+
+        try {
+            WorldSnapshot snapshot = WorldSnapshot.capture(steve);
+            return CancellableFutures.composeAsync(() -> requestStreamingPlan(snapshot, command, onTask), PROMPT_EXECUTOR);
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Stream] Error capturing world snapshot", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Builds the planning prompt from a snapshot and streams the response; runs on
+     * {@link #PROMPT_EXECUTOR}.
+     */
+    private CompletableFuture<ResponseParser.ParsedResponse> requestStreamingPlan(WorldSnapshot snapshot, String command,
+                                                                                Consumer<Task> onTask) {
+        try {
+            String systemPrompt = PromptBuilder.buildSystemPrompt();
+            String userPrompt = PromptBuilder.buildUserPrompt(snapshot, command, userPromptBudget(systemPrompt));
+            int estimatedInput = checkInputBudget(systemPrompt, userPrompt);
+
+            String provider = SteveConfig.AI_PROVIDER.get().toLowerCase();
+            SteveMod.LOGGER.info("[Stream] Requesting AI plan for Steve '{}' using {}: {}",
+                snapshot.getSteveName(), provider, command);
+
+            String cacheKey = cacheKeyNormalizer.normalize(userPrompt);
+            BlockPos position = snapshot.getPosition();
+            List<String> nearbyPlayers = snapshot.getNearbyPlayerNameList();
+
+            // Set for cache hits, which are never streamed: their tasks are emitted by parser.finish
+            AtomicReference<String> cachedContext = new AtomicReference<>();
+            IncrementalResponseParser parser = new IncrementalResponseParser(task -> {
+                try {
+                    String context = cachedContext.get();
+                    onTask.accept(TaskCompiler.compile(context == null ? task
+                        : cacheKeyNormalizer.rebind(task, cacheKey, context, position, nearbyPlayers)));
+                } catch (IllegalArgumentException e) {
+                    SteveMod.LOGGER.warn("[Stream] Rejected task {}: {}", task, e.getMessage());
+                }
+            });
+            AsyncLLMClient client = getAsyncClient(provider);
+
+            Map<String, Object> params = new HashMap<>(buildParams(systemPrompt, cacheKey, SteveConfig.MAX_TOKENS.get()));
+            params.put("cacheContext", CacheKeyNormalizer.encodeContext(position, nearbyPlayers));
+
+            CompletableFuture<LLMResponse> call = client.sendStreamingAsync(userPrompt, params, parser::feed);
+            CompletableFuture<ResponseParser.ParsedResponse> plan = call
+                .thenApply(response -> {
+                    recordUsage(response, estimatedInput);
+                    if (response.isFromCache()) {
+                        cachedContext.set(response.getCacheContext());
+                    }
+                    String content = response.getContent();
+                    if (content == null || content.isEmpty()) {
+                        SteveMod.LOGGER.error("[Stream] Empty response from LLM");
+                        return null;
+                    }
+
+                    ResponseParser.ParsedResponse parsed = compilePlan(parser.finish(content));
+                    if (parsed == null) {
+                        SteveMod.LOGGER.error("[Stream] Failed to parse AI response");
+                        return null;
+                    }
+
+                    learnTemplate(command, response, parsed);
+
+                    SteveMod.LOGGER.info("[Stream] Plan received: {} ({} tasks, first task after {}ms, total {}ms, {} tokens, cache: {})",
+                        parsed.getPlan(),
+                        parsed.getTasks().size(),
+                        parser.getFirstTaskLatencyMs(),
+                        response.getLatencyMs(),
+                        response.getTokensUsed(),
+                        response.isFromCache());
+
+                    return parsed;
+                })
+                .exceptionally(throwable -> {
+                    SteveMod.LOGGER.error("[Stream] Error planning tasks: {}", throwable.getMessage());
+                    return null;
+                });
+
+            return CancellableFutures.propagate(plan, call);
+
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Stream] Error setting up task planning", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Plans one command for several Steves with a single LLM call.
+     *
+     * <p>The prompt lists every agent's situation and asks for a per-agent task assignment,
+     * so a fleet command costs one round trip (and one rate limiter permit) instead of one per
+     * agent, and the agents get complementary plans instead of N copies of the same one.</p>
+     *
+     * <p>Must be called on the server thread, where each agent's surroundings are captured.</p>
+     *
+     * @param steves  The Steves the command is for
+     * @param command The user command to plan
+     * @return CompletableFuture with a plan per Steve name, or null on failure
+     */
+    public CompletableFuture<Map<String, ResponseParser.ParsedResponse>> planBatchAsync(List<SteveEntity> steves,
+                                                                                       String command) {
+        try {
+            List<WorldSnapshot> snapshots = new ArrayList<>();
+            for (SteveEntity steve : steves) {
+                snapshots.add(WorldSnapshot.capture(steve));
+            }
+            return CancellableFutures.composeAsync(() -> requestBatchPlan(snapshots, command), PROMPT_EXECUTOR);
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Batch] Error capturing world snapshots", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Builds the team prompt from the snapshots and sends it; runs on {@link #PROMPT_EXECUTOR}.
+     */
+    private CompletableFuture<Map<String, ResponseParser.ParsedResponse>> requestBatchPlan(List<WorldSnapshot> snapshots,
+                                                                                         String command) {
+        try {
+            List<String> names = snapshots.stream().map(WorldSnapshot::getSteveName).collect(Collectors.toList());
+
+            String systemPrompt = PromptBuilder.buildBatchSystemPrompt();
+            String userPrompt = PromptBuilder.buildBatchUserPrompt(snapshots, command, userPromptBudget(systemPrompt));
+            int estimatedInput = checkInputBudget(systemPrompt, userPrompt);
+            int maxTokens = SteveConfig.MAX_TOKENS.get() * Math.min(snapshots.size(), BATCH_OUTPUT_AGENT_CAP);
+
+            String provider = SteveConfig.AI_PROVIDER.get().toLowerCase();
+            SteveMod.LOGGER.info("[Batch] Requesting team plan for {} using {}: {}", names, provider, command);
+
+            AsyncLLMClient client = getAsyncClient(provider);
+
+            CompletableFuture<LLMResponse> call = client.sendAsync(userPrompt, buildParams(systemPrompt, userPrompt, maxTokens));
+            CompletableFuture<Map<String, ResponseParser.ParsedResponse>> batchPlan = call
+                .thenApply(response -> {
+                    recordUsage(response, estimatedInput);
+                    Map<String, ResponseParser.ParsedResponse> plans =
+                        ResponseParser.parseBatchResponse(response.getContent(), names);
+                    if (plans == null) {
+                        SteveMod.LOGGER.error("[Batch] Failed to parse AI team response");
+                        return null;
+                    }
+                    plans.replaceAll((name, agentPlan) -> compilePlan(agentPlan));
+                    plans.values().removeIf(agentPlan -> agentPlan == null || agentPlan.getTasks().isEmpty());
+
+                    SteveMod.LOGGER.info("[Batch] Team plan received for {} agents ({}ms, {} tokens, cache: {})",
+                        plans.size(),
+                        response.getLatencyMs(),
+                        response.getTokensUsed(),
+                        response.isFromCache());
+
+                    return plans;
+                })
+                .exceptionally(throwable -> {
+                    SteveMod.LOGGER.error("[Batch] Error planning tasks: {}", throwable.getMessage());
+                    return null;
+                });
+
+            return CancellableFutures.propagate(batchPlan, call);
+
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Batch] Error setting up team planning", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Asks for a patch to a running task queue after a task failed.
+     *
+     * <p>The prompt holds only the goal, the failed task with its failure reason and the
+     * remaining queue, not the full world context, so it is a fraction of the size of a
+     * planning prompt. The call runs in the {@link LLMExecutorService.Priority#BACKGROUND}
+     * lane, behind any command a player is waiting for. Inserted tasks are compiled like
+     * planned ones.</p>
+     *
+     * @param steve      The Steve whose task failed
+     * @param goal       Current goal (plan description), may be null
+     * @param failedTask Task that failed
+     * @param reason     Failure message
+     * @param remaining  Tasks still queued when the failure happened
+     * @return CompletableFuture with the patch, or null on failure; cancelling it aborts the LLM call
+     */
+    public CompletableFuture<TaskPatch> replanAsync(SteveEntity steve, String goal, Task failedTask, String reason,
+                                                    List<Task> remaining) {
+        try {
+            String systemPrompt = PromptBuilder.buildReplanSystemPrompt();
+            String userPrompt = PromptBuilder.buildReplanUserPrompt(steve, goal, failedTask, reason, remaining,
+                userPromptBudget(systemPrompt));
+            int estimatedInput = checkInputBudget(systemPrompt, userPrompt);
+
+            String provider = SteveConfig.AI_PROVIDER.get().toLowerCase();
+            SteveMod.LOGGER.info("[Replan] Requesting patch for Steve '{}' using {}: {} failed ({}), {} tasks remaining",
+                steve.getSteveName(), provider, failedTask.getAction(), reason, remaining.size());
+
+            Map<String, Object> params = new HashMap<>(buildParams(systemPrompt, userPrompt,
+                Math.max(100, SteveConfig.MAX_TOKENS.get() / 2)));
+            params.put(LLMExecutorService.PRIORITY_PARAM, LLMExecutorService.Priority.BACKGROUND);
+
+            CompletableFuture<LLMResponse> call = getAsyncClient(provider).sendAsync(userPrompt, params);
+            CompletableFuture<TaskPatch> patch = call
+                .thenApply(response -> {
+                    recordUsage(response, estimatedInput);
+                    TaskPatch parsed = ResponseParser.parsePatch(response.getContent());
+                    if (parsed == null) {
+                        SteveMod.LOGGER.error("[Replan] Failed to parse patch");
+                        return null;
+                    }
+
+                    TaskPatch compiled = new TaskPatch(parsed.getReasoning(),
+                        TaskCompiler.compileAll(parsed.getInsert()), parsed.getDrop(), parsed.isAbort());
+
+                    SteveMod.LOGGER.info("[Replan] Patch received: {} ({}ms, {} tokens, cache: {})",
+                        compiled, response.getLatencyMs(), response.getTokensUsed(), response.isFromCache());
+
+                    return compiled;
+                })
+                .exceptionally(throwable -> {
+                    SteveMod.LOGGER.error("[Replan] Error replanning: {}", throwable.getMessage());
+                    return null;
+                });
+
+            return CancellableFutures.propagate(patch, call);
+
+        } catch (Exception e) {
+            SteveMod.LOGGER.error("[Replan] Error setting up replanning", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Builds the request parameters shared by all planning calls.
+     *
+     * <p>Includes a deadline {@code planningTimeoutSeconds} from now, so retries and slow
+     * providers cannot keep a plan request (and its tokens) running indefinitely.</p>
+     *
+     * @param systemPrompt System prompt for the request
+     * @param cacheKey     Normalized prompt used for caching instead of the exact prompt
+     * @param maxTokens    Output token budget for the response
+     * @return Immutable params map
+     */
+    private Map<String, Object> buildParams(String systemPrompt, String cacheKey, int maxTokens) {
+        return Map.of(
+            "systemPrompt", systemPrompt,
+            "cacheKey", cacheKey,
+            "model", SteveConfig.OPENAI_MODEL.get(),
+            "maxTokens", maxTokens,
+            "temperature", SteveConfig.TEMPERATURE.get(),
+            RequestDeadline.PARAM, RequestDeadline.after(Duration.ofSeconds(SteveConfig.PLANNING_TIMEOUT_SECONDS.get()))
+        );
+    }
+
+    /**
+     * Returns the token budget left for the user prompt once the system prompt is counted.
+     */
+    private static int userPromptBudget(String systemPrompt) {
+        return SteveConfig.MAX_INPUT_TOKENS.get() - TokenEstimator.estimate(systemPrompt);
+    }
+
+    /**
+     * Estimates the input tokens of a request and refuses it if they exceed the budget.
+     *
+     * <p>Context is already trimmed to fit, so only the parts that are never cut (the system
+     * prompt and the command itself) can push a request over.</p>
+     *
+     * @return Estimated input tokens
+     * @throws IllegalStateException if the request exceeds {@code maxInputTokens}
+     */
+    private static int checkInputBudget(String systemPrompt, String userPrompt) {
+        int estimated = TokenEstimator.estimate(systemPrompt) + TokenEstimator.estimate(userPrompt);
+        int budget = SteveConfig.MAX_INPUT_TOKENS.get();
+        if (estimated > budget) {
+            throw new IllegalStateException("Prompt needs ~" + estimated + " input tokens, budget is " + budget);
+        }
+        return estimated;
+    }
+
+    /**
+     * Records estimated and reported token usage of a fresh (non-cached) response.
+     */
+    private void recordUsage(LLMResponse response, int estimatedInput) {
+        if (!response.isFromCache() && !"fallback".equals(response.getProviderId())) {
+            tokenUsage.record(response.getProviderId(), estimatedInput,
+                TokenEstimator.estimate(response.getContent()), response.getTokensUsed());
+        }
+    }
+
     /**
      * Returns the appropriate async client based on provider config.
      *
+     * <p>With {@code hedgeRequests} enabled, returns a {@link HedgingLLMClient} that uses the
+     * configured provider as primary and the other providers as hedges.</p>
+     *
      * @param provider Provider name ("openai", "groq", "gemini")
-     * @return Resilient async client
+     * @return Resilient (or hedging) async client
      */
     private AsyncLLMClient getAsyncClient(String provider) {
+        ResilientLLMClient primary = getResilientClient(provider);
+        if (!SteveConfig.HEDGE_REQUESTS.get()) {
+            return primary;
+        }
+
+        return hedgingClients.computeIfAbsent(primary.getProviderId(), id -> {
+            List<ResilientLLMClient> order = new ArrayList<>();
+            order.add(primary);
+            for (ResilientLLMClient client : List.of(asyncGroqClient, asyncOpenAIClient, asyncGeminiClient)) {
+                if (client != primary) {
+                    order.add(client);
+                }
+            }
+            return new HedgingLLMClient(order);
+        });
+    }
+
+    private ResilientLLMClient getResilientClient(String provider) {
         return switch (provider) {
             case "openai" -> asyncOpenAIClient;
             case "gemini" -> asyncGeminiClient;
@@ -203,6 +668,24 @@ public class TaskPlanner {
         return llmCache;
     }
 
+    /**
+     * Returns the fast-path template store, for metrics.
+     *
+     * @return Plan template store
+     */
+    public PlanTemplateStore getPlanTemplates() {
+        return planTemplates;
+    }
+
+    /**
+     * Returns the per-provider token usage, for metrics.
+     *
+     * @return Token usage stats
+     */
+    public TokenUsageStats getTokenUsage() {
+        return tokenUsage;
+    }
+
     /**
      * Checks if the specified provider's async client is healthy.
      *
@@ -210,32 +693,63 @@ public class TaskPlanner {
      * @return true if healthy (circuit breaker not OPEN)
      */
     public boolean isProviderHealthy(String provider) {
-        return getAsyncClient(provider).isHealthy();
+        return getResilientClient(provider).isHealthy();
+    }
+
+    /**
+     * Plans a routine command from a learned template, skipping the LLM.
+     *
+     * @param steve   The Steve entity making the request
+     * @param command The user command to plan
+     * @return Compiled plan, or null if the command needs the LLM
+     */
+    private ResponseParser.ParsedResponse planFromTemplate(SteveEntity steve, String command) {
+        if (!SteveConfig.FAST_PATH_PLANNING.get()) {
+            return null;
+        }
+
+        ResponseParser.ParsedResponse plan = compilePlan(planTemplates.plan(command));
+        if (plan != null) {
+            SteveMod.LOGGER.info("[FastPath] Planned '{}' for Steve '{}' from template: {} ({} tasks, no LLM call)",
+                command, steve.getSteveName(), plan.getPlan(), plan.getTasks().size());
+        }
+        return plan;
+    }
+
+    /**
+     * Feeds a fresh (non-cached) LLM plan to the template store.
+     */
+    private void learnTemplate(String command, LLMResponse response, ResponseParser.ParsedResponse plan) {
+        if (!response.isFromCache()) {
+            planTemplates.learn(command, plan, response.getLatencyMs());
+        }
+    }
+
+    /**
+     * Compiles a parsed plan into typed tasks, dropping tasks that fail validation.
+     *
+     * @param parsed Parsed plan, or null
+     * @return Plan with compiled tasks; null if the input was null or every task was invalid
+     * @see TaskCompiler
+     */
+    private ResponseParser.ParsedResponse compilePlan(ResponseParser.ParsedResponse parsed) {
+        if (parsed == null) {
+            return null;
+        }
+
+        List<Task> tasks = TaskCompiler.compileAll(parsed.getTasks());
+        if (tasks.isEmpty() && !parsed.getTasks().isEmpty()) {
+            return null;
+        }
+        return new ResponseParser.ParsedResponse(parsed.getReasoning(), parsed.getPlan(), tasks);
     }
 
     public boolean validateTask(Task task) {
-        String action = task.getAction();
-        
-        return switch (action) {
-            case "pathfind" -> task.hasParameters("x", "y", "z");
-            case "mine" -> task.hasParameters("block", "quantity");
-            case "place" -> task.hasParameters("block", "x", "y", "z");
-            case "craft" -> task.hasParameters("item", "quantity");
-            case "attack" -> task.hasParameters("target");
-            case "follow" -> task.hasParameters("player");
-            case "gather" -> task.hasParameters("resource", "quantity");
-            case "build" -> task.hasParameters("structure", "blocks", "dimensions");
-            default -> {
-                SteveMod.LOGGER.warn("Unknown action type: {}", action);
-                yield false;
-            }
-        };
+        return TaskCompiler.isValid(task);
     }
 
     public List<Task> validateAndFilterTasks(List<Task> tasks) {
-        return tasks.stream()
-            .filter(this::validateTask)
-            .toList();
+        return TaskCompiler.compileAll(tasks);
     }
 }
 
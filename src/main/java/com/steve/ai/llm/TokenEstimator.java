@@ -0,0 +1,98 @@
+package com.steve.ai.llm;
+
+/**
+ * Local approximation of BPE token counts, without a tokenizer.
+ *
+ * <p>Used to keep prompts within the input token budget before they are sent, and to compare
+ * against the usage providers report. It approximates how BPE tokenizers split English and
+ * JSON: a word costs one token per ~6 letters (common words are a single token), a number
+ * one token per ~3 digits, a run of punctuation (braces, quotes, colons) one token per two
+ * characters, and whitespace is folded into the following token. It is not exact, but close
+ * enough for budgeting; {@link TokenUsageStats} reports the estimate/actual ratio per
+ * provider.</p>
+ *
+ * @since 1.2.0
+ */
+public final class TokenEstimator {
+
+    private static final int LETTERS_PER_TOKEN = 6;
+    private static final int DIGITS_PER_TOKEN = 3;
+    private static final int SYMBOLS_PER_TOKEN = 2;
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Estimates the number of tokens in a text.
+     *
+     * @param text Text to estimate, may be null
+     * @return Estimated token count
+     */
+    public static int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+
+        int tokens = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isLetter(c)) {
+                int start = i;
+                while (i < length && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + LETTERS_PER_TOKEN - 1) / LETTERS_PER_TOKEN;
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + DIGITS_PER_TOKEN - 1) / DIGITS_PER_TOKEN;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int start = i;
+                while (i < length && isSymbol(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + SYMBOLS_PER_TOKEN - 1) / SYMBOLS_PER_TOKEN;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isSymbol(char c) {
+        return !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+    }
+
+    /**
+     * Cuts a comma-separated list so that it fits a token budget, ending it with "..." if
+     * anything was dropped. Whole items are kept or dropped, never split.
+     *
+     * @param list      Comma-separated list, e.g. a nearby blocks summary
+     * @param maxTokens Token budget for the list
+     * @return The list, or its longest prefix that fits
+     */
+    public static String fitList(String list, int maxTokens) {
+        if (estimate(list) <= maxTokens) {
+            return list;
+        }
+
+        StringBuilder fitted = new StringBuilder();
+        int used = 1; // for the trailing "..."
+        for (String item : list.split(",")) {
+            int cost = estimate(item) + 1;
+            if (used + cost > maxTokens) {
+                break;
+            }
+            if (fitted.length() > 0) {
+                fitted.append(',');
+            }
+            fitted.append(item);
+            used += cost;
+        }
+        return fitted.append(fitted.length() > 0 ? ", ..." : "...").toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.steve.ai.llm;
+
+import com.steve.ai.SteveMod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimated versus actual token usage, per provider.
+ *
+ * <p>For every fresh (non-cached) LLM response the planner records the locally estimated
+ * input tokens, the estimated output tokens of the content that came back, and the total
+ * the provider reported ({@link com.steve.ai.llm.async.LLMResponse#getTokensUsed()}). The
+ * ratio shows how far {@link TokenEstimator} is off for each provider's tokenizer, and the
+ * per-request averages show what the budgets actually cost. Responses without reported
+ * usage are left out of the ratio; how many did report is kept alongside it, so a ratio
+ * based on a handful of responses can be told apart from a solid one.</p>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe; counters are {@link LongAdder}s.</p>
+ *
+ * @since 1.2.0
+ */
+public class TokenUsageStats {
+
+    private final Map<String, ProviderUsage> providers = new ConcurrentHashMap<>();
+
+    /**
+     * Records one response.
+     *
+     * @param providerId      Provider that answered
+     * @param estimatedInput  Estimated input tokens (system prompt + user prompt)
+     * @param estimatedOutput Estimated output tokens of the response content
+     * @param actualTotal     Total tokens reported by the provider (0 if it reported none)
+     */
+    public void record(String providerId, int estimatedInput, int estimatedOutput, int actualTotal) {
+        ProviderUsage usage = providers.computeIfAbsent(providerId, id -> new ProviderUsage());
+        usage.requests.increment();
+        usage.estimatedInput.add(estimatedInput);
+        usage.estimatedOutput.add(estimatedOutput);
+        if (actualTotal > 0) {
+            usage.reported.increment();
+            usage.reportedEstimate.add(estimatedInput + estimatedOutput);
+            usage.actual.add(actualTotal);
+        }
+    }
+
+    /**
+     * Returns the ratio of estimated to actual tokens for a provider.
+     *
+     * @param providerId Provider ID
+     * @return Estimated / actual over all responses that reported usage, or 0 if none did
+     */
+    public double getEstimateRatio(String providerId) {
+        ProviderUsage usage = providers.get(providerId);
+        if (usage == null || usage.actual.sum() == 0) {
+            return 0.0;
+        }
+        return (double) usage.reportedEstimate.sum() / usage.actual.sum();
+    }
+
+    /**
+     * Returns how many responses of a provider reported their token usage.
+     *
+     * @param providerId Provider ID
+     * @return Responses the estimate ratio is based on
+     */
+    public long getReportedRequests(String providerId) {
+        ProviderUsage usage = providers.get(providerId);
+        return usage != null ? usage.reported.sum() : 0;
+    }
+
+    /**
+     * Returns the total tokens a provider reported.
+     *
+     * @param providerId Provider ID
+     * @return Actual tokens used
+     */
+    public long getActualTokens(String providerId) {
+        ProviderUsage usage = providers.get(providerId);
+        return usage != null ? usage.actual.sum() : 0;
+    }
+
+    public void logStats() {
+        providers.forEach((providerId, usage) -> {
+            long requests = usage.requests.sum();
+            SteveMod.LOGGER.info("Tokens [{}]: {} requests, estimated {} in / {} out (avg {}/request), actual {} from {} reporting (estimate/actual {})",
+                providerId, requests,
+                usage.estimatedInput.sum(), usage.estimatedOutput.sum(),
+                requests == 0 ? 0 : (usage.estimatedInput.sum() + usage.estimatedOutput.sum()) / requests,
+                usage.actual.sum(),
+                usage.reported.sum(),
+                String.format("%.2f", getEstimateRatio(providerId)));
+        });
+    }
+
+    private static final class ProviderUsage {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder estimatedInput = new LongAdder();
+        private final LongAdder estimatedOutput = new LongAdder();
+        private final LongAdder reported = new LongAdder();
+        private final LongAdder reportedEstimate = new LongAdder();
+        private final LongAdder actual = new LongAdder();
+    }
+}
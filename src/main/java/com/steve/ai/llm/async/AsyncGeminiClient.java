@@ -6,13 +6,20 @@ import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Asynchronous Google Gemini API client using Java HttpClient's sendAsync().
@@ -52,6 +59,7 @@ public class AsyncGeminiClient implements AsyncLLMClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncGeminiClient.class);
     private static final String GEMINI_API_BASE = "https://generativelanguage.googleapis.com/v1beta/models/";
     private static final String PROVIDER_ID = "gemini";
+    private static final Duration STREAM_TIMEOUT = Duration.ofSeconds(120);
 
     private final HttpClient httpClient;
     private final String apiKey;
@@ -79,6 +87,7 @@ public class AsyncGeminiClient implements AsyncLLMClient {
         this.temperature = temperature;
 
         this.httpClient = HttpClient.newBuilder()
+            .executor(LLMExecutorService.getInstance().getWorkerExecutor())
             .connectTimeout(Duration.ofSeconds(30))
             .build();
 
@@ -90,20 +99,26 @@ public class AsyncGeminiClient implements AsyncLLMClient {
     public CompletableFuture<LLMResponse> sendAsync(String prompt, Map<String, Object> params) {
         long startTime = System.currentTimeMillis();
 
-        String requestBody = buildRequestBody(prompt, params);
+        String requestBody = buildRequestBody(prompt, params).toString();
         String urlWithKey = GEMINI_API_BASE + model + ":generateContent?key=" + apiKey;
 
         HttpRequest request = HttpRequest.newBuilder()
             .uri(URI.create(urlWithKey))
             .header("Content-Type", "application/json")
             .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-            .timeout(Duration.ofSeconds(60)) // Gemini can be slower
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(60))) // Gemini can be slower
             .build();
 
         LOGGER.debug("[gemini] Sending async request (prompt length: {} chars)", prompt.length());
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            .thenApply(response -> {
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        // The lane slot is held until the body has arrived; parsing runs after it is released
+        CompletableFuture<HttpResponse<String>> exchange = executorService.runInLane(PROVIDER_ID, params,
+            () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        CompletableFuture<LLMResponse> result = exchange
+            .thenApplyAsync(response -> {
                 long latencyMs = System.currentTimeMillis() - startTime;
 
                 if (response.statusCode() != 200) {
@@ -117,12 +132,82 @@ public class AsyncGeminiClient implements AsyncLLMClient {
                         "Gemini API error: HTTP " + response.statusCode(),
                         errorType,
                         PROVIDER_ID,
-                        retryable
+                        retryable,
+                        RateLimitInfo.fromHeaders(response.headers())
                     );
                 }
 
-                return parseResponse(response.body(), latencyMs);
-            });
+                return parseResponse(response.body(), latencyMs)
+                    .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+            }, executorService.getWorkerExecutor());
+
+        // Cancelling the result aborts the HTTP exchange
+        return CancellableFutures.propagate(result, exchange);
+    }
+
+    /**
+     * Streams the completion via {@code streamGenerateContent?alt=sse}.
+     *
+     * <p>Each SSE event carries a partial response in the same shape as
+     * {@code generateContent}; the text of its first candidate part is forwarded as a delta.</p>
+     */
+    @Override
+    public CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                             Consumer<String> onDelta) {
+        long startTime = System.currentTimeMillis();
+
+        String requestBody = buildRequestBody(prompt, params).toString();
+        String urlWithKey = GEMINI_API_BASE + model + ":streamGenerateContent?alt=sse&key=" + apiKey;
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(urlWithKey))
+            .header("Content-Type", "application/json")
+            .header("Accept", "text/event-stream")
+            .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(60))) // Gemini can be slower
+            .build();
+
+        LOGGER.debug("[gemini] Sending streaming request (prompt length: {} chars)", prompt.length());
+
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        StreamGuard guard = new StreamGuard();
+
+        // The lane slot is held until the whole stream has been read, timed out or been cancelled
+        return executorService.runInLane(PROVIDER_ID, params, () -> {
+            CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            CompletableFuture<LLMResponse> result = exchange
+                .thenApplyAsync(response -> {
+                    if (response.statusCode() != 200) {
+                        String errorBody;
+                        try (Stream<String> lines = guard.lines(response.body())) {
+                            errorBody = lines.collect(Collectors.joining("\n"));
+                        }
+                        boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+
+                        LOGGER.error("[gemini] API error: status={}, body={}", response.statusCode(),
+                            truncate(errorBody, 200));
+
+                        throw new LLMException(
+                            "Gemini API error: HTTP " + response.statusCode(),
+                            determineErrorType(response.statusCode()),
+                            PROVIDER_ID,
+                            retryable,
+                            RateLimitInfo.fromHeaders(response.headers())
+                        );
+                    }
+
+                    return readStream(guard.lines(response.body()), startTime, guard.deltas(onDelta))
+                        .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+                }, executorService.getWorkerExecutor());
+
+            // Headers only count against the request timeout: bound the whole stream by the
+            // deadline, and abort the exchange and body when the result is cancelled or times out
+            return guard.guard(result, exchange, RequestDeadline.timeout(params, STREAM_TIMEOUT),
+                PROVIDER_ID, executorService.getWorkerExecutor());
+        });
     }
 
     /**
@@ -132,9 +217,9 @@ public class AsyncGeminiClient implements AsyncLLMClient {
      *
      * @param prompt User prompt
      * @param params Additional parameters
-     * @return JSON string
+     * @return JSON request body
      */
-    private String buildRequestBody(String prompt, Map<String, Object> params) {
+    private JsonObject buildRequestBody(String prompt, Map<String, Object> params) {
         JsonObject body = new JsonObject();
 
         // Build contents array (Gemini format)
@@ -170,7 +255,73 @@ public class AsyncGeminiClient implements AsyncLLMClient {
 
         body.add("generationConfig", generationConfig);
 
-        return body.toString();
+        return body;
+    }
+
+    /**
+     * Reads an SSE stream of partial Gemini responses, forwarding each text part as it arrives.
+     *
+     * @param lines     Response body lines
+     * @param startTime Request start time (for latency)
+     * @param onDelta   Receives each content fragment
+     * @return LLMResponse with the concatenated content
+     */
+    private LLMResponse readStream(Stream<String> lines, long startTime, Consumer<String> onDelta) {
+        StringBuilder content = new StringBuilder();
+        AtomicInteger tokensUsed = new AtomicInteger();
+
+        try (lines) {
+            ServerSentEvents.forEachData(lines, data -> {
+                JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+
+                if (chunk.has("candidates") && !chunk.getAsJsonArray("candidates").isEmpty()) {
+                    JsonObject candidate = chunk.getAsJsonArray("candidates").get(0).getAsJsonObject();
+                    JsonObject candidateContent = candidate.getAsJsonObject("content");
+                    JsonArray parts = candidateContent != null ? candidateContent.getAsJsonArray("parts") : null;
+                    if (parts != null && !parts.isEmpty() && parts.get(0).getAsJsonObject().has("text")) {
+                        String text = parts.get(0).getAsJsonObject().get("text").getAsString();
+                        content.append(text);
+                        onDelta.accept(text);
+                    }
+                }
+
+                if (chunk.has("usageMetadata") && chunk.getAsJsonObject("usageMetadata").has("totalTokenCount")) {
+                    tokensUsed.set(chunk.getAsJsonObject("usageMetadata").get("totalTokenCount").getAsInt());
+                }
+            });
+        } catch (CancellationException e) {
+            // Stream aborted (cancelled or timed out): stop without reporting a parse failure
+            throw e;
+        } catch (UncheckedIOException e) {
+            throw new LLMException(
+                "Gemini stream interrupted: " + e.getMessage(),
+                LLMException.ErrorType.NETWORK_ERROR,
+                PROVIDER_ID,
+                true,
+                e
+            );
+        } catch (Exception e) {
+            LOGGER.error("[gemini] Failed to parse stream chunk", e);
+            throw new LLMException(
+                "Failed to parse Gemini stream: " + e.getMessage(),
+                LLMException.ErrorType.INVALID_RESPONSE,
+                PROVIDER_ID,
+                false,
+                e
+            );
+        }
+
+        long latencyMs = System.currentTimeMillis() - startTime;
+        LOGGER.debug("[gemini] Stream complete (latency: {}ms, tokens: {})", latencyMs, tokensUsed.get());
+
+        return LLMResponse.builder()
+            .content(content.toString())
+            .model(model)
+            .providerId(PROVIDER_ID)
+            .latencyMs(latencyMs)
+            .tokensUsed(tokensUsed.get())
+            .fromCache(false)
+            .build();
     }
 
     /**
@@ -6,13 +6,20 @@ import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Asynchronous Groq API client using Java HttpClient's sendAsync().
@@ -47,6 +54,7 @@ public class AsyncGroqClient implements AsyncLLMClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncGroqClient.class);
     private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
     private static final String PROVIDER_ID = "groq";
+    private static final Duration STREAM_TIMEOUT = Duration.ofSeconds(120);
 
     private final HttpClient httpClient;
     private final String apiKey;
@@ -75,6 +83,7 @@ public class AsyncGroqClient implements AsyncLLMClient {
 
         this.httpClient = HttpClient.newBuilder()
             .version(HttpClient.Version.HTTP_2) // Groq benefits from HTTP/2
+            .executor(LLMExecutorService.getInstance().getWorkerExecutor())
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
@@ -86,20 +95,26 @@ public class AsyncGroqClient implements AsyncLLMClient {
     public CompletableFuture<LLMResponse> sendAsync(String prompt, Map<String, Object> params) {
         long startTime = System.currentTimeMillis();
 
-        String requestBody = buildRequestBody(prompt, params);
+        String requestBody = buildRequestBody(prompt, params).toString();
 
         HttpRequest request = HttpRequest.newBuilder()
             .uri(URI.create(GROQ_API_URL))
             .header("Content-Type", "application/json")
             .header("Authorization", "Bearer " + apiKey)
             .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-            .timeout(Duration.ofSeconds(30))
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(30)))
             .build();
 
         LOGGER.debug("[groq] Sending async request (prompt length: {} chars)", prompt.length());
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            .thenApply(response -> {
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        // The lane slot is held until the body has arrived; parsing runs after it is released
+        CompletableFuture<HttpResponse<String>> exchange = executorService.runInLane(PROVIDER_ID, params,
+            () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        CompletableFuture<LLMResponse> result = exchange
+            .thenApplyAsync(response -> {
                 long latencyMs = System.currentTimeMillis() - startTime;
 
                 if (response.statusCode() != 200) {
@@ -113,12 +128,82 @@ public class AsyncGroqClient implements AsyncLLMClient {
                         "Groq API error: HTTP " + response.statusCode(),
                         errorType,
                         PROVIDER_ID,
-                        retryable
+                        retryable,
+                        RateLimitInfo.fromHeaders(response.headers())
                     );
                 }
 
-                return parseResponse(response.body(), latencyMs);
-            });
+                return parseResponse(response.body(), latencyMs)
+                    .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+            }, executorService.getWorkerExecutor());
+
+        // Cancelling the result aborts the HTTP exchange
+        return CancellableFutures.propagate(result, exchange);
+    }
+
+    /**
+     * Streams the completion using Server-Sent Events ({@code "stream": true}).
+     *
+     * <p>Groq reports token usage in the final chunk under {@code x_groq.usage}.</p>
+     */
+    @Override
+    public CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                             Consumer<String> onDelta) {
+        long startTime = System.currentTimeMillis();
+
+        JsonObject body = buildRequestBody(prompt, params);
+        body.addProperty("stream", true);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(GROQ_API_URL))
+            .header("Content-Type", "application/json")
+            .header("Accept", "text/event-stream")
+            .header("Authorization", "Bearer " + apiKey)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(30)))
+            .build();
+
+        LOGGER.debug("[groq] Sending streaming request (prompt length: {} chars)", prompt.length());
+
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        StreamGuard guard = new StreamGuard();
+
+        // The lane slot is held until the whole stream has been read, timed out or been cancelled
+        return executorService.runInLane(PROVIDER_ID, params, () -> {
+            CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            CompletableFuture<LLMResponse> result = exchange
+                .thenApplyAsync(response -> {
+                    if (response.statusCode() != 200) {
+                        String errorBody;
+                        try (Stream<String> lines = guard.lines(response.body())) {
+                            errorBody = lines.collect(Collectors.joining("\n"));
+                        }
+                        boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+
+                        LOGGER.error("[groq] API error: status={}, body={}", response.statusCode(),
+                            truncate(errorBody, 200));
+
+                        throw new LLMException(
+                            "Groq API error: HTTP " + response.statusCode(),
+                            determineErrorType(response.statusCode()),
+                            PROVIDER_ID,
+                            retryable,
+                            RateLimitInfo.fromHeaders(response.headers())
+                        );
+                    }
+
+                    return readStream(guard.lines(response.body()), startTime, guard.deltas(onDelta))
+                        .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+                }, executorService.getWorkerExecutor());
+
+            // Headers only count against the request timeout: bound the whole stream by the
+            // deadline, and abort the exchange and body when the result is cancelled or times out
+            return guard.guard(result, exchange, RequestDeadline.timeout(params, STREAM_TIMEOUT),
+                PROVIDER_ID, executorService.getWorkerExecutor());
+        });
     }
 
     /**
@@ -126,9 +211,9 @@ public class AsyncGroqClient implements AsyncLLMClient {
      *
      * @param prompt User prompt
      * @param params Additional parameters
-     * @return JSON string
+     * @return JSON request body
      */
-    private String buildRequestBody(String prompt, Map<String, Object> params) {
+    private JsonObject buildRequestBody(String prompt, Map<String, Object> params) {
         JsonObject body = new JsonObject();
 
         String modelToUse = (String) params.getOrDefault("model", this.model);
@@ -158,7 +243,7 @@ public class AsyncGroqClient implements AsyncLLMClient {
 
         body.add("messages", messages);
 
-        return body.toString();
+        return body;
     }
 
     /**
@@ -216,6 +301,72 @@ public class AsyncGroqClient implements AsyncLLMClient {
         }
     }
 
+    /**
+     * Reads an SSE completion stream, forwarding each content delta as it arrives.
+     *
+     * @param lines     Response body lines
+     * @param startTime Request start time (for latency)
+     * @param onDelta   Receives each content fragment
+     * @return LLMResponse with the concatenated content
+     */
+    private LLMResponse readStream(Stream<String> lines, long startTime, Consumer<String> onDelta) {
+        StringBuilder content = new StringBuilder();
+        AtomicInteger tokensUsed = new AtomicInteger();
+
+        try (lines) {
+            ServerSentEvents.forEachData(lines, data -> {
+                JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+
+                if (chunk.has("choices") && !chunk.getAsJsonArray("choices").isEmpty()) {
+                    JsonObject delta = chunk.getAsJsonArray("choices").get(0).getAsJsonObject()
+                        .getAsJsonObject("delta");
+                    if (delta != null && delta.has("content") && !delta.get("content").isJsonNull()) {
+                        String text = delta.get("content").getAsString();
+                        content.append(text);
+                        onDelta.accept(text);
+                    }
+                }
+
+                if (chunk.has("x_groq") && chunk.getAsJsonObject("x_groq").has("usage")) {
+                    tokensUsed.set(chunk.getAsJsonObject("x_groq").getAsJsonObject("usage")
+                        .get("total_tokens").getAsInt());
+                }
+            });
+        } catch (CancellationException e) {
+            // Stream aborted (cancelled or timed out): stop without reporting a parse failure
+            throw e;
+        } catch (UncheckedIOException e) {
+            throw new LLMException(
+                "Groq stream interrupted: " + e.getMessage(),
+                LLMException.ErrorType.NETWORK_ERROR,
+                PROVIDER_ID,
+                true,
+                e
+            );
+        } catch (Exception e) {
+            LOGGER.error("[groq] Failed to parse stream chunk", e);
+            throw new LLMException(
+                "Failed to parse Groq stream: " + e.getMessage(),
+                LLMException.ErrorType.INVALID_RESPONSE,
+                PROVIDER_ID,
+                false,
+                e
+            );
+        }
+
+        long latencyMs = System.currentTimeMillis() - startTime;
+        LOGGER.debug("[groq] Stream complete (latency: {}ms, tokens: {})", latencyMs, tokensUsed.get());
+
+        return LLMResponse.builder()
+            .content(content.toString())
+            .model(model)
+            .providerId(PROVIDER_ID)
+            .latencyMs(latencyMs)
+            .tokensUsed(tokensUsed.get())
+            .fromCache(false)
+            .build();
+    }
+
     private LLMException.ErrorType determineErrorType(int statusCode) {
         return switch (statusCode) {
             case 429 -> LLMException.ErrorType.RATE_LIMIT;
@@ -2,6 +2,7 @@ package com.steve.ai.llm.async;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Asynchronous interface for LLM (Large Language Model) clients.
@@ -38,7 +39,8 @@ public interface AsyncLLMClient {
      *
      * <p>This method returns immediately with a CompletableFuture, allowing the calling
      * thread (typically the game thread) to continue without blocking. The actual HTTP
-     * request is executed on a provider-specific thread pool managed by LLMExecutorService.</p>
+     * request is sent by the HttpClient, and the response is processed in the provider's
+     * priority lane managed by LLMExecutorService.</p>
      *
      * <p><b>Thread Safety:</b> This method is thread-safe and can be called concurrently
      * from multiple threads. The underlying thread pool handles concurrency.</p>
@@ -46,13 +48,43 @@ public interface AsyncLLMClient {
      * @param prompt   The text prompt to send to the LLM
      * @param params   Additional parameters for the request (model, maxTokens, temperature, etc.)
      *                 Expected keys: "model" (String), "maxTokens" (Integer), "temperature" (Double)
-     * @return A CompletableFuture that will complete with the LLM response
+     *                 Optional: "priority" ({@link LLMExecutorService.Priority} or its name,
+     *                 defaults to INTERACTIVE), "deadline" (Long epoch millis, see
+     *                 {@link RequestDeadline})
+     * @return A CompletableFuture that will complete with the LLM response; cancelling it
+     *         aborts the request
      * @throws IllegalArgumentException if prompt is null or empty, or required params are missing
      * @see LLMResponse
      * @see LLMException
      */
     CompletableFuture<LLMResponse> sendAsync(String prompt, Map<String, Object> params);
 
+    /**
+     * Sends an asynchronous request and streams the generated text as it arrives.
+     *
+     * <p>Each fragment of generated content is passed to {@code onDelta} in order, on the
+     * thread reading the response. The returned future completes with the full response
+     * once the stream ends, so callers can act on partial output (e.g. start the first
+     * task of a plan) while the rest is still being generated.</p>
+     *
+     * <p>Only content actually streamed by a provider is passed to {@code onDelta}. Responses
+     * that were not streamed (cache hits, fallbacks) are only in the returned response, so
+     * callers must handle its content when no fragment arrived.</p>
+     *
+     * <p>The default implementation does not stream: it delegates to
+     * {@link #sendAsync(String, Map)}. Providers that support Server-Sent Events override
+     * this.</p>
+     *
+     * @param prompt  The text prompt to send to the LLM
+     * @param params  Additional parameters for the request (see {@link #sendAsync(String, Map)})
+     * @param onDelta Receives each fragment of generated content, in order
+     * @return A CompletableFuture that will complete with the full LLM response
+     */
+    default CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                              Consumer<String> onDelta) {
+        return sendAsync(prompt, params);
+    }
+
     /**
      * Returns the unique identifier for this LLM provider.
      *
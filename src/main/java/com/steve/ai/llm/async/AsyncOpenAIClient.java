@@ -6,13 +6,20 @@ import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Asynchronous OpenAI API client using Java HttpClient's sendAsync().
@@ -53,6 +60,7 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncOpenAIClient.class);
     private static final String OPENAI_API_URL = "https://api.openai.com/v1/chat/completions";
     private static final String PROVIDER_ID = "openai";
+    private static final Duration STREAM_TIMEOUT = Duration.ofSeconds(120);
 
     private final HttpClient httpClient;
     private final String apiKey;
@@ -80,6 +88,7 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
         this.temperature = temperature;
 
         this.httpClient = HttpClient.newBuilder()
+            .executor(LLMExecutorService.getInstance().getWorkerExecutor())
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
@@ -92,20 +101,26 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
         long startTime = System.currentTimeMillis();
 
         // Build request body
-        String requestBody = buildRequestBody(prompt, params);
+        String requestBody = buildRequestBody(prompt, params).toString();
 
         HttpRequest request = HttpRequest.newBuilder()
             .uri(URI.create(OPENAI_API_URL))
             .header("Content-Type", "application/json")
             .header("Authorization", "Bearer " + apiKey)
             .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-            .timeout(Duration.ofSeconds(30))
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(30)))
             .build();
 
         LOGGER.debug("[openai] Sending async request (prompt length: {} chars)", prompt.length());
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            .thenApply(response -> {
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        // The lane slot is held until the body has arrived; parsing runs after it is released
+        CompletableFuture<HttpResponse<String>> exchange = executorService.runInLane(PROVIDER_ID, params,
+            () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+
+        CompletableFuture<LLMResponse> result = exchange
+            .thenApplyAsync(response -> {
                 long latencyMs = System.currentTimeMillis() - startTime;
 
                 if (response.statusCode() != 200) {
@@ -119,12 +134,88 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
                         "OpenAI API error: HTTP " + response.statusCode(),
                         errorType,
                         PROVIDER_ID,
-                        retryable
+                        retryable,
+                        RateLimitInfo.fromHeaders(response.headers())
                     );
                 }
 
-                return parseResponse(response.body(), latencyMs);
-            });
+                return parseResponse(response.body(), latencyMs)
+                    .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+            }, executorService.getWorkerExecutor());
+
+        // Cancelling the result aborts the HTTP exchange
+        return CancellableFutures.propagate(result, exchange);
+    }
+
+    /**
+     * Streams the completion using Server-Sent Events ({@code "stream": true}).
+     *
+     * <p>The HTTP exchange is started with {@code sendAsync()} in the provider's lane from
+     * {@link LLMExecutorService}; the event stream is then read on a worker thread, passing
+     * each content delta to {@code onDelta} as it arrives. Token usage is taken from the final usage chunk
+     * ({@code stream_options.include_usage}).</p>
+     */
+    @Override
+    public CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                             Consumer<String> onDelta) {
+        long startTime = System.currentTimeMillis();
+
+        JsonObject body = buildRequestBody(prompt, params);
+        body.addProperty("stream", true);
+        JsonObject streamOptions = new JsonObject();
+        streamOptions.addProperty("include_usage", true);
+        body.add("stream_options", streamOptions);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(OPENAI_API_URL))
+            .header("Content-Type", "application/json")
+            .header("Accept", "text/event-stream")
+            .header("Authorization", "Bearer " + apiKey)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .timeout(RequestDeadline.timeout(params, Duration.ofSeconds(30)))
+            .build();
+
+        LOGGER.debug("[openai] Sending streaming request (prompt length: {} chars)", prompt.length());
+
+        LLMExecutorService executorService = LLMExecutorService.getInstance();
+
+        StreamGuard guard = new StreamGuard();
+
+        // The lane slot is held until the whole stream has been read, timed out or been cancelled
+        return executorService.runInLane(PROVIDER_ID, params, () -> {
+            CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            CompletableFuture<LLMResponse> result = exchange
+                .thenApplyAsync(response -> {
+                    if (response.statusCode() != 200) {
+                        String errorBody;
+                        try (Stream<String> lines = guard.lines(response.body())) {
+                            errorBody = lines.collect(Collectors.joining("\n"));
+                        }
+                        boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+
+                        LOGGER.error("[openai] API error: status={}, body={}", response.statusCode(),
+                            truncate(errorBody, 200));
+
+                        throw new LLMException(
+                            "OpenAI API error: HTTP " + response.statusCode(),
+                            determineErrorType(response.statusCode()),
+                            PROVIDER_ID,
+                            retryable,
+                            RateLimitInfo.fromHeaders(response.headers())
+                        );
+                    }
+
+                    return readStream(guard.lines(response.body()), startTime, guard.deltas(onDelta))
+                        .withRateLimitInfo(RateLimitInfo.fromHeaders(response.headers()));
+                }, executorService.getWorkerExecutor());
+
+            // Headers only count against the request timeout: bound the whole stream by the
+            // deadline, and abort the exchange and body when the result is cancelled or times out
+            return guard.guard(result, exchange, RequestDeadline.timeout(params, STREAM_TIMEOUT),
+                PROVIDER_ID, executorService.getWorkerExecutor());
+        });
     }
 
     /**
@@ -132,9 +223,9 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
      *
      * @param prompt User prompt
      * @param params Additional parameters (can override defaults)
-     * @return JSON string
+     * @return JSON request body
      */
-    private String buildRequestBody(String prompt, Map<String, Object> params) {
+    private JsonObject buildRequestBody(String prompt, Map<String, Object> params) {
         JsonObject body = new JsonObject();
 
         // Use params if provided, otherwise use instance defaults
@@ -166,7 +257,7 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
 
         body.add("messages", messages);
 
-        return body.toString();
+        return body;
     }
 
     /**
@@ -227,6 +318,72 @@ public class AsyncOpenAIClient implements AsyncLLMClient {
         }
     }
 
+    /**
+     * Reads an SSE completion stream, forwarding each content delta as it arrives.
+     *
+     * @param lines     Response body lines
+     * @param startTime Request start time (for latency)
+     * @param onDelta   Receives each content fragment
+     * @return LLMResponse with the concatenated content
+     * @throws LLMException if the stream breaks or a chunk cannot be parsed
+     */
+    private LLMResponse readStream(Stream<String> lines, long startTime, Consumer<String> onDelta) {
+        StringBuilder content = new StringBuilder();
+        AtomicInteger tokensUsed = new AtomicInteger();
+
+        try (lines) {
+            ServerSentEvents.forEachData(lines, data -> {
+                JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+
+                if (chunk.has("choices") && !chunk.getAsJsonArray("choices").isEmpty()) {
+                    JsonObject delta = chunk.getAsJsonArray("choices").get(0).getAsJsonObject()
+                        .getAsJsonObject("delta");
+                    if (delta != null && delta.has("content") && !delta.get("content").isJsonNull()) {
+                        String text = delta.get("content").getAsString();
+                        content.append(text);
+                        onDelta.accept(text);
+                    }
+                }
+
+                if (chunk.has("usage") && chunk.get("usage").isJsonObject()) {
+                    tokensUsed.set(chunk.getAsJsonObject("usage").get("total_tokens").getAsInt());
+                }
+            });
+        } catch (CancellationException e) {
+            // Stream aborted (cancelled or timed out): stop without reporting a parse failure
+            throw e;
+        } catch (UncheckedIOException e) {
+            throw new LLMException(
+                "OpenAI stream interrupted: " + e.getMessage(),
+                LLMException.ErrorType.NETWORK_ERROR,
+                PROVIDER_ID,
+                true,
+                e
+            );
+        } catch (Exception e) {
+            LOGGER.error("[openai] Failed to parse stream chunk", e);
+            throw new LLMException(
+                "Failed to parse OpenAI stream: " + e.getMessage(),
+                LLMException.ErrorType.INVALID_RESPONSE,
+                PROVIDER_ID,
+                false,
+                e
+            );
+        }
+
+        long latencyMs = System.currentTimeMillis() - startTime;
+        LOGGER.debug("[openai] Stream complete (latency: {}ms, tokens: {})", latencyMs, tokensUsed.get());
+
+        return LLMResponse.builder()
+            .content(content.toString())
+            .model(model)
+            .providerId(PROVIDER_ID)
+            .latencyMs(latencyMs)
+            .tokensUsed(tokensUsed.get())
+            .fromCache(false)
+            .build();
+    }
+
     /**
      * Determines the error type based on HTTP status code.
      *
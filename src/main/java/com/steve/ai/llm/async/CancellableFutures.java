@@ -0,0 +1,127 @@
+package com.steve.ai.llm.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for passing cancellation up a {@link CompletableFuture} pipeline.
+ *
+ * <p>Cancelling a future returned by {@code thenApply} (or any other dependent stage) only
+ * completes that stage; the future it depends on keeps running. For LLM calls that means
+ * the HTTP request, its retries and the cache write all continue after the caller has lost
+ * interest. These helpers link each stage back to its source so that cancelling the
+ * planning future at the top aborts the HTTP exchange at the bottom.</p>
+ *
+ * <p><b>Usage Example:</b></p>
+ * <pre>
+ * CompletableFuture&lt;LLMResponse&gt; call = client.sendAsync(prompt, params);
+ * return CancellableFutures.propagate(call.thenApply(this::parse), call);
+ * </pre>
+ *
+ * @since 1.2.0
+ */
+public final class CancellableFutures {
+
+    private CancellableFutures() {
+    }
+
+    /**
+     * Runs an action if the future is cancelled.
+     *
+     * @param future Future to watch
+     * @param action Runs on the cancelling thread (or immediately if already cancelled)
+     * @param <T>    Future type
+     * @return The same future, for chaining
+     */
+    public static <T> CompletableFuture<T> onCancel(CompletableFuture<T> future, Runnable action) {
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                action.run();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Cancels {@code upstream} when {@code derived} is cancelled.
+     *
+     * @param derived  Stage handed to the caller
+     * @param upstream Stage it was derived from
+     * @param <T>      Derived type
+     * @return {@code derived}, for chaining
+     */
+    public static <T> CompletableFuture<T> propagate(CompletableFuture<T> derived, Future<?> upstream) {
+        return onCancel(derived, () -> upstream.cancel(true));
+    }
+
+    /**
+     * Starts an asynchronous stage on an executor and returns a future for its result.
+     *
+     * <p>Like {@code supplyAsync(task).thenCompose(identity)}, but cancelling the returned
+     * future also cancels the future {@code task} produced, and skips {@code task} entirely if
+     * it has not started yet.</p>
+     *
+     * @param task     Starts the stage; runs on {@code executor}
+     * @param executor Executor to start it on
+     * @param <T>      Result type
+     * @return Future completing with the stage's result
+     */
+    public static <T> CompletableFuture<T> composeAsync(Supplier<? extends CompletableFuture<T>> task, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+
+            CompletableFuture<T> stage;
+            try {
+                stage = task.get();
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+
+            propagate(result, stage);
+            stage.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Splits one future between several independent consumers.
+     *
+     * <p>Each consumer gets its own view, which completes with the upstream result and can be
+     * cancelled on its own. Upstream is only cancelled once every view has been cancelled, so
+     * one consumer giving up does not abort work others still wait for.</p>
+     *
+     * @param upstream Shared future
+     * @param count    Number of consumers
+     * @param <T>      Result type
+     * @return One view per consumer
+     */
+    public static <T> List<CompletableFuture<T>> fanOut(CompletableFuture<T> upstream, int count) {
+        AtomicInteger remaining = new AtomicInteger(count);
+        List<CompletableFuture<T>> views = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CompletableFuture<T> view = upstream.thenApply(result -> result);
+            onCancel(view, () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    upstream.cancel(true);
+                }
+            });
+            views.add(view);
+        }
+        return views;
+    }
+}
@@ -0,0 +1,390 @@
+package com.steve.ai.llm.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent second-level (L2) cache for LLM responses, stored in the world save directory.
+ *
+ * <p>Sits below the in-memory {@link LLMCache} so that plans survive server restarts. Entries
+ * are appended to a single memory-mapped log file; an in-memory hash index maps each
+ * SHA-256 cache key to the offset of its latest record.</p>
+ *
+ * <p><b>File Format:</b></p>
+ * <pre>
+ * header:  int magic, int version
+ * record:  int payloadLength, int crc32(payload), payload
+ * payload: long createdAt, byte[32] key, UTF model, UTF providerId,
+ *          int tokensUsed, long latencyMs, int contentLength, byte[] content (UTF-8),
+ *          boolean hasContext, [UTF cacheContext]
+ * </pre>
+ *
+ * <p><b>Limits:</b></p>
+ * <ul>
+ *   <li>Size cap: the file is mapped at its maximum size; when an append does not fit,
+ *       the log is compacted</li>
+ *   <li>TTL: expired entries are never served and are dropped on compaction</li>
+ *   <li>Compaction: rewrites only the latest live record per key; if the log is still more
+ *       than half full, the oldest entries are evicted</li>
+ * </ul>
+ *
+ * <p>Every record carries a CRC32, so a record torn by a crash ends the scan on the next
+ * load instead of being served. A log written in an older format is discarded.</p>
+ *
+ * <p><b>Thread Safety:</b> All operations are synchronized. Disk reads and writes are memory
+ * copies into the mapping; the OS flushes pages in the background.</p>
+ *
+ * @since 1.2.0
+ */
+public class DiskLLMCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskLLMCache.class);
+
+    private static final int MAGIC = 0x53544C43; // "STLC"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int KEY_BYTES = 32;
+
+    private final Path file;
+    private final long ttlMillis;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<String, IndexEntry> index = new HashMap<>();
+
+    private int writePosition;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder compactionCount = new LongAdder();
+
+    /**
+     * Opens (or creates) the cache log and rebuilds the index from it.
+     *
+     * @param file     Log file location
+     * @param maxBytes Maximum size of the log file
+     * @param ttl      How long entries remain valid
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public DiskLLMCache(Path file, int maxBytes, Duration ttl) throws IOException {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+
+        if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+            this.writePosition = loadIndex();
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            this.writePosition = HEADER_SIZE;
+            buffer.putInt(writePosition, 0);
+        }
+
+        LOGGER.info("Disk LLM cache opened at {} ({} entries, {}/{} bytes used, TTL: {})",
+            file, index.size(), writePosition, maxBytes, ttl);
+    }
+
+    /**
+     * Retrieves a cached response by key.
+     *
+     * @param key SHA-256 cache key (64 hex characters)
+     * @return Optional containing the cached response, or empty if missing or expired
+     */
+    public synchronized Optional<LLMResponse> get(String key) {
+        IndexEntry entry = index.get(key);
+        if (entry == null || isExpired(entry.createdAt)) {
+            missCount.increment();
+            return Optional.empty();
+        }
+
+        try {
+            LLMResponse response = readResponse(entry.offset);
+            hitCount.increment();
+            return Optional.of(response);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Dropping unreadable disk cache entry {}: {}", key.substring(0, 8), e.getMessage());
+            index.remove(key);
+            missCount.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Appends a response to the log, compacting first if it does not fit.
+     *
+     * @param key      SHA-256 cache key (64 hex characters)
+     * @param response Response to store
+     */
+    public synchronized void put(String key, LLMResponse response) {
+        byte[] payload;
+        try {
+            payload = encode(key, System.currentTimeMillis(), response);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to encode response for disk cache", e);
+            return;
+        }
+
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (recordSize > buffer.capacity() / 2) {
+            LOGGER.debug("Response too large for disk cache ({} bytes), skipping", recordSize);
+            return;
+        }
+
+        if (!fits(recordSize)) {
+            compact();
+        }
+
+        append(key, payload);
+        writeCount.increment();
+    }
+
+    /**
+     * Rewrites the log keeping only the latest unexpired record per key.
+     *
+     * <p>Live records are read into memory and written back from the start of the file,
+     * oldest first. If they would still fill more than half of the log, the oldest ones are
+     * evicted so that appends do not trigger compaction again immediately.</p>
+     */
+    public synchronized void compact() {
+        int sizeBefore = writePosition;
+
+        List<Map.Entry<String, IndexEntry>> live = new ArrayList<>();
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            if (!isExpired(entry.getValue().createdAt)) {
+                live.add(entry);
+            }
+        }
+        live.sort(Comparator.comparingLong(entry -> entry.getValue().createdAt));
+
+        long liveBytes = 0;
+        for (Map.Entry<String, IndexEntry> entry : live) {
+            liveBytes += entry.getValue().length;
+        }
+        int evictFrom = 0;
+        while (liveBytes > (buffer.capacity() - HEADER_SIZE) / 2 && evictFrom < live.size()) {
+            liveBytes -= live.get(evictFrom).getValue().length;
+            evictFrom++;
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        for (Map.Entry<String, IndexEntry> entry : live.subList(evictFrom, live.size())) {
+            IndexEntry indexEntry = entry.getValue();
+            byte[] payload = new byte[indexEntry.length - RECORD_HEADER_SIZE];
+            buffer.get(indexEntry.offset + RECORD_HEADER_SIZE, payload);
+            keys.add(entry.getKey());
+            payloads.add(payload);
+        }
+
+        index.clear();
+        writePosition = HEADER_SIZE;
+        buffer.putInt(writePosition, 0);
+        for (int i = 0; i < keys.size(); i++) {
+            append(keys.get(i), payloads.get(i));
+        }
+
+        compactionCount.increment();
+        LOGGER.info("Compacted disk LLM cache: {} -> {} bytes ({} entries kept, {} evicted)",
+            sizeBefore, writePosition, keys.size(), evictFrom);
+    }
+
+    /**
+     * Returns the number of indexed entries (including expired ones not yet compacted).
+     *
+     * @return Entry count
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Logs L2 statistics at INFO level.
+     */
+    public synchronized void logStats() {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        double hitRate = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+
+        LOGGER.info("LLM L2 Cache Stats - Entries: {}, Used: {}/{} bytes, Hit Rate: {}%, Hits: {}, Misses: {}, Writes: {}, Compactions: {}",
+            index.size(),
+            writePosition,
+            buffer.capacity(),
+            String.format("%.2f", hitRate * 100),
+            hits,
+            misses,
+            writeCount.sum(),
+            compactionCount.sum()
+        );
+    }
+
+    /**
+     * Flushes the mapping to disk and closes the file.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+        LOGGER.info("Disk LLM cache closed ({})", file);
+    }
+
+    private boolean isExpired(long createdAt) {
+        return System.currentTimeMillis() - createdAt > ttlMillis;
+    }
+
+    private boolean fits(int recordSize) {
+        // Keep room for the zero length that terminates the log
+        return writePosition + recordSize + 4 <= buffer.capacity();
+    }
+
+    private void append(String key, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int offset = writePosition;
+        buffer.putInt(offset, payload.length);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.put(offset + RECORD_HEADER_SIZE, payload);
+
+        writePosition = offset + RECORD_HEADER_SIZE + payload.length;
+        buffer.putInt(writePosition, 0);
+
+        index.put(key, new IndexEntry(offset, RECORD_HEADER_SIZE + payload.length, ByteBuffer.wrap(payload).getLong(0)));
+    }
+
+    /**
+     * Scans the log from the start, indexing every valid record.
+     *
+     * @return Offset just past the last valid record
+     */
+    private int loadIndex() {
+        int position = HEADER_SIZE;
+        HexFormat hex = HexFormat.of();
+
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                LOGGER.warn("Disk LLM cache record at offset {} is corrupt, truncating log", position);
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            long createdAt = record.getLong();
+            byte[] keyBytes = new byte[KEY_BYTES];
+            record.get(keyBytes);
+
+            index.put(hex.formatHex(keyBytes), new IndexEntry(position, RECORD_HEADER_SIZE + length, createdAt));
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        buffer.putInt(position, 0);
+        return position;
+    }
+
+    private LLMResponse readResponse(int offset) {
+        int length = buffer.getInt(offset);
+        byte[] payload = new byte[length];
+        buffer.get(offset + RECORD_HEADER_SIZE, payload);
+
+        ByteBuffer record = ByteBuffer.wrap(payload);
+        record.position(8 + KEY_BYTES);
+        String model = readUtf(record);
+        String providerId = readUtf(record);
+        int tokensUsed = record.getInt();
+        long latencyMs = record.getLong();
+        byte[] content = new byte[record.getInt()];
+        record.get(content);
+        String cacheContext = record.get() != 0 ? readUtf(record) : null;
+
+        return LLMResponse.builder()
+            .content(new String(content, StandardCharsets.UTF_8))
+            .model(model)
+            .providerId(providerId)
+            .tokensUsed(tokensUsed)
+            .latencyMs(latencyMs)
+            .fromCache(true)
+            .cacheContext(cacheContext)
+            .build();
+    }
+
+    private static byte[] encode(String key, long createdAt, LLMResponse response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeLong(createdAt);
+        out.write(HexFormat.of().parseHex(key));
+        out.writeUTF(response.getModel());
+        out.writeUTF(response.getProviderId());
+        out.writeInt(response.getTokensUsed());
+        out.writeLong(response.getLatencyMs());
+        byte[] content = response.getContent().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(content.length);
+        out.write(content);
+        out.writeBoolean(response.getCacheContext() != null);
+        if (response.getCacheContext() != null) {
+            out.writeUTF(response.getCacheContext());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a string written by {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static String readUtf(ByteBuffer record) {
+        int length = Short.toUnsignedInt(record.getShort());
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        // Modified UTF-8 only differs from UTF-8 for NUL and supplementary characters,
+        // neither of which occur in model or provider names or cache contexts
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class IndexEntry {
+        private final int offset;
+        private final int length;
+        private final long createdAt;
+
+        private IndexEntry(int offset, int length, long createdAt) {
+            this.offset = offset;
+            this.length = length;
+            this.createdAt = createdAt;
+        }
+    }
+}
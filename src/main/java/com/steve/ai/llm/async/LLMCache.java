@@ -8,7 +8,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * LRU cache for LLM responses using Caffeine.
@@ -31,6 +37,14 @@ import java.util.concurrent.TimeUnit;
  *   <li>Cost savings: $0.002 per 1K tokens saved</li>
  * </ul>
  *
+ * <p><b>Disk Tier:</b> An optional {@link DiskLLMCache} can be attached as a second level.
+ * L1 misses are then served from disk before going to the network, and every response put
+ * into the cache is also written to disk.</p>
+ *
+ * <p><b>Request Coalescing:</b> A cache miss alone does not prevent duplicate API calls when
+ * several Steves send the same prompt at once. {@link #coalesce} tracks in-flight requests by
+ * cache key so that concurrent identical prompts share a single call (single-flight).</p>
+ *
  * <p><b>Thread Safety:</b> Caffeine is fully thread-safe</p>
  *
  * <p><b>Usage Example:</b></p>
@@ -63,6 +77,9 @@ public class LLMCache {
     private static final int TTL_MINUTES = 5;
 
     private final Cache<String, LLMResponse> cache;
+    private final ConcurrentMap<String, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+    private volatile DiskLLMCache diskCache;
 
     /**
      * Constructs a new LLMCache with default configuration.
@@ -86,10 +103,22 @@ public class LLMCache {
         LOGGER.info("LLM cache initialized successfully");
     }
 
+    /**
+     * Attaches (or detaches, with null) the persistent second-level cache.
+     *
+     * @param diskCache Disk cache to consult on L1 misses, or null for memory only
+     */
+    public void setDiskCache(DiskLLMCache diskCache) {
+        this.diskCache = diskCache;
+        LOGGER.info("LLM disk cache {}", diskCache != null ? "attached" : "detached");
+    }
+
     /**
      * Retrieves a cached response if available.
      *
-     * <p><b>Performance:</b> O(1) lookup, typically <1ms</p>
+     * <p>On an L1 miss the disk cache is consulted, if attached; disk hits are promoted to L1.</p>
+     *
+     * <p><b>Performance:</b> O(1) lookup, typically <1ms (L2 hits add a memory-mapped read)</p>
      *
      * @param prompt     The prompt text (used in cache key)
      * @param model      The model name (used in cache key)
@@ -103,6 +132,10 @@ public class LLMCache {
         if (cached != null) {
             LOGGER.debug("Cache HIT for provider={}, model={}, promptHash={}",
                 providerId, model, key.substring(0, 8));
+        } else if (diskCache != null && (cached = diskCache.get(key).orElse(null)) != null) {
+            cache.put(key, cached);
+            LOGGER.debug("Disk cache HIT for provider={}, model={}, promptHash={}",
+                providerId, model, key.substring(0, 8));
         } else {
             LOGGER.debug("Cache MISS for provider={}, model={}, promptHash={}",
                 providerId, model, key.substring(0, 8));
@@ -130,10 +163,79 @@ public class LLMCache {
         LLMResponse cachedResponse = response.withCacheFlag(true);
         cache.put(key, cachedResponse);
 
+        DiskLLMCache disk = diskCache;
+        if (disk != null) {
+            disk.put(key, cachedResponse);
+        }
+
         LOGGER.debug("Cached response for provider={}, model={}, promptHash={}, tokens={}",
             providerId, model, key.substring(0, 8), response.getTokensUsed());
     }
 
+    /**
+     * Joins an identical in-flight request, or starts a new one if there is none.
+     *
+     * <p>Requests are identified by the same key as cache entries. The first caller for a key
+     * runs {@code loader}; callers arriving before it completes share its future instead of
+     * issuing another API call. The in-flight entry is removed once the request completes,
+     * after the loader has had the chance to populate the cache.</p>
+     *
+     * <p>Every caller receives its own {@link LLMResponse} instance. Coalesced callers get a
+     * copy flagged {@code fromCache}, since no API call was made on their behalf.</p>
+     *
+     * <p><b>Cancellation:</b> Each caller may cancel its own future. The shared API call is
+     * only cancelled once every caller has cancelled; a request arriving after that starts a
+     * fresh call.</p>
+     *
+     * @param prompt     The prompt text (used in key)
+     * @param model      The model name (used in key)
+     * @param providerId The provider ID (used in key)
+     * @param loader     Starts the API call when no identical request is in flight
+     * @return Future completing with this caller's response
+     */
+    public CompletableFuture<LLMResponse> coalesce(String prompt, String model, String providerId,
+                                                   Supplier<CompletableFuture<LLMResponse>> loader) {
+        String key = generateKey(prompt, model, providerId);
+
+        while (true) {
+            InFlightRequest request = new InFlightRequest();
+            InFlightRequest existing = inFlight.putIfAbsent(key, request);
+
+            if (existing == null) {
+                request.start(key, loader);
+                return request.subscribe(false);
+            }
+
+            if (existing.join()) {
+                coalescedCount.increment();
+                LOGGER.debug("Coalesced request for provider={}, model={}, promptHash={}",
+                    providerId, model, key.substring(0, 8));
+                return existing.subscribe(true);
+            }
+
+            // Every caller of the existing request cancelled; replace it
+            inFlight.remove(key, existing);
+        }
+    }
+
+    /**
+     * Returns the number of requests that joined an identical in-flight request.
+     *
+     * @return Total coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Returns the number of distinct requests currently in flight.
+     *
+     * @return In-flight request count
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
     /**
      * Generates a cache key from prompt, model, and provider.
      *
@@ -212,17 +314,82 @@ public class LLMCache {
     /**
      * Logs current cache statistics at INFO level.
      *
-     * <p>Useful for periodic monitoring and debugging.</p>
+     * <p>Useful for periodic monitoring and debugging. L1 and L2 (disk) statistics are
+     * reported separately.</p>
      */
     public void logStats() {
         CacheStats stats = getStats();
-        LOGGER.info("LLM Cache Stats - Size: ~{}/{}, Hit Rate: {:.2f}%, Hits: {}, Misses: {}, Evictions: {}",
+        LOGGER.info("LLM L1 Cache Stats - Size: ~{}/{}, Hit Rate: {}%, Hits: {}, Misses: {}, Evictions: {}, Coalesced: {}, In-flight: {}",
             size(),
             MAX_CACHE_SIZE,
-            stats.hitRate() * 100,
+            String.format("%.2f", stats.hitRate() * 100),
             stats.hitCount(),
             stats.missCount(),
-            stats.evictionCount()
+            stats.evictionCount(),
+            getCoalescedCount(),
+            getInFlightCount()
         );
+
+        DiskLLMCache disk = diskCache;
+        if (disk != null) {
+            disk.logStats();
+        }
+    }
+
+    /**
+     * An API call shared by every caller that asked for the same key while it was running.
+     */
+    private final class InFlightRequest {
+        private final CompletableFuture<LLMResponse> shared = new CompletableFuture<>();
+        // Callers that have not cancelled; 0 means abandoned
+        private final AtomicInteger subscribers = new AtomicInteger(1);
+        private volatile CompletableFuture<LLMResponse> call;
+
+        void start(String key, Supplier<CompletableFuture<LLMResponse>> loader) {
+            CompletableFuture<LLMResponse> result;
+            try {
+                result = loader.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            call = result;
+
+            result.whenComplete((response, throwable) -> {
+                inFlight.remove(key, this);
+                if (throwable != null) {
+                    shared.completeExceptionally(throwable);
+                } else {
+                    shared.complete(response);
+                }
+            });
+        }
+
+        /**
+         * Adds a caller, unless every previous caller has already cancelled.
+         */
+        boolean join() {
+            int current;
+            do {
+                current = subscribers.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!subscribers.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        CompletableFuture<LLMResponse> subscribe(boolean coalesced) {
+            CompletableFuture<LLMResponse> view = shared.thenApply(
+                response -> response.withCacheFlag(coalesced || response.isFromCache()));
+            return CancellableFutures.onCancel(view, () -> {
+                if (subscribers.decrementAndGet() == 0) {
+                    CompletableFuture<LLMResponse> running = call;
+                    if (running != null) {
+                        running.cancel(true);
+                    }
+                    shared.cancel(true);
+                }
+            });
+        }
     }
 }
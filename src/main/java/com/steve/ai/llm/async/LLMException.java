@@ -118,6 +118,7 @@ public class LLMException extends RuntimeException {
     private final ErrorType errorType;
     private final String providerId;
     private final boolean retryable;
+    private final RateLimitInfo rateLimitInfo;
 
     /**
      * Constructs a new LLMException.
@@ -128,10 +129,25 @@ public class LLMException extends RuntimeException {
      * @param retryable  Whether the operation can be retried
      */
     public LLMException(String message, ErrorType errorType, String providerId, boolean retryable) {
+        this(message, errorType, providerId, retryable, RateLimitInfo.none());
+    }
+
+    /**
+     * Constructs a new LLMException for an HTTP error response.
+     *
+     * @param message       Error message
+     * @param errorType     Typed error category
+     * @param providerId    Provider that threw the error
+     * @param retryable     Whether the operation can be retried
+     * @param rateLimitInfo Rate-limit headers of the error response (e.g. {@code retry-after} on 429)
+     */
+    public LLMException(String message, ErrorType errorType, String providerId, boolean retryable,
+                        RateLimitInfo rateLimitInfo) {
         super(message);
         this.errorType = errorType;
         this.providerId = providerId;
         this.retryable = retryable;
+        this.rateLimitInfo = rateLimitInfo;
     }
 
     /**
@@ -148,6 +164,7 @@ public class LLMException extends RuntimeException {
         this.errorType = errorType;
         this.providerId = providerId;
         this.retryable = retryable;
+        this.rateLimitInfo = RateLimitInfo.none();
     }
 
     /**
@@ -179,6 +196,15 @@ public class LLMException extends RuntimeException {
         return retryable;
     }
 
+    /**
+     * Returns the rate-limit headers of the error response.
+     *
+     * @return Rate-limit info (never null; all fields unknown if not reported)
+     */
+    public RateLimitInfo getRateLimitInfo() {
+        return rateLimitInfo;
+    }
+
     @Override
     public String toString() {
         return "LLMException{" +
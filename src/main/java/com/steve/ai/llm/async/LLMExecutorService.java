@@ -3,36 +3,61 @@ package com.steve.ai.llm.async;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
- * Singleton manager for LLM provider-specific thread pools.
+ * Singleton manager for LLM provider work, with per-provider isolation and priority lanes.
  *
- * <p>Implements the <b>Bulkhead Pattern</b> by maintaining separate thread pools
- * for each LLM provider (OpenAI, Groq, Gemini). This ensures that failures or
+ * <p>Implements the <b>Bulkhead Pattern</b> by limiting each LLM provider (OpenAI, Groq,
+ * Gemini, or any other id) to a small number of concurrent requests (5 by default,
+ * adjusted at runtime by the provider's adaptive limiter). This ensures that failures or
  * slowdowns in one provider do not cascade to others.</p>
  *
- * <p><b>Thread Pool Configuration:</b></p>
- * <ul>
- *   <li>5 threads per provider (configurable)</li>
- *   <li>Named threads for easy debugging (e.g., "llm-openai-0", "llm-groq-1")</li>
- *   <li>Daemon threads (don't prevent JVM shutdown)</li>
- * </ul>
+ * <p><b>Threads:</b> Worker tasks (HTTP client callbacks, reading response streams, parsing)
+ * run on virtual threads when the JVM supports them (Java 21+), and on a cached pool of named
+ * daemon platform threads otherwise (Java 17). Virtual threads make blocking work such as
+ * reading a response stream cheap. The per-provider limit is enforced by lane slots, not by
+ * threads, so it applies either way.</p>
+ *
+ * <p><b>Priority Lanes:</b> Requests waiting for a provider slot are ordered by
+ * {@link Priority}: interactive player commands always go before queued background work
+ * (replanning, cache warm-up), and requests of the same priority go in submission order.
+ * A request holds its slot for the HTTP exchange, from sending the request until the
+ * response (or stream) has been read; see {@link #runInLane}. The slot is taken before the
+ * rate limiter and bulkhead in {@code ResilientLLMClient}, so priority decides who gets
+ * their permits, and it is released before the response is parsed.</p>
+ *
+ * <p><b>Metrics:</b> Per provider and lane: submitted tasks, current queue depth, and
+ * average and maximum time spent waiting for a slot (see {@link #logStats()}).</p>
  *
  * <p><b>Design Patterns:</b></p>
  * <ul>
- *   <li>Singleton: Single instance manages all thread pools</li>
- *   <li>Bulkhead: Isolated thread pools prevent cascading failures</li>
+ *   <li>Singleton: Single instance manages all provider lanes</li>
+ *   <li>Bulkhead: Per-provider concurrency limits prevent cascading failures</li>
  * </ul>
  *
  * <p><b>Lifecycle:</b></p>
  * <pre>
  * // Initialization (automatic on first access)
- * ExecutorService executor = LLMExecutorService.getInstance().getExecutor("openai");
+ * CompletableFuture&lt;HttpResponse&lt;String&gt;&gt; exchange = LLMExecutorService.getInstance()
+ *     .runInLane("openai", params, () -&gt; httpClient.sendAsync(request, BodyHandlers.ofString()));
  *
  * // Shutdown (on server stop)
  * LLMExecutorService.getInstance().shutdown();
@@ -48,35 +73,66 @@ public class LLMExecutorService {
     private static final int THREADS_PER_PROVIDER = 5;
     private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
 
-    private final ExecutorService openaiExecutor;
-    private final ExecutorService groqExecutor;
-    private final ExecutorService geminiExecutor;
+    /**
+     * Request param key selecting the {@link Priority} of a request's work.
+     */
+    public static final String PRIORITY_PARAM = "priority";
 
-    private volatile boolean isShutdown = false;
+    /**
+     * Request param key carrying a {@link LaneSlot} taken by the caller (see {@link #newSlot}).
+     */
+    public static final String LANE_SLOT_PARAM = "laneSlot";
 
     /**
-     * Private constructor for singleton pattern.
-     * Initializes three separate thread pools for bulkhead isolation.
+     * Scheduling priority of LLM work. Lower ordinal runs first.
      */
-    private LLMExecutorService() {
-        LOGGER.info("Initializing LLM executor service with {} threads per provider", THREADS_PER_PROVIDER);
+    public enum Priority {
+        /** Work a player is waiting for (commands typed in the GUI or chat). */
+        INTERACTIVE,
+        /** Work nobody is actively waiting for (replanning, cache warm-up). */
+        BACKGROUND;
 
-        this.openaiExecutor = Executors.newFixedThreadPool(
-            THREADS_PER_PROVIDER,
-            new NamedThreadFactory("llm-openai")
-        );
+        /**
+         * Reads the priority from request params ({@link #PRIORITY_PARAM}).
+         *
+         * @param params Request params
+         * @return Requested priority, or INTERACTIVE if none is set
+         */
+        public static Priority fromParams(Map<String, Object> params) {
+            Object value = params.get(PRIORITY_PARAM);
+            if (value instanceof Priority priority) {
+                return priority;
+            }
+            if (value instanceof String name) {
+                try {
+                    return Priority.valueOf(name.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Unknown LLM priority '{}', using INTERACTIVE", name);
+                }
+            }
+            return INTERACTIVE;
+        }
+    }
 
-        this.groqExecutor = Executors.newFixedThreadPool(
-            THREADS_PER_PROVIDER,
-            new NamedThreadFactory("llm-groq")
-        );
+    private final ExecutorService carrier;
+    private final ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("llm-scheduler"));
+    private final boolean virtualThreads;
+    private final Map<String, ProviderLanes> providers = new ConcurrentHashMap<>();
 
-        this.geminiExecutor = Executors.newFixedThreadPool(
-            THREADS_PER_PROVIDER,
-            new NamedThreadFactory("llm-gemini")
-        );
+    private volatile boolean isShutdown = false;
 
-        LOGGER.info("LLM executor service initialized successfully");
+    /**
+     * Private constructor for singleton pattern.
+     * Picks virtual threads if available; provider lanes are created on first use.
+     */
+    private LLMExecutorService() {
+        ExecutorService virtual = createVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.carrier = virtual != null ? virtual : Executors.newCachedThreadPool(new NamedThreadFactory("llm-worker"));
+
+        LOGGER.info("LLM executor service initialized ({} threads, max {} concurrent tasks per provider)",
+            virtualThreads ? "virtual" : "platform", THREADS_PER_PROVIDER);
     }
 
     /**
@@ -89,30 +145,172 @@ public class LLMExecutorService {
     }
 
     /**
-     * Returns the executor for the specified provider.
+     * Creates a slot in a provider lane for one request; it is not held until acquired.
      *
-     * <p><b>Thread Safety:</b> This method is thread-safe.</p>
+     * <p>Callers that need the slot before the HTTP exchange starts (to wait for other
+     * permits while holding their place) acquire it themselves and pass it on under
+     * {@link #LANE_SLOT_PARAM}; {@link #runInLane} then reuses it.</p>
      *
-     * @param providerId Provider identifier ("openai", "groq", "gemini")
-     * @return The provider-specific ExecutorService
-     * @throws IllegalArgumentException if providerId is unknown
+     * @param providerId Provider identifier
+     * @param priority   Lane to queue in while the provider is at its limit
+     * @return New slot
      * @throws IllegalStateException if executor service has been shut down
      */
-    public ExecutorService getExecutor(String providerId) {
+    public LaneSlot newSlot(String providerId, Priority priority) {
         if (isShutdown) {
             throw new IllegalStateException("LLMExecutorService has been shut down");
         }
 
-        return switch (providerId.toLowerCase()) {
-            case "openai" -> openaiExecutor;
-            case "groq" -> groqExecutor;
-            case "gemini" -> geminiExecutor;
-            default -> throw new IllegalArgumentException("Unknown provider: " + providerId);
-        };
+        return new LaneSlot(providers.computeIfAbsent(providerId.toLowerCase(), ProviderLanes::new), priority);
+    }
+
+    /**
+     * Runs an HTTP exchange while holding a slot in the provider's lane.
+     *
+     * <p>Uses the slot passed under {@link #LANE_SLOT_PARAM} if there is one (acquiring it
+     * again if it was released, as it is after a failed attempt), and a new slot in the
+     * {@link Priority#fromParams requested lane} otherwise. The slot is released as soon as
+     * the exchange completes, so work chained onto the result, such as parsing, does not
+     * hold up other requests. Cancelling the result leaves the queue or aborts the exchange.</p>
+     *
+     * @param providerId Provider identifier
+     * @param params     Request params
+     * @param exchange   Starts the exchange; its future completes when the response has been read
+     * @param <T>        Exchange result type
+     * @return Future completing with the exchange's result
+     */
+    public <T> CompletableFuture<T> runInLane(String providerId, Map<String, Object> params,
+                                              Supplier<CompletableFuture<T>> exchange) {
+        LaneSlot slot = params.get(LANE_SLOT_PARAM) instanceof LaneSlot passed
+            ? passed : newSlot(providerId, Priority.fromParams(params));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<LaneSlot> granted = slot.acquire();
+        granted.whenComplete((held, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                slot.release();
+                return;
+            }
+
+            CompletableFuture<T> stage;
+            try {
+                stage = exchange.get();
+            } catch (Throwable t) {
+                slot.release();
+                result.completeExceptionally(t);
+                return;
+            }
+
+            CancellableFutures.propagate(result, stage);
+            stage.whenComplete((value, throwable) -> {
+                slot.release();
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return CancellableFutures.propagate(result, granted);
+    }
+
+    /**
+     * Returns the executor for LLM work that should not count against a provider's limit,
+     * such as parsing a response or the HTTP client's own callbacks.
+     *
+     * @return Virtual thread executor (Java 21+), or the cached platform thread pool
+     */
+    public Executor getWorkerExecutor() {
+        return carrier;
+    }
+
+    /**
+     * Returns the scheduler for delayed LLM work, such as retry backoff.
+     *
+     * <p>Scheduled tasks should only hand work off (e.g. start the next attempt); anything
+     * long-running belongs on the {@link #getWorkerExecutor worker executor}.</p>
+     *
+     * @return Shared single-threaded scheduler
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Changes how many tasks of a provider may run at once.
+     *
+     * <p>Called by the adaptive limiter so that the number of exchanges in flight follows the
+     * provider's bulkhead. Queued requests start immediately if the limit was raised.</p>
+     *
+     * @param providerId Provider identifier
+     * @param limit      New concurrency limit (at least 1)
+     */
+    public void setConcurrencyLimit(String providerId, int limit) {
+        if (isShutdown) {
+            return;
+        }
+        ProviderLanes lanes = providers.computeIfAbsent(providerId.toLowerCase(), ProviderLanes::new);
+        lanes.limit = Math.max(1, limit);
+        lanes.dispatch();
+    }
+
+    /**
+     * Returns whether tasks run on virtual threads.
+     *
+     * @return true on Java 21+ with virtual threads available
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns the number of tasks waiting for a slot in a provider lane.
+     *
+     * @param providerId Provider identifier
+     * @param priority   Lane
+     * @return Current queue depth (0 for a provider that was never used)
+     */
+    public int getQueueDepth(String providerId, Priority priority) {
+        ProviderLanes lanes = providers.get(providerId.toLowerCase());
+        return lanes != null ? lanes.metrics[priority.ordinal()].depth.get() : 0;
+    }
+
+    /**
+     * Returns the average time tasks in a provider lane waited for a slot.
+     *
+     * @param providerId Provider identifier
+     * @param priority   Lane
+     * @return Average wait in milliseconds (0 if nothing ran yet)
+     */
+    public double getAverageWaitMs(String providerId, Priority priority) {
+        ProviderLanes lanes = providers.get(providerId.toLowerCase());
+        return lanes != null ? lanes.metrics[priority.ordinal()].averageWaitMs() : 0.0;
+    }
+
+    /**
+     * Logs per-provider, per-lane queue statistics at INFO level.
+     */
+    public void logStats() {
+        for (ProviderLanes lanes : providers.values()) {
+            for (Priority priority : Priority.values()) {
+                LaneMetrics metrics = lanes.metrics[priority.ordinal()];
+                LOGGER.info("LLM Executor [{}/{}] - Submitted: {}, Queued now: {}, Avg wait: {}ms, Max wait: {}ms",
+                    lanes.providerId,
+                    priority,
+                    metrics.submitted.sum(),
+                    metrics.depth.get(),
+                    String.format("%.1f", metrics.averageWaitMs()),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.maxWaitNanos.get()));
+            }
+        }
     }
 
     /**
-     * Gracefully shuts down all thread pools.
+     * Gracefully shuts down the worker threads.
      *
      * <p>Attempts graceful shutdown first (no new tasks, finish existing tasks),
      * then forces shutdown if graceful shutdown times out.</p>
@@ -131,39 +329,26 @@ public class LLMExecutorService {
         LOGGER.info("Shutting down LLM executor service...");
         isShutdown = true;
 
-        shutdownExecutor("openai", openaiExecutor);
-        shutdownExecutor("groq", groqExecutor);
-        shutdownExecutor("gemini", geminiExecutor);
-
-        LOGGER.info("LLM executor service shut down successfully");
-    }
+        scheduler.shutdownNow();
 
-    /**
-     * Shuts down a single executor with timeout.
-     *
-     * @param providerId Provider name (for logging)
-     * @param executor The executor to shut down
-     */
-    private void shutdownExecutor(String providerId, ExecutorService executor) {
         try {
-            LOGGER.debug("Shutting down {} executor...", providerId);
-            executor.shutdown();
+            carrier.shutdown();
 
-            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
-                LOGGER.warn("{} executor did not terminate gracefully, forcing shutdown", providerId);
-                executor.shutdownNow();
+            if (!carrier.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("LLM executor did not terminate gracefully, forcing shutdown");
+                carrier.shutdownNow();
 
-                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    LOGGER.error("{} executor did not terminate after forced shutdown", providerId);
+                if (!carrier.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOGGER.error("LLM executor did not terminate after forced shutdown");
                 }
-            } else {
-                LOGGER.debug("{} executor shut down gracefully", providerId);
             }
         } catch (InterruptedException e) {
-            LOGGER.error("Interrupted while shutting down {} executor", providerId, e);
-            executor.shutdownNow();
+            LOGGER.error("Interrupted while shutting down LLM executor", e);
+            carrier.shutdownNow();
             Thread.currentThread().interrupt();
         }
+
+        LOGGER.info("LLM executor service shut down successfully");
     }
 
     /**
@@ -175,10 +360,208 @@ public class LLMExecutorService {
         return isShutdown;
     }
 
+    /**
+     * Creates a virtual-thread-per-task executor via reflection, so the mod still compiles
+     * and runs on Java 17.
+     *
+     * @return Virtual thread executor, or null if the JVM does not support virtual threads
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 17-20 (or preview disabled): fall back to platform threads
+            return null;
+        }
+    }
+
+    /**
+     * Priority queue and concurrency limit for one provider.
+     */
+    private final class ProviderLanes {
+        private final String providerId;
+        private final PriorityBlockingQueue<QueuedTask> queue = new PriorityBlockingQueue<>();
+        private final AtomicInteger running = new AtomicInteger(0);
+        private final AtomicLong sequence = new AtomicLong(0);
+        private volatile int limit = THREADS_PER_PROVIDER;
+        private final LaneMetrics[] metrics = new LaneMetrics[Priority.values().length];
+
+        ProviderLanes(String providerId) {
+            this.providerId = providerId;
+            for (int i = 0; i < metrics.length; i++) {
+                metrics[i] = new LaneMetrics();
+            }
+            LOGGER.debug("Created LLM executor lanes for provider '{}'", providerId);
+        }
+
+        /**
+         * Queues {@code onGrant}, which is called with a slot already taken once one is free
+         * and must arrange for {@link #release()} to be called.
+         *
+         * @return The queue entry, for {@link #withdraw}
+         */
+        QueuedTask enqueue(Runnable onGrant, Priority priority) {
+            if (isShutdown) {
+                throw new RejectedExecutionException("LLMExecutorService has been shut down");
+            }
+
+            LaneMetrics laneMetrics = metrics[priority.ordinal()];
+            laneMetrics.submitted.increment();
+            laneMetrics.depth.incrementAndGet();
+            QueuedTask entry = new QueuedTask(onGrant, priority, sequence.getAndIncrement());
+            queue.add(entry);
+            dispatch();
+            return entry;
+        }
+
+        /**
+         * Removes an entry that no longer needs a slot, if it is still queued.
+         */
+        void withdraw(QueuedTask entry) {
+            if (queue.remove(entry)) {
+                metrics[entry.priority.ordinal()].depth.decrementAndGet();
+            }
+        }
+
+        /**
+         * Gives back a slot and starts the next queued entry, if any.
+         */
+        void release() {
+            running.decrementAndGet();
+            dispatch();
+        }
+
+        /**
+         * Starts queued tasks while the provider is below its limit.
+         */
+        private void dispatch() {
+            while (true) {
+                int current = running.get();
+                if (current >= limit || queue.isEmpty()) {
+                    return;
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+
+                QueuedTask next = queue.poll();
+                if (next == null) {
+                    running.decrementAndGet();
+                    // A task may have been queued after isEmpty() but before the slot was taken
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                LaneMetrics laneMetrics = metrics[next.priority.ordinal()];
+                laneMetrics.depth.decrementAndGet();
+                laneMetrics.recordWait(System.nanoTime() - next.enqueuedAt);
+
+                next.task.run();
+            }
+        }
+    }
+
+    /**
+     * One request's place in a provider lane.
+     *
+     * <p>A slot is either held (counting against the provider's limit) or not. It can be
+     * acquired again after it was released, in which case it queues behind requests that
+     * are already waiting; retries of a request reuse its slot this way.</p>
+     */
+    public final class LaneSlot {
+        private final ProviderLanes lanes;
+        private final Priority priority;
+        private final AtomicBoolean held = new AtomicBoolean(false);
+
+        private LaneSlot(ProviderLanes lanes, Priority priority) {
+            this.lanes = lanes;
+            this.priority = priority;
+        }
+
+        /**
+         * Waits for the slot in the provider's lane.
+         *
+         * <p>Cancelling the returned future gives up the place in the queue.</p>
+         *
+         * @return Future completing with this slot once it is held
+         */
+        public CompletableFuture<LaneSlot> acquire() {
+            if (held.get()) {
+                return CompletableFuture.completedFuture(this);
+            }
+
+            CompletableFuture<LaneSlot> granted = new CompletableFuture<>();
+            QueuedTask entry = lanes.enqueue(() -> {
+                held.set(true);
+                if (!granted.complete(this)) {
+                    release();
+                }
+            }, priority);
+            CancellableFutures.onCancel(granted, () -> lanes.withdraw(entry));
+            return granted;
+        }
+
+        /**
+         * Gives the slot back; does nothing if it is not held.
+         */
+        public void release() {
+            if (held.compareAndSet(true, false)) {
+                lanes.release();
+            }
+        }
+    }
+
+    /**
+     * An entry waiting for a provider slot, ordered by priority then submission order.
+     */
+    private static final class QueuedTask implements Comparable<QueuedTask> {
+        private final Runnable task;
+        private final Priority priority;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+
+        QueuedTask(Runnable task, Priority priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Queue depth and wait-time counters for one lane.
+     */
+    private static final class LaneMetrics {
+        private final LongAdder submitted = new LongAdder();
+        private final AtomicInteger depth = new AtomicInteger(0);
+        private final LongAdder started = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        void recordWait(long waitNanos) {
+            started.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulate(waitNanos);
+        }
+
+        double averageWaitMs() {
+            long count = started.sum();
+            return count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0;
+        }
+    }
+
     /**
      * Custom ThreadFactory that creates named daemon threads.
      *
-     * <p>Thread naming format: "{prefix}-{number}" (e.g., "llm-openai-0")</p>
+     * <p>Thread naming format: "{prefix}-{number}" (e.g., "llm-worker-0")</p>
      */
     private static class NamedThreadFactory implements ThreadFactory {
         private final String prefix;
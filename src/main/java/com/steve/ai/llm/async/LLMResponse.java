@@ -37,6 +37,8 @@ public class LLMResponse {
     private final long latencyMs;
     private final String providerId;
     private final boolean fromCache;
+    private final RateLimitInfo rateLimitInfo;
+    private final String cacheContext;
 
     private LLMResponse(Builder builder) {
         this.content = Objects.requireNonNull(builder.content, "content cannot be null");
@@ -45,6 +47,8 @@ public class LLMResponse {
         this.tokensUsed = builder.tokensUsed;
         this.latencyMs = builder.latencyMs;
         this.fromCache = builder.fromCache;
+        this.rateLimitInfo = builder.rateLimitInfo;
+        this.cacheContext = builder.cacheContext;
     }
 
     /**
@@ -114,6 +118,31 @@ public class LLMResponse {
         return fromCache;
     }
 
+    /**
+     * Returns the rate-limit headers the provider sent with this response.
+     *
+     * <p>Not part of equality; describes the HTTP exchange, not the response itself.</p>
+     *
+     * @return Rate-limit info (never null; all fields unknown if not reported)
+     */
+    public RateLimitInfo getRateLimitInfo() {
+        return rateLimitInfo;
+    }
+
+    /**
+     * Returns the context the request was made in, as given by its {@code "cacheContext"}
+     * param.
+     *
+     * <p>Stored with the cache entry (in memory and on disk), so a caller served from the
+     * cache can tell how the context it was generated for differs from its own. Not part of
+     * equality.</p>
+     *
+     * @return Caller-defined context string, or null if none was given
+     */
+    public String getCacheContext() {
+        return cacheContext;
+    }
+
     /**
      * Creates a copy of this response with fromCache flag set to true.
      *
@@ -130,6 +159,50 @@ public class LLMResponse {
             .tokensUsed(this.tokensUsed)
             .latencyMs(this.latencyMs)
             .fromCache(cacheFlag)
+            .rateLimitInfo(this.rateLimitInfo)
+            .cacheContext(this.cacheContext)
+            .build();
+    }
+
+    /**
+     * Creates a copy of this response carrying the given rate-limit info.
+     *
+     * <p>Used by provider clients once the response headers have been parsed.</p>
+     *
+     * @param info Rate-limit info from the response headers
+     * @return A new LLMResponse instance with the rate-limit info attached
+     */
+    public LLMResponse withRateLimitInfo(RateLimitInfo info) {
+        return new Builder()
+            .content(this.content)
+            .model(this.model)
+            .providerId(this.providerId)
+            .tokensUsed(this.tokensUsed)
+            .latencyMs(this.latencyMs)
+            .fromCache(this.fromCache)
+            .rateLimitInfo(info)
+            .cacheContext(this.cacheContext)
+            .build();
+    }
+
+    /**
+     * Creates a copy of this response carrying the context it was requested in.
+     *
+     * <p>Used by the resilient client before a fresh response is cached.</p>
+     *
+     * @param context Caller-defined context string, or null
+     * @return A new LLMResponse instance with the context attached
+     */
+    public LLMResponse withCacheContext(String context) {
+        return new Builder()
+            .content(this.content)
+            .model(this.model)
+            .providerId(this.providerId)
+            .tokensUsed(this.tokensUsed)
+            .latencyMs(this.latencyMs)
+            .fromCache(this.fromCache)
+            .rateLimitInfo(this.rateLimitInfo)
+            .cacheContext(context)
             .build();
     }
 
@@ -184,6 +257,8 @@ public class LLMResponse {
         private long latencyMs;
         private String providerId;
         private boolean fromCache;
+        private RateLimitInfo rateLimitInfo = RateLimitInfo.none();
+        private String cacheContext;
 
         /**
          * Sets the response content.
@@ -251,6 +326,28 @@ public class LLMResponse {
             return this;
         }
 
+        /**
+         * Sets the rate-limit info reported by the provider.
+         *
+         * @param rateLimitInfo Parsed rate-limit headers (null means none reported)
+         * @return This builder for method chaining
+         */
+        public Builder rateLimitInfo(RateLimitInfo rateLimitInfo) {
+            this.rateLimitInfo = rateLimitInfo != null ? rateLimitInfo : RateLimitInfo.none();
+            return this;
+        }
+
+        /**
+         * Sets the context the request was made in.
+         *
+         * @param cacheContext Caller-defined context string, or null
+         * @return This builder for method chaining
+         */
+        public Builder cacheContext(String cacheContext) {
+            this.cacheContext = cacheContext;
+            return this;
+        }
+
         /**
          * Builds and returns the LLMResponse instance.
          *
@@ -0,0 +1,137 @@
+package com.steve.ai.llm.async;
+
+import java.net.http.HttpHeaders;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of the rate-limit headers returned with a provider response.
+ *
+ * <p>OpenAI and Groq report their request budget on every response:</p>
+ * <ul>
+ *   <li>{@code x-ratelimit-limit-requests}: requests allowed in the current window</li>
+ *   <li>{@code x-ratelimit-remaining-requests}: requests left in the current window</li>
+ *   <li>{@code x-ratelimit-reset-requests}: time until the window resets ({@code "1s"},
+ *       {@code "6m0s"}, {@code "2m59.56s"}, {@code "20ms"})</li>
+ * </ul>
+ * <p>A 429 response may also carry {@code retry-after} (seconds). Gemini sends none of these,
+ * in which case every value is {@link #UNKNOWN}.</p>
+ *
+ * <p><b>Used By:</b> {@code AdaptiveLimiter} to follow the provider's real quota.</p>
+ *
+ * @since 1.2.0
+ */
+public class RateLimitInfo {
+
+    /** Value of any field the provider did not report. */
+    public static final long UNKNOWN = -1;
+
+    private static final RateLimitInfo NONE = new RateLimitInfo(UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN);
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final long limitRequests;
+    private final long remainingRequests;
+    private final long resetRequestsMs;
+    private final long retryAfterMs;
+
+    private RateLimitInfo(long limitRequests, long remainingRequests, long resetRequestsMs, long retryAfterMs) {
+        this.limitRequests = limitRequests;
+        this.remainingRequests = remainingRequests;
+        this.resetRequestsMs = resetRequestsMs;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    /**
+     * Parses the rate-limit headers of an HTTP response.
+     *
+     * @param headers Response headers
+     * @return Parsed info; fields that are missing or malformed are {@link #UNKNOWN}
+     */
+    public static RateLimitInfo fromHeaders(HttpHeaders headers) {
+        long limit = parseLong(headers.firstValue("x-ratelimit-limit-requests"));
+        long remaining = parseLong(headers.firstValue("x-ratelimit-remaining-requests"));
+        long reset = headers.firstValue("x-ratelimit-reset-requests").map(RateLimitInfo::parseDurationMs).orElse(UNKNOWN);
+        long retryAfter = parseLong(headers.firstValue("retry-after"));
+
+        if (limit == UNKNOWN && remaining == UNKNOWN && reset == UNKNOWN && retryAfter == UNKNOWN) {
+            return NONE;
+        }
+        return new RateLimitInfo(limit, remaining, reset, retryAfter == UNKNOWN ? UNKNOWN : retryAfter * 1000);
+    }
+
+    /**
+     * Returns an instance with no rate-limit information.
+     *
+     * @return Empty info
+     */
+    public static RateLimitInfo none() {
+        return NONE;
+    }
+
+    public long getLimitRequests() {
+        return limitRequests;
+    }
+
+    public long getRemainingRequests() {
+        return remainingRequests;
+    }
+
+    public long getResetRequestsMs() {
+        return resetRequestsMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * Returns whether the remaining budget and its reset time are both known.
+     *
+     * @return true if a sustainable request rate can be derived
+     */
+    public boolean hasRequestBudget() {
+        return remainingRequests != UNKNOWN && resetRequestsMs > 0;
+    }
+
+    private static long parseLong(Optional<String> value) {
+        if (value.isEmpty()) {
+            return UNKNOWN;
+        }
+        try {
+            return (long) Double.parseDouble(value.get().trim());
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Parses Go-style durations such as {@code "6m0s"}, {@code "2m59.56s"} or {@code "20ms"}.
+     */
+    static long parseDurationMs(String value) {
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double totalMs = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            totalMs += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+            matched = true;
+        }
+        return matched ? (long) totalMs : UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitInfo{" +
+            "limitRequests=" + limitRequests +
+            ", remainingRequests=" + remainingRequests +
+            ", resetRequestsMs=" + resetRequestsMs +
+            ", retryAfterMs=" + retryAfterMs +
+            '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.steve.ai.llm.async;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Deadline carried in request params, so every layer of an LLM call stops at the same time.
+ *
+ * <p>The caller sets {@value #PARAM} to an absolute time (epoch milliseconds). Provider
+ * clients shorten their HTTP timeout to the time that is left, and the resilience layer
+ * does not start another retry once the deadline has passed. Without the param, every layer
+ * keeps its own default timeout.</p>
+ *
+ * @since 1.2.0
+ */
+public final class RequestDeadline {
+
+    /** Request param key holding the deadline in epoch milliseconds (Long). */
+    public static final String PARAM = "deadline";
+
+    private static final Duration MIN_TIMEOUT = Duration.ofMillis(100);
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Computes the deadline that is {@code timeout} from now.
+     *
+     * @param timeout Time allowed for the whole call
+     * @return Deadline in epoch milliseconds, for {@value #PARAM}
+     */
+    public static long after(Duration timeout) {
+        return System.currentTimeMillis() + timeout.toMillis();
+    }
+
+    /**
+     * Returns whether the request's deadline has passed.
+     *
+     * @param params Request params
+     * @return true if a deadline is set and has passed
+     */
+    public static boolean isExpired(Map<String, Object> params) {
+        Object deadline = params.get(PARAM);
+        return deadline instanceof Long millis && System.currentTimeMillis() >= millis;
+    }
+
+    /**
+     * Returns the timeout for one HTTP attempt: the default, or less if the deadline is closer.
+     *
+     * @param params         Request params
+     * @param defaultTimeout Provider's own timeout
+     * @return Timeout for the attempt
+     */
+    public static Duration timeout(Map<String, Object> params, Duration defaultTimeout) {
+        Object deadline = params.get(PARAM);
+        if (!(deadline instanceof Long millis)) {
+            return defaultTimeout;
+        }
+        Duration remaining = Duration.ofMillis(millis - System.currentTimeMillis());
+        if (remaining.compareTo(MIN_TIMEOUT) < 0) {
+            return MIN_TIMEOUT;
+        }
+        return remaining.compareTo(defaultTimeout) < 0 ? remaining : defaultTimeout;
+    }
+}
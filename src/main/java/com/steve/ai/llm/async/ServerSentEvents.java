@@ -0,0 +1,57 @@
+package com.steve.ai.llm.async;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Minimal reader for Server-Sent Events (SSE) streams returned by LLM providers.
+ *
+ * <p>OpenAI, Groq and Gemini all stream completions as {@code text/event-stream}, where
+ * each event carries one JSON chunk on a {@code data:} line. Only the data payloads are
+ * of interest here; comments, event names and blank separator lines are skipped.</p>
+ *
+ * <p><b>Format:</b></p>
+ * <pre>
+ * data: {"choices":[{"delta":{"content":"{\"plan\""}}]}
+ *
+ * data: [DONE]
+ * </pre>
+ *
+ * @since 1.2.0
+ */
+final class ServerSentEvents {
+
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE_MARKER = "[DONE]";
+
+    private ServerSentEvents() {
+    }
+
+    /**
+     * Passes the payload of each {@code data:} line to the consumer, in order.
+     *
+     * <p>Stops at the OpenAI-style {@code [DONE]} marker or at the end of the stream.
+     * Blocks the calling thread while waiting for more lines.</p>
+     *
+     * @param lines  Response body as a lazily populated stream of lines
+     * @param onData Receives each data payload (without the {@code data:} prefix)
+     */
+    static void forEachData(Stream<String> lines, Consumer<String> onData) {
+        Iterator<String> iterator = lines.iterator();
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            if (!line.startsWith(DATA_PREFIX)) {
+                continue;
+            }
+
+            String data = line.substring(DATA_PREFIX.length()).trim();
+            if (DONE_MARKER.equals(data)) {
+                return;
+            }
+            if (!data.isEmpty()) {
+                onData.accept(data);
+            }
+        }
+    }
+}
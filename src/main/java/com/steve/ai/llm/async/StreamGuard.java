@@ -0,0 +1,128 @@
+package com.steve.ai.llm.async;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bounds a streamed completion in time and aborts it when its result fails or is cancelled.
+ *
+ * <p>{@code HttpRequest.timeout} only covers the wait for response headers; a streamed
+ * completion is generated while its body is read, so without a limit it can run past the
+ * request's deadline, or hang on a stalled connection, while holding its provider lane slot.
+ * The guard completes the result with a {@link LLMException.ErrorType#TIMEOUT} once the
+ * time is up, and on any failure (timeout or cancel) cancels the exchange and closes the
+ * response body. Closing the body's input stream wakes a reader blocked on the next line,
+ * which is what frees the worker thread.</p>
+ *
+ * <p><b>Usage Example:</b></p>
+ * <pre>
+ * StreamGuard guard = new StreamGuard();
+ * CompletableFuture&lt;HttpResponse&lt;InputStream&gt;&gt; exchange = httpClient.sendAsync(request, ofInputStream());
+ * CompletableFuture&lt;LLMResponse&gt; result = exchange.thenApplyAsync(
+ *     response -&gt; readStream(guard.lines(response.body()), guard.deltas(onDelta)), worker);
+ * return guard.guard(result, exchange, RequestDeadline.timeout(params, limit), PROVIDER_ID, worker);
+ * </pre>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe; one instance per request.</p>
+ *
+ * @since 1.2.0
+ */
+final class StreamGuard {
+
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+    private volatile InputStream body;
+
+    /**
+     * Splits a response body into lines, and registers it to be closed if the stream is
+     * aborted. Closing the returned stream closes the body.
+     *
+     * @param body Response body
+     * @return Lazily read lines of the body
+     */
+    Stream<String> lines(InputStream body) {
+        this.body = body;
+        if (aborted.get()) {
+            closeBody();
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Wraps a delta consumer so that no delta is delivered once the stream was aborted (lines
+     * already buffered by the reader would otherwise still come through).
+     *
+     * @param onDelta Receives each content fragment
+     * @return Consumer that throws {@link CancellationException} after an abort
+     */
+    Consumer<String> deltas(Consumer<String> onDelta) {
+        return delta -> {
+            if (aborted.get()) {
+                throw new CancellationException("Stream aborted");
+            }
+            onDelta.accept(delta);
+        };
+    }
+
+    /**
+     * Limits a streamed result to a timeout, and aborts the stream if the result fails.
+     *
+     * @param result     Result of reading the stream
+     * @param exchange   HTTP exchange the stream comes from
+     * @param timeout    Time allowed for the whole stream, e.g. the time left to the deadline
+     * @param providerId Provider, for the timeout error
+     * @param executor   Executor the timeout completes the result on
+     * @param <T>        Result type
+     * @return {@code result}, for chaining
+     */
+    <T> CompletableFuture<T> guard(CompletableFuture<T> result, Future<?> exchange, Duration timeout,
+                                   String providerId, Executor executor) {
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS, executor).execute(() ->
+            result.completeExceptionally(new LLMException(
+                "Stream did not complete within " + timeout.toMillis() + "ms",
+                LLMException.ErrorType.TIMEOUT,
+                providerId,
+                true
+            )));
+
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                aborted.set(true);
+                exchange.cancel(true);
+                closeBody();
+            }
+        });
+        return result;
+    }
+
+    private void closeBody() {
+        InputStream current = body;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            // Already broken: the reader fails on its own
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.steve.ai.llm.resilience;
+
+import com.steve.ai.llm.async.LLMException;
+import com.steve.ai.llm.async.LLMExecutorService;
+import com.steve.ai.llm.async.LLMResponse;
+import com.steve.ai.llm.async.RateLimitInfo;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Adjusts a provider's rate limiter and bulkhead at runtime from the provider's own feedback.
+ *
+ * <p>{@link ResilienceConfig} only supplies the starting point (10 req/min, 5 concurrent
+ * calls). From there each provider's limits follow AIMD (additive increase, multiplicative
+ * decrease):</p>
+ * <ul>
+ *   <li><b>Success:</b> concurrency grows by {@code 1/limit} (about +1 per round of calls),
+ *       the request rate by 1 req/min</li>
+ *   <li><b>Latency gradient:</b> if recent latency rises well above the long-term baseline,
+ *       the provider is queueing our calls, so concurrency shrinks by 10%</li>
+ *   <li><b>HTTP 429:</b> both limits are halved and the rate limiter's remaining permits for
+ *       the current period are drained</li>
+ *   <li><b>Rate-limit headers:</b> when the provider reports its remaining budget
+ *       ({@code x-ratelimit-*}) and it is running low, the rate is capped to spread the
+ *       remaining requests until the reset</li>
+ * </ul>
+ *
+ * <p>New limits are applied through {@link Bulkhead#changeConfig} and
+ * {@link RateLimiter#changeLimitForPeriod}, and the concurrency limit is mirrored to the
+ * provider's lanes in {@link LLMExecutorService}.</p>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe. Feedback is applied under the instance lock.</p>
+ *
+ * @since 1.2.0
+ */
+public class AdaptiveLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    private static final double BASELINE_ALPHA = 0.05;
+    private static final double RECENT_ALPHA = 0.3;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final int MIN_LATENCY_SAMPLES = 5;
+    private static final double CONGESTION_DECREASE = 0.9;
+    private static final double RATE_LIMITED_DECREASE = 0.5;
+    private static final double BUDGET_HEADROOM = 0.9;
+    private static final double LOW_BUDGET_FRACTION = 0.1;
+
+    private final String providerId;
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+
+    private double concurrencyLimit;
+    private double rateLimit;
+    private double baselineLatencyMs = -1;
+    private double recentLatencyMs = -1;
+    private int latencySamples = 0;
+
+    private int appliedConcurrency;
+    private int appliedRate;
+
+    /**
+     * @param providerId  Provider whose limits are adjusted
+     * @param rateLimiter The provider's rate limiter (refresh period of one minute)
+     * @param bulkhead    The provider's bulkhead
+     */
+    public AdaptiveLimiter(String providerId, RateLimiter rateLimiter, Bulkhead bulkhead) {
+        this.providerId = providerId;
+        this.rateLimiter = rateLimiter;
+        this.bulkhead = bulkhead;
+        this.appliedConcurrency = bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        this.appliedRate = rateLimiter.getRateLimiterConfig().getLimitForPeriod();
+        this.concurrencyLimit = appliedConcurrency;
+        this.rateLimit = appliedRate;
+    }
+
+    /**
+     * Records the outcome of one provider call. Usable directly as a
+     * {@code whenComplete} callback.
+     *
+     * @param response  Response, or null if the call failed
+     * @param throwable Failure, or null if the call succeeded
+     */
+    public void onComplete(LLMResponse response, Throwable throwable) {
+        if (throwable != null) {
+            onFailure(throwable);
+        } else if (response != null) {
+            onSuccess(response.getLatencyMs(), response.getRateLimitInfo());
+        }
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param latencyMs Provider latency of the call
+     * @param info      Rate-limit headers of the response
+     */
+    public synchronized void onSuccess(long latencyMs, RateLimitInfo info) {
+        boolean congested = recordLatency(latencyMs);
+
+        if (congested) {
+            concurrencyLimit *= CONGESTION_DECREASE;
+        } else {
+            concurrencyLimit += 1.0 / Math.max(1.0, concurrencyLimit);
+        }
+
+        boolean budgetLow = isBudgetLow(info);
+        if (budgetLow) {
+            double sustainable = info.getRemainingRequests() * 60_000.0 / info.getResetRequestsMs();
+            rateLimit = Math.min(rateLimit, sustainable * BUDGET_HEADROOM);
+        } else {
+            rateLimit += 1.0;
+        }
+
+        apply(congested ? "latency rising" : budgetLow ? "request budget low" : null);
+    }
+
+    /**
+     * Records a failed call. Only rate limiting and timeouts change the limits; other
+     * failures are the circuit breaker's concern.
+     *
+     * @param throwable Failure of the call
+     */
+    public synchronized void onFailure(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        if (cause instanceof CancellationException || !(cause instanceof LLMException llmException)) {
+            return;
+        }
+
+        switch (llmException.getErrorType()) {
+            case RATE_LIMIT -> {
+                concurrencyLimit *= RATE_LIMITED_DECREASE;
+                rateLimit *= RATE_LIMITED_DECREASE;
+                rateLimiter.drainPermissions();
+                long retryAfterMs = llmException.getRateLimitInfo().getRetryAfterMs();
+                apply(retryAfterMs > 0 ? "HTTP 429, retry after " + retryAfterMs + "ms" : "HTTP 429");
+            }
+            case TIMEOUT -> {
+                concurrencyLimit *= CONGESTION_DECREASE;
+                apply("timeout");
+            }
+            default -> {
+                // Not a capacity signal
+            }
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return Max concurrent calls currently allowed
+     */
+    public synchronized int getConcurrencyLimit() {
+        return appliedConcurrency;
+    }
+
+    /**
+     * Returns the current rate limit.
+     *
+     * @return Requests per minute currently allowed
+     */
+    public synchronized int getRateLimit() {
+        return appliedRate;
+    }
+
+    private boolean recordLatency(long latencyMs) {
+        if (latencySamples++ == 0) {
+            baselineLatencyMs = latencyMs;
+            recentLatencyMs = latencyMs;
+            return false;
+        }
+        baselineLatencyMs += BASELINE_ALPHA * (latencyMs - baselineLatencyMs);
+        recentLatencyMs += RECENT_ALPHA * (latencyMs - recentLatencyMs);
+        return latencySamples >= MIN_LATENCY_SAMPLES && recentLatencyMs > baselineLatencyMs * LATENCY_TOLERANCE;
+    }
+
+    private boolean isBudgetLow(RateLimitInfo info) {
+        if (!info.hasRequestBudget()) {
+            return false;
+        }
+        long remaining = info.getRemainingRequests();
+        return remaining < rateLimit
+            || (info.getLimitRequests() > 0 && remaining < info.getLimitRequests() * LOW_BUDGET_FRACTION);
+    }
+
+    /**
+     * Clamps the limits and pushes them to Resilience4j if their integer values changed.
+     *
+     * @param reason Why the limits decreased, or null for an increase
+     */
+    private void apply(String reason) {
+        concurrencyLimit = clamp(concurrencyLimit,
+            ResilienceConfig.getAdaptiveMinConcurrentCalls(), ResilienceConfig.getAdaptiveMaxConcurrentCalls());
+        rateLimit = clamp(rateLimit,
+            ResilienceConfig.getAdaptiveMinRatePerMinute(), ResilienceConfig.getAdaptiveMaxRatePerMinute());
+
+        int concurrency = (int) concurrencyLimit;
+        int rate = (int) rateLimit;
+        if (concurrency == appliedConcurrency && rate == appliedRate) {
+            return;
+        }
+
+        if (concurrency != appliedConcurrency) {
+            bulkhead.changeConfig(BulkheadConfig.from(bulkhead.getBulkheadConfig())
+                .maxConcurrentCalls(concurrency)
+                .build());
+            LLMExecutorService.getInstance().setConcurrencyLimit(providerId, concurrency);
+        }
+        if (rate != appliedRate) {
+            rateLimiter.changeLimitForPeriod(rate);
+        }
+
+        if (reason != null) {
+            LOGGER.info("[{}] Lowered limits ({}): {} concurrent, {} req/min", providerId, reason, concurrency, rate);
+        } else {
+            LOGGER.debug("[{}] Raised limits: {} concurrent, {} req/min", providerId, concurrency, rate);
+        }
+
+        appliedConcurrency = concurrency;
+        appliedRate = rate;
+    }
+
+    private static double clamp(double value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
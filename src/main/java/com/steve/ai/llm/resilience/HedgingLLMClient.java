@@ -0,0 +1,259 @@
+package com.steve.ai.llm.resilience;
+
+import com.steve.ai.llm.async.AsyncLLMClient;
+import com.steve.ai.llm.async.CancellableFutures;
+import com.steve.ai.llm.async.LLMResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Routing client that hedges slow requests across LLM providers.
+ *
+ * <p>Requests go to the first healthy provider (circuit breaker not OPEN) in preference order.
+ * If it has not answered by its own p95 latency, the same request is sent to the next healthy
+ * provider and whichever answers first wins; the other request is cancelled, which aborts its
+ * HTTP exchange and frees its bulkhead permit. A primary that fails (and would fall back to a
+ * canned response) triggers the hedge immediately.</p>
+ *
+ * <p><b>Hedge Delay:</b> p95 over the provider's recent successful calls, from
+ * {@link ResilientLLMClient#getLatencyTracker()}. Until enough samples exist,
+ * {@value #DEFAULT_HEDGE_DELAY_MS}ms is used. Hedging at p95 adds roughly 5% extra calls.</p>
+ *
+ * <p><b>Params:</b> Request params are written for the preferred provider (the first client).
+ * The {@value #MODEL_PARAM} param names one of its models, so it is dropped for every other
+ * provider, which then uses its own configured model.</p>
+ *
+ * <p><b>Streaming:</b> The first provider to stream a fragment owns the stream; once the
+ * primary has started streaming, no hedge is sent. Cached, coalesced and fallback responses
+ * are not streamed; their content is only in the returned response.</p>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe. Each call keeps its own state.</p>
+ *
+ * @since 1.2.0
+ */
+public class HedgingLLMClient implements AsyncLLMClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgingLLMClient.class);
+    private static final long DEFAULT_HEDGE_DELAY_MS = 8000;
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final String FALLBACK_PROVIDER = "fallback";
+    private static final String MODEL_PARAM = "model";
+
+    private final List<ResilientLLMClient> clients;
+
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    /**
+     * @param clients Provider clients in preference order (first is the primary)
+     */
+    public HedgingLLMClient(List<ResilientLLMClient> clients) {
+        if (clients.isEmpty()) {
+            throw new IllegalArgumentException("HedgingLLMClient needs at least one provider");
+        }
+        this.clients = List.copyOf(clients);
+    }
+
+    @Override
+    public CompletableFuture<LLMResponse> sendAsync(String prompt, Map<String, Object> params) {
+        return new HedgedCall((client, onDelta) -> client.sendAsync(prompt, paramsFor(client, params)), null).start();
+    }
+
+    @Override
+    public CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                             Consumer<String> onDelta) {
+        return new HedgedCall((client, delta) -> client.streamAsync(prompt, paramsFor(client, params), delta), onDelta).start();
+    }
+
+    @Override
+    public String getProviderId() {
+        return clients.get(0).getProviderId();
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return clients.stream().anyMatch(ResilientLLMClient::isHealthy);
+    }
+
+    /**
+     * Returns how many hedged requests were sent.
+     *
+     * @return Hedge count
+     */
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    /**
+     * Returns how many hedged requests answered before the primary.
+     *
+     * @return Hedge win count
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    private List<ResilientLLMClient> healthyClients() {
+        List<ResilientLLMClient> healthy = new ArrayList<>();
+        for (ResilientLLMClient client : clients) {
+            if (client.isHealthy()) {
+                healthy.add(client);
+            }
+        }
+        return healthy;
+    }
+
+    /**
+     * Returns the params to send to a provider: unchanged for the preferred provider, and
+     * without its model for the others.
+     */
+    private Map<String, Object> paramsFor(ResilientLLMClient client, Map<String, Object> params) {
+        if (client == clients.get(0) || !params.containsKey(MODEL_PARAM)) {
+            return params;
+        }
+        Map<String, Object> own = new HashMap<>(params);
+        own.remove(MODEL_PARAM);
+        return own;
+    }
+
+    private static boolean isFallback(LLMResponse response) {
+        return FALLBACK_PROVIDER.equals(response.getProviderId());
+    }
+
+    /**
+     * State of a single routed request: the primary attempt and at most one hedge.
+     */
+    private final class HedgedCall {
+        private static final int NO_OWNER = -1;
+
+        private final BiFunction<ResilientLLMClient, Consumer<String>, CompletableFuture<LLMResponse>> call;
+        private final Consumer<String> onDelta;
+        private final CompletableFuture<LLMResponse> result = new CompletableFuture<>();
+        private final AtomicReferenceArray<CompletableFuture<LLMResponse>> attempts = new AtomicReferenceArray<>(2);
+        private final AtomicBoolean hedged = new AtomicBoolean(false);
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger streamOwner = new AtomicInteger(NO_OWNER);
+        private volatile LLMResponse lastFallback;
+
+        private ResilientLLMClient primary;
+        private ResilientLLMClient backup;
+
+        HedgedCall(BiFunction<ResilientLLMClient, Consumer<String>, CompletableFuture<LLMResponse>> call,
+                   Consumer<String> onDelta) {
+            this.call = call;
+            this.onDelta = onDelta;
+        }
+
+        CompletableFuture<LLMResponse> start() {
+            List<ResilientLLMClient> healthy = healthyClients();
+            primary = healthy.isEmpty() ? clients.get(0) : healthy.get(0);
+            backup = healthy.size() > 1 ? healthy.get(1) : null;
+
+            // Cancelling the routed call aborts every attempt still running
+            CancellableFutures.onCancel(result, () -> {
+                cancelAttempt(0);
+                cancelAttempt(1);
+            });
+
+            launch(0, primary);
+
+            if (backup != null) {
+                long delayMs = primary.getLatencyTracker().getPercentile(HEDGE_PERCENTILE);
+                if (delayMs < 0) {
+                    delayMs = DEFAULT_HEDGE_DELAY_MS;
+                }
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(this::hedge);
+            }
+
+            return result;
+        }
+
+        private void launch(int index, ResilientLLMClient client) {
+            Consumer<String> deltaConsumer = onDelta != null ? delta -> forward(index, delta) : null;
+            CompletableFuture<LLMResponse> attempt = call.apply(client, deltaConsumer);
+            attempts.set(index, attempt);
+            attempt.whenComplete((response, throwable) -> complete(index, response, throwable));
+        }
+
+        private void hedge() {
+            if (result.isDone() || streamOwner.get() != NO_OWNER || !hedged.compareAndSet(false, true)) {
+                return;
+            }
+
+            pending.incrementAndGet();
+            hedgesSent.increment();
+            LOGGER.info("[{}] No answer within hedge delay, hedging request to {}",
+                primary.getProviderId(), backup.getProviderId());
+            launch(1, backup);
+        }
+
+        private void forward(int index, String delta) {
+            if (streamOwner.compareAndSet(NO_OWNER, index)) {
+                cancelOther(index);
+            }
+            if (streamOwner.get() == index) {
+                onDelta.accept(delta);
+            }
+        }
+
+        private void complete(int index, LLMResponse response, Throwable throwable) {
+            boolean usable = throwable == null && !isFallback(response);
+            int owner = streamOwner.get();
+
+            if (usable && (owner == NO_OWNER || owner == index) && !result.isDone()) {
+                // Cached or coalesced response: nothing was streamed; keep the other stream out
+                streamOwner.compareAndSet(NO_OWNER, index);
+                if (result.complete(response)) {
+                    cancelOther(index);
+                    if (index == 1) {
+                        hedgesWon.increment();
+                        LOGGER.info("Hedged request to {} answered first", response.getProviderId());
+                    }
+                }
+            } else if (!usable) {
+                if (response != null) {
+                    lastFallback = response;
+                }
+                if (index == 0 && backup != null) {
+                    // Primary gave up: hedge right away instead of waiting for the timer
+                    hedge();
+                }
+            }
+
+            if (pending.decrementAndGet() == 0 && !result.isDone()) {
+                LLMResponse fallback = lastFallback;
+                if (fallback != null) {
+                    result.complete(fallback);
+                } else if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+            }
+        }
+
+        private void cancelOther(int index) {
+            cancelAttempt(1 - index);
+        }
+
+        private void cancelAttempt(int index) {
+            CompletableFuture<LLMResponse> attempt = attempts.get(index);
+            if (attempt != null && !attempt.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
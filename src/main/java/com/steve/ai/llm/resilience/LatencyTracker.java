@@ -0,0 +1,69 @@
+package com.steve.ai.llm.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of recent request latencies for one provider.
+ *
+ * <p>Keeps the last {@code windowSize} samples in a ring buffer and computes percentiles on
+ * demand by sorting a copy. Windows are small (around a hundred samples), so this is cheaper
+ * than maintaining a histogram and adapts quickly when a provider slows down.</p>
+ *
+ * <p><b>Thread Safety:</b> Thread-safe (synchronized).</p>
+ *
+ * @since 1.2.0
+ */
+public class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 10;
+
+    private final long[] samples;
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param windowSize Number of most recent samples to keep
+     */
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+
+    /**
+     * Records one request latency.
+     *
+     * @param latencyMs Latency in milliseconds
+     */
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Returns a latency percentile over the current window.
+     *
+     * @param percentile Percentile between 0.0 and 1.0 (e.g. 0.95 for p95)
+     * @return Latency in milliseconds, or -1 if there are too few samples to be meaningful
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (count < MIN_SAMPLES) {
+            return -1;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    /**
+     * Returns the number of samples in the current window.
+     *
+     * @return Sample count
+     */
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
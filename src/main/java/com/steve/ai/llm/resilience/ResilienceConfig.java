@@ -9,6 +9,7 @@ import io.github.resilience4j.core.IntervalFunction;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -54,6 +55,12 @@ public class ResilienceConfig {
     private static final int BULKHEAD_MAX_CONCURRENT_CALLS = 5;
     private static final int BULKHEAD_MAX_WAIT_DURATION_SECONDS = 10;
 
+    // Adaptive limiter bounds (see AdaptiveLimiter)
+    private static final int ADAPTIVE_MIN_CONCURRENT_CALLS = 1;
+    private static final int ADAPTIVE_MAX_CONCURRENT_CALLS = 20;
+    private static final int ADAPTIVE_MIN_RATE_PER_MINUTE = 2;
+    private static final int ADAPTIVE_MAX_RATE_PER_MINUTE = 120;
+
     /**
      * Creates circuit breaker configuration for LLM clients.
      *
@@ -82,6 +89,7 @@ public class ResilienceConfig {
      * <p><b>Ignored Exceptions (don't trigger circuit):</b></p>
      * <ul>
      *   <li>IllegalArgumentException (client bugs, not provider issues)</li>
+     *   <li>CancellationException (the caller gave up, not the provider)</li>
      * </ul>
      *
      * @return CircuitBreakerConfig instance
@@ -94,7 +102,7 @@ public class ResilienceConfig {
             .waitDurationInOpenState(Duration.ofSeconds(CIRCUIT_BREAKER_WAIT_DURATION_SECONDS))
             .permittedNumberOfCallsInHalfOpenState(CIRCUIT_BREAKER_HALF_OPEN_CALLS)
             .recordExceptions(IOException.class, TimeoutException.class, LLMException.class)
-            .ignoreExceptions(IllegalArgumentException.class)
+            .ignoreExceptions(IllegalArgumentException.class, CancellationException.class)
             .build();
     }
 
@@ -166,7 +174,9 @@ public class ResilienceConfig {
      *   <li>Gemini: 60 req/min</li>
      * </ul>
      *
-     * <p><b>Tuning:</b> Increase limit if you have paid tier with higher quotas</p>
+     * <p><b>Tuning:</b> This is only the starting limit. {@link AdaptiveLimiter} raises it
+     * while the provider keeps up (up to 120 req/min) and lowers it on HTTP 429 or when the
+     * provider's rate-limit headers report a low budget.</p>
      *
      * @return RateLimiterConfig instance
      */
@@ -192,9 +202,12 @@ public class ResilienceConfig {
      * <ul>
      *   <li>Prevents thread pool exhaustion from slow providers</li>
      *   <li>Ensures one slow provider doesn't block other providers</li>
-     *   <li>Matches thread pool size (5 threads per provider)</li>
+     *   <li>Matches the executor's starting limit (5 tasks per provider)</li>
      * </ul>
      *
+     * <p>5 is the starting limit; {@link AdaptiveLimiter} moves it between 1 and 20 based on
+     * latency, timeouts and HTTP 429 responses.</p>
+     *
      * <p><b>Example Scenario:</b></p>
      * <pre>
      * // If OpenAI is slow:
@@ -256,4 +269,40 @@ public class ResilienceConfig {
     public static int getBulkheadMaxConcurrentCalls() {
         return BULKHEAD_MAX_CONCURRENT_CALLS;
     }
+
+    /**
+     * Returns the lowest concurrency limit the adaptive limiter may set.
+     *
+     * @return Minimum concurrent calls
+     */
+    public static int getAdaptiveMinConcurrentCalls() {
+        return ADAPTIVE_MIN_CONCURRENT_CALLS;
+    }
+
+    /**
+     * Returns the highest concurrency limit the adaptive limiter may set.
+     *
+     * @return Maximum concurrent calls
+     */
+    public static int getAdaptiveMaxConcurrentCalls() {
+        return ADAPTIVE_MAX_CONCURRENT_CALLS;
+    }
+
+    /**
+     * Returns the lowest rate limit the adaptive limiter may set.
+     *
+     * @return Minimum requests per minute
+     */
+    public static int getAdaptiveMinRatePerMinute() {
+        return ADAPTIVE_MIN_RATE_PER_MINUTE;
+    }
+
+    /**
+     * Returns the highest rate limit the adaptive limiter may set.
+     *
+     * @return Maximum requests per minute
+     */
+    public static int getAdaptiveMaxRatePerMinute() {
+        return ADAPTIVE_MAX_RATE_PER_MINUTE;
+    }
 }
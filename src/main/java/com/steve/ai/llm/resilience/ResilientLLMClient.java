@@ -1,9 +1,12 @@
 package com.steve.ai.llm.resilience;
 
 import com.steve.ai.llm.async.AsyncLLMClient;
+import com.steve.ai.llm.async.CancellableFutures;
 import com.steve.ai.llm.async.LLMCache;
 import com.steve.ai.llm.async.LLMException;
+import com.steve.ai.llm.async.LLMExecutorService;
 import com.steve.ai.llm.async.LLMResponse;
+import com.steve.ai.llm.async.RequestDeadline;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
@@ -15,10 +18,18 @@ import io.github.resilience4j.retry.RetryRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -32,21 +43,40 @@ import java.util.function.Supplier;
  *   <li><b>Retry:</b> Automatic retry with exponential backoff</li>
  *   <li><b>Rate Limiter:</b> Prevent API quota exhaustion</li>
  *   <li><b>Bulkhead:</b> Limit concurrent requests</li>
+ *   <li><b>Adaptive Limits:</b> Rate limit and bulkhead follow provider feedback
+ *       (see {@link AdaptiveLimiter})</li>
  *   <li><b>Cache:</b> Response caching (40-60% hit rate)</li>
  *   <li><b>Fallback:</b> Pattern-based responses when all else fails</li>
  * </ul>
  *
+ * <p><b>Cache Key:</b> Responses are cached under the {@code "cacheKey"} param when present
+ * (a context-normalized prompt, see {@code CacheKeyNormalizer}), otherwise under the prompt.
+ * The {@code "cacheContext"} param, if given, is stored with the entry (see
+ * {@link LLMResponse#getCacheContext()}), so a cache hit can be adapted to its caller.</p>
+ *
+ * <p><b>Cancellation:</b> Cancelling the returned future aborts the running HTTP request,
+ * stops pending retries and releases the bulkhead permit. A coalesced request is only
+ * aborted once every caller sharing it has cancelled. If the {@code "deadline"} param is set
+ * (see {@link RequestDeadline}), no attempt is started after it has passed.</p>
+ *
+ * <p><b>Streaming:</b> Only content streamed by the provider reaches {@code onDelta}; cached,
+ * coalesced and fallback responses are returned whole, for the caller to parse. Once a
+ * stream has delivered its first fragment, a failure is neither retried nor replaced by a
+ * fallback: the caller has already acted on part of the response, so the request fails.</p>
+ *
  * <p><b>Design Pattern:</b> Decorator pattern - adds behavior without modifying original client</p>
  *
  * <p><b>Request Flow:</b></p>
  * <pre>
  * 1. Check cache → HIT: return cached response
- * 2. Check rate limiter → FULL: wait or reject
- * 3. Check bulkhead → FULL: wait or reject
- * 4. Check circuit breaker → OPEN: fallback
- * 5. Execute request with retry
- * 6. SUCCESS: cache response, return
- * 7. FAILURE: trigger fallback handler
+ *    Identical request in flight → share its result (single-flight)
+ * 2. Wait for a slot in the provider's priority lane (see LLMExecutorService)
+ * 3. Check rate limiter → FULL: wait or reject
+ * 4. Check bulkhead → FULL: wait or reject
+ * 5. Check circuit breaker → OPEN: fallback
+ * 6. Execute request with retry (the lane slot is released when each HTTP exchange ends)
+ * 7. SUCCESS: cache response, return
+ * 8. FAILURE: trigger fallback handler
  * </pre>
  *
  * <p><b>Usage Example:</b></p>
@@ -67,6 +97,7 @@ import java.util.function.Supplier;
 public class ResilientLLMClient implements AsyncLLMClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ResilientLLMClient.class);
+    private static final int LATENCY_WINDOW_SIZE = 100;
 
     private final AsyncLLMClient delegate;
     private final LLMCache cache;
@@ -76,6 +107,8 @@ public class ResilientLLMClient implements AsyncLLMClient {
     private final Retry retry;
     private final RateLimiter rateLimiter;
     private final Bulkhead bulkhead;
+    private final AdaptiveLimiter adaptiveLimiter;
+    private final LatencyTracker latencyTracker = new LatencyTracker(LATENCY_WINDOW_SIZE);
 
     /**
      * Constructs a ResilientLLMClient wrapping the given delegate.
@@ -108,6 +141,7 @@ public class ResilientLLMClient implements AsyncLLMClient {
         this.retry = retryRegistry.retry(providerId);
         this.rateLimiter = rlRegistry.rateLimiter(providerId);
         this.bulkhead = bhRegistry.bulkhead(providerId);
+        this.adaptiveLimiter = new AdaptiveLimiter(providerId, rateLimiter, bulkhead);
 
         // Register event listeners for observability
         registerEventListeners(providerId);
@@ -156,7 +190,7 @@ public class ResilientLLMClient implements AsyncLLMClient {
             .onFailure(event -> {
                 LOGGER.warn("[{}] Rate limiter rejected request (limit: {} req/min)",
                     providerId,
-                    ResilienceConfig.getRateLimitPerMinute());
+                    adaptiveLimiter.getRateLimit());
             });
 
         // Bulkhead events
@@ -164,7 +198,7 @@ public class ResilientLLMClient implements AsyncLLMClient {
             .onCallRejected(event -> {
                 LOGGER.warn("[{}] Bulkhead rejected request (max concurrent: {})",
                     providerId,
-                    ResilienceConfig.getBulkheadMaxConcurrentCalls());
+                    adaptiveLimiter.getConcurrencyLimit());
             });
     }
 
@@ -172,9 +206,10 @@ public class ResilientLLMClient implements AsyncLLMClient {
     public CompletableFuture<LLMResponse> sendAsync(String prompt, Map<String, Object> params) {
         String model = (String) params.getOrDefault("model", "unknown");
         String providerId = delegate.getProviderId();
+        String cacheKey = (String) params.getOrDefault("cacheKey", prompt);
 
         // Step 1: Check cache first (fastest path)
-        Optional<LLMResponse> cached = cache.get(prompt, model, providerId);
+        Optional<LLMResponse> cached = cache.get(cacheKey, model, providerId);
         if (cached.isPresent()) {
             LOGGER.debug("[{}] Cache hit for prompt (hash: {})", providerId, prompt.hashCode());
             return CompletableFuture.completedFuture(cached.get());
@@ -182,54 +217,186 @@ public class ResilientLLMClient implements AsyncLLMClient {
 
         LOGGER.debug("[{}] Cache miss, executing request with resilience patterns", providerId);
 
-        // Step 2: Execute with resilience patterns
-        return executeWithResilience(prompt, params);
+        // Step 2: Join an identical in-flight request, or execute with resilience patterns
+        return cache.coalesce(cacheKey, model, providerId,
+            () -> executeWithResilience(prompt, params, laneParams -> delegate.sendAsync(prompt, laneParams), () -> false));
+    }
+
+    /**
+     * Streams the response through the same cache and resilience pipeline as {@link #sendAsync}.
+     *
+     * <p>Only fragments streamed by the provider are passed to {@code onDelta}. Cache hits,
+     * coalesced requests and fallback responses are not streamed to this caller; their content
+     * is only in the returned response.</p>
+     */
+    @Override
+    public CompletableFuture<LLMResponse> sendStreamingAsync(String prompt, Map<String, Object> params,
+                                                             Consumer<String> onDelta) {
+        return streamAsync(prompt, params, onDelta);
+    }
+
+    /**
+     * Streams the response, passing only deltas that come from the provider stream.
+     *
+     * @param prompt  Request prompt
+     * @param params  Request parameters
+     * @param onDelta Receives provider stream fragments
+     * @return CompletableFuture with the full response
+     */
+    public CompletableFuture<LLMResponse> streamAsync(String prompt, Map<String, Object> params,
+                                                      Consumer<String> onDelta) {
+        String model = (String) params.getOrDefault("model", "unknown");
+        String providerId = delegate.getProviderId();
+        String cacheKey = (String) params.getOrDefault("cacheKey", prompt);
+
+        Optional<LLMResponse> cached = cache.get(cacheKey, model, providerId);
+        if (cached.isPresent()) {
+            LOGGER.debug("[{}] Cache hit for streaming prompt (hash: {})", providerId, prompt.hashCode());
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        LOGGER.debug("[{}] Cache miss, streaming request with resilience patterns", providerId);
+
+        // Set by the first fragment; from then on the request can no longer be retried
+        AtomicBoolean streamStarted = new AtomicBoolean(false);
+        Consumer<String> trackingConsumer = delta -> {
+            streamStarted.set(true);
+            onDelta.accept(delta);
+        };
+
+        return cache.coalesce(cacheKey, model, providerId,
+            () -> executeWithResilience(prompt, params,
+                laneParams -> delegate.sendStreamingAsync(prompt, laneParams, trackingConsumer), streamStarted::get));
     }
 
     /**
      * Executes the request with all resilience patterns applied.
      *
-     * @param prompt Request prompt
-     * @param params Request parameters
+     * @param prompt        Request prompt
+     * @param params        Request parameters
+     * @param call          Starts the underlying provider call with the given params
+     * @param streamStarted Whether part of the response has already been streamed to the caller;
+     *                      after that, failures are not retried and get no fallback
      * @return CompletableFuture with response
      */
-    private CompletableFuture<LLMResponse> executeWithResilience(String prompt, Map<String, Object> params) {
+    private CompletableFuture<LLMResponse> executeWithResilience(String prompt, Map<String, Object> params,
+                                                                 Function<Map<String, Object>, CompletableFuture<LLMResponse>> call,
+                                                                 BooleanSupplier streamStarted) {
         String providerId = delegate.getProviderId();
         String model = (String) params.getOrDefault("model", "unknown");
-
-        // Create supplier that wraps the async call
-        Supplier<CompletableFuture<LLMResponse>> asyncSupplier = () -> delegate.sendAsync(prompt, params);
+        String cacheKey = (String) params.getOrDefault("cacheKey", prompt);
+
+        // The lane slot is taken before the rate limiter and bulkhead, so requests get their
+        // permits in priority order; the provider releases it when each HTTP exchange ends
+        LLMExecutorService.LaneSlot slot = LLMExecutorService.getInstance()
+            .newSlot(providerId, LLMExecutorService.Priority.fromParams(params));
+        Map<String, Object> laneParams = new HashMap<>(params);
+        laneParams.put(LLMExecutorService.LANE_SLOT_PARAM, slot);
+
+        // Shared by all attempts of this call, so cancelling the result reaches the running one
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<CompletableFuture<LLMResponse>> currentAttempt = new AtomicReference<>();
+
+        // Every provider attempt (including retries) first checks for cancellation and the
+        // request deadline, then feeds the adaptive limiter
+        Supplier<CompletableFuture<LLMResponse>> attemptSupplier = () -> {
+            if (cancelled.get()) {
+                return CompletableFuture.failedFuture(new CancellationException("Request cancelled"));
+            }
+            if (RequestDeadline.isExpired(params)) {
+                return CompletableFuture.failedFuture(new LLMException(
+                    "Request deadline exceeded", LLMException.ErrorType.TIMEOUT, providerId, false));
+            }
+
+            CompletableFuture<LLMResponse> providerCall = call.apply(laneParams);
+            CompletableFuture<LLMResponse> attempt = CancellableFutures.propagate(
+                providerCall.exceptionallyCompose(throwable -> CompletableFuture.failedFuture(
+                    streamStarted.getAsBoolean() ? streamBroken(providerId, throwable) : throwable)),
+                providerCall);
+            currentAttempt.set(attempt);
+            if (cancelled.get()) {
+                attempt.cancel(true);
+            }
+            attempt.whenComplete(adaptiveLimiter::onComplete);
+            return attempt;
+        };
 
         // Apply resilience patterns in order: RateLimiter -> Bulkhead -> CircuitBreaker -> Retry
         // Each decorator wraps the previous one
-        Supplier<CompletableFuture<LLMResponse>> decoratedSupplier = decorateWithResilience(asyncSupplier);
-
-        try {
-            return decoratedSupplier.get()
-                .thenApply(response -> {
-                    // Cache successful response
-                    cache.put(prompt, model, providerId, response);
-                    LOGGER.debug("[{}] Request successful, cached response (latency: {}ms, tokens: {})",
-                        providerId, response.getLatencyMs(), response.getTokensUsed());
-                    return response;
-                })
-                .exceptionally(throwable -> {
-                    // Unwrap CompletionException if needed
-                    Throwable cause = throwable instanceof CompletionException ?
-                        throwable.getCause() : throwable;
-
-                    LOGGER.error("[{}] Request failed after all retries, using fallback: {}",
+        Supplier<CompletableFuture<LLMResponse>> decoratedSupplier = decorateWithResilience(attemptSupplier);
+
+        // The rate limiter may block while waiting for a permit, so it runs on a worker thread
+        CompletableFuture<LLMExecutorService.LaneSlot> granted = slot.acquire();
+        CompletableFuture<LLMResponse> result = granted
+            .thenComposeAsync(held -> {
+                try {
+                    return decoratedSupplier.get();
+                } catch (Exception e) {
+                    // Synchronous rejection by the rate limiter
+                    LOGGER.error("[{}] Request rejected by resilience layer: {}", providerId, e.getMessage());
+                    return CompletableFuture.<LLMResponse>failedFuture(e);
+                }
+            }, LLMExecutorService.getInstance().getWorkerExecutor())
+            .thenApply(fresh -> {
+                latencyTracker.record(fresh.getLatencyMs());
+
+                // Cache successful response, with the context it was requested in
+                LLMResponse response = fresh.withCacheContext((String) params.get("cacheContext"));
+                cache.put(cacheKey, model, providerId, response);
+                LOGGER.debug("[{}] Request successful, cached response (latency: {}ms, tokens: {})",
+                    providerId, response.getLatencyMs(), response.getTokensUsed());
+                return response;
+            })
+            .exceptionally(throwable -> {
+                // Unwrap CompletionException if needed
+                Throwable cause = throwable instanceof CompletionException ?
+                    throwable.getCause() : throwable;
+
+                if (streamStarted.getAsBoolean()) {
+                    // Part of the response is already in use; a canned one cannot replace it
+                    LOGGER.error("[{}] Stream failed after content was delivered: {}",
                         providerId, cause.getMessage());
+                    throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                }
+
+                LOGGER.error("[{}] Request failed after all retries, using fallback: {}",
+                    providerId, cause.getMessage());
 
-                    // Generate fallback response
-                    return fallbackHandler.generateFallback(prompt, cause);
-                });
+                // Generate fallback response
+                return fallbackHandler.generateFallback(prompt, cause);
+            });
+
+        // Whatever the outcome (fallback, rejection, cancellation), the slot is given back
+        result.whenComplete((response, throwable) -> slot.release());
+
+        // Cancelling the result aborts the running attempt (and with it the HTTP exchange); the
+        // retry, circuit breaker and bulkhead then complete with it, releasing the permit
+        return CancellableFutures.onCancel(result, () -> {
+            cancelled.set(true);
+            granted.cancel(true);
+            CompletableFuture<LLMResponse> attempt = currentAttempt.get();
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+            LOGGER.debug("[{}] Request cancelled by caller", providerId);
+        });
+    }
 
-        } catch (Exception e) {
-            // Handle synchronous exceptions from rate limiter/bulkhead
-            LOGGER.error("[{}] Request rejected by resilience layer: {}", providerId, e.getMessage());
-            return CompletableFuture.completedFuture(fallbackHandler.generateFallback(prompt, e));
+    /**
+     * Marks the failure of a stream that had already delivered content as not retryable: a
+     * retry would stream the response again into a consumer that has acted on the first part.
+     * Cancellation is passed through unchanged.
+     */
+    private static Throwable streamBroken(String providerId, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause() : throwable;
+        if (cause instanceof CancellationException) {
+            return cause;
         }
+        LLMException.ErrorType type = cause instanceof LLMException llmException
+            ? llmException.getErrorType() : LLMException.ErrorType.NETWORK_ERROR;
+        return new LLMException("Stream failed after content was delivered: " + cause.getMessage(),
+            type, providerId, false, cause);
     }
 
     /**
@@ -237,9 +404,12 @@ public class ResilientLLMClient implements AsyncLLMClient {
      *
      * <p><b>Order of decoration (innermost to outermost):</b></p>
      * <ol>
-     *   <li>Retry (innermost) - retries on failure</li>
-     *   <li>Circuit Breaker - fails fast if circuit is open</li>
-     *   <li>Bulkhead - limits concurrent calls</li>
+     *   <li>Retry (innermost) - retries failed attempts, including ones that fail after the
+     *       future was returned</li>
+     *   <li>Circuit Breaker - fails fast if circuit is open; records the outcome of the
+     *       call's future</li>
+     *   <li>Bulkhead - limits concurrent calls; the permit is held until the call's future
+     *       completes, so the limit counts calls in flight rather than calls being started</li>
      *   <li>Rate Limiter (outermost) - limits call rate</li>
      * </ol>
      *
@@ -249,20 +419,21 @@ public class ResilientLLMClient implements AsyncLLMClient {
     private Supplier<CompletableFuture<LLMResponse>> decorateWithResilience(
             Supplier<CompletableFuture<LLMResponse>> supplier) {
 
-        // Apply Retry
-        Supplier<CompletableFuture<LLMResponse>> withRetry = Retry.decorateSupplier(retry, supplier);
+        // Apply Retry (failed attempts are retried after a backoff on the shared scheduler)
+        Supplier<CompletionStage<LLMResponse>> withRetry = Retry.decorateCompletionStage(
+            retry, LLMExecutorService.getInstance().getScheduler(), supplier::get);
 
         // Apply Circuit Breaker
-        Supplier<CompletableFuture<LLMResponse>> withCircuitBreaker =
-            CircuitBreaker.decorateSupplier(circuitBreaker, withRetry);
+        Supplier<CompletionStage<LLMResponse>> withCircuitBreaker =
+            CircuitBreaker.decorateCompletionStage(circuitBreaker, withRetry);
 
         // Apply Bulkhead
-        Supplier<CompletableFuture<LLMResponse>> withBulkhead =
-            Bulkhead.decorateSupplier(bulkhead, withCircuitBreaker);
+        Supplier<CompletionStage<LLMResponse>> withBulkhead =
+            Bulkhead.decorateCompletionStage(bulkhead, withCircuitBreaker);
 
         // Apply Rate Limiter
         Supplier<CompletableFuture<LLMResponse>> withRateLimiter =
-            RateLimiter.decorateSupplier(rateLimiter, withBulkhead);
+            RateLimiter.decorateSupplier(rateLimiter, () -> withBulkhead.get().toCompletableFuture());
 
         return withRateLimiter;
     }
@@ -314,6 +485,24 @@ public class ResilientLLMClient implements AsyncLLMClient {
         return bulkhead.getMetrics();
     }
 
+    /**
+     * Returns the limiter that adapts this provider's rate limit and bulkhead.
+     *
+     * @return Adaptive limiter for this provider
+     */
+    public AdaptiveLimiter getAdaptiveLimiter() {
+        return adaptiveLimiter;
+    }
+
+    /**
+     * Returns the latency of recent successful provider calls (cache hits excluded).
+     *
+     * @return Latency tracker for this provider
+     */
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
     /**
      * Manually transitions the circuit breaker to CLOSED state.
      *
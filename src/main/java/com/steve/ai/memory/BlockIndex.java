@@ -0,0 +1,327 @@
+package com.steve.ai.memory;
+
+import com.steve.ai.SteveMod;
+import com.steve.ai.util.ChunkSectionScanner;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.common.Tags;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Server-wide index of interesting blocks (ores, logs and chests), per chunk.
+ *
+ * <p>Actions looking for a resource ask the index for the nearest matches instead of probing
+ * the world block by block. A chunk is indexed the first time a query reaches it, with one
+ * palette-filtered pass over its sections ({@link ChunkSectionScanner#forEachMatch}); after
+ * that, its entry is kept current by block place and break events and dropped when the chunk
+ * loads or unloads.</p>
+ *
+ * <p>Blocks can also appear without any event, most commonly logs of a tree that grew. A
+ * query that comes back short of its limit therefore re-indexes the chunks around its center
+ * (at most {@value #MISS_RESCAN_RINGS} ring of chunks, so 9 chunks) whose entry is older than
+ * {@value #MISS_RESCAN_AGE_TICKS} ticks, and runs again if any was re-indexed. A repeated miss
+ * in the same area costs nothing extra until the entries age again.</p>
+ *
+ * <p><b>Layout:</b> Per dimension, a map from {@link ChunkPos#toLong} to the chunk's entry;
+ * an entry maps each indexed block to the packed positions ({@link BlockPos#asLong}) holding
+ * it, and records the game time the chunk was scanned. Chunks without any indexed block keep
+ * an empty entry, so they are not scanned again.</p>
+ *
+ * <p><b>Queries:</b> {@link #findNearest} visits chunks in rings around the center and keeps
+ * the best {@code limit} candidates in a bounded heap, stopping as soon as no chunk further
+ * out can hold a closer match. A query costs O(m log limit) for the m indexed positions in
+ * the chunks it visits (every position of a visited chunk is checked, not only matching
+ * ones near the center), plus one section scan for each visited chunk not indexed yet.
+ * Results are checked against the world before they are returned: changes that fire no
+ * event (explosions, pistons, Steves breaking blocks) are found there and evicted.</p>
+ *
+ * <p><b>Thread Safety:</b> Server thread only; registered in the server-scoped
+ * {@link com.steve.ai.di.ServiceContainer}.</p>
+ *
+ * @since 1.2.0
+ */
+public class BlockIndex {
+
+    /** Blocks worth indexing. */
+    public static final Predicate<BlockState> INDEXED =
+        state -> state.is(Tags.Blocks.ORES) || state.is(BlockTags.LOGS) || state.is(Tags.Blocks.CHESTS);
+
+    /** Rings of chunks around the center re-indexed when a query comes back short. */
+    private static final int MISS_RESCAN_RINGS = 1;
+
+    /** Minimum age of an entry before a short query re-indexes its chunk (one minute). */
+    private static final long MISS_RESCAN_AGE_TICKS = 1200;
+
+    private final Map<ResourceKey<Level>, Long2ObjectMap<ChunkEntry>> levels = new HashMap<>();
+    private long chunksIndexed;
+    private long queries;
+    private long staleEvictions;
+    private long missRescans;
+
+    /**
+     * Finds the nearest positions holding a block.
+     *
+     * @param level  Level to search
+     * @param center Search center
+     * @param radius Maximum distance from the center, in blocks
+     * @param limit  Maximum number of results
+     * @param block  Block to find
+     * @return Matching positions, nearest first
+     */
+    public List<BlockPos> findNearest(Level level, BlockPos center, int radius, int limit, Block block) {
+        return findNearest(level, center, radius, limit, candidate -> candidate == block);
+    }
+
+    /**
+     * Finds the nearest positions holding any block accepted by a filter.
+     *
+     * <p>Only indexed blocks ({@link #INDEXED}) can be found. Chunks that are not loaded are
+     * skipped.</p>
+     *
+     * @param level  Level to search
+     * @param center Search center
+     * @param radius Maximum distance from the center, in blocks
+     * @param limit  Maximum number of results
+     * @param filter Blocks to find
+     * @return Matching positions, nearest first
+     */
+    public List<BlockPos> findNearest(Level level, BlockPos center, int radius, int limit, Predicate<Block> filter) {
+        queries++;
+        Long2ObjectMap<ChunkEntry> chunks = chunks(level);
+        List<BlockPos> results = search(level, chunks, center, radius, limit, filter);
+        if (results.size() < limit && rescanAround(level, chunks, center, radius)) {
+            results = search(level, chunks, center, radius, limit, filter);
+        }
+        return results;
+    }
+
+    /**
+     * Collects the nearest indexed matches and checks them against the world.
+     */
+    private List<BlockPos> search(Level level, Long2ObjectMap<ChunkEntry> chunks, BlockPos center, int radius,
+                                  int limit, Predicate<Block> filter) {
+        long radiusSq = (long) radius * radius;
+
+        // Max-heap on distance: the head is the worst of the best candidates so far
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, (a, b) -> Long.compare(b.distSq, a.distSq));
+        int centerChunkX = SectionPos.blockToSectionCoord(center.getX());
+        int centerChunkZ = SectionPos.blockToSectionCoord(center.getZ());
+        int maxRing = SectionPos.blockToSectionCoord(radius) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Blocks in this ring are at least (ring - 1) chunks away horizontally
+            long ringMinDist = Math.max(0, (ring - 1) * 16L);
+            if (ringMinDist > radius || best.size() == limit && best.peek().distSq < ringMinDist * ringMinDist) {
+                break;
+            }
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dz)) != ring) {
+                        continue;
+                    }
+
+                    ChunkEntry entry = entry(level, chunks, centerChunkX + dx, centerChunkZ + dz);
+                    if (entry == null) {
+                        continue;
+                    }
+                    for (Map.Entry<Block, LongSet> positions : entry.blocks.entrySet()) {
+                        if (!filter.test(positions.getKey())) {
+                            continue;
+                        }
+                        LongIterator iterator = positions.getValue().iterator();
+                        while (iterator.hasNext()) {
+                            long pos = iterator.nextLong();
+                            long distSq = distSq(center, pos);
+                            if (distSq > radiusSq) {
+                                continue;
+                            }
+                            if (best.size() < limit) {
+                                best.add(new Candidate(pos, distSq));
+                            } else if (distSq < best.peek().distSq) {
+                                best.poll();
+                                best.add(new Candidate(pos, distSq));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort((a, b) -> Long.compare(a.distSq, b.distSq));
+        List<BlockPos> results = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            BlockPos pos = BlockPos.of(candidate.pos);
+            BlockState state = level.getBlockState(pos);
+            if (INDEXED.test(state) && filter.test(state.getBlock())) {
+                results.add(pos);
+            } else {
+                staleEvictions++;
+                onBlockChanged(level, pos, state);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Updates the index after a block changed.
+     *
+     * @param level    Level the block is in
+     * @param pos      Position that changed
+     * @param newState State now at the position
+     */
+    public void onBlockChanged(Level level, BlockPos pos, BlockState newState) {
+        ChunkEntry entry = chunks(level).get(ChunkPos.asLong(pos));
+        if (entry == null) {
+            return; // Not indexed yet; will be scanned with the change in place
+        }
+
+        long packed = pos.asLong();
+        entry.blocks.values().removeIf(positions -> positions.remove(packed) && positions.isEmpty());
+        if (INDEXED.test(newState)) {
+            entry.blocks.computeIfAbsent(newState.getBlock(), block -> new LongOpenHashSet()).add(packed);
+        }
+    }
+
+    /**
+     * Drops a chunk's entry, so it is scanned again on the next query.
+     *
+     * @param level Level the chunk is in
+     * @param pos   Chunk position
+     */
+    public void invalidateChunk(Level level, ChunkPos pos) {
+        Long2ObjectMap<ChunkEntry> chunks = levels.get(level.dimension());
+        if (chunks != null) {
+            chunks.remove(pos.toLong());
+        }
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    public int getIndexedChunkCount() {
+        return levels.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public void logStats() {
+        SteveMod.LOGGER.info("BlockIndex: {} chunks indexed ({} held, {} re-indexed after a miss), {} queries, {} stale entries evicted",
+            chunksIndexed, getIndexedChunkCount(), missRescans, queries, staleEvictions);
+    }
+
+    private Long2ObjectMap<ChunkEntry> chunks(Level level) {
+        return levels.computeIfAbsent(level.dimension(), dimension -> new Long2ObjectOpenHashMap<>());
+    }
+
+    /**
+     * Returns a chunk's entry, indexing the chunk if this is the first query to reach it.
+     *
+     * @return The entry, or null if the chunk is not loaded
+     */
+    private ChunkEntry entry(Level level, Long2ObjectMap<ChunkEntry> chunks, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        ChunkEntry entry = chunks.get(key);
+        if (entry != null) {
+            return entry;
+        }
+
+        LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+        if (chunk == null) {
+            return null;
+        }
+
+        ChunkEntry indexed = index(level, chunk);
+        chunks.put(key, indexed);
+        return indexed;
+    }
+
+    /**
+     * Re-indexes the chunks nearest the center whose entries are old enough, after a query
+     * came back short (see the class description).
+     *
+     * @return true if any chunk was re-indexed
+     */
+    private boolean rescanAround(Level level, Long2ObjectMap<ChunkEntry> chunks, BlockPos center, int radius) {
+        long now = level.getGameTime();
+        int centerChunkX = SectionPos.blockToSectionCoord(center.getX());
+        int centerChunkZ = SectionPos.blockToSectionCoord(center.getZ());
+        int rings = Math.min(MISS_RESCAN_RINGS, SectionPos.blockToSectionCoord(radius) + 1);
+
+        boolean rescanned = false;
+        for (int dx = -rings; dx <= rings; dx++) {
+            for (int dz = -rings; dz <= rings; dz++) {
+                long key = ChunkPos.asLong(centerChunkX + dx, centerChunkZ + dz);
+                ChunkEntry entry = chunks.get(key);
+                if (entry == null || now - entry.indexedAt < MISS_RESCAN_AGE_TICKS) {
+                    continue; // Indexed on demand by the search, or fresh enough
+                }
+
+                LevelChunk chunk = level.getChunkSource().getChunkNow(centerChunkX + dx, centerChunkZ + dz);
+                if (chunk != null) {
+                    chunks.put(key, index(level, chunk));
+                    missRescans++;
+                    rescanned = true;
+                }
+            }
+        }
+        return rescanned;
+    }
+
+    private ChunkEntry index(Level level, LevelChunk chunk) {
+        Map<Block, LongSet> blocks = new IdentityHashMap<>();
+        ChunkSectionScanner.forEachMatch(chunk, INDEXED,
+            (state, pos) -> blocks.computeIfAbsent(state.getBlock(), block -> new LongOpenHashSet()).add(pos));
+        chunksIndexed++;
+        return new ChunkEntry(blocks, level.getGameTime());
+    }
+
+    private static long distSq(BlockPos center, long pos) {
+        long dx = BlockPos.getX(pos) - center.getX();
+        long dy = BlockPos.getY(pos) - center.getY();
+        long dz = BlockPos.getZ(pos) - center.getZ();
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Indexed blocks of one chunk, with the game time the chunk was scanned.
+     */
+    private static final class ChunkEntry {
+        private final Map<Block, LongSet> blocks;
+        private final long indexedAt;
+
+        private ChunkEntry(Map<Block, LongSet> blocks, long indexedAt) {
+            this.blocks = blocks;
+            this.indexedAt = indexedAt;
+        }
+    }
+
+    private static final class Candidate {
+        private final long pos;
+        private final long distSq;
+
+        private Candidate(long pos, long distSq) {
+            this.pos = pos;
+            this.distSq = distSq;
+        }
+    }
+}
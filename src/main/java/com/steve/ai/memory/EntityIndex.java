@@ -0,0 +1,264 @@
+package com.steve.ai.memory;
+
+import com.steve.ai.SteveMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Server-wide proximity index of entities, refreshed at most once per tick.
+ *
+ * <p>Combat, following and perception all ask "what is near this Steve?" every few ticks.
+ * Asked of the level, each question is its own entity query; with ten Steves fighting, that
+ * is ten queries over the same mobs. This index answers them all from one grid per dimension.
+ * A query fills all the cells it reaches that are still empty this tick with one level lookup
+ * over their bounds, so it never costs more than asking the level directly, and later queries
+ * in the same tick reuse those cells. Only the area around queries is ever looked at, and
+ * ticks without a query cost nothing.</p>
+ *
+ * <p><b>Layout:</b> A uniform grid of 16x16x16 cells, one per chunk section, keyed by
+ * {@link SectionPos#asLong}; each cell lists the entities whose bounding box reaches into it,
+ * so a query only visits the cells its own box overlaps, however large the entities are.
+ * Players are also kept in a separate list, since nearest-player queries are not bounded.</p>
+ *
+ * <p><b>Freshness:</b> Results reflect entity positions at the time of the build, at most one
+ * tick old; entities removed since are filtered out on read.</p>
+ *
+ * <p><b>Thread Safety:</b> Server thread only; registered in the server-scoped
+ * {@link com.steve.ai.di.ServiceContainer}.</p>
+ *
+ * @since 1.2.0
+ */
+public class EntityIndex {
+
+    private final Map<ResourceKey<Level>, Grid> grids = new HashMap<>();
+    private long builds;
+    private long cellsFilled;
+    private long lookups;
+    private long queries;
+
+    /**
+     * Returns the registered index, or a new unshared one (rebuilt by every query) if none is
+     * registered.
+     */
+    public static EntityIndex shared() {
+        return SteveMod.getServiceContainer().findService(EntityIndex.class).orElseGet(EntityIndex::new);
+    }
+
+    /**
+     * Finds the entities whose bounding box intersects a box, like {@code Level.getEntities}.
+     *
+     * @param except Entity to leave out; its level is searched
+     * @param box    Search box
+     * @return Matching entities, in no particular order
+     */
+    public List<Entity> getEntities(Entity except, AABB box) {
+        return getEntities(except.level(), except, box, entity -> true);
+    }
+
+    /**
+     * Finds the entities in a level whose bounding box intersects a box and that pass a filter.
+     *
+     * @param level  Level to search
+     * @param except Entity to leave out, or null
+     * @param box    Search box
+     * @param filter Entity filter
+     * @return Matching entities, in no particular order
+     */
+    public List<Entity> getEntities(Level level, Entity except, AABB box, Predicate<? super Entity> filter) {
+        queries++;
+        List<Entity> results = new ArrayList<>();
+        grid(level).forEachInBox(level, box, entity -> {
+            if (entity != except && filter.test(entity)) {
+                results.add(entity);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Finds the nearest entity of a type within a radius.
+     *
+     * @param from   Entity to measure from (never returned)
+     * @param radius Search radius, in blocks
+     * @param type   Entity class
+     * @param filter Entity filter
+     * @return Nearest match, or null if none
+     */
+    public <T extends Entity> T findNearest(Entity from, double radius, Class<T> type, Predicate<? super T> filter) {
+        queries++;
+        double radiusSq = radius * radius;
+        Object[] nearest = {null};
+        double[] nearestDistSq = {Double.MAX_VALUE};
+        grid(from.level()).forEachInBox(from.level(), from.getBoundingBox().inflate(radius), entity -> {
+            if (entity == from || !type.isInstance(entity)) {
+                return;
+            }
+            T candidate = type.cast(entity);
+            double distSq = from.distanceToSqr(candidate);
+            if (distSq <= radiusSq && distSq < nearestDistSq[0] && filter.test(candidate)) {
+                nearest[0] = candidate;
+                nearestDistSq[0] = distSq;
+            }
+        });
+        return type.cast(nearest[0]);
+    }
+
+    /**
+     * Finds the nearest living, non-spectator player in the same level, at any distance.
+     *
+     * @param from Entity to measure from
+     * @return Nearest player, or null if none
+     */
+    public Player findNearestPlayer(Entity from) {
+        queries++;
+        Player nearest = null;
+        double nearestDistSq = Double.MAX_VALUE;
+        for (Player player : grid(from.level()).players) {
+            if (player.isRemoved() || !player.isAlive() || player.isSpectator()) {
+                continue;
+            }
+            double distSq = from.distanceToSqr(player);
+            if (distSq < nearestDistSq) {
+                nearest = player;
+                nearestDistSq = distSq;
+            }
+        }
+        return nearest;
+    }
+
+    public void clear() {
+        grids.clear();
+    }
+
+    public void logStats() {
+        SteveMod.LOGGER.info("EntityIndex: {} builds, {} cells filled by {} lookups, {} queries ({} queries per build)",
+            builds, cellsFilled, lookups, queries, builds == 0 ? 0 : String.format("%.1f", (double) queries / builds));
+    }
+
+    /**
+     * Returns the level's grid, emptying it if it was filled in an earlier tick.
+     */
+    private Grid grid(Level level) {
+        Grid grid = grids.computeIfAbsent(level.dimension(), dimension -> new Grid());
+        long gameTime = level.getGameTime();
+        if (grid.builtAt != gameTime) {
+            grid.reset(level);
+            grid.builtAt = gameTime;
+            builds++;
+        }
+        return grid;
+    }
+
+    private final class Grid {
+        private final Long2ObjectMap<List<Entity>> cells = new Long2ObjectOpenHashMap<>();
+        private final List<Player> players = new ArrayList<>();
+        private long builtAt = Long.MIN_VALUE;
+
+        private void reset(Level level) {
+            cells.clear();
+            players.clear();
+            players.addAll(level.players());
+        }
+
+        /**
+         * Fills the cells in a range that no query has reached this tick, with one level
+         * lookup over the bounds of those cells. Each entity found is listed in every newly
+         * filled cell its bounding box reaches into.
+         */
+        private void fillMissing(Level level, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            LongOpenHashSet missing = new LongOpenHashSet();
+            int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, loZ = Integer.MAX_VALUE;
+            int hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE, hiZ = Integer.MIN_VALUE;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        long key = SectionPos.asLong(x, y, z);
+                        if (!cells.containsKey(key)) {
+                            missing.add(key);
+                            cells.put(key, new ArrayList<>());
+                            loX = Math.min(loX, x);
+                            loY = Math.min(loY, y);
+                            loZ = Math.min(loZ, z);
+                            hiX = Math.max(hiX, x);
+                            hiY = Math.max(hiY, y);
+                            hiZ = Math.max(hiZ, z);
+                        }
+                    }
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            cellsFilled += missing.size();
+            lookups++;
+
+            AABB bounds = new AABB(
+                SectionPos.sectionToBlockCoord(loX), SectionPos.sectionToBlockCoord(loY), SectionPos.sectionToBlockCoord(loZ),
+                SectionPos.sectionToBlockCoord(hiX + 1), SectionPos.sectionToBlockCoord(hiY + 1), SectionPos.sectionToBlockCoord(hiZ + 1));
+            for (Entity entity : level.getEntities((Entity) null, bounds, entity -> true)) {
+                AABB entityBox = entity.getBoundingBox();
+                int fromX = Math.max(loX, SectionPos.blockToSectionCoord(entityBox.minX));
+                int fromY = Math.max(loY, SectionPos.blockToSectionCoord(entityBox.minY));
+                int fromZ = Math.max(loZ, SectionPos.blockToSectionCoord(entityBox.minZ));
+                int toX = Math.min(hiX, SectionPos.blockToSectionCoord(entityBox.maxX));
+                int toY = Math.min(hiY, SectionPos.blockToSectionCoord(entityBox.maxY));
+                int toZ = Math.min(hiZ, SectionPos.blockToSectionCoord(entityBox.maxZ));
+                for (int x = fromX; x <= toX; x++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int y = fromY; y <= toY; y++) {
+                            long key = SectionPos.asLong(x, y, z);
+                            if (missing.contains(key)) {
+                                cells.get(key).add(entity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void forEachInBox(Level level, AABB box, Consumer<Entity> consumer) {
+            int minX = SectionPos.blockToSectionCoord(box.minX);
+            int minY = SectionPos.blockToSectionCoord(box.minY);
+            int minZ = SectionPos.blockToSectionCoord(box.minZ);
+            int maxX = SectionPos.blockToSectionCoord(box.maxX);
+            int maxY = SectionPos.blockToSectionCoord(box.maxY);
+            int maxZ = SectionPos.blockToSectionCoord(box.maxZ);
+
+            fillMissing(level, minX, minY, minZ, maxX, maxY, maxZ);
+
+            // An entity spanning several cells is listed in each of them
+            boolean singleCell = minX == maxX && minY == maxY && minZ == maxZ;
+            Set<Entity> seen = singleCell ? null : Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        for (Entity entity : cells.get(SectionPos.asLong(x, y, z))) {
+                            if (!entity.isRemoved() && entity.getBoundingBox().intersects(box)
+                                    && (seen == null || seen.add(entity))) {
+                                consumer.accept(entity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
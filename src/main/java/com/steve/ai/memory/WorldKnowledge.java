@@ -1,19 +1,23 @@
 package com.steve.ai.memory;
 
 import com.steve.ai.entity.SteveEntity;
+import com.steve.ai.util.ChunkSectionScanner;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.AABB;
 
 import java.util.*;
 
+/**
+ * Scans a Steve's surroundings: the biome, nearby blocks and nearby entities.
+ *
+ * <p>Reads the live level, so it must be created on the server thread. Planning code uses
+ * the immutable {@link WorldSnapshot} taken from it instead.</p>
+ */
 public class WorldKnowledge {
     private final SteveEntity steve;
     private final int scanRadius = 16;
@@ -47,79 +51,22 @@ public class WorldKnowledge {
         }
     }
 
+    /**
+     * Counts every non-air block within {@code scanRadius}, reading chunk sections directly.
+     */
     private void scanBlocks() {
-        nearbyBlocks = new HashMap<>();
-        Level level = steve.level();
-        BlockPos stevePos = steve.blockPosition();
-        
-        for (int x = -scanRadius; x <= scanRadius; x += 2) {
-            for (int y = -scanRadius; y <= scanRadius; y += 2) {
-                for (int z = -scanRadius; z <= scanRadius; z += 2) {
-                    BlockPos checkPos = stevePos.offset(x, y, z);
-                    BlockState state = level.getBlockState(checkPos);
-                    Block block = state.getBlock();
-                    
-                    if (block != Blocks.AIR && block != Blocks.CAVE_AIR && block != Blocks.VOID_AIR) {
-                        nearbyBlocks.put(block, nearbyBlocks.getOrDefault(block, 0) + 1);
-                    }
-                }
-            }
-        }
+        nearbyBlocks = ChunkSectionScanner.countBlocks(steve.level(), steve.blockPosition(), scanRadius);
     }
 
     private void scanEntities() {
-        Level level = steve.level();
         AABB searchBox = steve.getBoundingBox().inflate(scanRadius);
-        nearbyEntities = level.getEntities(steve, searchBox);
+        nearbyEntities = EntityIndex.shared().getEntities(steve, searchBox);
     }
 
     public String getBiomeName() {
         return biomeName;
     }
 
-    public String getNearbyBlocksSummary() {
-        if (nearbyBlocks.isEmpty()) {
-            return "none";
-        }
-        
-        List<Map.Entry<Block, Integer>> sorted = nearbyBlocks.entrySet().stream()
-            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-            .limit(5)
-            .toList();
-        
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < sorted.size(); i++) {
-            if (i > 0) sb.append(", ");
-            Map.Entry<Block, Integer> entry = sorted.get(i);
-            sb.append(entry.getKey().getName().getString());
-        }
-        
-        return sb.toString();
-    }
-
-    public String getNearbyEntitiesSummary() {
-        if (nearbyEntities.isEmpty()) {
-            return "none";
-        }
-        
-        Map<String, Integer> entityCounts = new HashMap<>();
-        for (Entity entity : nearbyEntities) {
-            String name = entity.getType().toString();
-            entityCounts.put(name, entityCounts.getOrDefault(name, 0) + 1);
-        }
-        
-        StringBuilder sb = new StringBuilder();
-        int count = 0;
-        for (Map.Entry<String, Integer> entry : entityCounts.entrySet()) {
-            if (count > 0) sb.append(", ");
-            sb.append(entry.getValue()).append(" ").append(entry.getKey());
-            count++;
-            if (count >= 5) break;
-        }
-        
-        return sb.toString();
-    }
-
     public Map<Block, Integer> getNearbyBlocks() {
         return nearbyBlocks;
     }
@@ -128,19 +75,13 @@ public class WorldKnowledge {
         return nearbyEntities;
     }
 
-    public String getNearbyPlayerNames() {
-        List<String> playerNames = new ArrayList<>();
-        for (Entity entity : nearbyEntities) {
-            if (entity instanceof Player player) {
-                playerNames.add(player.getName().getString());
-            }
-        }
-        
-        if (playerNames.isEmpty()) {
-            return "none";
-        }
-        
-        return String.join(", ", playerNames);
+    /**
+     * Copies the scan results into an immutable snapshot that can be used off the server thread.
+     *
+     * @return Snapshot of this scan
+     */
+    public WorldSnapshot snapshot() {
+        return new WorldSnapshot(steve.getSteveName(), steve.blockPosition(), steve.level().getGameTime(),
+            biomeName, nearbyBlocks, nearbyEntities);
     }
 }
-
@@ -0,0 +1,178 @@
+package com.steve.ai.memory;
+
+import com.steve.ai.entity.SteveEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.Block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of a Steve's surroundings, captured once on the server thread.
+ *
+ * <p>Planning runs off the server thread, where reading the live {@code Level} or entity
+ * list is unsafe and contends with chunk loading. {@link #capture} scans the world on the
+ * server thread (via {@link WorldKnowledge}) and copies out only what prompts need; the
+ * snapshot holds no reference to the level, the entity or any other entity, so prompt
+ * building can run on any thread.</p>
+ *
+ * <p><b>Layout:</b> Block counts are palette-compressed: a {@code Block[]} of the distinct
+ * non-air blocks seen, most common first, and a parallel {@code int[]} of counts. Entities
+ * are reduced to type counts and the names of nearby players.</p>
+ *
+ * <p><b>Thread Safety:</b> Immutable; safe to share between threads.</p>
+ *
+ * @since 1.2.0
+ */
+public final class WorldSnapshot {
+    private static final int SUMMARY_LIMIT = 5;
+
+    private final String steveName;
+    private final BlockPos position;
+    private final long gameTime;
+    private final String biomeName;
+    private final Block[] blockPalette;
+    private final int[] blockCounts;
+    private final String[] entityTypes;
+    private final int[] entityCounts;
+    private final List<String> playerNames;
+
+    WorldSnapshot(String steveName, BlockPos position, long gameTime, String biomeName,
+                  Map<Block, Integer> nearbyBlocks, List<Entity> nearbyEntities) {
+        this.steveName = steveName;
+        this.position = position.immutable();
+        this.gameTime = gameTime;
+        this.biomeName = biomeName;
+
+        List<Map.Entry<Block, Integer>> blocks = sortByCount(nearbyBlocks);
+        this.blockPalette = new Block[blocks.size()];
+        this.blockCounts = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            blockPalette[i] = blocks.get(i).getKey();
+            blockCounts[i] = blocks.get(i).getValue();
+        }
+
+        Map<String, Integer> types = new HashMap<>();
+        List<String> players = new ArrayList<>();
+        for (Entity entity : nearbyEntities) {
+            types.merge(entity.getType().toString(), 1, Integer::sum);
+            if (entity instanceof Player player) {
+                players.add(player.getName().getString());
+            }
+        }
+        List<Map.Entry<String, Integer>> sortedTypes = sortByCount(types);
+        this.entityTypes = new String[sortedTypes.size()];
+        this.entityCounts = new int[sortedTypes.size()];
+        for (int i = 0; i < sortedTypes.size(); i++) {
+            entityTypes[i] = sortedTypes.get(i).getKey();
+            entityCounts[i] = sortedTypes.get(i).getValue();
+        }
+        this.playerNames = Collections.unmodifiableList(players);
+    }
+
+    /**
+     * Scans a Steve's surroundings and captures them.
+     *
+     * @param steve Steve to capture the surroundings of
+     * @return Snapshot of the surroundings
+     * @throws IllegalStateException if called off the server thread
+     */
+    public static WorldSnapshot capture(SteveEntity steve) {
+        if (steve.level() instanceof ServerLevel serverLevel && !serverLevel.getServer().isSameThread()) {
+            throw new IllegalStateException("World snapshots must be captured on the server thread");
+        }
+        return new WorldKnowledge(steve).snapshot();
+    }
+
+    private static <K> List<Map.Entry<K, Integer>> sortByCount(Map<K, Integer> counts) {
+        List<Map.Entry<K, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        return sorted;
+    }
+
+    public String getSteveName() {
+        return steveName;
+    }
+
+    public BlockPos getPosition() {
+        return position;
+    }
+
+    /**
+     * @return Game time (ticks) when the snapshot was captured
+     */
+    public long getGameTime() {
+        return gameTime;
+    }
+
+    public String getBiomeName() {
+        return biomeName;
+    }
+
+    /**
+     * @return Number of distinct non-air blocks seen
+     */
+    public int getBlockPaletteSize() {
+        return blockPalette.length;
+    }
+
+    public Block getBlock(int paletteIndex) {
+        return blockPalette[paletteIndex];
+    }
+
+    public int getBlockCount(int paletteIndex) {
+        return blockCounts[paletteIndex];
+    }
+
+    /**
+     * @return Number of positions holding {@code block}, 0 if none
+     */
+    public int getBlockCount(Block block) {
+        int index = Arrays.asList(blockPalette).indexOf(block);
+        return index >= 0 ? blockCounts[index] : 0;
+    }
+
+    public String getNearbyBlocksSummary() {
+        if (blockPalette.length == 0) {
+            return "none";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(blockPalette.length, SUMMARY_LIMIT); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(blockPalette[i].getName().getString());
+        }
+        return sb.toString();
+    }
+
+    public String getNearbyEntitiesSummary() {
+        if (entityTypes.length == 0) {
+            return "none";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(entityTypes.length, SUMMARY_LIMIT); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(entityCounts[i]).append(" ").append(entityTypes[i]);
+        }
+        return sb.toString();
+    }
+
+    public List<String> getNearbyPlayerNameList() {
+        return playerNames;
+    }
+
+    public String getNearbyPlayerNames() {
+        if (playerNames.isEmpty()) {
+            return "none";
+        }
+        return String.join(", ", playerNames);
+    }
+}
@@ -0,0 +1,224 @@
+package com.steve.ai.structure;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact list of blocks to place: what a structure generator or template produces, and
+ * what builds are scheduled and placed from.
+ *
+ * <p><b>Layout:</b> Positions are packed into a {@code long[]} ({@link BlockPos#asLong}) and
+ * states are {@code short} indices into a palette of the distinct states, so an entry costs
+ * 10 bytes instead of a placement object plus a {@code BlockPos} (about 60 bytes). A
+ * 50,000-block template takes about 500 KB.</p>
+ *
+ * <p><b>Views:</b> {@link #slice} returns a view of a range that shares the arrays, so
+ * handing out parts of a plan (collaborative build tiles) copies nothing.</p>
+ *
+ * <p><b>Thread Safety:</b> Not thread-safe while being sorted; read-only access after
+ * that is safe from any thread.</p>
+ *
+ * @since 1.2.0
+ */
+public final class BuildPlan {
+    private static final BuildPlan EMPTY = new BuildPlan(new long[0], new short[0], new BlockState[0], 0, 0);
+
+    private final long[] positions;
+    private final short[] stateIndices;
+    private final BlockState[] palette;
+    private final int offset;
+    private final int size;
+
+    private BuildPlan(long[] positions, short[] stateIndices, BlockState[] palette, int offset, int size) {
+        this.positions = positions;
+        this.stateIndices = stateIndices;
+        this.palette = palette;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder(false);
+    }
+
+    /**
+     * Returns a builder that keeps one entry per position: adding a position again replaces
+     * its state (the last writer wins) and the entry keeps its first place.
+     */
+    public static Builder deduplicatingBuilder() {
+        return new Builder(true);
+    }
+
+    public static BuildPlan empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Packed position ({@link BlockPos#asLong}) of entry {@code index}
+     */
+    public long getPos(int index) {
+        return positions[offset + checkIndex(index)];
+    }
+
+    public BlockPos getBlockPos(int index) {
+        return BlockPos.of(getPos(index));
+    }
+
+    public BlockState getState(int index) {
+        return palette[stateIndices[offset + checkIndex(index)]];
+    }
+
+    /**
+     * @return Number of distinct states in the plan's palette
+     */
+    public int getPaletteSize() {
+        return palette.length;
+    }
+
+    /**
+     * Returns a view of a range of this plan, sharing its arrays.
+     *
+     * @param from First entry, inclusive
+     * @param to   Last entry, exclusive
+     * @return View of the range
+     */
+    public BuildPlan slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of a plan of " + size);
+        }
+        return new BuildPlan(positions, stateIndices, palette, offset + from, to - from);
+    }
+
+    /**
+     * Returns a copy of this plan moved by an offset, e.g. from template to world coordinates.
+     * The palette is shared.
+     */
+    public BuildPlan translate(BlockPos by) {
+        long[] moved = new long[size];
+        for (int i = 0; i < size; i++) {
+            moved[i] = BlockPos.offset(positions[offset + i], by.getX(), by.getY(), by.getZ());
+        }
+        short[] states = java.util.Arrays.copyOfRange(stateIndices, offset, offset + size);
+        return new BuildPlan(moved, states, palette, 0, size);
+    }
+
+    /**
+     * Reorders this plan's entries in place, by packed position.
+     *
+     * <p>Views share the arrays, so this also reorders any views taken earlier.</p>
+     *
+     * @param order Order of packed positions
+     */
+    public void sort(LongComparator order) {
+        Arrays.quickSort(offset, offset + size,
+            (a, b) -> order.compare(positions[a], positions[b]),
+            (a, b) -> {
+                long pos = positions[a];
+                positions[a] = positions[b];
+                positions[b] = pos;
+                short state = stateIndices[a];
+                stateIndices[a] = stateIndices[b];
+                stateIndices[b] = state;
+            });
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of a plan of " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Collects entries into a {@link BuildPlan}, building the palette as states come in.
+     */
+    public static final class Builder {
+        private final LongArrayList positions = new LongArrayList();
+        private final ShortArrayList stateIndices = new ShortArrayList();
+        private final List<BlockState> palette = new ArrayList<>();
+        private final Reference2IntOpenHashMap<BlockState> paletteIndex = new Reference2IntOpenHashMap<>();
+        private final Long2IntOpenHashMap entryIndex; // Packed position -> entry; null unless deduplicating
+
+        private Builder(boolean deduplicate) {
+            paletteIndex.defaultReturnValue(-1);
+            if (deduplicate) {
+                entryIndex = new Long2IntOpenHashMap();
+                entryIndex.defaultReturnValue(-1);
+            } else {
+                entryIndex = null;
+            }
+        }
+
+        public Builder add(BlockPos pos, Block block) {
+            return add(pos.asLong(), block.defaultBlockState());
+        }
+
+        public Builder add(BlockPos pos, BlockState state) {
+            return add(pos.asLong(), state);
+        }
+
+        /**
+         * @param pos   Packed position ({@link BlockPos#asLong})
+         * @param state State to place
+         * @throws IllegalStateException if the plan would hold more than 32767 distinct states
+         */
+        public Builder add(long pos, BlockState state) {
+            int index = paletteIndex.getInt(state);
+            if (index < 0) {
+                index = palette.size();
+                if (index > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Build plan palette is full (" + index + " states)");
+                }
+                palette.add(state);
+                paletteIndex.put(state, index);
+            }
+            if (entryIndex != null) {
+                int entry = entryIndex.putIfAbsent(pos, positions.size());
+                if (entry >= 0) {
+                    stateIndices.set(entry, (short) index);
+                    return this;
+                }
+            }
+            positions.add(pos);
+            stateIndices.add((short) index);
+            return this;
+        }
+
+        /**
+         * Adds every entry of a plan, in order.
+         */
+        public Builder addAll(BuildPlan plan) {
+            for (int i = 0; i < plan.size(); i++) {
+                add(plan.getPos(i), plan.getState(i));
+            }
+            return this;
+        }
+
+        public int size() {
+            return positions.size();
+        }
+
+        public BuildPlan build() {
+            return new BuildPlan(positions.toLongArray(), stateIndices.toShortArray(),
+                palette.toArray(new BlockState[0]), 0, positions.size());
+        }
+    }
+}
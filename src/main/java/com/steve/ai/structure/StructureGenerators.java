@@ -4,17 +4,41 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility class for procedural structure generation.
  * Contains algorithms for generating various building types.
+ *
+ * <p><b>Layers:</b> Every generator produces its structure one Y layer at a time, bottom to
+ * top, which is also the order it is built in. {@link #stream} generates the layers lazily,
+ * so a consumer holds one layer at a time (solo builds pull the next layer when the last one
+ * is placed); {@link #generate} collects them into one plan for collaborative builds, whose
+ * tiling needs the whole structure.</p>
+ *
+ * <p><b>Overlaps:</b> Generators may write a position more than once (a window over a wall
+ * block, a crenellation on a tower edge). Each layer is deduplicated by packed position as it
+ * is generated; the last write wins. All writes to a position fall in its own layer, so this
+ * gives the same result as deduplicating the whole structure.</p>
  */
 public class StructureGenerators {
 
-    public static List<BlockPlacement> generate(String structureType, BlockPos start, int width, int height, int depth, List<Block> materials) {
-        return switch (structureType.toLowerCase()) {
+    public static BuildPlan generate(String structureType, BlockPos start, int width, int height, int depth, List<Block> materials) {
+        BuildPlan.Builder blocks = BuildPlan.builder();
+        stream(structureType, start, width, height, depth, materials).forEach(blocks::addAll);
+        return blocks.build();
+    }
+
+    /**
+     * Generates a structure lazily, one deduplicated Y layer per element, bottom to top.
+     * Empty layers are skipped.
+     */
+    public static Stream<BuildPlan> stream(String structureType, BlockPos start, int width, int height, int depth, List<Block> materials) {
+        Layers layers = switch (structureType.toLowerCase()) {
             case "house", "home" -> buildAdvancedHouse(start, width, height, depth, materials);
             case "castle", "catle", "fort" -> buildCastle(start, width, height, depth, materials);
             case "tower" -> buildAdvancedTower(start, width, height, materials);
@@ -25,6 +49,7 @@ public class StructureGenerators {
             case "box", "cube" -> buildBox(start, width, height, depth, materials);
             default -> buildAdvancedHouse(start, Math.max(5, width), Math.max(4, height), Math.max(5, depth), materials);
         };
+        return StreamSupport.stream(new LayerSpliterator(layers), false);
     }
 
     private static Block getMaterial(List<Block> materials, int index) {
@@ -32,337 +57,383 @@ public class StructureGenerators {
         return materials.get(index % materials.size());
     }
 
-    private static List<BlockPlacement> buildAdvancedHouse(BlockPos start, int width, int height, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildAdvancedHouse(BlockPos start, int width, int height, int depth, List<Block> materials) {
         Block floorMaterial = getMaterial(materials, 0);
         Block wallMaterial = getMaterial(materials, 1);
-        Block roofMaterial = getMaterial(materials, 2);
         Block windowMaterial = Blocks.GLASS_PANE;
         Block doorMaterial = Blocks.OAK_DOOR;
 
+        Block roofMaterial = getMaterial(materials, 2);
         if (roofMaterial == Blocks.GLASS || roofMaterial == Blocks.GLASS_PANE) {
             roofMaterial = Blocks.OAK_PLANKS;
         }
+        Block roof = roofMaterial;
 
-        // Floor
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, 0, z), floorMaterial));
-            }
-        }
-
-        // Walls with windows and door
-        for (int y = 1; y <= height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Front wall
-                if (x == width / 2 && y <= 2) {
-                    blocks.add(new BlockPlacement(start.offset(x, y, 0), doorMaterial));
-                } else if (y >= 2 && y <= height - 1 && (x == 2 || x == width - 3)) {
-                    blocks.add(new BlockPlacement(start.offset(x, y, 0), windowMaterial));
-                } else {
-                    blocks.add(new BlockPlacement(start.offset(x, y, 0), wallMaterial));
-                }
-
-                // Back wall
-                if (y >= 2 && y <= height - 1 && (x == 2 || x == width / 2 || x == width - 3)) {
-                    blocks.add(new BlockPlacement(start.offset(x, y, depth - 1), windowMaterial));
-                } else {
-                    blocks.add(new BlockPlacement(start.offset(x, y, depth - 1), wallMaterial));
-                }
-            }
+        int roofStartHeight = height + 1;
+        int roofLayers = Math.max(width, depth) / 2 + 1;
 
-            // Side walls
-            for (int z = 1; z < depth - 1; z++) {
-                if (y >= 2 && y <= height - 1 && (z % 3 == 1)) {
-                    blocks.add(new BlockPlacement(start.offset(0, y, z), windowMaterial));
-                    blocks.add(new BlockPlacement(start.offset(width - 1, y, z), windowMaterial));
-                } else {
-                    blocks.add(new BlockPlacement(start.offset(0, y, z), wallMaterial));
-                    blocks.add(new BlockPlacement(start.offset(width - 1, y, z), wallMaterial));
+        return new Layers(roofStartHeight + roofLayers, (y, blocks) -> {
+            // Floor
+            if (y == 0) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < depth; z++) {
+                        blocks.add(start.offset(x, 0, z), floorMaterial);
+                    }
                 }
             }
-        }
 
-        // Pyramid roof
-        int roofStartHeight = height + 1;
-        int roofLayers = Math.max(width, depth) / 2 + 1;
+            // Walls with windows and door
+            if (y >= 1 && y <= height) {
+                for (int x = 0; x < width; x++) {
+                    // Front wall
+                    if (x == width / 2 && y <= 2) {
+                        blocks.add(start.offset(x, y, 0), doorMaterial);
+                    } else if (y >= 2 && y <= height - 1 && (x == 2 || x == width - 3)) {
+                        blocks.add(start.offset(x, y, 0), windowMaterial);
+                    } else {
+                        blocks.add(start.offset(x, y, 0), wallMaterial);
+                    }
 
-        for (int layer = 0; layer < roofLayers; layer++) {
-            int currentHeight = roofStartHeight + layer;
-            int inset = layer;
+                    // Back wall
+                    if (y >= 2 && y <= height - 1 && (x == 2 || x == width / 2 || x == width - 3)) {
+                        blocks.add(start.offset(x, y, depth - 1), windowMaterial);
+                    } else {
+                        blocks.add(start.offset(x, y, depth - 1), wallMaterial);
+                    }
+                }
 
-            for (int x = inset; x < width - inset; x++) {
-                for (int z = inset; z < depth - inset; z++) {
-                    if (x == inset || x == width - 1 - inset ||
-                        z == inset || z == depth - 1 - inset) {
-                        blocks.add(new BlockPlacement(start.offset(x, currentHeight, z), roofMaterial));
+                // Side walls
+                for (int z = 1; z < depth - 1; z++) {
+                    if (y >= 2 && y <= height - 1 && (z % 3 == 1)) {
+                        blocks.add(start.offset(0, y, z), windowMaterial);
+                        blocks.add(start.offset(width - 1, y, z), windowMaterial);
+                    } else {
+                        blocks.add(start.offset(0, y, z), wallMaterial);
+                        blocks.add(start.offset(width - 1, y, z), wallMaterial);
                     }
                 }
             }
 
-            if (width - 2 * inset <= 1 || depth - 2 * inset <= 1) {
-                break;
+            // Pyramid roof, ending with the first layer that closes it
+            int layer = y - roofStartHeight;
+            boolean roofClosed = layer > 0 && (width - 2 * (layer - 1) <= 1 || depth - 2 * (layer - 1) <= 1);
+            if (layer >= 0 && layer < roofLayers && !roofClosed) {
+                int inset = layer;
+
+                for (int x = inset; x < width - inset; x++) {
+                    for (int z = inset; z < depth - inset; z++) {
+                        if (x == inset || x == width - 1 - inset ||
+                            z == inset || z == depth - 1 - inset) {
+                            blocks.add(start.offset(x, y, z), roof);
+                        }
+                    }
+                }
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildCastle(BlockPos start, int width, int height, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildCastle(BlockPos start, int width, int height, int depth, List<Block> materials) {
         Block stoneMaterial = Blocks.STONE_BRICKS;
         Block wallMaterial = Blocks.COBBLESTONE;
         Block windowMaterial = Blocks.GLASS_PANE;
 
-        // Main structure
-        for (int y = 0; y <= height; y++) {
-            for (int x = 0; x < width; x++) {
-                for (int z = 0; z < depth; z++) {
-                    boolean isEdge = (x == 0 || x == width - 1 || z == 0 || z == depth - 1);
-                    boolean isCorner = (x <= 2 || x >= width - 3) && (z <= 2 || z >= depth - 3);
-
-                    if (y == 0) {
-                        blocks.add(new BlockPlacement(start.offset(x, y, z), stoneMaterial));
-                    } else if (isEdge && !isCorner) {
-                        if (x == width / 2 && z == 0 && y <= 3) {
-                            if (y >= 1 && y <= 3 && x >= width / 2 - 1 && x <= width / 2 + 1) {
-                                blocks.add(new BlockPlacement(start.offset(x, y, 0), Blocks.AIR));
+        int towerHeight = height + 6;
+        int towerSize = 3;
+        int[][] corners = {{0, 0}, {width - towerSize, 0}, {0, depth - towerSize}, {width - towerSize, depth - towerSize}};
+
+        return new Layers(towerHeight + 2, (y, blocks) -> {
+            // Main structure
+            if (y <= height) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < depth; z++) {
+                        boolean isEdge = (x == 0 || x == width - 1 || z == 0 || z == depth - 1);
+                        boolean isCorner = (x <= 2 || x >= width - 3) && (z <= 2 || z >= depth - 3);
+
+                        if (y == 0) {
+                            blocks.add(start.offset(x, y, z), stoneMaterial);
+                        } else if (isEdge && !isCorner) {
+                            if (x == width / 2 && z == 0 && y <= 3) {
+                                if (y >= 1 && y <= 3 && x >= width / 2 - 1 && x <= width / 2 + 1) {
+                                    blocks.add(start.offset(x, y, 0), Blocks.AIR);
+                                }
+                            } else if (y % 4 == 2 && !isCorner) {
+                                blocks.add(start.offset(x, y, z), windowMaterial);
+                            } else {
+                                blocks.add(start.offset(x, y, z), wallMaterial);
                             }
-                        } else if (y % 4 == 2 && !isCorner) {
-                            blocks.add(new BlockPlacement(start.offset(x, y, z), windowMaterial));
-                        } else {
-                            blocks.add(new BlockPlacement(start.offset(x, y, z), wallMaterial));
                         }
                     }
                 }
             }
-        }
 
-        // Corner towers
-        int towerHeight = height + 6;
-        int towerSize = 3;
-        int[][] corners = {{0, 0}, {width - towerSize, 0}, {0, depth - towerSize}, {width - towerSize, depth - towerSize}};
+            // Corner towers
+            for (int[] corner : corners) {
+                if (y <= towerHeight) {
+                    for (int dx = 0; dx < towerSize; dx++) {
+                        for (int dz = 0; dz < towerSize; dz++) {
+                            boolean isTowerEdge = (dx == 0 || dx == towerSize - 1 || dz == 0 || dz == towerSize - 1);
 
-        for (int[] corner : corners) {
-            for (int y = 0; y <= towerHeight; y++) {
-                for (int dx = 0; dx < towerSize; dx++) {
-                    for (int dz = 0; dz < towerSize; dz++) {
-                        boolean isTowerEdge = (dx == 0 || dx == towerSize - 1 || dz == 0 || dz == towerSize - 1);
+                            if (y == 0 || isTowerEdge) {
+                                blocks.add(start.offset(corner[0] + dx, y, corner[1] + dz), stoneMaterial);
+                            }
 
-                        if (y == 0 || isTowerEdge) {
-                            blocks.add(new BlockPlacement(start.offset(corner[0] + dx, y, corner[1] + dz), stoneMaterial));
+                            if (y % 5 == 3 && isTowerEdge && (dx == towerSize / 2 || dz == towerSize / 2)) {
+                                blocks.add(start.offset(corner[0] + dx, y, corner[1] + dz), windowMaterial);
+                            }
                         }
-
-                        if (y % 5 == 3 && isTowerEdge && (dx == towerSize / 2 || dz == towerSize / 2)) {
-                            blocks.add(new BlockPlacement(start.offset(corner[0] + dx, y, corner[1] + dz), windowMaterial));
+                    }
+                } else if (y == towerHeight + 1) {
+                    // Tower crenellations
+                    for (int dx = 0; dx < towerSize; dx++) {
+                        for (int dz = 0; dz < towerSize; dz++) {
+                            if (dx % 2 == 0 || dz % 2 == 0) {
+                                blocks.add(start.offset(corner[0] + dx, y, corner[1] + dz), stoneMaterial);
+                            }
                         }
                     }
                 }
             }
 
-            // Tower crenellations
-            for (int dx = 0; dx < towerSize; dx++) {
-                for (int dz = 0; dz < towerSize; dz++) {
-                    if (dx % 2 == 0 || dz % 2 == 0) {
-                        blocks.add(new BlockPlacement(start.offset(corner[0] + dx, towerHeight + 1, corner[1] + dz), stoneMaterial));
-                    }
+            // Wall crenellations
+            if (y == height + 1 || y == height + 2) {
+                for (int x = 0; x < width; x += 2) {
+                    blocks.add(start.offset(x, y, 0), stoneMaterial);
+                    blocks.add(start.offset(x, y, depth - 1), stoneMaterial);
                 }
-            }
-        }
-
-        // Wall crenellations
-        for (int x = 0; x < width; x += 2) {
-            blocks.add(new BlockPlacement(start.offset(x, height + 1, 0), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(x, height + 2, 0), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(x, height + 1, depth - 1), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(x, height + 2, depth - 1), stoneMaterial));
-        }
 
-        for (int z = 0; z < depth; z += 2) {
-            blocks.add(new BlockPlacement(start.offset(0, height + 1, z), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(0, height + 2, z), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(width - 1, height + 1, z), stoneMaterial));
-            blocks.add(new BlockPlacement(start.offset(width - 1, height + 2, z), stoneMaterial));
-        }
-
-        return blocks;
+                for (int z = 0; z < depth; z += 2) {
+                    blocks.add(start.offset(0, y, z), stoneMaterial);
+                    blocks.add(start.offset(width - 1, y, z), stoneMaterial);
+                }
+            }
+        });
     }
 
-    private static List<BlockPlacement> buildAdvancedTower(BlockPos start, int width, int height, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildAdvancedTower(BlockPos start, int width, int height, List<Block> materials) {
         Block wallMaterial = Blocks.STONE_BRICKS;
         Block accentMaterial = Blocks.CHISELED_STONE_BRICKS;
         Block windowMaterial = Blocks.GLASS_PANE;
         Block roofMaterial = Blocks.DARK_OAK_STAIRS;
 
-        // Main tower body
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                for (int z = 0; z < width; z++) {
-                    boolean isEdge = (x == 0 || x == width - 1 || z == 0 || z == width - 1);
-                    boolean isCorner = (x == 0 || x == width - 1) && (z == 0 || z == width - 1);
-
-                    if (y == 0) {
-                        blocks.add(new BlockPlacement(start.offset(x, y, z), wallMaterial));
-                    } else if (isEdge) {
-                        if (y % 3 == 2 && !isCorner && (x == width / 2 || z == width / 2)) {
-                            blocks.add(new BlockPlacement(start.offset(x, y, z), windowMaterial));
-                        } else if (isCorner) {
-                            blocks.add(new BlockPlacement(start.offset(x, y, z), accentMaterial));
-                        } else {
-                            blocks.add(new BlockPlacement(start.offset(x, y, z), wallMaterial));
+        int roofLayers = width / 2 + 1;
+
+        return new Layers(height + roofLayers, (y, blocks) -> {
+            // Main tower body
+            if (y < height) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < width; z++) {
+                        boolean isEdge = (x == 0 || x == width - 1 || z == 0 || z == width - 1);
+                        boolean isCorner = (x == 0 || x == width - 1) && (z == 0 || z == width - 1);
+
+                        if (y == 0) {
+                            blocks.add(start.offset(x, y, z), wallMaterial);
+                        } else if (isEdge) {
+                            if (y % 3 == 2 && !isCorner && (x == width / 2 || z == width / 2)) {
+                                blocks.add(start.offset(x, y, z), windowMaterial);
+                            } else if (isCorner) {
+                                blocks.add(start.offset(x, y, z), accentMaterial);
+                            } else {
+                                blocks.add(start.offset(x, y, z), wallMaterial);
+                            }
                         }
                     }
                 }
             }
-        }
 
-        // Pyramid roof
-        for (int i = 0; i < width / 2 + 1; i++) {
-            for (int x = i; x < width - i; x++) {
-                for (int z = i; z < width - i; z++) {
-                    if (x == i || x == width - 1 - i || z == i || z == width - 1 - i) {
-                        blocks.add(new BlockPlacement(start.offset(x, height + i, z), roofMaterial));
+            // Pyramid roof
+            int i = y - height;
+            if (i >= 0 && i < roofLayers) {
+                for (int x = i; x < width - i; x++) {
+                    for (int z = i; z < width - i; z++) {
+                        if (x == i || x == width - 1 - i || z == i || z == width - 1 - i) {
+                            blocks.add(start.offset(x, y, z), roofMaterial);
+                        }
                     }
                 }
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildModernHouse(BlockPos start, int width, int height, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildModernHouse(BlockPos start, int width, int height, int depth, List<Block> materials) {
         Block wallMaterial = Blocks.QUARTZ_BLOCK;
         Block floorMaterial = Blocks.SMOOTH_STONE;
         Block glassMaterial = Blocks.GLASS;
         Block roofMaterial = Blocks.DARK_OAK_PLANKS;
 
-        // Floor
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, 0, z), floorMaterial));
+        return new Layers(height + 1, (y, blocks) -> {
+            // Floor
+            if (y == 0) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < depth; z++) {
+                        blocks.add(start.offset(x, 0, z), floorMaterial);
+                    }
+                }
             }
-        }
 
-        // Modern walls with lots of glass
-        for (int y = 1; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (x % 2 == 0 || y > 1) {
-                    blocks.add(new BlockPlacement(start.offset(x, y, 0), glassMaterial));
-                } else {
-                    blocks.add(new BlockPlacement(start.offset(x, y, 0), wallMaterial));
-                }
+            // Modern walls with lots of glass
+            if (y >= 1 && y < height) {
+                for (int x = 0; x < width; x++) {
+                    if (x % 2 == 0 || y > 1) {
+                        blocks.add(start.offset(x, y, 0), glassMaterial);
+                    } else {
+                        blocks.add(start.offset(x, y, 0), wallMaterial);
+                    }
 
-                blocks.add(new BlockPlacement(start.offset(x, y, depth - 1), wallMaterial));
-            }
+                    blocks.add(start.offset(x, y, depth - 1), wallMaterial);
+                }
 
-            for (int z = 1; z < depth - 1; z++) {
-                if (z % 3 == 1 && y == 2) {
-                    blocks.add(new BlockPlacement(start.offset(0, y, z), glassMaterial));
-                    blocks.add(new BlockPlacement(start.offset(width - 1, y, z), glassMaterial));
-                } else {
-                    blocks.add(new BlockPlacement(start.offset(0, y, z), wallMaterial));
-                    blocks.add(new BlockPlacement(start.offset(width - 1, y, z), wallMaterial));
+                for (int z = 1; z < depth - 1; z++) {
+                    if (z % 3 == 1 && y == 2) {
+                        blocks.add(start.offset(0, y, z), glassMaterial);
+                        blocks.add(start.offset(width - 1, y, z), glassMaterial);
+                    } else {
+                        blocks.add(start.offset(0, y, z), wallMaterial);
+                        blocks.add(start.offset(width - 1, y, z), wallMaterial);
+                    }
                 }
             }
-        }
 
-        // Flat roof
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, height, z), roofMaterial));
+            // Flat roof
+            if (y == height) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < depth; z++) {
+                        blocks.add(start.offset(x, height, z), roofMaterial);
+                    }
+                }
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildBarn(BlockPos start, int width, int height, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildBarn(BlockPos start, int width, int height, int depth, List<Block> materials) {
         Block woodMaterial = Blocks.OAK_PLANKS;
         Block logMaterial = Blocks.OAK_LOG;
         Block roofMaterial = Blocks.SPRUCE_PLANKS;
 
-        // Floor
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, 0, z), woodMaterial));
+        int roofPeakHeight = height + width / 2;
+
+        return new Layers(roofPeakHeight + 1, (y, blocks) -> {
+            // Floor
+            if (y == 0) {
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < depth; z++) {
+                        blocks.add(start.offset(x, 0, z), woodMaterial);
+                    }
+                }
             }
-        }
 
-        // Walls
-        for (int y = 1; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                boolean isSupport = (x == 0 || x == width - 1 || x == width / 2);
-                Block material = isSupport ? logMaterial : woodMaterial;
+            // Walls
+            if (y >= 1 && y < height) {
+                for (int x = 0; x < width; x++) {
+                    boolean isSupport = (x == 0 || x == width - 1 || x == width / 2);
+                    Block material = isSupport ? logMaterial : woodMaterial;
 
-                if (x >= width / 3 && x <= 2 * width / 3 && y <= 2) {
-                    continue; // Large door opening
-                }
+                    if (x >= width / 3 && x <= 2 * width / 3 && y <= 2) {
+                        continue; // Large door opening
+                    }
 
-                blocks.add(new BlockPlacement(start.offset(x, y, 0), material));
-                blocks.add(new BlockPlacement(start.offset(x, y, depth - 1), material));
-            }
+                    blocks.add(start.offset(x, y, 0), material);
+                    blocks.add(start.offset(x, y, depth - 1), material);
+                }
 
-            for (int z = 1; z < depth - 1; z++) {
-                blocks.add(new BlockPlacement(start.offset(0, y, z), logMaterial));
-                blocks.add(new BlockPlacement(start.offset(width - 1, y, z), logMaterial));
+                for (int z = 1; z < depth - 1; z++) {
+                    blocks.add(start.offset(0, y, z), logMaterial);
+                    blocks.add(start.offset(width - 1, y, z), logMaterial);
+                }
             }
-        }
 
-        // Peaked roof
-        int roofPeakHeight = height + width / 2;
-        for (int x = 0; x < width; x++) {
-            int distFromCenter = Math.abs(x - width / 2);
-            int roofY = roofPeakHeight - distFromCenter;
+            // Peaked roof
+            for (int x = 0; x < width; x++) {
+                int distFromCenter = Math.abs(x - width / 2);
+                int roofY = roofPeakHeight - distFromCenter;
+                if (roofY != y) {
+                    continue;
+                }
 
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, roofY, z), roofMaterial));
+                for (int z = 0; z < depth; z++) {
+                    blocks.add(start.offset(x, roofY, z), roofMaterial);
+                }
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildWall(BlockPos start, int width, int height, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildWall(BlockPos start, int width, int height, List<Block> materials) {
         Block material = getMaterial(materials, 0);
 
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                blocks.add(new BlockPlacement(start.offset(x, y, 0), material));
+        return new Layers(height, (y, blocks) -> {
+            for (int x = 0; x < width; x++) {
+                blocks.add(start.offset(x, y, 0), material);
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildPlatform(BlockPos start, int width, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildPlatform(BlockPos start, int width, int depth, List<Block> materials) {
         Block material = getMaterial(materials, 0);
 
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < depth; z++) {
-                blocks.add(new BlockPlacement(start.offset(x, 0, z), material));
+        return new Layers(1, (y, blocks) -> {
+            for (int x = 0; x < width; x++) {
+                for (int z = 0; z < depth; z++) {
+                    blocks.add(start.offset(x, 0, z), material);
+                }
             }
-        }
-
-        return blocks;
+        });
     }
 
-    private static List<BlockPlacement> buildBox(BlockPos start, int width, int height, int depth, List<Block> materials) {
-        List<BlockPlacement> blocks = new ArrayList<>();
+    private static Layers buildBox(BlockPos start, int width, int height, int depth, List<Block> materials) {
         Block material = getMaterial(materials, 0);
 
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
+        return new Layers(height, (y, blocks) -> {
+            for (int x = 0; x < width; x++) {
                 for (int z = 0; z < depth; z++) {
-                    blocks.add(new BlockPlacement(start.offset(x, y, z), material));
+                    blocks.add(start.offset(x, y, z), material);
                 }
             }
+        });
+    }
+
+    /**
+     * Adds the blocks of one Y layer, relative to the structure's start
+     */
+    @FunctionalInterface
+    private interface LayerGenerator {
+        void generateLayer(int y, BuildPlan.Builder blocks);
+    }
+
+    /**
+     * A structure as a number of layers (from Y offset 0 up) and the generator for each layer
+     */
+    private static final class Layers {
+        private final int count;
+        private final LayerGenerator generator;
+
+        private Layers(int count, LayerGenerator generator) {
+            this.count = count;
+            this.generator = generator;
         }
+    }
 
-        return blocks;
+    /**
+     * Generates one layer per advance into a deduplicating builder
+     */
+    private static final class LayerSpliterator extends Spliterators.AbstractSpliterator<BuildPlan> {
+        private final Layers layers;
+        private int nextY;
+
+        private LayerSpliterator(Layers layers) {
+            super(Math.max(0, layers.count), ORDERED | NONNULL);
+            this.layers = layers;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super BuildPlan> action) {
+            while (nextY < layers.count) {
+                BuildPlan.Builder layer = BuildPlan.deduplicatingBuilder();
+                layers.generator.generateLayer(nextY++, layer);
+                if (layer.size() > 0) {
+                    action.accept(layer.build());
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
@@ -23,24 +23,14 @@ import java.util.List;
  */
 public class StructureTemplateLoader {
     
-    public static class TemplateBlock {
-        public final BlockPos relativePos;
-        public final BlockState blockState;
-        
-        public TemplateBlock(BlockPos relativePos, BlockState blockState) {
-            this.relativePos = relativePos;
-            this.blockState = blockState;
-        }
-    }
-    
     public static class LoadedTemplate {
         public final String name;
-        public final List<TemplateBlock> blocks;
+        public final BuildPlan blocks; // Positions relative to the template's origin
         public final int width;
         public final int height;
         public final int depth;
         
-        public LoadedTemplate(String name, List<TemplateBlock> blocks, int width, int height, int depth) {
+        public LoadedTemplate(String name, BuildPlan blocks, int width, int height, int depth) {
             this.name = name;
             this.blocks = blocks;
             this.width = width;
@@ -108,8 +98,6 @@ public class StructureTemplateLoader {
      * Note: This is a simplified version that works with NBT directly
      */
     private static LoadedTemplate loadFromMinecraftTemplate(StructureTemplate template, String name) {
-        List<TemplateBlock> blocks = new ArrayList<>();
-        
         var size = template.getSize();
         int width = size.getX();
         int height = size.getY();
@@ -125,7 +113,7 @@ public class StructureTemplateLoader {
      * Parse a structure from raw NBT data
      */
     private static LoadedTemplate parseNBTStructure(CompoundTag nbt, String name) {
-        List<TemplateBlock> blocks = new ArrayList<>();
+        BuildPlan.Builder blocks = BuildPlan.builder();
         
         var sizeList = nbt.getList("size", 3); // 3 = TAG_Int
         int width = sizeList.getInt(0);
@@ -156,20 +144,14 @@ public class StructureTemplateLoader {
             int paletteIndex = blockTag.getInt("state");
             var posList = blockTag.getList("pos", 3);
             
-            BlockPos pos = new BlockPos(
-                posList.getInt(0),
-                posList.getInt(1),
-                posList.getInt(2)
-            );
-            
             BlockState state = palette.get(paletteIndex);
             if (!state.isAir()) {
-                blocks.add(new TemplateBlock(pos, state));
+                blocks.add(BlockPos.asLong(posList.getInt(0), posList.getInt(1), posList.getInt(2)), state);
             }
         }
         
         SteveMod.LOGGER.info("Loaded {} blocks from NBT '{}' ({}x{}x{})", blocks.size(), name, width, height, depth);
-        return new LoadedTemplate(name, blocks, width, height, depth);
+        return new LoadedTemplate(name, blocks.build(), width, height, depth);
     }
     
     /**
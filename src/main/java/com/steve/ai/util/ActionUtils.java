@@ -1,48 +1,26 @@
 package com.steve.ai.util;
 
 import com.steve.ai.entity.SteveEntity;
+import com.steve.ai.memory.EntityIndex;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 
-import java.util.List;
-
 /**
  * Common utility methods used across multiple action classes
  */
 public class ActionUtils {
 
     /**
-     * Find the nearest player to a Steve entity
+     * Find the nearest player to a Steve entity, using the shared {@link EntityIndex}
      *
      * @param steve The Steve entity
      * @return The nearest player, or null if no players found
      */
     public static Player findNearestPlayer(SteveEntity steve) {
-        List<? extends Player> players = steve.level().players();
-
-        if (players.isEmpty()) {
-            return null;
-        }
-
-        Player nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-
-        for (Player player : players) {
-            if (!player.isAlive() || player.isRemoved() || player.isSpectator()) {
-                continue;
-            }
-
-            double distance = steve.distanceTo(player);
-            if (distance < nearestDistance) {
-                nearest = player;
-                nearestDistance = distance;
-            }
-        }
-
-        return nearest;
+        return EntityIndex.shared().findNearestPlayer(steve);
     }
 
     /**
@@ -50,7 +28,7 @@ public class ActionUtils {
      * Handles common resource names and aliases
      *
      * @param blockName The block name (e.g., "iron_ore", "diamond", "minecraft:stone")
-     * @return The Block instance, or Blocks.AIR if not found
+     * @return The Block instance, or Blocks.AIR if not found or malformed
      */
     public static Block parseBlock(String blockName) {
         blockName = blockName.toLowerCase().replace(" ", "_");
@@ -60,7 +38,10 @@ public class ActionUtils {
             blockName = "minecraft:" + blockName;
         }
 
-        ResourceLocation resourceLocation = new ResourceLocation(blockName);
+        ResourceLocation resourceLocation = ResourceLocation.tryParse(blockName);
+        if (resourceLocation == null) {
+            return Blocks.AIR;
+        }
         Block block = BuiltInRegistries.BLOCK.get(resourceLocation);
         return block != null ? block : Blocks.AIR;
     }
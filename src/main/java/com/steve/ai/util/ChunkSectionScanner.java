@@ -0,0 +1,210 @@
+package com.steve.ai.util;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Scans a cube of blocks section by section, straight from the chunk data.
+ *
+ * <p>{@code level.getBlockState(pos)} looks up the chunk and checks bounds for every position.
+ * This scanner resolves each chunk once, and works on its 16x16x16
+ * {@link LevelChunkSection}s:</p>
+ * <ul>
+ *   <li>Sections that are only air are skipped without reading them</li>
+ *   <li>Sections whose palette cannot contain a match ({@code PalettedContainer.maybeHas})
+ *       are skipped without reading them</li>
+ *   <li>Sections that lie entirely inside the cube are counted from the palette
+ *       ({@code PalettedContainer.count}), without resolving a state per position</li>
+ *   <li>Only sections cut by the edge of the cube are read position by position</li>
+ * </ul>
+ *
+ * <p>Scans are exact (every position in the cube), and chunks that are not loaded are
+ * skipped rather than loaded.</p>
+ *
+ * <p><b>Thread Safety:</b> Reads live chunk data; call on the server thread.</p>
+ *
+ * @since 1.2.0
+ */
+public final class ChunkSectionScanner {
+
+    private ChunkSectionScanner() {
+    }
+
+    /**
+     * Counts the non-air blocks in a cube.
+     *
+     * @param level  Level to scan
+     * @param center Center of the cube
+     * @param radius Half the cube's edge length, in blocks
+     * @return Number of positions holding each block
+     */
+    public static Object2IntMap<Block> countBlocks(Level level, BlockPos center, int radius) {
+        Object2IntOpenHashMap<Block> counts = new Object2IntOpenHashMap<>();
+        scan(level, center, radius, state -> !state.isAir(), new SectionVisitor() {
+            @Override
+            public boolean visitWhole(LevelChunkSection section) {
+                section.getStates().count((state, count) -> {
+                    if (!state.isAir()) {
+                        counts.addTo(state.getBlock(), count);
+                    }
+                });
+                return true;
+            }
+
+            @Override
+            public boolean visit(BlockState state) {
+                if (!state.isAir()) {
+                    counts.addTo(state.getBlock(), 1);
+                }
+                return true;
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Checks whether any block in a cube matches a filter.
+     *
+     * @param level  Level to scan
+     * @param center Center of the cube
+     * @param radius Half the cube's edge length, in blocks
+     * @param filter Block state filter
+     * @return true at the first matching position
+     */
+    public static boolean containsAny(Level level, BlockPos center, int radius, Predicate<BlockState> filter) {
+        boolean[] found = {false};
+        scan(level, center, radius, filter, state -> {
+            found[0] = filter.test(state);
+            return !found[0];
+        });
+        return found[0];
+    }
+
+    /**
+     * Visits every position of a chunk whose block matches a filter.
+     *
+     * <p>Sections are skipped by palette, as in the cube scans, so chunks without a match
+     * cost one palette check per non-empty section.</p>
+     *
+     * @param chunk    Chunk to scan
+     * @param filter   Block state filter
+     * @param consumer Receives each matching state and its position ({@link BlockPos#asLong})
+     */
+    public static void forEachMatch(LevelChunk chunk, Predicate<BlockState> filter, ObjLongConsumer<BlockState> consumer) {
+        int baseX = chunk.getPos().getMinBlockX();
+        int baseZ = chunk.getPos().getMinBlockZ();
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = 0; index < sections.length; index++) {
+            LevelChunkSection section = sections[index];
+            if (section.hasOnlyAir() || !section.getStates().maybeHas(filter)) {
+                continue;
+            }
+
+            int baseY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(index));
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        BlockState state = section.getBlockState(x, y, z);
+                        if (filter.test(state)) {
+                            consumer.accept(state, BlockPos.asLong(baseX + x, baseY + y, baseZ + z));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the sections intersecting the cube, skipping those that cannot contain a match.
+     */
+    private static void scan(Level level, BlockPos center, int radius, Predicate<BlockState> filter,
+                             SectionVisitor visitor) {
+        int minX = center.getX() - radius;
+        int maxX = center.getX() + radius;
+        int minY = Math.max(center.getY() - radius, level.getMinBuildHeight());
+        int maxY = Math.min(center.getY() + radius, level.getMaxBuildHeight() - 1);
+        int minZ = center.getZ() - radius;
+        int maxZ = center.getZ() + radius;
+        if (minY > maxY) {
+            return;
+        }
+
+        for (int chunkX = SectionPos.blockToSectionCoord(minX); chunkX <= SectionPos.blockToSectionCoord(maxX); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(minZ); chunkZ <= SectionPos.blockToSectionCoord(maxZ); chunkZ++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+
+                LevelChunkSection[] sections = chunk.getSections();
+                for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY); sectionY++) {
+                    LevelChunkSection section = sections[level.getSectionIndexFromSectionY(sectionY)];
+                    if (section.hasOnlyAir() || !section.getStates().maybeHas(filter)) {
+                        continue;
+                    }
+
+                    int x0 = Math.max(minX, SectionPos.sectionToBlockCoord(chunkX));
+                    int x1 = Math.min(maxX, SectionPos.sectionToBlockCoord(chunkX, 15));
+                    int y0 = Math.max(minY, SectionPos.sectionToBlockCoord(sectionY));
+                    int y1 = Math.min(maxY, SectionPos.sectionToBlockCoord(sectionY, 15));
+                    int z0 = Math.max(minZ, SectionPos.sectionToBlockCoord(chunkZ));
+                    int z1 = Math.min(maxZ, SectionPos.sectionToBlockCoord(chunkZ, 15));
+
+                    boolean whole = x1 - x0 == 15 && y1 - y0 == 15 && z1 - z0 == 15;
+                    if (whole && visitor.visitWhole(section)) {
+                        continue;
+                    }
+                    if (!visitPositions(section, visitor, x0, x1, y0, y1, z0, z1)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean visitPositions(LevelChunkSection section, SectionVisitor visitor,
+                                          int x0, int x1, int y0, int y1, int z0, int z1) {
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                for (int x = x0; x <= x1; x++) {
+                    if (!visitor.visit(section.getBlockState(x & 15, y & 15, z & 15))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receives the sections of a scan.
+     */
+    @FunctionalInterface
+    private interface SectionVisitor {
+        /**
+         * Visits a section that lies entirely inside the cube.
+         *
+         * @return true if the section was handled, false to visit its positions instead
+         */
+        default boolean visitWhole(LevelChunkSection section) {
+            return false;
+        }
+
+        /**
+         * Visits one position inside the cube.
+         *
+         * @return false to stop the scan
+         */
+        boolean visit(BlockState state);
+    }
+}
@@ -0,0 +1,148 @@
+package com.steve.ai.action;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for TileScheduler
+ */
+public class TileSchedulerTest {
+
+    /**
+     * Cuts {@code size} entries into tiles of {@code tileSize}
+     */
+    private static List<TileScheduler.Tile> tiles(int size, int tileSize) {
+        List<TileScheduler.Tile> tiles = new ArrayList<>();
+        for (int start = 0; start < size; start += tileSize) {
+            tiles.add(new TileScheduler.Tile(start, Math.min(size, start + tileSize)));
+        }
+        return tiles;
+    }
+
+    /**
+     * Claims one batch for a Steve, marking the claimed entries.
+     *
+     * @return Number of entries claimed, 0 if no work was left
+     */
+    private static int claim(TileScheduler scheduler, String name, int max, int[] claims) {
+        TileScheduler.Tile tile = scheduler.tileFor(name);
+        if (tile == null) {
+            return 0;
+        }
+        int index = tile.claim(max);
+        assertTrue(index >= 0, "tileFor returned a finished tile");
+        int end = Math.min(index + max, tile.end);
+        for (int i = index; i < end; i++) {
+            claims[i]++;
+        }
+        return end - index;
+    }
+
+    @Test
+    void testTileClaimsFrontToBack() {
+        TileScheduler.Tile tile = new TileScheduler.Tile(10, 25);
+
+        assertEquals(10, tile.claim(8));
+        assertEquals(7, tile.getRemaining());
+        assertEquals(18, tile.claim(8));
+        assertEquals(0, tile.getRemaining());
+        assertEquals(-1, tile.claim(8));
+    }
+
+    @Test
+    void testSingleSteveBuildsInOrder() {
+        TileScheduler scheduler = new TileScheduler(tiles(100, 16));
+        int expected = 0;
+
+        for (TileScheduler.Tile tile = scheduler.tileFor("Steve"); tile != null; tile = scheduler.tileFor("Steve")) {
+            assertEquals(expected, tile.claim(5));
+            expected = Math.min(expected + 5, tile.end);
+        }
+
+        assertEquals(100, expected);
+        assertEquals(0, scheduler.getUnclaimedCount());
+        assertEquals(0, scheduler.getSteals());
+    }
+
+    @Test
+    void testSimulatedBuildClaimsEveryEntryOnce() {
+        int size = 1000;
+        TileScheduler scheduler = new TileScheduler(tiles(size, 37));
+        int[] claims = new int[size];
+        String[] steves = {"Alex", "Steve", "Notch", "Herobrine"};
+        int[] placed = new int[steves.length];
+
+        // Steves join one tick apart and claim round-robin until the work runs out
+        int total = 0;
+        for (int tick = 0; total < size; tick++) {
+            boolean progress = false;
+            for (int s = 0; s < steves.length && s <= tick; s++) {
+                int claimed = claim(scheduler, steves[s], 8, claims);
+                placed[s] += claimed;
+                total += claimed;
+                progress |= claimed > 0;
+            }
+            assertTrue(progress || total == size, "Stalled with work left at tick " + tick);
+        }
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(1, claims[i], "Entry " + i + " claimed " + claims[i] + " times");
+        }
+        for (int s = 0; s < steves.length; s++) {
+            assertTrue(placed[s] > 0, steves[s] + " got no work");
+        }
+        assertEquals(4, scheduler.getAgentCount());
+        for (String steve : steves) {
+            assertNull(scheduler.tileFor(steve));
+        }
+    }
+
+    @Test
+    void testIdleSteveStealsQueuedTiles() {
+        TileScheduler scheduler = new TileScheduler(tiles(400, 10));
+        int[] claims = new int[400];
+
+        // The first Steve takes half the tiles while working alone, then stops
+        claim(scheduler, "Alex", 10, claims);
+        assertEquals(20, scheduler.getUnclaimedCount());
+
+        // The second Steve builds the unclaimed half, then takes over the first one's queue
+        int placed = 0;
+        for (int claimed = claim(scheduler, "Steve", 10, claims); claimed > 0; claimed = claim(scheduler, "Steve", 10, claims)) {
+            placed += claimed;
+        }
+
+        assertEquals(390, placed);
+        assertEquals(19, scheduler.getSteals());
+        for (int i = 0; i < claims.length; i++) {
+            assertEquals(1, claims[i], "Entry " + i);
+        }
+    }
+
+    @Test
+    void testLastTileIsShared() {
+        TileScheduler scheduler = new TileScheduler(tiles(50, 50));
+
+        TileScheduler.Tile alex = scheduler.tileFor("Alex");
+        assertEquals(0, alex.claim(10));
+        TileScheduler.Tile steve = scheduler.tileFor("Steve");
+
+        assertSame(alex, steve);
+        assertEquals(10, steve.claim(10));
+        assertEquals(0, scheduler.getSteals());
+    }
+
+    @Test
+    void testEmptyBuild() {
+        TileScheduler scheduler = new TileScheduler(new ArrayList<>());
+
+        assertNull(scheduler.tileFor("Steve"));
+        assertEquals(0, scheduler.getTileCount());
+        assertTrue(scheduler.join("Alex"));
+        assertFalse(scheduler.join("Alex"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.steve.ai.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for IntentClassifier
+ */
+public class IntentClassifierTest {
+
+    private final IntentClassifier classifier = IntentClassifier.withDefaults();
+
+    @Test
+    void testMineWithQuantity() {
+        IntentClassifier.Intent intent = classifier.classify("Mine 20 iron");
+
+        assertEquals("mine", intent.getName());
+        assertEquals(Map.of("block", "iron", "quantity", "20"), intent.getSlots());
+        assertEquals("mine[block, quantity]", intent.getSignature());
+    }
+
+    @Test
+    void testOptionalSlotChangesSignature() {
+        IntentClassifier.Intent intent = classifier.classify("dig diamond ores");
+
+        assertEquals(Map.of("block", "diamond"), intent.getSlots());
+        assertEquals("mine[block]", intent.getSignature());
+    }
+
+    @Test
+    void testFillerIsIgnored() {
+        IntentClassifier.Intent intent = classifier.classify("  Hey Steve, please   build a modern house!  ");
+
+        assertEquals("build", intent.getName());
+        assertEquals("modern_house", intent.getSlots().get("structure"));
+        assertEquals("follow", classifier.classify("follow me please").getName());
+    }
+
+    @Test
+    void testExtraDetailIsLeftToTheLlm() {
+        assertNull(classifier.classify("mine iron near the river"));
+        assertNull(classifier.classify("build a house with a red roof"));
+        assertNull(classifier.classify("what are you doing?"));
+        assertNull(classifier.classify(null));
+    }
+
+    @Test
+    void testEarlierRuleWins() {
+        IntentClassifier custom = new IntentClassifier()
+            .addRule("first", "go (?<where>[a-z]+)", "where")
+            .addRule("second", "go [a-z]+");
+
+        assertEquals("first[where]", custom.classify("go home").getSignature());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("kill zombies", IntentClassifier.normalize("Could you,  please KILL   zombies?!"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.steve.ai.llm;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for JsonRepairReader
+ */
+public class JsonRepairReaderTest {
+
+    private static String repair(String raw) throws IOException {
+        StringBuilder repaired = new StringBuilder();
+        char[] buffer = new char[7]; // Small, so repairs straddle read() calls
+        try (Reader reader = new JsonRepairReader(raw)) {
+            for (int n = reader.read(buffer, 0, buffer.length); n >= 0; n = reader.read(buffer, 0, buffer.length)) {
+                repaired.append(buffer, 0, n);
+            }
+        }
+        return repaired.toString();
+    }
+
+    @Test
+    void testValidJsonPassesThrough() throws IOException {
+        String json = "{\"plan\": \"mine\", \"tasks\": [{\"action\": \"mine\"}, {\"action\": \"build\"}]}";
+
+        assertEquals(json, repair(json));
+    }
+
+    @Test
+    void testStripsFencesAndProse() throws IOException {
+        String raw = "Sure! Here is the plan:\n```json\n{\"plan\": \"mine\"}\n```\nLet me know {if} you need more.";
+
+        assertEquals("{\"plan\": \"mine\"}", repair(raw));
+    }
+
+    @Test
+    void testInsertsMissingCommas() throws IOException {
+        String raw = "{\"tasks\": [{\"action\": \"mine\"} {\"action\": \"build\"}], \"blocks\": [\"a\" \"b\"] \"x\": 1}";
+
+        JsonObject parsed = JsonParser.parseString(repair(raw)).getAsJsonObject();
+        assertEquals(2, parsed.getAsJsonArray("tasks").size());
+        assertEquals(2, parsed.getAsJsonArray("blocks").size());
+        assertEquals(1, parsed.get("x").getAsInt());
+    }
+
+    @Test
+    void testDropsTrailingCommas() throws IOException {
+        String raw = "{\"tasks\": [{\"action\": \"mine\",}, ], \"plan\": \"go\",\n}";
+
+        assertEquals("{\"tasks\": [{\"action\": \"mine\"} ], \"plan\": \"go\"\n}", repair(raw));
+    }
+
+    @Test
+    void testLeavesStringContentsAlone() throws IOException {
+        String json = "{\"plan\": \"say \\\"hi\\\" } ,] {x\", \"next\": \"}\"}";
+
+        assertEquals(json, repair(json));
+    }
+
+    @Test
+    void testNoObjectReadsAsEmpty() throws IOException {
+        assertEquals("", repair("I can't help with that."));
+    }
+}
@@ -0,0 +1,58 @@
+package com.steve.ai.llm;
+
+import com.steve.ai.action.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for ResponseParser
+ */
+public class ResponseParserTest {
+
+    @Test
+    void testParsesTasksAndParameters() {
+        ResponseParser.ParsedResponse parsed = ResponseParser.parseAIResponse(
+            "{\"reasoning\":\"r\",\"plan\":\"Mine iron\",\"tasks\":["
+                + "{\"action\":\"mine\",\"parameters\":{\"block\":\"iron_ore\",\"quantity\":8}}]}");
+
+        assertNotNull(parsed);
+        assertEquals("Mine iron", parsed.getPlan());
+        assertEquals(1, parsed.getTasks().size());
+        Task task = parsed.getTasks().get(0);
+        assertEquals("mine", task.getAction());
+        assertEquals("iron_ore", task.getStringParameter("block"));
+        assertEquals(8, task.getIntParameter("quantity", 0));
+    }
+
+    @Test
+    void testBooleanParameter() {
+        ResponseParser.ParsedResponse parsed = ResponseParser.parseAIResponse(
+            "{\"tasks\":[{\"action\":\"build\",\"parameters\":{\"structure\":\"house\",\"hollow\":true}}]}");
+
+        assertNotNull(parsed);
+        assertEquals(Boolean.TRUE, parsed.getTasks().get(0).getParameter("hollow"));
+    }
+
+    @Test
+    void testBooleanInArrayParameter() {
+        ResponseParser.ParsedResponse parsed = ResponseParser.parseAIResponse(
+            "{\"tasks\":[{\"action\":\"build\",\"parameters\":{\"flags\":[true,\"walls\",false]}}]}");
+
+        assertNotNull(parsed);
+        assertEquals(List.of("true", "walls", "false"), parsed.getTasks().get(0).getParameter("flags"));
+    }
+
+    @Test
+    void testBooleanInTextField() {
+        ResponseParser.ParsedResponse parsed = ResponseParser.parseAIResponse(
+            "{\"reasoning\":false,\"plan\":true,\"tasks\":[{\"action\":\"wait\",\"parameters\":{}}]}");
+
+        assertNotNull(parsed);
+        assertEquals("false", parsed.getReasoning());
+        assertEquals("true", parsed.getPlan());
+        assertEquals(1, parsed.getTasks().size());
+    }
+}
@@ -0,0 +1,53 @@
+package com.steve.ai.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for TokenEstimator
+ */
+public class TokenEstimatorTest {
+
+    @Test
+    void testEmptyText() {
+        assertEquals(0, TokenEstimator.estimate(null));
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(0, TokenEstimator.estimate(" \n\t "));
+    }
+
+    @Test
+    void testWordsNumbersAndSymbols() {
+        assertEquals(1, TokenEstimator.estimate("mine"));
+        assertEquals(2, TokenEstimator.estimate("construction"));
+        assertEquals(2, TokenEstimator.estimate("1234"));
+        assertEquals(2, TokenEstimator.estimate("\":{"));
+        assertEquals(3, TokenEstimator.estimate("mine 20 iron"));
+    }
+
+    @Test
+    void testJson() {
+        // {" action ": " mine ", " block ": " iron "}
+        assertEquals(12, TokenEstimator.estimate("{\"action\": \"mine\", \"block\": \"iron\"}"));
+    }
+
+    @Test
+    void testFitListKeepsListThatFits() {
+        String list = "stone, dirt, oak_log";
+
+        assertEquals(list, TokenEstimator.fitList(list, 100));
+    }
+
+    @Test
+    void testFitListDropsWholeItems() {
+        String fitted = TokenEstimator.fitList("stone, dirt, oak_log, iron_ore, coal_ore", 6);
+
+        assertEquals("stone, dirt, ...", fitted);
+        assertTrue(TokenEstimator.estimate(fitted) <= 6);
+    }
+
+    @Test
+    void testFitListWithNoRoom() {
+        assertEquals("...", TokenEstimator.fitList("stone, dirt", 1));
+    }
+}
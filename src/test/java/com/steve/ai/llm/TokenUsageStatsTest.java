@@ -0,0 +1,43 @@
+package com.steve.ai.llm;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for TokenUsageStats
+ */
+public class TokenUsageStatsTest {
+
+    @Test
+    void testUnknownProvider() {
+        TokenUsageStats stats = new TokenUsageStats();
+
+        assertEquals(0.0, stats.getEstimateRatio("openai"), 0.0);
+        assertEquals(0, stats.getReportedRequests("openai"));
+        assertEquals(0, stats.getActualTokens("openai"));
+    }
+
+    @Test
+    void testRatioOnlyCountsReportedResponses() {
+        TokenUsageStats stats = new TokenUsageStats();
+        stats.record("groq", 800, 200, 1250);
+        stats.record("groq", 500, 100, 0);
+
+        assertEquals(1, stats.getReportedRequests("groq"));
+        assertEquals(1250, stats.getActualTokens("groq"));
+        assertEquals(0.8, stats.getEstimateRatio("groq"), 1e-9);
+    }
+
+    @Test
+    void testProvidersAreSeparate() {
+        TokenUsageStats stats = new TokenUsageStats();
+        stats.record("openai", 100, 100, 100);
+        stats.record("gemini", 100, 100, 400);
+        stats.record("gemini", 100, 100, 400);
+
+        assertEquals(1, stats.getReportedRequests("openai"));
+        assertEquals(2, stats.getReportedRequests("gemini"));
+        assertEquals(2.0, stats.getEstimateRatio("openai"), 1e-9);
+        assertEquals(0.5, stats.getEstimateRatio("gemini"), 1e-9);
+    }
+}
@@ -0,0 +1,108 @@
+package com.steve.ai.llm.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for CancellableFutures
+ */
+public class CancellableFuturesTest {
+
+    @Test
+    void testPropagateCancelsUpstream() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<Integer> parsed = CancellableFutures.propagate(call.thenApply(String::length), call);
+
+        parsed.cancel(true);
+
+        assertTrue(call.isCancelled());
+    }
+
+    @Test
+    void testCompletionDoesNotCancelUpstream() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<Integer> parsed = CancellableFutures.propagate(call.thenApply(String::length), call);
+
+        call.complete("plan");
+
+        assertEquals(4, (int) parsed.join());
+        assertFalse(call.isCancelled());
+    }
+
+    @Test
+    void testOnCancelRunsForAlreadyCancelledFuture() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.cancel(true);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CancellableFutures.onCancel(future, () -> ran.set(true));
+
+        assertTrue(ran.get());
+    }
+
+    @Test
+    void testComposeAsyncSkipsTaskCancelledBeforeStart() {
+        List<Runnable> queued = new ArrayList<>();
+        Executor executor = queued::add;
+        AtomicBoolean started = new AtomicBoolean();
+
+        CompletableFuture<String> result = CancellableFutures.composeAsync(() -> {
+            started.set(true);
+            return CompletableFuture.completedFuture("late");
+        }, executor);
+        result.cancel(true);
+        queued.forEach(Runnable::run);
+
+        assertFalse(started.get());
+    }
+
+    @Test
+    void testComposeAsyncCancelsStartedStage() {
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        CompletableFuture<String> result = CancellableFutures.composeAsync(() -> stage, Runnable::run);
+
+        result.cancel(true);
+
+        assertTrue(stage.isCancelled());
+    }
+
+    @Test
+    void testComposeAsyncReportsTaskFailure() {
+        CompletableFuture<String> result = CancellableFutures.composeAsync(() -> {
+            throw new IllegalStateException("no provider");
+        }, Runnable::run);
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void testFanOutCancelsUpstreamOnlyWhenEveryViewIs() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        List<CompletableFuture<String>> views = CancellableFutures.fanOut(upstream, 2);
+
+        views.get(0).cancel(true);
+        assertFalse(upstream.isCancelled());
+
+        views.get(1).cancel(true);
+        assertTrue(upstream.isCancelled());
+    }
+
+    @Test
+    void testFanOutDeliversResultToEveryView() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        List<CompletableFuture<String>> views = CancellableFutures.fanOut(upstream, 3);
+
+        views.get(1).cancel(true);
+        upstream.complete("plan");
+
+        assertEquals("plan", views.get(0).join());
+        assertEquals("plan", views.get(2).join());
+    }
+}
@@ -0,0 +1,48 @@
+package com.steve.ai.llm.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for RequestDeadline
+ */
+public class RequestDeadlineTest {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void testNoDeadlineKeepsDefault() {
+        assertFalse(RequestDeadline.isExpired(Map.of()));
+        assertEquals(DEFAULT_TIMEOUT, RequestDeadline.timeout(Map.of(), DEFAULT_TIMEOUT));
+    }
+
+    @Test
+    void testCloseDeadlineShortensTimeout() {
+        Map<String, Object> params = Map.of(RequestDeadline.PARAM, RequestDeadline.after(Duration.ofSeconds(5)));
+
+        Duration timeout = RequestDeadline.timeout(params, DEFAULT_TIMEOUT);
+
+        assertFalse(RequestDeadline.isExpired(params));
+        assertTrue(timeout.compareTo(Duration.ofSeconds(5)) <= 0);
+        assertTrue(timeout.compareTo(Duration.ofSeconds(4)) > 0);
+    }
+
+    @Test
+    void testFarDeadlineKeepsDefault() {
+        Map<String, Object> params = Map.of(RequestDeadline.PARAM, RequestDeadline.after(Duration.ofMinutes(5)));
+
+        assertEquals(DEFAULT_TIMEOUT, RequestDeadline.timeout(params, DEFAULT_TIMEOUT));
+    }
+
+    @Test
+    void testPassedDeadline() {
+        Map<String, Object> params = Map.of(RequestDeadline.PARAM, System.currentTimeMillis() - 1000);
+
+        assertTrue(RequestDeadline.isExpired(params));
+        assertEquals(Duration.ofMillis(100), RequestDeadline.timeout(params, DEFAULT_TIMEOUT));
+    }
+}
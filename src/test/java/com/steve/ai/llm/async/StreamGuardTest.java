@@ -0,0 +1,157 @@
+package com.steve.ai.llm.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for StreamGuard
+ */
+public class StreamGuardTest {
+
+    /**
+     * Response body that sends some events, then stalls until it is closed
+     */
+    private static final class StalledBody extends InputStream {
+        private final byte[] sent;
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private int pos;
+
+        StalledBody(String events) {
+            this.sent = events.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos < sent.length) {
+                return sent[pos++] & 0xFF;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("closed");
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            // One byte at a time, so the reader blocks right after the last sent line
+            b[off] = (byte) read();
+            return 1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    /**
+     * Reads a stalled stream through a guard, the way the provider clients do
+     */
+    private static CompletableFuture<String> read(StreamGuard guard, StalledBody body, List<String> deltas,
+                                                  CountDownLatch readerDone, ExecutorService reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                StringBuilder content = new StringBuilder();
+                ServerSentEvents.forEachData(guard.lines(body), guard.deltas(delta -> {
+                    deltas.add(delta);
+                    content.append(delta);
+                }));
+                return content.toString();
+            } finally {
+                readerDone.countDown();
+            }
+        }, reader);
+    }
+
+    @Test
+    void testStreamStalledAfterHeadersTimesOut() throws InterruptedException {
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            StreamGuard guard = new StreamGuard();
+            StalledBody body = new StalledBody("data: {\"plan\"\n\ndata: : \"mine\"\n\n");
+            List<String> deltas = new CopyOnWriteArrayList<>();
+            CountDownLatch readerDone = new CountDownLatch(1);
+            CompletableFuture<Object> exchange = new CompletableFuture<>();
+
+            CompletableFuture<String> result = guard.guard(read(guard, body, deltas, readerDone, reader),
+                exchange, Duration.ofMillis(200), "openai", Runnable::run);
+
+            CompletionException error = assertThrows(CompletionException.class, result::join);
+            LLMException timeout = (LLMException) error.getCause();
+            assertEquals(LLMException.ErrorType.TIMEOUT, timeout.getErrorType());
+            assertTrue(exchange.isCancelled());
+
+            // Closing the body wakes the reader, so the worker thread is not pinned
+            assertTrue(readerDone.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of("{\"plan\"", ": \"mine\""), deltas);
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCancelClosesStalledStream() throws InterruptedException {
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            StreamGuard guard = new StreamGuard();
+            StalledBody body = new StalledBody("data: {}\n\n");
+            CountDownLatch readerDone = new CountDownLatch(1);
+            CompletableFuture<Object> exchange = new CompletableFuture<>();
+
+            CompletableFuture<String> result = guard.guard(
+                read(guard, body, new CopyOnWriteArrayList<>(), readerDone, reader),
+                exchange, Duration.ofMinutes(1), "groq", Runnable::run);
+            result.cancel(true);
+
+            assertTrue(readerDone.await(2, TimeUnit.SECONDS));
+            assertTrue(exchange.isCancelled());
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCompletedStreamIsLeftAlone() {
+        StreamGuard guard = new StreamGuard();
+        CompletableFuture<Object> exchange = new CompletableFuture<>();
+        CompletableFuture<String> result = guard.guard(new CompletableFuture<>(), exchange,
+            Duration.ofMillis(100), "gemini", Runnable::run);
+
+        result.complete("done");
+
+        assertEquals("done", result.join());
+        assertFalse(exchange.isCancelled());
+    }
+
+    @Test
+    void testBodyArrivingAfterAbortIsClosed() {
+        StreamGuard guard = new StreamGuard();
+        CompletableFuture<String> result = guard.guard(new CompletableFuture<>(), new CompletableFuture<>(),
+            Duration.ofMinutes(1), "openai", Runnable::run);
+        result.cancel(true);
+
+        StalledBody body = new StalledBody("");
+
+        assertThrows(Exception.class, () -> guard.lines(body).count());
+        assertThrows(Exception.class, () -> guard.deltas(delta -> { }).accept("late"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.steve.ai.structure;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test suite for BuildPlan
+ *
+ * <p>Block states need a bootstrapped registry, so entries are added with a null state;
+ * the plan only stores and compares states by reference.</p>
+ */
+public class BuildPlanTest {
+
+    private static BuildPlan row(int length) {
+        BuildPlan.Builder builder = BuildPlan.builder();
+        for (int x = 0; x < length; x++) {
+            builder.add(BlockPos.asLong(x, 64, 0), null);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testPackedPositions() {
+        BuildPlan plan = BuildPlan.builder()
+            .add(new BlockPos(-3, 70, 12), (BlockState) null)
+            .build();
+
+        assertEquals(1, plan.size());
+        assertEquals(new BlockPos(-3, 70, 12), plan.getBlockPos(0));
+        assertEquals(BlockPos.asLong(-3, 70, 12), plan.getPos(0));
+        assertNull(plan.getState(0));
+    }
+
+    @Test
+    void testSliceSharesEntries() {
+        BuildPlan plan = row(10);
+        BuildPlan slice = plan.slice(3, 7);
+
+        assertEquals(4, slice.size());
+        assertEquals(plan.getPos(3), slice.getPos(0));
+        assertEquals(plan.getPos(6), slice.getPos(3));
+        assertEquals(plan.getPos(5), slice.slice(1, 3).getPos(1));
+        assertTrue(plan.slice(10, 10).isEmpty());
+    }
+
+    @Test
+    void testSliceBounds() {
+        BuildPlan plan = row(10);
+        BuildPlan slice = plan.slice(3, 7);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> plan.slice(5, 11));
+        assertThrows(IndexOutOfBoundsException.class, () -> plan.slice(6, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.getPos(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.getPos(-1));
+    }
+
+    @Test
+    void testSortReordersViews() {
+        BuildPlan plan = row(5);
+        BuildPlan tail = plan.slice(2, 5);
+
+        plan.sort((a, b) -> Integer.compare(BlockPos.getX(b), BlockPos.getX(a)));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(4 - i, BlockPos.getX(plan.getPos(i)));
+        }
+        assertEquals(2, BlockPos.getX(tail.getPos(0)));
+    }
+
+    @Test
+    void testTranslateCopies() {
+        BuildPlan plan = row(3);
+        BuildPlan moved = plan.slice(1, 3).translate(new BlockPos(100, -10, 5));
+
+        assertEquals(2, moved.size());
+        assertEquals(new BlockPos(101, 54, 5), moved.getBlockPos(0));
+        assertEquals(new BlockPos(2, 64, 0), plan.getBlockPos(2));
+        assertEquals(plan.getPaletteSize(), moved.getPaletteSize());
+    }
+
+    @Test
+    void testEmpty() {
+        assertTrue(BuildPlan.empty().isEmpty());
+        assertTrue(BuildPlan.builder().build().isEmpty());
+    }
+
+    @Test
+    void testDeduplicatingBuilderKeepsFirstPlace() {
+        BuildPlan plan = BuildPlan.deduplicatingBuilder()
+            .add(3L, null)
+            .add(1L, null)
+            .add(3L, null)
+            .add(2L, null)
+            .add(1L, null)
+            .build();
+
+        assertEquals(3, plan.size());
+        assertEquals(3L, plan.getPos(0));
+        assertEquals(1L, plan.getPos(1));
+        assertEquals(2L, plan.getPos(2));
+        assertEquals(1, plan.getPaletteSize());
+    }
+
+    @Test
+    void testPlainBuilderKeepsDuplicates() {
+        BuildPlan plan = BuildPlan.builder()
+            .add(3L, null)
+            .add(3L, null)
+            .build();
+
+        assertEquals(2, plan.size());
+        assertEquals(3L, plan.getPos(1));
+    }
+
+    @Test
+    void testAddAllOfDeduplicatedLayers() {
+        BuildPlan floor = BuildPlan.deduplicatingBuilder().add(1L, null).add(1L, null).add(2L, null).build();
+        BuildPlan roof = BuildPlan.deduplicatingBuilder().add(5L, null).build();
+
+        BuildPlan plan = BuildPlan.builder().addAll(floor).addAll(roof).build();
+
+        assertEquals(3, plan.size());
+        assertEquals(1L, plan.getPos(0));
+        assertEquals(2L, plan.getPos(1));
+        assertEquals(5L, plan.getPos(2));
+        assertNull(plan.getState(2));
+    }
+}